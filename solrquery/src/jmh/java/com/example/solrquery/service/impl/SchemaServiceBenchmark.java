@@ -0,0 +1,81 @@
+package com.example.solrquery.service.impl;
+
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.example.solrquery.solr.SolrBenchmarkData;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.reflect.TypeToken;
+
+// Comparación de esquemas de duplicateFields y compatibilidad de tipos de createCopyFields
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SchemaServiceBenchmark {
+
+    @Param({"100", "1000", "5000"})
+    public int fields;
+
+    // Porcentaje de campos origen que no existen en destino
+    @Param({"10", "100"})
+    public int missingPercent;
+
+    private static final String[] TYPE_NAMES = {
+        "string", "strings", "text_general", "text_es", "pint", "pints", "plong", "pdouble", "pfloat",
+        "pdate", "boolean", "location", "location_rpt", "point", "lowercase", "phonetic_en", "descendent_path"
+    };
+
+    private String sourceJson;
+    private Map<String, String> targetFields;
+
+    @Setup
+    public void setup() {
+        sourceJson = SolrBenchmarkData.fieldsJson(fields, 0);
+        int missing = fields * missingPercent / 100;
+        targetFields = new HashMap<>();
+        for (JsonObject field : parse(SolrBenchmarkData.fieldsJson(fields - missing, 0))) {
+            targetFields.put(field.get("name").getAsString(), field.get("type").getAsString());
+        }
+    }
+
+    // Incluye la lectura de /schema/fields, que duplicateFields hace en cada llamada
+    @Benchmark
+    public List<JsonObject> duplicateFieldsDiff() {
+        return SchemaServiceImpl.missingFields(parse(sourceJson), targetFields);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void isCompatibleType(Blackhole blackhole) {
+        for (String source : TYPE_NAMES) {
+            for (String dest : TYPE_NAMES) {
+                blackhole.consume(SchemaServiceImpl.isCompatibleType(source, dest));
+            }
+        }
+    }
+
+    private static List<JsonObject> parse(String json) {
+        Type listType = new TypeToken<List<JsonObject>>(){}.getType();
+        return new Gson().fromJson(json, listType);
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.solrquery.solr;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.solrquery.dto.QuerySolrRequest;
+import com.example.solrquery.entity.ClientSolr;
+
+// Construcción de la URL de /consult con UriComponentsBuilder
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QueryUrlBenchmark {
+
+    private final ClientSolr client = new ClientSolr(1L, "benchmark", "10.0.0.15", 8983);
+    private QuerySolrRequest simple;
+    private QuerySolrRequest full;
+
+    @Setup
+    public void setup() {
+        simple = request();
+        simple.setQ("*:*");
+        simple.setRows("10");
+
+        full = request();
+        // build(true) toma los parámetros como ya codificados, igual que los recibe /consult
+        full.setQ("title_t:(camisa%20OR%20pantal%C3%B3n)%20AND%20price_d:%5B10%20TO%20100%5D");
+        full.setFq("active_b:true");
+        full.setFl("id,title_t,price_d,category_s");
+        full.setStart("20");
+        full.setRows("50");
+        full.setSort("price_d desc");
+        full.setFacetField("category_s");
+        full.setFacetQuery("price_d:%5B0%20TO%2050%5D");
+        full.setJsonFacet(Map.of("brands", Map.of(
+                "type", "terms", "field", "brand_s", "limit", 20,
+                "facet", Map.of("avg_price", "avg(price_d)", "tags", List.of("a", "b")))));
+    }
+
+    @Benchmark
+    public String simpleQuery() {
+        return SolrQueryRequests.buildUrl(client, simple);
+    }
+
+    @Benchmark
+    public String fullQuery() {
+        return SolrQueryRequests.buildUrl(client, full);
+    }
+
+    private static QuerySolrRequest request() {
+        QuerySolrRequest request = new QuerySolrRequest();
+        request.setClient("benchmark");
+        request.setCore("productos");
+        request.setProtocol("http");
+        request.setQt("select");
+        return request;
+    }
+}
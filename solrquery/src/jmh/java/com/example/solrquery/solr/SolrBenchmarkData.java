@@ -0,0 +1,125 @@
+package com.example.solrquery.solr;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+// Datos sintéticos con la forma de las respuestas de Solr, fijos para poder comparar corridas
+public final class SolrBenchmarkData {
+
+    private SolrBenchmarkData() {
+    }
+
+    // Respuesta de /select con 'rows' docs, facet_counts y json.facet de 'facetBuckets' valores
+    public static String selectResponse(int rows, int facetBuckets) {
+        StringBuilder json = new StringBuilder(rows * 200 + facetBuckets * 60 + 256);
+        json.append("{\"responseHeader\":{\"status\":0,\"QTime\":3,\"params\":{\"q\":\"*:*\",\"rows\":\"")
+            .append(rows).append("\"}},");
+        json.append("\"response\":{\"numFound\":").append(rows * 10L).append(",\"start\":0,\"docs\":[");
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) json.append(',');
+            json.append("{\"id\":\"doc-").append(i)
+                .append("\",\"title_s\":\"Producto número ").append(i)
+                .append("\",\"price_d\":").append(i * 1.25)
+                .append(",\"stock_i\":").append(i % 97)
+                .append(",\"active_b\":").append(i % 2 == 0)
+                .append(",\"tags_ss\":[\"a").append(i % 7).append("\",\"b").append(i % 11).append("\"]")
+                .append(",\"_version_\":").append(1700000000000000000L + i).append('}');
+        }
+        json.append("]}");
+        if (facetBuckets > 0) {
+            json.append(",\"facet_counts\":{\"facet_queries\":{},\"facet_fields\":{\"category_s\":[");
+            for (int i = 0; i < facetBuckets; i++) {
+                if (i > 0) json.append(',');
+                json.append("\"categoria-").append(i).append("\",").append(facetBuckets - i);
+            }
+            json.append("]},\"facet_ranges\":{},\"facet_intervals\":{},\"facet_heatmaps\":{}}");
+            json.append(",\"facets\":{\"count\":").append(rows * 10L).append(",\"brands\":{\"buckets\":[");
+            for (int i = 0; i < facetBuckets; i++) {
+                if (i > 0) json.append(',');
+                json.append("{\"val\":\"marca-").append(i).append("\",\"count\":").append(facetBuckets - i)
+                    .append(",\"avg_price\":").append(10.5 + i).append('}');
+            }
+            json.append("]}}");
+        }
+        json.append('}');
+        return json.toString();
+    }
+
+    // Respuesta de /schema con 'fields' campos de tipos variados y sus fieldTypes
+    public static JsonObject schemaResponse(int fields) {
+        JsonObject schema = new JsonObject();
+        schema.addProperty("name", "benchmark");
+        schema.addProperty("version", 1.6);
+        schema.addProperty("uniqueKey", "id");
+        JsonArray types = new JsonArray();
+        for (String[] type : TYPES) {
+            JsonObject fieldType = new JsonObject();
+            fieldType.addProperty("name", type[0]);
+            fieldType.addProperty("class", type[1]);
+            types.add(fieldType);
+        }
+        schema.add("fieldTypes", types);
+        schema.add("fields", JsonParser.parseString(fieldsJson(fields, 0)).getAsJsonArray());
+        JsonObject root = new JsonObject();
+        root.add("schema", schema);
+        return root;
+    }
+
+    // Arreglo de definiciones de campos como el de /schema/fields; 'offset' desplaza los nombres
+    public static String fieldsJson(int fields, int offset) {
+        StringBuilder json = new StringBuilder("[{\"name\":\"id\",\"type\":\"string\",\"indexed\":true,\"stored\":true}");
+        for (int i = 0; i < fields; i++) {
+            String[] type = TYPES[i % TYPES.length];
+            json.append(",{\"name\":\"field_").append(i + offset).append('_').append(type[0])
+                .append("\",\"type\":\"").append(type[0]).append("\",\"indexed\":true,\"stored\":true")
+                .append(i % 5 == 0 ? ",\"multiValued\":true" : "").append('}');
+        }
+        return json.append(']').toString();
+    }
+
+    // Documentos que concuerdan con schemaResponse(fields); uno de cada 'invalidEvery' trae un valor inválido
+    public static List<Map<String, Object>> docs(int count, int fields, int invalidEvery) {
+        List<Map<String, Object>> docs = new ArrayList<>(count);
+        for (int d = 0; d < count; d++) {
+            Map<String, Object> doc = new LinkedHashMap<>();
+            doc.put("id", "doc-" + d);
+            for (int i = 0; i < fields; i++) {
+                String[] type = TYPES[i % TYPES.length];
+                doc.put("field_" + i + "_" + type[0], value(type[0], d + i));
+            }
+            if (invalidEvery > 0 && d % invalidEvery == 0 && fields > 1) {
+                doc.put("field_1_" + TYPES[1][0], "no-es-un-numero");
+            }
+            docs.add(doc);
+        }
+        return docs;
+    }
+
+    private static Object value(String type, int seed) {
+        return switch (type) {
+            case "pint" -> seed % 1000;
+            case "plong" -> (long) seed * 100_000L;
+            case "pdouble", "pfloat" -> seed * 0.5;
+            case "boolean" -> seed % 2 == 0;
+            case "pdate" -> "2024-01-" + String.format("%02d", seed % 28 + 1) + "T00:00:00Z";
+            default -> "valor " + seed;
+        };
+    }
+
+    private static final String[][] TYPES = {
+        {"string", "solr.StrField"},
+        {"pint", "solr.IntPointField"},
+        {"text_general", "solr.TextField"},
+        {"plong", "solr.LongPointField"},
+        {"pdouble", "solr.DoublePointField"},
+        {"boolean", "solr.BoolField"},
+        {"pdate", "solr.DatePointField"},
+        {"pfloat", "solr.FloatPointField"},
+    };
+}
@@ -0,0 +1,71 @@
+package com.example.solrquery.solr;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.solrquery.config.SolrValidationProperties;
+import com.example.solrquery.solr.SolrDocumentValidator.Report;
+
+// Validación de tipos de lotes grandes de documentos contra el esquema, como en /index y /copy
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SolrDocumentValidatorBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int docs;
+
+    @Param({"20"})
+    public int fields;
+
+    // 0: todos válidos
+    @Param({"0", "100"})
+    public int invalidEvery;
+
+    // Umbral de validación en paralelo; un valor alto la deja en un solo hilo
+    @Param({"2000", "1000000000"})
+    public int parallelThreshold;
+
+    private SolrDocumentValidator validator;
+    private SolrSchemaSnapshot schema;
+    private List<Map<String, Object>> batch;
+
+    @Setup
+    public void setup() {
+        SolrValidationProperties properties = new SolrValidationProperties();
+        properties.setParallelThreshold(parallelThreshold);
+        validator = new SolrDocumentValidator(properties);
+        schema = SolrSchemaSnapshot.parse(SolrBenchmarkData.schemaResponse(fields), 1);
+        batch = SolrBenchmarkData.docs(docs, fields, invalidEvery);
+    }
+
+    @Benchmark
+    public Report validate() {
+        return validator.validate(schema, batch);
+    }
+
+    @Benchmark
+    public String invalidFieldPerDocument() {
+        String last = null;
+        for (Map<String, Object> doc : batch) {
+            last = validator.invalidField(schema, doc);
+        }
+        return last;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.solrquery.solr;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.solrquery.solr.SolrResponseTransformer.Prepared;
+import com.google.gson.stream.JsonReader;
+
+// Procesamiento de la respuesta de /consult: lectura de la respuesta de Solr y escritura de docs y facets
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SolrResponseTransformerBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int rows;
+
+    @Param({"0", "50", "500"})
+    public int facetBuckets;
+
+    private final SolrResponseTransformer transformer = new SolrResponseTransformer();
+    private byte[] solrResponse;
+
+    @Setup
+    public void setup() {
+        solrResponse = SolrBenchmarkData.selectResponse(rows, facetBuckets).getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Mismo recorrido que processSolrResponse: prepare y escritura codificada en UTF-8
+    @Benchmark
+    public Prepared processSolrResponse() throws IOException {
+        JsonReader reader = new JsonReader(new InputStreamReader(new ByteArrayInputStream(solrResponse), StandardCharsets.UTF_8));
+        Prepared prepared = transformer.prepare(reader);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(OutputStream.nullOutputStream(), StandardCharsets.UTF_8));
+        transformer.write(prepared, writer);
+        // Sin flush la parte final queda en el buffer y no se codifica
+        writer.flush();
+        return prepared;
+    }
+}
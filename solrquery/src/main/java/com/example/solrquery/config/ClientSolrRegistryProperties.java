@@ -0,0 +1,24 @@
+package com.example.solrquery.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "solr.registry")
+public class ClientSolrRegistryProperties {
+
+    // Intervalo de recarga de clientes desde MySQL
+    private Duration refreshInterval = Duration.ofSeconds(30);
+
+    // Archivo local con la última copia del registro, vacío para desactivarlo
+    private String snapshotFile;
+
+    // Tiempo durante el que un cliente inexistente no se vuelve a buscar en MySQL
+    private Duration negativeTtl = Duration.ofSeconds(5);
+
+    // Máximo de nombres inexistentes recordados
+    private int maxUnknown = 10_000;
+}
@@ -0,0 +1,22 @@
+package com.example.solrquery.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+@Configuration
+public class ExecutorConfig {
+
+    // Hilos para E/S con Solr fuera del hilo de la petición; virtuales con spring.threads.virtual.enabled=true
+    @Bean(name = "solrIoExecutor", destroyMethod = "shutdownNow")
+    public ExecutorService solrIoExecutor(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        if (virtualThreads) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("solr-io-", 0).factory());
+        }
+        return Executors.newCachedThreadPool(new CustomizableThreadFactory("solr-io-"));
+    }
+}
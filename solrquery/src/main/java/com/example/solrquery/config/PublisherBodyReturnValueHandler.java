@@ -0,0 +1,79 @@
+package com.example.solrquery.config;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.ByteArrayHttpMessageConverter;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.AsyncHandlerMethodReturnValueHandler;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitterReturnValueHandler;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+// ResponseEntity<?> cuyo cuerpo es un Publisher de bytes, texto o DataBuffer: se transmite por partes
+// con el estado y los headers de la entidad. Spring MVC solo lo hace cuando el tipo declarado lo expone.
+public class PublisherBodyReturnValueHandler implements AsyncHandlerMethodReturnValueHandler {
+
+    private final ResponseBodyEmitterReturnValueHandler emitterHandler =
+            new ResponseBodyEmitterReturnValueHandler(List.of(new ByteArrayHttpMessageConverter()));
+
+    @Override
+    public boolean isAsyncReturnValue(Object returnValue, MethodParameter returnType) {
+        return returnValue instanceof ResponseEntity<?> entity && entity.getBody() instanceof Publisher<?>;
+    }
+
+    @Override
+    public boolean supportsReturnType(MethodParameter returnType) {
+        return ResponseEntity.class.isAssignableFrom(returnType.getParameterType());
+    }
+
+    @Override
+    public void handleReturnValue(Object returnValue, MethodParameter returnType,
+                                  ModelAndViewContainer mavContainer, NativeWebRequest webRequest) throws Exception {
+        ResponseEntity<?> entity = (ResponseEntity<?>) returnValue;
+        Publisher<?> body = (Publisher<?>) entity.getBody();
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter();
+        ResponseEntity<ResponseBodyEmitter> streamed = new ResponseEntity<>(emitter, entity.getHeaders(), entity.getStatusCode());
+        emitterHandler.handleReturnValue(streamed, returnType, mavContainer, webRequest);
+
+        // Escritura bloqueante del Servlet fuera de los hilos de eventos; prefetch 1 mantiene la contrapresión
+        Disposable subscription = Flux.from(body)
+                .publishOn(Schedulers.boundedElastic(), 1)
+                .subscribe(item -> {
+                    try {
+                        emitter.send(toBytes(item));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, emitter::completeWithError, emitter::complete);
+        emitter.onTimeout(subscription::dispose);
+        emitter.onError(e -> subscription.dispose());
+    }
+
+    private static byte[] toBytes(Object item) {
+        if (item instanceof byte[] bytes) {
+            return bytes;
+        }
+        if (item instanceof DataBuffer buffer) {
+            try {
+                byte[] bytes = new byte[buffer.readableByteCount()];
+                buffer.read(bytes);
+                return bytes;
+            } finally {
+                DataBufferUtils.release(buffer);
+            }
+        }
+        return item.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
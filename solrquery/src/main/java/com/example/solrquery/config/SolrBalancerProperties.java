@@ -0,0 +1,36 @@
+package com.example.solrquery.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "solr.balancer")
+public class SolrBalancerProperties {
+
+    public enum Strategy {
+        // Réplica con menos peticiones en curso
+        LEAST_IN_FLIGHT,
+        // Réplica con menor latencia media móvil ponderada por las peticiones en curso
+        EWMA
+    }
+
+    private Strategy strategy = Strategy.LEAST_IN_FLIGHT;
+
+    // Vida media de la latencia móvil: las muestras más antiguas pierden peso con este ritmo
+    private Duration ewmaDecay = Duration.ofSeconds(10);
+
+    // Fallos seguidos (error de red o 5xx) para sacar una réplica de las consultas
+    private int failuresToEject = 3;
+
+    // Tiempo fuera de las consultas antes de volver a probar la réplica
+    private Duration ejectionTime = Duration.ofSeconds(30);
+
+    // Intervalo del sondeo de las réplicas de clientes con más de un nodo
+    private Duration healthCheckInterval = Duration.ofSeconds(10);
+
+    // Tiempo máximo de conexión y respuesta del sondeo
+    private Duration healthCheckTimeout = Duration.ofSeconds(2);
+}
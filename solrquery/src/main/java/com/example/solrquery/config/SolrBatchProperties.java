@@ -0,0 +1,18 @@
+package com.example.solrquery.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "solr.batch")
+public class SolrBatchProperties {
+
+    // Consultas de un lote ejecutadas a la vez cuando la petición no indica parallelism
+    private int parallelism = 4;
+
+    // Tope para el parallelism indicado en la petición
+    private int maxParallelism = 16;
+
+    private int maxItems = 50;
+}
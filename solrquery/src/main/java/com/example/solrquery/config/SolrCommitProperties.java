@@ -0,0 +1,31 @@
+package com.example.solrquery.config;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "solr.commit")
+public class SolrCommitProperties {
+
+    public enum Mode { HARD, SOFT, COMMIT_WITHIN, COALESCE, NONE }
+
+    // Política por defecto para /index y /copy
+    private Mode mode = Mode.COMMIT_WITHIN;
+
+    // Plazo enviado a Solr en modo COMMIT_WITHIN
+    private Duration commitWithin = Duration.ofSeconds(1);
+
+    // Intervalo en el que se agrupan los commits en modo COALESCE
+    private Duration coalesceInterval = Duration.ofSeconds(1);
+
+    // En modo COALESCE enviar softCommit en lugar de commit
+    private boolean coalesceSoft = false;
+
+    // Política por cliente o por cliente y colección: solr.commit.overrides[cliente.coleccion]=SOFT
+    private Map<String, Mode> overrides = new HashMap<>();
+}
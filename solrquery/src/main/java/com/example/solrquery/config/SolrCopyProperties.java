@@ -0,0 +1,22 @@
+package com.example.solrquery.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "solr.copy")
+public class SolrCopyProperties {
+
+    // Documentos por página de lectura y por envío a la colección destino
+    private int batchSize = 500;
+
+    // Límite superior para el batchSize solicitado
+    private int maxBatchSize = 5000;
+
+    // Lotes leídos en espera de ser escritos
+    private int queueCapacity = 2;
+
+    // Trabajos de copia en segundo plano simultáneos por nodo Solr
+    private int maxJobsPerNode = 2;
+}
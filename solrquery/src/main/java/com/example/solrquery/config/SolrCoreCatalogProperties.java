@@ -0,0 +1,27 @@
+package com.example.solrquery.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "solr.core-catalog")
+public class SolrCoreCatalogProperties {
+
+    // Vigencia del listado de colecciones de un nodo
+    private Duration ttl = Duration.ofSeconds(60);
+
+    // Tiempo mínimo antes de volver a consultar Solr por una colección no encontrada
+    private Duration negativeTtl = Duration.ofSeconds(5);
+
+    // Tras un STATUS fallido se mantiene el último listado (o la ausencia de colecciones) durante este tiempo
+    private Duration failureBackoff = Duration.ofSeconds(5);
+
+    // Intervalo de refresco en segundo plano
+    private Duration refreshInterval = Duration.ofSeconds(30);
+
+    // Nodos sin consultas durante este tiempo salen de la caché
+    private Duration idleEviction = Duration.ofMinutes(10);
+}
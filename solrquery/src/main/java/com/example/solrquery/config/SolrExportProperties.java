@@ -0,0 +1,16 @@
+package com.example.solrquery.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "solr.export")
+public class SolrExportProperties {
+
+    // Docs por página al paginar con cursorMark
+    private int batchSize = 1000;
+
+    // Usar el handler /export de Solr cuando fl y sort tienen docValues
+    private boolean useExportHandler = true;
+}
@@ -0,0 +1,20 @@
+package com.example.solrquery.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "solr.federated")
+public class SolrFederatedProperties {
+
+    // Espera máxima por colección; las que no responden a tiempo quedan fuera del resultado
+    private Duration targetTimeout = Duration.ofSeconds(5);
+
+    private int maxTargets = 50;
+
+    // start + rows máximo: cada colección devuelve la ventana completa para la mezcla
+    private int maxWindow = 1000;
+}
@@ -0,0 +1,27 @@
+package com.example.solrquery.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "solr.hedging")
+public class SolrHedgingProperties {
+
+    // Duplicado de las consultas de /consult en otra réplica cuando el nodo elegido tarda
+    private boolean enabled = false;
+
+    // Percentil de la latencia observada a partir del cual se envía el duplicado
+    private double percentile = 0.95;
+
+    // Espera mínima antes de duplicar, para colecciones muy rápidas
+    private Duration minDelay = Duration.ofMillis(5);
+
+    // Duplicados permitidos por cada 100 consultas, para no multiplicar la carga en un nodo lento
+    private double budgetPercent = 10;
+
+    // Duplicados acumulables en periodos sin duplicar
+    private int budgetBurst = 20;
+}
@@ -0,0 +1,33 @@
+package com.example.solrquery.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "solr.http")
+public class SolrHttpProperties {
+
+    // Tiempo máximo para establecer la conexión con el nodo Solr
+    private Duration connectTimeout = Duration.ofSeconds(5);
+
+    // Tiempo máximo de espera de la respuesta de Solr
+    private Duration readTimeout = Duration.ofSeconds(60);
+
+    // Tiempo máximo de espera por una conexión libre del pool
+    private Duration connectionRequestTimeout = Duration.ofSeconds(5);
+
+    // Conexiones inactivas por más de este tiempo se cierran
+    private Duration idleTimeout = Duration.ofSeconds(30);
+
+    // Conexiones simultáneas por nodo Solr (ip:puerto)
+    private int maxConnectionsPerNode = 50;
+
+    // Peticiones simultáneas por nodo Solr; un nodo lento no ocupa todos los hilos de la aplicación
+    private int maxConcurrentPerNode = 40;
+
+    // Espera máxima por un cupo del nodo antes de rechazar la petición con 503
+    private Duration bulkheadWait = Duration.ofMillis(500);
+}
@@ -0,0 +1,19 @@
+package com.example.solrquery.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "solr.ingest")
+public class SolrIngestProperties {
+
+    // Documentos por envío a /update en la indexación por flujo
+    private int batchSize = 1000;
+
+    // Límite superior para el batchSize solicitado
+    private int maxBatchSize = 10000;
+
+    // Errores de documentos incluidos en el resumen
+    private int maxReportedErrors = 100;
+}
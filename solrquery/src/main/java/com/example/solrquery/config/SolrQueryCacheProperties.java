@@ -0,0 +1,38 @@
+package com.example.solrquery.config;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "solr.query-cache")
+public class SolrQueryCacheProperties {
+
+    private boolean enabled = true;
+
+    // Memoria total de las respuestas guardadas
+    private DataSize maxSize = DataSize.ofMegabytes(64);
+
+    // Respuestas más grandes no se guardan
+    private DataSize maxEntrySize = DataSize.ofMegabytes(1);
+
+    // Solo se materializan (y se guardan) consultas con rows menor o igual a este valor
+    private int maxRows = 100;
+
+    // Vigencia por defecto de una respuesta guardada
+    private Duration ttl = Duration.ofSeconds(30);
+
+    // Vigencia por cliente o por cliente y colección: solr.query-cache.ttls[cliente.coleccion]=5m
+    private Map<String, Duration> ttls = new HashMap<>();
+
+    // Tras una escritura no se guardan respuestas de la colección hasta que Solr las haga visibles
+    private Duration writeSettle = Duration.ofSeconds(2);
+
+    // Sin escrituras durante este tiempo se deja de seguir la generación de la colección
+    private Duration idleEviction = Duration.ofMinutes(10);
+}
@@ -0,0 +1,22 @@
+package com.example.solrquery.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "solr.query")
+public class SolrQueryProperties {
+
+    public enum Mode {
+        // RestTemplate con un hilo por petición (QuerySolrServiceImpl)
+        BLOCKING,
+        // WebClient sin bloqueo sobre pocos hilos de eventos (ReactiveQuerySolrServiceImpl)
+        REACTIVE
+    }
+
+    private Mode mode = Mode.BLOCKING;
+
+    // Hilos de eventos del cliente HTTP reactivo
+    private int eventLoopThreads = 2;
+}
@@ -0,0 +1,18 @@
+package com.example.solrquery.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "solr.schema-cache")
+public class SolrSchemaCacheProperties {
+
+    // Durante este tiempo el esquema en caché se usa sin consultar a Solr
+    private Duration revalidateAfter = Duration.ofSeconds(10);
+
+    // Vigencia cuando Solr no expone versión del esquema (modo standalone)
+    private Duration maxAge = Duration.ofMinutes(5);
+}
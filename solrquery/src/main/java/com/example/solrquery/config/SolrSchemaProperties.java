@@ -0,0 +1,13 @@
+package com.example.solrquery.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "solr.schema")
+public class SolrSchemaProperties {
+
+    // Especificaciones admitidas por petición en /createCopyFields/bulk
+    private int maxCopyFields = 500;
+}
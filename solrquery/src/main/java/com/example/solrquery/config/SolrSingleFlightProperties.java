@@ -0,0 +1,20 @@
+package com.example.solrquery.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "solr.single-flight")
+public class SolrSingleFlightProperties {
+
+    private boolean enabled = true;
+
+    // Peticiones que pueden esperar una misma llamada; las siguientes consultan a Solr por su cuenta
+    private int maxWaiters = 200;
+
+    // Espera máxima de una petición unida a una llamada en curso
+    private Duration waitTimeout = Duration.ofSeconds(10);
+}
@@ -0,0 +1,30 @@
+package com.example.solrquery.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "solr.timeout")
+public class SolrTimeoutProperties {
+
+    // Timeout de las consultas de /consult según la latencia observada de cada colección y nodo;
+    // sin muestras suficientes, y siempre en copias, cursores y exportaciones, se usa solr.http.read-timeout
+    private boolean adaptive = true;
+
+    // Percentil de la latencia observada que sirve de base al timeout
+    private double percentile = 0.99;
+
+    // El timeout es el percentil por este factor, entre min-timeout y solr.http.read-timeout
+    private double multiplier = 3.0;
+
+    private Duration minTimeout = Duration.ofSeconds(1);
+
+    // Últimas respuestas que se guardan por colección y nodo
+    private int window = 1000;
+
+    // Respuestas necesarias antes de usar los percentiles observados
+    private int minSamples = 50;
+}
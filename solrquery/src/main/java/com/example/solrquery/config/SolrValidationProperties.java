@@ -0,0 +1,16 @@
+package com.example.solrquery.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "solr.validation")
+public class SolrValidationProperties {
+
+    // Documentos a partir de los cuales la validación se reparte entre núcleos
+    private int parallelThreshold = 2000;
+
+    // Errores de documentos incluidos en el reporte de validación
+    private int maxReportedErrors = 100;
+}
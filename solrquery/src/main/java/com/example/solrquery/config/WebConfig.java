@@ -0,0 +1,63 @@
+package com.example.solrquery.config;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    // Los servicios devuelven ResponseEntity<?>; con el tipo genérico oculto Spring no reconoce
+    // un StreamingResponseBody como cuerpo y lo serializaría con Jackson
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(0, new StreamingResponseBodyConverter());
+    }
+
+    // Mismo caso con cuerpos Publisher de la consulta reactiva
+    @Override
+    public void addReturnValueHandlers(List<HandlerMethodReturnValueHandler> handlers) {
+        handlers.add(new PublisherBodyReturnValueHandler());
+    }
+
+    static class StreamingResponseBodyConverter implements HttpMessageConverter<StreamingResponseBody> {
+
+        @Override
+        public boolean canRead(Class<?> clazz, MediaType mediaType) {
+            return false;
+        }
+
+        @Override
+        public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+            return StreamingResponseBody.class.isAssignableFrom(clazz);
+        }
+
+        @Override
+        public List<MediaType> getSupportedMediaTypes() {
+            return List.of(MediaType.ALL);
+        }
+
+        @Override
+        public StreamingResponseBody read(Class<? extends StreamingResponseBody> clazz, HttpInputMessage inputMessage) {
+            throw new HttpMessageNotReadableException("StreamingResponseBody solo se usa en respuestas", inputMessage);
+        }
+
+        @Override
+        public void write(StreamingResponseBody body, MediaType contentType, HttpOutputMessage outputMessage)
+                throws IOException {
+            if (contentType != null && outputMessage.getHeaders().getContentType() == null) {
+                outputMessage.getHeaders().setContentType(contentType);
+            }
+            body.writeTo(outputMessage.getBody());
+        }
+    }
+}
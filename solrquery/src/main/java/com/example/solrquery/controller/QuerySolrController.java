@@ -1,23 +1,37 @@
 package com.example.solrquery.controller;
 
+import java.io.IOException;
+import java.util.List;
+
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.solrquery.config.SolrQueryProperties;
 import com.example.solrquery.dto.CopySolrRequest;
+import com.example.solrquery.dto.CreateCopyFieldsBulkRequest;
 import com.example.solrquery.dto.CreateCopyFieldsRequest;
 import com.example.solrquery.dto.DuplicateFieldsRequest;
+import com.example.solrquery.dto.FederatedQueryRequest;
 import com.example.solrquery.dto.IndexSolrRequest;
 import com.example.solrquery.dto.QuerySolrRequest;
+import com.example.solrquery.service.BatchQuerySolrService;
+import com.example.solrquery.service.ExportSolrService;
+import com.example.solrquery.service.FederatedQueryService;
+import com.example.solrquery.service.QuerySolrService;
 import com.example.solrquery.service.impl.CopySolrServiceImpl;
 import com.example.solrquery.service.impl.IndexSolrServiceImpl;
-import com.example.solrquery.service.impl.QuerySolrServiceImpl;
 import com.example.solrquery.service.impl.SchemaServiceImpl;
 
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 
 
 @RestController
@@ -26,23 +40,71 @@ import org.springframework.web.bind.annotation.RequestBody;
 public class QuerySolrController {
 
   private final IndexSolrServiceImpl indexSolrService;
-  private final QuerySolrServiceImpl querySolrService;
+  private final QuerySolrService querySolrService;
+  private final FederatedQueryService federatedQueryService;
+  private final BatchQuerySolrService batchQuerySolrService;
+  private final ExportSolrService exportSolrService;
   private final CopySolrServiceImpl copySolrService;
   private final SchemaServiceImpl schemaService;
+  private final SolrQueryProperties solrQueryProperties;
 
   @PostMapping("/index")
     public ResponseEntity<?> indexSolr(@RequestBody IndexSolrRequest request) {
         return indexSolrService.index(request);
   }
 
+  @PostMapping("/index/stream")
+  public ResponseEntity<?> indexSolrStream(@RequestParam(required = false) String client,
+                                           @RequestParam(required = false) String core,
+                                           @RequestParam(required = false) Integer batchSize,
+                                           @RequestParam(required = false) Boolean commit,
+                                           HttpServletRequest request) throws IOException {
+    return indexSolrService.indexStream(client, core, batchSize, commit, request.getInputStream());
+  }
+
   @PostMapping("/copy")
     public ResponseEntity<?> copySolr(@RequestBody CopySolrRequest request) {
         return copySolrService.copy(request);
     }
 
+  @GetMapping("/copy/jobs/{id}")
+  public ResponseEntity<?> copyJobStatus(@PathVariable Long id) {
+    return copySolrService.jobStatus(id);
+  }
+
+  @PostMapping("/copy/jobs/{id}/cancel")
+  public ResponseEntity<?> cancelCopyJob(@PathVariable Long id) {
+    return copySolrService.cancelJob(id);
+  }
+
+  // Modo bloqueante: ResponseEntity<?> resuelto en el hilo de la petición, sin despacho asíncrono.
+  // Modo reactivo: Mono<ResponseEntity<?>>; Spring MVC elige el manejador por el tipo del valor devuelto.
   @PostMapping("/consult")
-  public ResponseEntity<?> consultSolr(@RequestBody QuerySolrRequest request) {
-    return querySolrService.consult(request);
+  public Object consultSolr(@RequestBody QuerySolrRequest request,
+                            @RequestHeader(value = QuerySolrService.CACHE_HEADER, required = false) String cache) {
+    boolean useCache = !"bypass".equalsIgnoreCase(cache);
+    if (solrQueryProperties.getMode() == SolrQueryProperties.Mode.REACTIVE) {
+      return querySolrService.consultReactive(request, useCache);
+    }
+    return querySolrService.consult(request, useCache);
+  }
+
+  @PostMapping("/consult/batch")
+  public ResponseEntity<?> consultBatch(@RequestBody List<QuerySolrRequest> requests,
+                                        @RequestParam(required = false) Integer parallelism,
+                                        @RequestHeader(value = QuerySolrService.CACHE_HEADER, required = false) String cache) {
+    return batchQuerySolrService.consultBatch(requests, parallelism, !"bypass".equalsIgnoreCase(cache));
+  }
+
+  @PostMapping("/consult/federated")
+  public ResponseEntity<?> consultFederated(@RequestBody FederatedQueryRequest request) {
+    return federatedQueryService.consult(request);
+  }
+
+  @PostMapping("/export")
+  public ResponseEntity<?> exportSolr(@RequestBody QuerySolrRequest request,
+                                      @RequestParam(required = false) String method) {
+    return exportSolrService.export(request, method);
   }
 
   @PostMapping("/duplicateFields")
@@ -54,5 +116,10 @@ public class QuerySolrController {
   public ResponseEntity<?> createCopyFieldsSolr(@RequestBody CreateCopyFieldsRequest request){
     return schemaService.createCopyFields(request);
   }
+
+  @PostMapping("/createCopyFields/bulk")
+  public ResponseEntity<?> createCopyFieldsBulkSolr(@RequestBody CreateCopyFieldsBulkRequest request){
+    return schemaService.createCopyFieldsBulk(request);
+  }
   
 }
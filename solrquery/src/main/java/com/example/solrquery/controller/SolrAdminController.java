@@ -0,0 +1,135 @@
+package com.example.solrquery.controller;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.solrquery.repository.ClientSolrRegistry;
+import com.example.solrquery.solr.SolrCommitCoordinator;
+import com.example.solrquery.solr.SolrCoreCatalog;
+import com.example.solrquery.solr.SolrEndpointBalancer;
+import com.example.solrquery.solr.SolrHedger;
+import com.example.solrquery.solr.SolrHttpTransport;
+import com.example.solrquery.solr.SolrLatencyTracker;
+import com.example.solrquery.solr.SolrNodeJobExecutor;
+import com.example.solrquery.solr.SolrQueryResultCache;
+import com.example.solrquery.solr.SolrReactiveTransport;
+import com.example.solrquery.solr.SolrSchemaCache;
+import com.example.solrquery.solr.SolrSingleFlight;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("api/solr/admin")
+@RequiredArgsConstructor
+public class SolrAdminController {
+
+  private final ClientSolrRegistry clientSolrRegistry;
+  private final SolrHttpTransport solrHttpTransport;
+  private final SolrCoreCatalog solrCoreCatalog;
+  private final SolrSchemaCache solrSchemaCache;
+  private final SolrNodeJobExecutor solrNodeJobExecutor;
+  private final SolrCommitCoordinator solrCommitCoordinator;
+  private final SolrQueryResultCache solrQueryResultCache;
+  private final SolrSingleFlight solrSingleFlight;
+  private final SolrEndpointBalancer solrEndpointBalancer;
+  private final SolrLatencyTracker solrLatencyTracker;
+  private final SolrHedger solrHedger;
+  private final ObjectProvider<SolrReactiveTransport> solrReactiveTransport;
+
+  @GetMapping("/registry")
+  public ResponseEntity<?> registryStats() {
+    return ResponseEntity.ok(clientSolrRegistry.stats());
+  }
+
+  // Recarga del registro tras modificar clientes o réplicas en MySQL
+  @PostMapping("/registry/refresh")
+  public ResponseEntity<?> refreshRegistry() {
+    if (!clientSolrRegistry.refresh() || !solrEndpointBalancer.refresh()) {
+      return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+          .body("No se pudo recargar el registro de clientes desde MySQL");
+    }
+    return ResponseEntity.ok(clientSolrRegistry.stats());
+  }
+
+  // Réplicas por cliente con peticiones en curso, latencia y expulsiones
+  @GetMapping("/balancer")
+  public ResponseEntity<?> balancerStats() {
+    return ResponseEntity.ok(solrEndpointBalancer.stats());
+  }
+
+  // Percentiles y timeout adaptativo por colección y nodo, y consultas duplicadas
+  @GetMapping("/latency")
+  public ResponseEntity<?> latencyStats() {
+    Map<String, Object> stats = new LinkedHashMap<>();
+    stats.put("cores", solrLatencyTracker.stats());
+    stats.put("hedging", solrHedger.stats());
+    return ResponseEntity.ok(stats);
+  }
+
+  @GetMapping("/transport")
+  public ResponseEntity<?> transportStats() {
+    return ResponseEntity.ok(solrHttpTransport.poolStats());
+  }
+
+  // En modo reactivo los cupos del cliente de /consult van aparte, con el prefijo "reactive/"
+  @GetMapping("/bulkheads")
+  public ResponseEntity<?> bulkheadStats() {
+    Map<String, Object> stats = new LinkedHashMap<>(solrHttpTransport.bulkheadStats());
+    solrReactiveTransport.ifAvailable(transport ->
+        transport.bulkheadStats().forEach((node, nodeStats) -> stats.put("reactive/" + node, nodeStats)));
+    return ResponseEntity.ok(stats);
+  }
+
+  @GetMapping("/cores")
+  public ResponseEntity<?> coreCatalogStats() {
+    return ResponseEntity.ok(solrCoreCatalog.stats());
+  }
+
+  // Invalidación del listado de colecciones tras crear o renombrar colecciones en Solr
+  @DeleteMapping("/cores")
+  public ResponseEntity<?> invalidateCoreCatalog() {
+    solrCoreCatalog.invalidateAll();
+    return ResponseEntity.noContent().build();
+  }
+
+  @GetMapping("/schemas")
+  public ResponseEntity<?> schemaCacheStats() {
+    return ResponseEntity.ok(solrSchemaCache.stats());
+  }
+
+  @GetMapping("/commits")
+  public ResponseEntity<?> commitStats() {
+    return ResponseEntity.ok(solrCommitCoordinator.stats());
+  }
+
+  @GetMapping("/query-cache")
+  public ResponseEntity<?> queryCacheStats() {
+    return ResponseEntity.ok(solrQueryResultCache.stats());
+  }
+
+  @DeleteMapping("/query-cache")
+  public ResponseEntity<?> clearQueryCache() {
+    solrQueryResultCache.clear();
+    return ResponseEntity.noContent().build();
+  }
+
+  @GetMapping("/single-flight")
+  public ResponseEntity<?> singleFlightStats() {
+    return ResponseEntity.ok(solrSingleFlight.stats());
+  }
+
+  @GetMapping("/jobs")
+  public ResponseEntity<?> jobExecutorStats() {
+    return ResponseEntity.ok(solrNodeJobExecutor.stats());
+  }
+
+}
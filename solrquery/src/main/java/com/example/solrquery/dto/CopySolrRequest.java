@@ -21,4 +21,14 @@ public class CopySolrRequest {
     private String fl;
     private String start;
     private String rows;
+
+    // Copia completa paginando con cursorMark en lotes de batchSize
+    private Boolean stream;
+    private Integer batchSize;
+
+    // Copia por lotes en segundo plano, responde con el id del trabajo
+    private Boolean async;
+
+    // true: commit inmediato, false: sin commit, vacío: política configurada
+    private Boolean commit;
 }
@@ -0,0 +1,27 @@
+package com.example.solrquery.dto;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class CreateCopyFieldsBulkRequest {
+
+  @NotBlank(message = "El cliente es obligatorio")
+  private String client;
+
+  @NotBlank(message = "La colección origen es obligatoria")
+  private String core;
+
+  // Se validan todas contra el mismo esquema y las válidas se crean en un solo envío a la Schema API
+  private List<CopyFieldSpec> copyFields;
+
+  @Data
+  public static class CopyFieldSpec {
+    private String field;
+    private String typeCopyField;
+    private String fieldToCopy;
+    private Integer maxChars = 256;
+  }
+}
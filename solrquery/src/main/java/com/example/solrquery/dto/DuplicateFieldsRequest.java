@@ -15,4 +15,11 @@ public class DuplicateFieldsRequest {
   @NotBlank(message = "La colección destino es obligatoria")
   private String targetCore;
 
+  // Secciones opcionales del esquema que también se copian al destino
+  private Boolean includeDynamicFields;
+
+  private Boolean includeFieldTypes;
+
+  private Boolean includeCopyFields;
+
 }
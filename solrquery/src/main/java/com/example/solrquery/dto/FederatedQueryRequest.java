@@ -0,0 +1,37 @@
+package com.example.solrquery.dto;
+
+import java.util.List;
+import java.util.Map;
+
+import lombok.Data;
+
+@Data
+public class FederatedQueryRequest {
+
+    // Colecciones consultadas en paralelo; la consulta es la misma para todas
+    private List<Target> targets;
+
+    private String protocol;
+    private String qt;
+    private String q;
+    private String fq;
+    private String sort;
+    private String start;
+    private String rows;
+    private String fl;
+    private Map<String, Object> jsonFacet;
+    private String facetQuery;
+    private String facetField;
+
+    // Espera máxima por colección en milisegundos; vacío: solr.federated.target-timeout
+    private Long timeoutMs;
+
+    @Data
+    public static class Target {
+        private String client;
+        private String core;
+
+        // Reemplaza timeoutMs solo para esta colección
+        private Long timeoutMs;
+    }
+}
@@ -19,4 +19,7 @@ public class IndexSolrRequest {
   @NotEmpty(message = "Debe proveer al menos un documento para indexar")
   private List<Map<String, Object>> docs;
 
+  // true: commit inmediato, false: sin commit, vacío: política configurada
+  private Boolean commit;
+
 }
@@ -0,0 +1,37 @@
+package com.example.solrquery.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Réplica de un cliente Solr; sin filas el cliente usa solo su ip y puerto
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name="cliente_solr_nodo")
+public class ClientSolrEndpoint {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(name = "cliente_id", nullable = false)
+  private Long clientId;
+
+  @Column(name = "ip", nullable = false)
+  private String ip;
+
+  @Column(name = "puerto", nullable = false)
+  private Integer port;
+
+  // Nodo que recibe las escrituras (indexación, copias y cambios de esquema)
+  @Column(name = "lider", nullable = false)
+  private boolean leader;
+}
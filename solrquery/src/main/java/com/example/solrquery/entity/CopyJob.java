@@ -0,0 +1,85 @@
+package com.example.solrquery.entity;
+
+import java.time.Instant;
+
+import com.example.solrquery.config.SolrCommitProperties;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name="copia_solr_trabajo")
+public class CopyJob {
+
+  public enum Status { QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED }
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(name = "cliente", nullable = false)
+  private String client;
+
+  @Column(name = "coleccion_origen", nullable = false)
+  private String sourceCore;
+
+  @Column(name = "coleccion_destino", nullable = false)
+  private String targetCore;
+
+  @Column(name = "q", length = 2000)
+  private String q;
+
+  @Column(name = "fq", length = 2000)
+  private String fq;
+
+  @Column(name = "fl", length = 2000)
+  private String fl;
+
+  @Column(name = "orden")
+  private String sort;
+
+  @Column(name = "tamano_lote", nullable = false)
+  private Integer batchSize;
+
+  @Column(name = "max_docs", nullable = false)
+  private Long maxDocs = 0L;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "modo_commit")
+  private SolrCommitProperties.Mode commitMode;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "estado", nullable = false)
+  private Status status = Status.QUEUED;
+
+  @Column(name = "docs_leidos", nullable = false)
+  private Long docsRead = 0L;
+
+  @Column(name = "docs_escritos", nullable = false)
+  private Long docsWritten = 0L;
+
+  @Column(name = "cursor_mark", length = 1000)
+  private String cursorMark;
+
+  @Column(name = "docs_por_segundo")
+  private Double docsPerSecond;
+
+  @Column(name = "error", length = 2000)
+  private String error;
+
+  @Column(name = "creado", nullable = false)
+  private Instant createdAt = Instant.now();
+
+  @Column(name = "actualizado", nullable = false)
+  private Instant updatedAt = Instant.now();
+}
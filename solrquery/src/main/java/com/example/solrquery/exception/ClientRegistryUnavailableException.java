@@ -0,0 +1,11 @@
+package com.example.solrquery.exception;
+
+// MySQL no respondió y el cliente no está en el registro en memoria: no se sabe si existe
+public class ClientRegistryUnavailableException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ClientRegistryUnavailableException(String name, Throwable cause) {
+        super("No se pudo consultar el cliente " + name + " en el registro, intente nuevamente", cause);
+    }
+}
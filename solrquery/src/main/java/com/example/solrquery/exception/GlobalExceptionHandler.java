@@ -36,4 +36,24 @@ public class GlobalExceptionHandler {
                 .body(fallback);
     }
 
+    // Sin cupo en el nodo Solr: el cliente puede reintentar
+    @ExceptionHandler(SolrNodeBusyException.class)
+    public ResponseEntity<Map<String, String>> handleNodeBusy(SolrNodeBusyException ex) {
+        Map<String,String> error = new LinkedHashMap<>();
+        error.put("error", ex.getMessage());
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(error);
+    }
+
+    // Registro de clientes sin acceso a MySQL: el cliente puede reintentar
+    @ExceptionHandler(ClientRegistryUnavailableException.class)
+    public ResponseEntity<Map<String, String>> handleRegistryUnavailable(ClientRegistryUnavailableException ex) {
+        Map<String,String> error = new LinkedHashMap<>();
+        error.put("error", ex.getMessage());
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(error);
+    }
+
 }
@@ -0,0 +1,11 @@
+package com.example.solrquery.exception;
+
+// El nodo Solr no tiene cupo para otra petición simultánea
+public class SolrNodeBusyException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public SolrNodeBusyException(String nodeKey) {
+        super("El nodo Solr " + nodeKey + " está saturado, intente nuevamente");
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.solrquery.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.example.solrquery.entity.ClientSolrEndpoint;
+
+public interface ClientSolrEndpointRepository extends JpaRepository<ClientSolrEndpoint, Long> {
+  List<ClientSolrEndpoint> findByClientId(Long clientId);
+}
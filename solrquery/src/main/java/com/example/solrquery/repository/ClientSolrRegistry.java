@@ -0,0 +1,185 @@
+package com.example.solrquery.repository;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.solrquery.config.ClientSolrRegistryProperties;
+import com.example.solrquery.entity.ClientSolr;
+import com.example.solrquery.exception.ClientRegistryUnavailableException;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ClientSolrRegistry {
+
+    private final ClientSolrRepository clientSolrRepository;
+    private final ClientSolrRegistryProperties properties;
+    private final Gson gson = new Gson();
+
+    private volatile Map<String, ClientSolr> clients = Map.of();
+    private volatile long loadedAt;
+    private volatile String source = "vacío";
+    // Nombres que no existen en MySQL, con el instante hasta el que no se vuelven a consultar
+    private final Map<String, Long> unknown = new ConcurrentHashMap<>();
+    // Una sola recarga a la vez; la lectura de MySQL no bloquea las búsquedas
+    private final Object refreshLock = new Object();
+    // Clientes registrados durante la recarga en curso; protegido por el cerrojo de la instancia
+    private Map<String, ClientSolr> registeredDuringRefresh;
+
+    @PostConstruct
+    public void init() {
+        if (!refresh()) {
+            loadSnapshotFile();
+        }
+    }
+
+    // Búsqueda de cliente en el registro, con lectura en MySQL si no está cargado
+    public Optional<ClientSolr> findByName(String name) {
+        ClientSolr client = clients.get(name);
+        if (client != null) {
+            return Optional.of(client);
+        }
+        Long unknownUntil = unknown.get(name);
+        if (unknownUntil != null && unknownUntil > System.currentTimeMillis()) {
+            return Optional.empty();
+        }
+        try {
+            Optional<ClientSolr> found = clientSolrRepository.findByName(name).map(this::detach);
+            if (found.isPresent()) {
+                register(found.get());
+            } else if (unknown.size() < properties.getMaxUnknown()) {
+                unknown.put(name, System.currentTimeMillis() + properties.getNegativeTtl().toMillis());
+            }
+            return found;
+        } catch (Exception e) {
+            // Sin MySQL no se sabe si el cliente existe: no se guarda como desconocido
+            log.warn("No se pudo consultar el cliente '{}' en MySQL y no está en el registro en memoria", name, e);
+            throw new ClientRegistryUnavailableException(name, e);
+        }
+    }
+
+    // Solo el registro en memoria, sin acceso a MySQL
+    public Optional<ClientSolr> findLoaded(String name) {
+        return Optional.ofNullable(clients.get(name));
+    }
+
+    @Scheduled(fixedDelayString = "${solr.registry.refresh-interval:30s}",
+               initialDelayString = "${solr.registry.refresh-interval:30s}")
+    public void scheduledRefresh() {
+        refresh();
+    }
+
+    // Recarga completa desde MySQL, conserva el registro anterior si falla.
+    // La lectura se hace fuera del cerrojo de register; los clientes registrados mientras tanto se conservan
+    public boolean refresh() {
+        synchronized (refreshLock) {
+            synchronized (this) {
+                registeredDuringRefresh = new HashMap<>();
+            }
+            try {
+                Map<String, ClientSolr> loaded = new HashMap<>();
+                for (ClientSolr client : clientSolrRepository.findAll()) {
+                    loaded.put(client.getName(), detach(client));
+                }
+                synchronized (this) {
+                    registeredDuringRefresh.forEach(loaded::putIfAbsent);
+                    clients = Map.copyOf(loaded);
+                    loadedAt = System.currentTimeMillis();
+                    source = "mysql";
+                }
+                unknown.keySet().removeAll(loaded.keySet());
+                unknown.values().removeIf(until -> until <= loadedAt);
+                writeSnapshotFile();
+                return true;
+            } catch (Exception e) {
+                log.error("Error recargando clientes Solr desde MySQL, se mantienen {} clientes en memoria",
+                          clients.size(), e);
+                return false;
+            } finally {
+                synchronized (this) {
+                    registeredDuringRefresh = null;
+                }
+            }
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("clients", clients.size());
+        stats.put("unknown", unknown.size());
+        stats.put("source", source);
+        stats.put("ageMs", loadedAt == 0 ? null : System.currentTimeMillis() - loadedAt);
+        return stats;
+    }
+
+    private synchronized void register(ClientSolr client) {
+        Map<String, ClientSolr> updated = new HashMap<>(clients);
+        updated.put(client.getName(), client);
+        clients = Map.copyOf(updated);
+        if (registeredDuringRefresh != null) {
+            registeredDuringRefresh.put(client.getName(), client);
+        }
+        unknown.remove(client.getName());
+    }
+
+    private ClientSolr detach(ClientSolr client) {
+        return new ClientSolr(client.getId(), client.getName(), client.getIp(), client.getPort());
+    }
+
+    private void writeSnapshotFile() {
+        if (properties.getSnapshotFile() == null || properties.getSnapshotFile().isBlank()) {
+            return;
+        }
+        Path file = Path.of(properties.getSnapshotFile());
+        try {
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.writeString(tmp, gson.toJson(clients.values()), StandardCharsets.UTF_8);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("No se pudo guardar la copia local del registro en {}", file, e);
+        }
+    }
+
+    private void loadSnapshotFile() {
+        if (properties.getSnapshotFile() == null || properties.getSnapshotFile().isBlank()) {
+            return;
+        }
+        Path file = Path.of(properties.getSnapshotFile());
+        if (!Files.exists(file)) {
+            return;
+        }
+        try {
+            Type listType = new TypeToken<List<ClientSolr>>(){}.getType();
+            List<ClientSolr> saved = gson.fromJson(Files.readString(file, StandardCharsets.UTF_8), listType);
+            Map<String, ClientSolr> loaded = new HashMap<>();
+            for (ClientSolr client : saved) {
+                loaded.put(client.getName(), client);
+            }
+            clients = Map.copyOf(loaded);
+            loadedAt = Files.getLastModifiedTime(file).toMillis();
+            source = "snapshot";
+            log.warn("Registro de clientes Solr cargado desde copia local {} ({} clientes)", file, clients.size());
+        } catch (Exception e) {
+            log.error("No se pudo leer la copia local del registro en {}", file, e);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.solrquery.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.solrquery.entity.CopyJob;
+
+public interface CopyJobRepository extends JpaRepository<CopyJob, Long>{
+  List<CopyJob> findByStatusIn(Collection<CopyJob.Status> statuses);
+
+  // Avance de un trabajo en ejecución sin tocar su estado; 0 filas si entretanto se canceló
+  @Modifying
+  @Transactional
+  @Query("update CopyJob j set j.docsRead = :docsRead, j.docsWritten = :docsWritten, j.cursorMark = :cursorMark,"
+       + " j.docsPerSecond = :docsPerSecond, j.updatedAt = :updatedAt"
+       + " where j.id = :id and j.status = com.example.solrquery.entity.CopyJob.Status.RUNNING")
+  int updateProgress(@Param("id") Long id, @Param("docsRead") Long docsRead, @Param("docsWritten") Long docsWritten,
+                     @Param("cursorMark") String cursorMark, @Param("docsPerSecond") Double docsPerSecond,
+                     @Param("updatedAt") Instant updatedAt);
+
+  // Cancelación sin sobrescribir el avance; 0 filas si el trabajo ya terminó.
+  // Se vacía el contexto para que la siguiente lectura de la misma petición vea el estado guardado
+  @Modifying(clearAutomatically = true)
+  @Transactional
+  @Query("update CopyJob j set j.status = com.example.solrquery.entity.CopyJob.Status.CANCELLED, j.updatedAt = :updatedAt"
+       + " where j.id = :id and j.status in (com.example.solrquery.entity.CopyJob.Status.QUEUED,"
+       + " com.example.solrquery.entity.CopyJob.Status.RUNNING)")
+  int cancel(@Param("id") Long id, @Param("updatedAt") Instant updatedAt);
+
+  // Paso a un nuevo estado solo desde los estados indicados; 0 filas si entretanto cambió
+  @Modifying
+  @Transactional
+  @Query("update CopyJob j set j.status = :status, j.error = :error, j.docsRead = :docsRead,"
+       + " j.docsWritten = :docsWritten, j.cursorMark = :cursorMark, j.docsPerSecond = :docsPerSecond,"
+       + " j.updatedAt = :updatedAt where j.id = :id and j.status in :from")
+  int transition(@Param("id") Long id, @Param("from") Collection<CopyJob.Status> from,
+                 @Param("status") CopyJob.Status status, @Param("error") String error,
+                 @Param("docsRead") Long docsRead, @Param("docsWritten") Long docsWritten,
+                 @Param("cursorMark") String cursorMark, @Param("docsPerSecond") Double docsPerSecond,
+                 @Param("updatedAt") Instant updatedAt);
+}
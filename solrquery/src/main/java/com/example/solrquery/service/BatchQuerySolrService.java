@@ -0,0 +1,11 @@
+package com.example.solrquery.service;
+
+import java.util.List;
+
+import org.springframework.http.ResponseEntity;
+
+import com.example.solrquery.dto.QuerySolrRequest;
+
+public interface BatchQuerySolrService {
+  ResponseEntity<?> consultBatch(List<QuerySolrRequest> requests, Integer parallelism, boolean useCache);
+}
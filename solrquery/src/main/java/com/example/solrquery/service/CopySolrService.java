@@ -6,4 +6,6 @@ import com.example.solrquery.dto.CopySolrRequest;
 
 public interface CopySolrService {
   ResponseEntity<?> copy(CopySolrRequest request);
+  ResponseEntity<?> jobStatus(Long id);
+  ResponseEntity<?> cancelJob(Long id);
 }
@@ -0,0 +1,9 @@
+package com.example.solrquery.service;
+
+import org.springframework.http.ResponseEntity;
+
+import com.example.solrquery.dto.QuerySolrRequest;
+
+public interface ExportSolrService {
+  ResponseEntity<?> export(QuerySolrRequest request, String method);
+}
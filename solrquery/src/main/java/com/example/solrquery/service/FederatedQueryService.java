@@ -0,0 +1,9 @@
+package com.example.solrquery.service;
+
+import org.springframework.http.ResponseEntity;
+
+import com.example.solrquery.dto.FederatedQueryRequest;
+
+public interface FederatedQueryService {
+  ResponseEntity<?> consult(FederatedQueryRequest request);
+}
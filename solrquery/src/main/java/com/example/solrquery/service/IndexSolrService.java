@@ -1,9 +1,12 @@
 package com.example.solrquery.service;
 
+import java.io.InputStream;
+
 import org.springframework.http.ResponseEntity;
 
 import com.example.solrquery.dto.IndexSolrRequest;
 
 public interface IndexSolrService {
     ResponseEntity<?> index(IndexSolrRequest request);
+    ResponseEntity<?> indexStream(String client, String core, Integer batchSize, Boolean commit, InputStream body);
 }
@@ -4,6 +4,18 @@ import org.springframework.http.ResponseEntity;
 
 import com.example.solrquery.dto.QuerySolrRequest;
 
+import reactor.core.publisher.Mono;
+
 public interface QuerySolrService {
+
+  // Header de la respuesta con el resultado de la caché: HIT, MISS o BYPASS
+  String CACHE_HEADER = "X-Solr-Cache";
+
   ResponseEntity<?> consult(QuerySolrRequest request);
+  ResponseEntity<?> consult(QuerySolrRequest request, boolean useCache);
+
+  // La implementación bloqueante resuelve la consulta en el hilo de la petición al suscribirse
+  default Mono<ResponseEntity<?>> consultReactive(QuerySolrRequest request, boolean useCache) {
+    return Mono.fromSupplier(() -> consult(request, useCache));
+  }
 }
@@ -0,0 +1,240 @@
+package com.example.solrquery.service.impl;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import com.example.solrquery.config.SolrBatchProperties;
+import com.example.solrquery.dto.QuerySolrRequest;
+import com.example.solrquery.entity.ClientSolr;
+import com.example.solrquery.exception.ClientRegistryUnavailableException;
+import com.example.solrquery.repository.ClientSolrRegistry;
+import com.example.solrquery.service.BatchQuerySolrService;
+import com.example.solrquery.solr.SolrCoreCatalog;
+import com.example.solrquery.solr.SolrEndpointBalancer;
+import com.example.solrquery.solr.SolrQueryExecutor;
+import com.example.solrquery.solr.SolrQueryExecutor.Fetched;
+import com.example.solrquery.solr.SolrQueryRequests;
+import com.example.solrquery.solr.SolrQueryResultCache;
+import com.example.solrquery.solr.SolrQueryResultCache.Cached;
+import com.google.gson.stream.JsonWriter;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+// Varias consultas /consult en una sola petición. Cliente y colección se resuelven una vez por par y
+// las consultas se ejecutan en paralelo; cada resultado conserva su posición y su propio estado.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BatchQuerySolrServiceImpl implements BatchQuerySolrService {
+
+    private final ClientSolrRegistry clientSolrRegistry;
+    private final SolrEndpointBalancer solrEndpointBalancer;
+    private final SolrCoreCatalog solrCoreCatalog;
+    private final SolrQueryExecutor solrQueryExecutor;
+    private final SolrQueryResultCache solrQueryResultCache;
+    private final SolrBatchProperties properties;
+    @Qualifier("solrIoExecutor")
+    private final ExecutorService solrIoExecutor;
+
+    private static final String OPERATION = "consult_batch";
+
+    public ResponseEntity<?> consultBatch(List<QuerySolrRequest> requests, Integer parallelism, boolean useCache) {
+
+        // Validación del lote
+        if (requests == null || requests.isEmpty()) {
+            return ResponseEntity.badRequest().body("El lote debe contener al menos una consulta.");
+        }
+        if (requests.size() > properties.getMaxItems()) {
+            return ResponseEntity.badRequest().body("El lote admite como máximo " + properties.getMaxItems() + " consultas.");
+        }
+        if (parallelism != null && parallelism < 1) {
+            return ResponseEntity.badRequest().body("El parámetro 'parallelism' debe ser mayor que 0.");
+        }
+        log.info("Lote recibido con {} consultas", requests.size());
+
+        // Cliente y colección: una sola búsqueda en el registro y en Solr por cada par distinto
+        Item[] items = new Item[requests.size()];
+        ClientSolr[] clients = new ClientSolr[requests.size()];
+        Map<String, Optional<ClientSolr>> resolvedClients = new HashMap<>();
+        Map<String, Boolean> resolvedCores = new HashMap<>();
+        List<Integer> pending = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            QuerySolrRequest request = requests.get(i);
+            if (request == null) {
+                items[i] = Item.error(HttpStatus.BAD_REQUEST, "La consulta no puede ser vacía.");
+                continue;
+            }
+            items[i] = validate(request, resolvedClients, resolvedCores);
+            if (items[i] == null) {
+                clients[i] = resolvedClients.get(request.getClient()).get();
+                pending.add(i);
+            }
+        }
+
+        int workers = Math.min(pending.size(), Math.min(properties.getMaxParallelism(),
+                parallelism == null ? properties.getParallelism() : parallelism));
+        AtomicInteger next = new AtomicInteger();
+        List<Future<?>> running = new ArrayList<>(workers);
+        for (int w = 0; w < workers; w++) {
+            running.add(solrIoExecutor.submit(() -> {
+                int position;
+                while ((position = next.getAndIncrement()) < pending.size()) {
+                    int index = pending.get(position);
+                    items[index] = execute(requests.get(index), clients[index], useCache);
+                }
+            }));
+        }
+        for (Future<?> worker : running) {
+            try {
+                worker.get();
+            } catch (ExecutionException e) {
+                log.error("Error ejecutando el lote de consultas", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running.forEach(other -> other.cancel(true));
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Lote de consultas interrumpido");
+            }
+        }
+
+        try {
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(write(items));
+        } catch (IOException e) {
+            log.error("Error generando la respuesta del lote", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error generando la respuesta del lote: " + e.getMessage());
+        }
+    }
+
+    // Mismas validaciones y mensajes que /consult; null si la consulta puede ejecutarse
+    private Item validate(QuerySolrRequest request, Map<String, Optional<ClientSolr>> resolvedClients,
+                          Map<String, Boolean> resolvedCores) {
+
+        // Protocolo y tipo de consulta por defecto
+        SolrQueryRequests.applyDefaults(request);
+
+        // Validación ingreso de cliente
+        if (request.getClient() == null || request.getClient().isBlank()) {
+            return Item.error(HttpStatus.BAD_REQUEST, "El cliente es obligatorio.");
+        }
+
+        // Validación de cliente en el registro
+        ClientSolr client;
+        try {
+            client = resolvedClients.computeIfAbsent(request.getClient(), clientSolrRegistry::findByName)
+                    .map(solrEndpointBalancer::forRead)
+                    .orElse(null);
+        } catch (ClientRegistryUnavailableException e) {
+            return Item.error(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        }
+        if (client == null) {
+            return Item.error(HttpStatus.NOT_FOUND, "Cliente no encontrado: " + request.getClient());
+        }
+
+        // Validación ingreso de colección
+        if (request.getCore() == null || request.getCore().isBlank()) {
+            return Item.error(HttpStatus.BAD_REQUEST, "La colección es obligatoria.");
+        }
+
+        // Validación de colección en Solr
+        boolean exists = resolvedCores.computeIfAbsent(request.getClient() + "/" + request.getCore(),
+                k -> solrCoreCatalog.exists(client, request.getCore()));
+        if (!exists) {
+            return Item.error(HttpStatus.NOT_FOUND,
+                    "La colección '" + request.getCore() + "' no existe para el cliente " + request.getClient());
+        }
+
+        // Validación sort, start y rows
+        String invalid = SolrQueryRequests.invalidParams(request.getSort(), request.getStart(), request.getRows());
+        if (invalid != null) {
+            return Item.error(HttpStatus.BAD_REQUEST, invalid);
+        }
+        return null;
+    }
+
+    // Respuesta completa en memoria, con la caché de /consult para las consultas pequeñas
+    private Item execute(QuerySolrRequest request, ClientSolr client, boolean useCache) {
+        String cacheKey = null;
+        if (!useCache) {
+            solrQueryResultCache.recordBypass();
+        } else if (solrQueryResultCache.isEnabled() && solrQueryResultCache.isMaterializable(request)) {
+            cacheKey = solrQueryResultCache.key(request);
+            Cached cached = solrQueryResultCache.get(cacheKey);
+            if (cached != null) {
+                return Item.of(cached, "HIT");
+            }
+        }
+        long generation = solrQueryResultCache.generation(client.getName(), request.getCore());
+
+        String finalUrl = SolrQueryRequests.buildUrl(client, request);
+        log.debug("URL de consulta a Solr: {}", finalUrl);
+
+        Fetched fetched = solrQueryExecutor.fetch(OPERATION, client, request.getCore(), finalUrl);
+        if (fetched.error() != null) {
+            return Item.error(HttpStatus.valueOf(fetched.error().getStatusCode().value()), String.valueOf(fetched.error().getBody()));
+        }
+        if (cacheKey != null) {
+            solrQueryResultCache.put(cacheKey, client.getName(), request.getCore(), generation, fetched.cached());
+        }
+        return Item.of(fetched.cached(), cacheKey != null ? "MISS" : "BYPASS");
+    }
+
+    // [{status, cache, body}] en el orden del lote; los errores llevan 'error' en lugar de 'body'
+    private String write(Item[] items) throws IOException {
+        StringWriter out = new StringWriter();
+        JsonWriter writer = new JsonWriter(out);
+        writer.setHtmlSafe(false);
+        writer.beginArray();
+        for (Item item : items) {
+            writer.beginObject();
+            if (item == null) {
+                writer.name("status").value(HttpStatus.INTERNAL_SERVER_ERROR.value());
+                writer.name("error").value("La consulta no se ejecutó");
+            } else if (item.cached() != null) {
+                writer.name("status").value(HttpStatus.OK.value());
+                writer.name("cache").value(item.cacheStatus());
+                String body = new String(item.cached().body(), StandardCharsets.UTF_8);
+                if (item.cached().json()) {
+                    writer.name("body").jsonValue(body);
+                } else {
+                    writer.name("body").value(body);
+                }
+            } else {
+                writer.name("status").value(item.status().value());
+                writer.name("error").value(item.message());
+            }
+            writer.endObject();
+        }
+        writer.endArray();
+        writer.flush();
+        return out.toString();
+    }
+
+    // Resultado de una consulta del lote: respuesta transformada o error con su estado HTTP
+    private record Item(HttpStatus status, String message, Cached cached, String cacheStatus) {
+
+        private static Item of(Cached cached, String cacheStatus) {
+            return new Item(HttpStatus.OK, null, cached, cacheStatus);
+        }
+
+        private static Item error(HttpStatus status, String message) {
+            return new Item(status, message, null, null);
+        }
+    }
+}
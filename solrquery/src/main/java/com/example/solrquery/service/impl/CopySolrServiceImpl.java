@@ -1,32 +1,56 @@
 package com.example.solrquery.service.impl;
 
 import java.lang.reflect.Type;
+import java.time.Instant;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import com.example.solrquery.config.SolrCommitProperties.Mode;
+import com.example.solrquery.config.SolrCopyProperties;
 import com.example.solrquery.dto.CopySolrRequest;
 import com.example.solrquery.entity.ClientSolr;
-import com.example.solrquery.repository.ClientSolrRepository;
+import com.example.solrquery.exception.ClientRegistryUnavailableException;
+import com.example.solrquery.entity.CopyJob;
+import com.example.solrquery.repository.ClientSolrRegistry;
+import com.example.solrquery.repository.CopyJobRepository;
 import com.example.solrquery.service.CopySolrService;
+import com.example.solrquery.solr.SolrCommitCoordinator;
+import com.example.solrquery.solr.SolrCoreCatalog;
+import com.example.solrquery.solr.SolrDocumentValidator;
+import com.example.solrquery.solr.SolrDocumentValidator.Report;
+import com.example.solrquery.solr.SolrCursorCopier;
+import com.example.solrquery.solr.SolrCursorCopier.CopyListener;
+import com.example.solrquery.solr.SolrCursorCopier.CopyPlan;
+import com.example.solrquery.solr.SolrCursorCopier.CopyResult;
+import com.example.solrquery.solr.SolrEndpointBalancer;
+import com.example.solrquery.solr.SolrHttpTransport;
+import com.example.solrquery.solr.SolrMetrics;
+import com.example.solrquery.solr.SolrNodeJobExecutor;
+import com.example.solrquery.solr.SolrQueryResultCache;
+import com.example.solrquery.solr.SolrSchemaCache;
+import com.example.solrquery.solr.SolrSchemaSnapshot;
 import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.google.gson.reflect.TypeToken;
 
+import io.micrometer.core.instrument.Timer;
+
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -35,8 +59,23 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class CopySolrServiceImpl implements CopySolrService{
 
-    private final ClientSolrRepository clientSolrRepository;
-    private final RestTemplate restTemplate = new RestTemplate();
+    // Estados desde los que un trabajo puede cancelarse o terminar
+    private static final List<CopyJob.Status> ACTIVE = List.of(CopyJob.Status.QUEUED, CopyJob.Status.RUNNING);
+
+    private final ClientSolrRegistry clientSolrRegistry;
+    private final SolrEndpointBalancer solrEndpointBalancer;
+    private final SolrHttpTransport solrHttpTransport;
+    private final SolrCoreCatalog solrCoreCatalog;
+    private final SolrSchemaCache solrSchemaCache;
+    private final SolrDocumentValidator solrDocumentValidator;
+    private final SolrCursorCopier solrCursorCopier;
+    private final SolrCopyProperties copyProperties;
+    private final SolrCommitCoordinator solrCommitCoordinator;
+    private final SolrQueryResultCache solrQueryResultCache;
+    private final SolrNodeJobExecutor solrNodeJobExecutor;
+    private final CopyJobRepository copyJobRepository;
+    private final SolrMetrics solrMetrics;
+    private final Set<Long> cancelledJobs = ConcurrentHashMap.newKeySet();
     private final Gson gson = new Gson();
     private String protocol = "http";
     private String qt = "select";
@@ -52,8 +91,13 @@ public class CopySolrServiceImpl implements CopySolrService{
             return ResponseEntity.badRequest().body("Cliente, colección origen y colección destino son obligatorios.");
         }
 
-        // Validación de cliente en MySQL
-        ClientSolr client = clientSolrRepository.findByName(request.getClient()).orElse(null);
+        // Validación de cliente en el registro
+        Timer.Sample phase = solrMetrics.start();
+        // La copia escribe en el nodo líder del cliente
+        ClientSolr client = clientSolrRegistry.findByName(request.getClient())
+                .map(solrEndpointBalancer::forWrite)
+                .orElse(null);
+        solrMetrics.phase(phase, "copy", "client_lookup", client == null ? null : client.getName(), null);
         if (client == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body("Cliente no encontrado: " + request.getClient());
@@ -65,7 +109,10 @@ public class CopySolrServiceImpl implements CopySolrService{
         }
 
         // Validación de colección origen en Solr
-        if (!coreExistsInSolr(client, request.getSourceCore())) {
+        phase = solrMetrics.start();
+        boolean sourceExists = solrCoreCatalog.exists(client, request.getSourceCore());
+        solrMetrics.phase(phase, "copy", "core_check", client.getName(), sourceExists ? request.getSourceCore() : null);
+        if (!sourceExists) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body("La colección origen '" + request.getSourceCore() + "' no existe.");
         }
@@ -76,7 +123,10 @@ public class CopySolrServiceImpl implements CopySolrService{
         }
 
         // Validación de colección destino en Solr
-        if (!coreExistsInSolr(client, request.getTargetCore())) {
+        phase = solrMetrics.start();
+        boolean targetExists = solrCoreCatalog.exists(client, request.getTargetCore());
+        solrMetrics.phase(phase, "copy", "core_check", client.getName(), targetExists ? request.getTargetCore() : null);
+        if (!targetExists) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body("La colección destino '" + request.getTargetCore() + "' no existe.");
         }
@@ -93,8 +143,13 @@ public class CopySolrServiceImpl implements CopySolrService{
                     .body("El parámetro 'sort' debe tener formato '<campo> asc' o '<campo> desc'.");
         }
 
-        // Construcción URL de consulta para la colección origen
-        String baseUrl = protocol + "://" + client.getIp() + ":" + client.getPort()
+        if (Boolean.TRUE.equals(request.getStream()) || Boolean.TRUE.equals(request.getAsync())) {
+            return streamCopy(client, request);
+        }
+
+        // Construcción URL de consulta para la colección origen, leída desde una réplica
+        ClientSolr source = solrEndpointBalancer.forRead(client);
+        String baseUrl = protocol + "://" + source.getIp() + ":" + source.getPort()
                        + "/solr/" + request.getSourceCore() + "/" + qt;
         UriComponentsBuilder builder = UriComponentsBuilder.fromUriString(baseUrl);
         addIfNotBlank(builder, "q", request.getQ());
@@ -110,15 +165,19 @@ public class CopySolrServiceImpl implements CopySolrService{
         log.info("URL de consulta (origen): {}", queryUrl);
 
         String solrJson;
+        phase = solrMetrics.start();
         try {
-            solrJson = restTemplate.getForObject(queryUrl, String.class);
+            solrJson = solrHttpTransport.forClient(source).getForObject(queryUrl, String.class);
         } catch (Exception e) {
             log.error("Error consultando Solr origen", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Error al consultar la colección origen: " + e.getMessage());
+        } finally {
+            solrMetrics.phase(phase, "copy", "solr_read", client.getName(), request.getSourceCore());
         }
 
         // Extracción de documentos
+        phase = solrMetrics.start();
         JsonObject root = JsonParser.parseString(solrJson).getAsJsonObject();
         JsonObject response = root.getAsJsonObject("response");
         int numFound = response.get("numFound").getAsInt();
@@ -132,35 +191,44 @@ public class CopySolrServiceImpl implements CopySolrService{
         for (Map<String, Object> doc : docs) {
             doc.keySet().removeIf(field -> field.equals("_version_"));
         }
+        solrMetrics.phase(phase, "copy", "response_processing", client.getName(), request.getSourceCore());
 
         // Validación de tipos en colección destino
-        Map<String,String> targetSchema = fetchSolrSchemaFields(client, request.getTargetCore());
-        for (int i = 0; i < docs.size(); i++) {
-            Map<String,Object> doc = docs.get(i);
-            for (Map.Entry<String,Object> e : doc.entrySet()) {
-
-                if (targetSchema.containsKey(e.getKey())){
-                    if (!isValidType(e.getValue(), targetSchema.get(e.getKey()))) {
-                        return ResponseEntity.badRequest()
-                                .body("Doc " + (i+1) + ": valor '" + e.getValue() +
-                                    "' no concuerda con tipo '" + targetSchema.get(e.getKey()) + "'");
-                    }
-                }
-
-            }
+        SolrSchemaSnapshot targetSchema = solrMetrics.time("copy", "schema_fetch", client.getName(), request.getTargetCore(),
+                () -> solrSchemaCache.snapshot(client, request.getTargetCore()));
+        if (targetSchema == null) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("No se pudo obtener el esquema de campos de la colección destino");
+        }
+        Report report = solrMetrics.time("copy", "validation", client.getName(), request.getTargetCore(),
+                () -> solrDocumentValidator.validate(targetSchema, docs));
+        if (!report.isValid()) {
+            Map<String,Object> result = new LinkedHashMap<>();
+            result.put("message", report.invalidDocs().size() + " de " + report.checked()
+                                + " documentos no concuerdan con el esquema destino");
+            result.put("invalidDocs", report.invalidDocs());
+            result.put("errors", report.errors());
+            return ResponseEntity.badRequest().body(result);
         }
 
         // Indexación en colección destino
+        Mode commitMode = solrCommitCoordinator.resolve(client.getName(), request.getTargetCore(), request.getCommit());
         String updateUrl = "http://" + client.getIp() + ":" + client.getPort()
-                         + "/solr/" + request.getTargetCore() + "/update?commit=true";
+                         + "/solr/" + request.getTargetCore() + "/update" + solrCommitCoordinator.updateParams(commitMode);
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
         HttpEntity<List<Map<String,Object>>> entity =
                 new HttpEntity<>(docs, headers);
 
         try {
-            ResponseEntity<String> resp = restTemplate.postForEntity(updateUrl, entity, String.class);
+            ResponseEntity<String> resp = solrMetrics.time("copy", "solr_call", client.getName(), request.getTargetCore(),
+                    () -> solrHttpTransport.forClient(client).postForEntity(updateUrl, entity, String.class));
             log.info("Solr destino respondio: {}", resp.getBody());
+            solrMetrics.docsCopied(client.getName(), request.getTargetCore(), docs.size());
+            Timer.Sample commitPhase = solrMetrics.start();
+            solrCommitCoordinator.afterUpdate(client, request.getTargetCore(), commitMode);
+            solrMetrics.phase(commitPhase, "copy", "commit", client.getName(), request.getTargetCore());
+            solrQueryResultCache.invalidate(client.getName(), request.getTargetCore());
         } catch (Exception e) {
             log.error("Error indexando en Solr destino", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -175,91 +243,234 @@ public class CopySolrServiceImpl implements CopySolrService{
         return ResponseEntity.ok(result);
     }
 
-    // Validación de colección en Solr
-    private boolean coreExistsInSolr(ClientSolr client, String core) {
-        String url = "http://" + client.getIp() + ":" + client.getPort() + "/solr/admin/cores?action=STATUS";
-        try {
-            ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
-            if (response.getStatusCode().is2xxSuccessful()) {
-                JsonObject json = JsonParser.parseString(response.getBody()).getAsJsonObject();
-                JsonObject status = json.getAsJsonObject("status");
-                return status.has(core);
-            }
-        } catch (Exception e) {
-            log.error("Error consultando coleccion de Solr", e);
+
+
+    // Copia por lotes con cursorMark sin cargar toda la colección en memoria
+    private ResponseEntity<?> streamCopy(ClientSolr client, CopySolrRequest request) {
+        if (request.getStart() != null && !request.getStart().isBlank() && Integer.parseInt(request.getStart()) != 0) {
+            return ResponseEntity.badRequest().body("El parámetro 'start' no se admite en la copia por lotes.");
+        }
+        int batchSize = request.getBatchSize() == null ? copyProperties.getBatchSize() : request.getBatchSize();
+        if (batchSize <= 0 || batchSize > copyProperties.getMaxBatchSize()) {
+            return ResponseEntity.badRequest()
+                    .body("El parámetro 'batchSize' debe estar entre 1 y " + copyProperties.getMaxBatchSize() + ".");
+        }
+        long maxDocs = request.getRows() == null || request.getRows().isBlank() ? 0 : Integer.parseInt(request.getRows());
+        Mode commitMode = solrCommitCoordinator.resolve(client.getName(), request.getTargetCore(), request.getCommit());
+
+        if (Boolean.TRUE.equals(request.getAsync())) {
+            CopyJob job = new CopyJob();
+            job.setClient(client.getName());
+            job.setSourceCore(request.getSourceCore());
+            job.setTargetCore(request.getTargetCore());
+            job.setQ(request.getQ());
+            job.setFq(request.getFq());
+            job.setFl(request.getFl());
+            job.setSort(request.getSort());
+            job.setBatchSize(batchSize);
+            job.setMaxDocs(maxDocs);
+            job.setCommitMode(commitMode);
+            job = copyJobRepository.save(job);
+            submitJob(client, job.getId());
+
+            Map<String,Object> result = new LinkedHashMap<>();
+            result.put("message", "Copia programada en segundo plano");
+            result.put("jobId", job.getId());
+            result.put("status", job.getStatus());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(result);
         }
-        return false;
-    }
 
-    // Construcción HashMap de campos del esquema
-    private Map<String, String> fetchSolrSchemaFields(ClientSolr client, String core) {
-        String url = "http://" + client.getIp() + ":" + client.getPort()
-                   + "/solr/" + core + "/schema/fields";
+        SolrSchemaSnapshot targetSchema = solrMetrics.time("copy_stream", "schema_fetch", client.getName(), request.getTargetCore(),
+                () -> solrSchemaCache.snapshot(client, request.getTargetCore()));
+        CopyPlan plan = new CopyPlan(request.getSourceCore(), request.getTargetCore(), request.getQ(),
+                request.getFq(), request.getFl(), request.getSort(), batchSize, maxDocs, null, commitMode);
+        CopyResult copied;
+        Timer.Sample phase = solrMetrics.start();
         try {
-            String body = restTemplate.getForObject(url, String.class);
-            JsonObject root = JsonParser.parseString(body).getAsJsonObject();
-            JsonArray arr = root.getAsJsonArray("fields");
-
-            Type listType = new TypeToken<List<JsonObject>>(){}.getType();
-            List<JsonObject> fields = gson.fromJson(arr, listType);
-
-            Map<String,String> map = new HashMap<>();
-            for (JsonObject f : fields) {
-                String name = f.get("name").getAsString();
-                String type = f.get("type").getAsString();
-                map.put(name, type);
-            }
-            log.info("Campos del esquema de Solr para coleccion '{}': {}", core, map);
-            return map;
+            copied = solrCursorCopier.copy(client, plan, docs -> validateBatch(docs, targetSchema));
         } catch (Exception e) {
-            log.error("Error obteniendo esquema de campos de Solr", e);
-            return Collections.emptyMap();
+            log.error("Error en la copia por lotes", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error al copiar la colección origen: " + e.getMessage());
+        } finally {
+            solrMetrics.phase(phase, "copy_stream", "cursor_copy", client.getName(), request.getTargetCore());
+            solrQueryResultCache.invalidate(client.getName(), request.getTargetCore());
+        }
+        solrMetrics.docsCopied(client.getName(), request.getTargetCore(), copied.docsWritten());
+
+        Map<String,Object> result = new LinkedHashMap<>();
+        result.put("message", copied.error() == null
+                ? "Se copiaron " + copied.docsWritten() + " docs de '" + request.getSourceCore()
+                    + "' a '" + request.getTargetCore() + "'"
+                : copied.error());
+        result.put("docsRead", copied.docsRead());
+        result.put("docsWritten", copied.docsWritten());
+        result.put("batches", copied.batches());
+        result.put("elapsedMs", copied.elapsedMs());
+        if (copied.error() != null) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(result);
         }
+        return ResponseEntity.ok(result);
     }
 
-    // Validación tipos de dato
-    private boolean isValidType(Object value, String solrType) {
-        if (value == null) return true;
-        String t = solrType.toLowerCase();
+    public ResponseEntity<?> jobStatus(Long id) {
+        return copyJobRepository.findById(id)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body("Trabajo de copia no encontrado: " + id));
+    }
 
-        if (value instanceof Collection) {
-            Collection<?> values = (Collection<?>) value;
-            for (Object v : values) {
-                if (!isValidTypeSingle(v, t)) return false;
-            }
-            return true;
+    public ResponseEntity<?> cancelJob(Long id) {
+        CopyJob job = copyJobRepository.findById(id).orElse(null);
+        if (job == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Trabajo de copia no encontrado: " + id);
         }
-        
-        if (value.getClass().isArray()) {
-            int length = java.lang.reflect.Array.getLength(value);
-            for (int i = 0; i < length; i++) {
-                Object v = java.lang.reflect.Array.get(value, i);
-                if (!isValidTypeSingle(v, t)) return false;
-            }
-            return true;
+        // El estado se guarda también para trabajos en curso: tras un reinicio no se reanudan.
+        // Actualización condicionada: no pisa el avance ni un estado final guardado entretanto
+        cancelledJobs.add(id);
+        if (copyJobRepository.cancel(id, Instant.now()) == 0) {
+            cancelledJobs.remove(id);
+            CopyJob.Status status = copyJobRepository.findById(id).map(CopyJob::getStatus).orElse(job.getStatus());
+            return ResponseEntity.badRequest().body("El trabajo " + id + " ya terminó con estado " + status);
         }
-        
-        return isValidTypeSingle(value, t);
+        return ResponseEntity.ok(copyJobRepository.findById(id).orElse(job));
     }
 
-    private boolean isValidTypeSingle(Object value, String solrType) {
-        if (value == null) return true;
-        if (solrType.contains("int") || solrType.contains("double") ||
-            solrType.contains("float") || solrType.contains("long")) {
+    // Reanudación de trabajos interrumpidos por un reinicio
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeJobs() {
+        List<CopyJob> jobs;
+        try {
+            jobs = copyJobRepository.findByStatusIn(ACTIVE);
+        } catch (Exception e) {
+            log.error("No se pudieron consultar los trabajos de copia pendientes", e);
+            return;
+        }
+        for (CopyJob job : jobs) {
+            ClientSolr client;
             try {
-                Double.parseDouble(value.toString());
-                return true;
-            } catch (NumberFormatException ex) {
-                return false;
+                client = clientSolrRegistry.findByName(job.getClient())
+                        .map(solrEndpointBalancer::forWrite)
+                        .orElse(null);
+            } catch (ClientRegistryUnavailableException e) {
+                // Sin registro no se marca como fallido: queda pendiente para el próximo arranque
+                log.error("No se pudo reanudar el trabajo de copia {}: {}", job.getId(), e.getMessage());
+                continue;
+            }
+            if (client == null) {
+                job.setError("Cliente no encontrado: " + job.getClient());
+                transition(job, ACTIVE, CopyJob.Status.FAILED);
+                continue;
             }
+            log.info("Reanudando trabajo de copia {} desde cursorMark {}", job.getId(), job.getCursorMark());
+            submitJob(client, job.getId());
         }
-        if (solrType.contains("string") || solrType.contains("text")) {
-            return value instanceof String;
+    }
+
+    private void submitJob(ClientSolr client, Long jobId) {
+        solrNodeJobExecutor.submit(SolrHttpTransport.nodeKey(client.getIp(), client.getPort()),
+                () -> runJob(client, jobId));
+    }
+
+    private void runJob(ClientSolr client, Long jobId) {
+        CopyJob job = copyJobRepository.findById(jobId).orElse(null);
+        if (job == null || job.getStatus() == CopyJob.Status.CANCELLED) {
+            cancelledJobs.remove(jobId);
+            return;
         }
-        
+
+        // Los documentos leídos y no escritos antes de un reinicio se vuelven a leer
+        long baseWritten = job.getDocsWritten();
+        long remaining = job.getMaxDocs() > 0 ? job.getMaxDocs() - baseWritten : 0;
+        if (job.getMaxDocs() > 0 && remaining <= 0) {
+            transition(job, ACTIVE, CopyJob.Status.COMPLETED);
+            return;
+        }
+        job.setDocsRead(baseWritten);
+        if (!transition(job, ACTIVE, CopyJob.Status.RUNNING)) {
+            // Cancelado entre la lectura y el arranque
+            cancelledJobs.remove(jobId);
+            return;
+        }
+
+        long started = System.currentTimeMillis();
+        SolrSchemaSnapshot targetSchema = solrMetrics.time("copy_job", "schema_fetch", client.getName(), job.getTargetCore(),
+                () -> solrSchemaCache.snapshot(client, job.getTargetCore()));
+        CopyPlan plan = new CopyPlan(job.getSourceCore(), job.getTargetCore(), job.getQ(), job.getFq(),
+                job.getFl(), job.getSort(), job.getBatchSize(), remaining, job.getCursorMark(),
+                job.getCommitMode() == null ? solrCommitCoordinator.resolve(job.getClient(), job.getTargetCore(), null)
+                                            : job.getCommitMode());
+
+        CopyResult copied;
+        Timer.Sample phase = solrMetrics.start();
+        try {
+            copied = solrCursorCopier.copy(client, plan, docs -> validateBatch(docs, targetSchema), new CopyListener() {
+                @Override
+                public void onBatchWritten(long docsRead, long docsWritten, String cursorMark) {
+                    job.setDocsRead(baseWritten + docsRead);
+                    job.setDocsWritten(baseWritten + docsWritten);
+                    job.setCursorMark(cursorMark);
+                    job.setDocsPerSecond(docsWritten * 1000.0 / Math.max(1, System.currentTimeMillis() - started));
+                    job.setUpdatedAt(Instant.now());
+                    solrQueryResultCache.invalidate(client.getName(), job.getTargetCore());
+                    try {
+                        // Sin filas actualizadas el trabajo ya no está RUNNING: se canceló, quizá desde otra instancia
+                        if (copyJobRepository.updateProgress(jobId, job.getDocsRead(), job.getDocsWritten(),
+                                job.getCursorMark(), job.getDocsPerSecond(), job.getUpdatedAt()) == 0) {
+                            cancelledJobs.add(jobId);
+                        }
+                    } catch (Exception e) {
+                        log.warn("No se pudo guardar el avance del trabajo de copia {}", jobId, e);
+                    }
+                }
+
+                @Override
+                public boolean isCancelled() {
+                    return cancelledJobs.contains(jobId);
+                }
+            });
+        } catch (Exception e) {
+            log.error("Error en el trabajo de copia {}", jobId, e);
+            copied = new CopyResult(0, 0, 0, job.getCursorMark(), 0, "Error al copiar la colección origen: " + e.getMessage());
+        }
+        solrMetrics.phase(phase, "copy_job", "cursor_copy", client.getName(), job.getTargetCore());
+        solrMetrics.docsCopied(client.getName(), job.getTargetCore(), job.getDocsWritten() - baseWritten);
+
+        // Un estado final no pisa una cancelación guardada entretanto; el trabajo cancelado conserva su avance
+        boolean cancelled = cancelledJobs.remove(jobId);
+        if (!cancelled && copied.error() != null) {
+            job.setError(copied.error());
+            cancelled = !transition(job, ACTIVE, CopyJob.Status.FAILED);
+        } else if (!cancelled) {
+            cancelled = !transition(job, ACTIVE, CopyJob.Status.COMPLETED);
+        }
+        if (cancelled) {
+            transition(job, List.of(CopyJob.Status.QUEUED, CopyJob.Status.RUNNING, CopyJob.Status.CANCELLED),
+                       CopyJob.Status.CANCELLED);
+        }
+        log.info("Trabajo de copia {} terminó con estado {}: {} docs escritos", jobId, job.getStatus(), job.getDocsWritten());
+    }
+
+    // Estado y avance guardados solo si el trabajo sigue en uno de los estados indicados
+    private boolean transition(CopyJob job, Collection<CopyJob.Status> from, CopyJob.Status status) {
+        job.setUpdatedAt(Instant.now());
+        if (copyJobRepository.transition(job.getId(), from, status, job.getError(), job.getDocsRead(),
+                job.getDocsWritten(), job.getCursorMark(), job.getDocsPerSecond(), job.getUpdatedAt()) == 0) {
+            return false;
+        }
+        job.setStatus(status);
         return true;
     }
 
+    // Validación de tipos de un lote contra el esquema destino
+    private String validateBatch(List<Map<String,Object>> docs, SolrSchemaSnapshot targetSchema) {
+        if (targetSchema == null) {
+            return "No se pudo obtener el esquema de campos de la colección destino";
+        }
+        Report report = solrDocumentValidator.validate(targetSchema, docs);
+        return report.isValid() ? null : String.join("; ", report.errors());
+    }
+
     private boolean isValidSort(String sort) {
         if (sort == null || sort.isBlank()) return true; 
         return sort.matches("^[a-zA-Z0-9_.]+\\s+(asc|desc)$");
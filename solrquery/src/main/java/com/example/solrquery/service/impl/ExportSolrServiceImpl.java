@@ -0,0 +1,135 @@
+package com.example.solrquery.service.impl;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.example.solrquery.config.SolrExportProperties;
+import com.example.solrquery.dto.QuerySolrRequest;
+import com.example.solrquery.entity.ClientSolr;
+import com.example.solrquery.repository.ClientSolrRegistry;
+import com.example.solrquery.service.ExportSolrService;
+import com.example.solrquery.solr.SolrCoreCatalog;
+import com.example.solrquery.solr.SolrEndpointBalancer;
+import com.example.solrquery.solr.SolrExporter;
+import com.example.solrquery.solr.SolrExporter.ExportPlan;
+import com.example.solrquery.solr.SolrExporter.Method;
+import com.example.solrquery.solr.SolrQueryRequests;
+import com.example.solrquery.solr.SolrSchemaCache;
+import com.example.solrquery.solr.SolrSchemaSnapshot;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExportSolrServiceImpl implements ExportSolrService {
+
+    private final ClientSolrRegistry clientSolrRegistry;
+    private final SolrEndpointBalancer solrEndpointBalancer;
+    private final SolrCoreCatalog solrCoreCatalog;
+    private final SolrSchemaCache solrSchemaCache;
+    private final SolrExporter solrExporter;
+    private final SolrExportProperties properties;
+
+    // Header de la respuesta con el método usado: cursor o export
+    public static final String METHOD_HEADER = "X-Solr-Export-Method";
+
+    // Mismos q, fq, fl y sort que /consult; rows limita la cantidad de docs exportados
+    public ResponseEntity<?> export(QuerySolrRequest request, String method) {
+
+        log.info("JSON recibido para exportar: {}", request);
+
+        SolrQueryRequests.applyDefaults(request);
+
+        // Validación ingreso de cliente
+        if (request.getClient() == null || request.getClient().isBlank()) {
+            return ResponseEntity.badRequest().body("El cliente es obligatorio.");
+        }
+
+        // Validación de cliente en el registro
+        ClientSolr client = clientSolrRegistry.findByName(request.getClient())
+                .map(solrEndpointBalancer::forRead)
+                .orElse(null);
+        if (client == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body("Cliente no encontrado: " + request.getClient());
+        }
+
+        // Validación ingreso de colección
+        if (request.getCore() == null || request.getCore().isBlank()) {
+            return ResponseEntity.badRequest().body("La colección es obligatoria.");
+        }
+
+        // Validación de colección en Solr
+        if (!solrCoreCatalog.exists(client, request.getCore())) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+            .body("La colección '" + request.getCore() + "' no existe para el cliente " + request.getClient());
+        }
+
+        // Validación sort
+        String invalidSort = SolrQueryRequests.invalidSort(request.getSort());
+        if (invalidSort != null) {
+            return ResponseEntity.badRequest().body(invalidSort);
+        }
+
+        // La exportación recorre el resultado completo con cursorMark, sin desplazamiento
+        if (request.getStart() != null && !request.getStart().isBlank() && !request.getStart().trim().equals("0")) {
+            return ResponseEntity.badRequest().body("El parámetro 'start' no se admite en la exportación.");
+        }
+
+        // Validación rows
+        long maxDocs = 0;
+        if (request.getRows() != null && !request.getRows().isBlank()) {
+            try {
+                maxDocs = Long.parseLong(request.getRows().trim());
+            } catch (NumberFormatException e) {
+                return ResponseEntity.badRequest().body("El parámetro 'rows' debe ser un número entero.");
+            }
+            if (maxDocs < 0) {
+                return ResponseEntity.badRequest().body("El parámetro 'rows' no puede ser negativo.");
+            }
+        }
+
+        SolrSchemaSnapshot schema = solrSchemaCache.snapshot(client, request.getCore());
+        if (schema == null || schema.uniqueKey() == null) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("No se pudo obtener el esquema de campos de Solr");
+        }
+
+        // Método: auto (por defecto), cursor o export
+        Method chosen = solrExporter.choose(schema, request.getFl(), request.getSort(), maxDocs, properties.isUseExportHandler());
+        if ("cursor".equalsIgnoreCase(method)) {
+            chosen = Method.CURSOR;
+        } else if ("export".equalsIgnoreCase(method)) {
+            if (solrExporter.choose(schema, request.getFl(), request.getSort(), maxDocs, true) != Method.EXPORT) {
+                return ResponseEntity.badRequest().body("El handler /export requiere 'fl' explícito, campos con docValues y sin 'rows'.");
+            }
+            chosen = Method.EXPORT;
+        } else if (method != null && !method.isBlank() && !"auto".equalsIgnoreCase(method)) {
+            return ResponseEntity.badRequest().body("El parámetro 'method' debe ser auto, cursor o export.");
+        }
+
+        ExportPlan plan = new ExportPlan(request.getProtocol(), request.getCore(), request.getQ(), request.getFq(),
+                request.getFl(), request.getSort(), maxDocs, properties.getBatchSize(), chosen);
+        StreamingResponseBody body = out -> {
+            long started = System.currentTimeMillis();
+            try {
+                long docs = solrExporter.export(client, schema, plan, out);
+                log.info("Exportación de '{}' terminada: {} docs en {} ms ({})",
+                        request.getCore(), docs, System.currentTimeMillis() - started, plan.method());
+            } catch (Exception e) {
+                // La respuesta ya comenzó a enviarse, no se puede cambiar el estado HTTP
+                log.error("Error exportando la colección '{}'", request.getCore(), e);
+                throw e;
+            }
+        };
+        return ResponseEntity.ok()
+                .header(METHOD_HEADER, chosen.name().toLowerCase())
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+}
@@ -0,0 +1,306 @@
+package com.example.solrquery.service.impl;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpStatusCodeException;
+
+import com.example.solrquery.config.SolrFederatedProperties;
+import com.example.solrquery.dto.FederatedQueryRequest;
+import com.example.solrquery.dto.FederatedQueryRequest.Target;
+import com.example.solrquery.dto.QuerySolrRequest;
+import com.example.solrquery.entity.ClientSolr;
+import com.example.solrquery.exception.ClientRegistryUnavailableException;
+import com.example.solrquery.exception.SolrNodeBusyException;
+import com.example.solrquery.repository.ClientSolrRegistry;
+import com.example.solrquery.service.FederatedQueryService;
+import com.example.solrquery.solr.SolrCoreCatalog;
+import com.example.solrquery.solr.SolrEndpointBalancer;
+import com.example.solrquery.solr.SolrFederatedMerger;
+import com.example.solrquery.solr.SolrHttpTransport;
+import com.example.solrquery.solr.SolrQueryRequests;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+// Consulta de varias colecciones (de uno o varios clientes) en paralelo con un solo resultado mezclado.
+// Las colecciones que fallan o no responden a tiempo se informan en 'targets' y el resultado queda parcial.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FederatedQueryServiceImpl implements FederatedQueryService {
+
+    private final ClientSolrRegistry clientSolrRegistry;
+    private final SolrEndpointBalancer solrEndpointBalancer;
+    private final SolrHttpTransport solrHttpTransport;
+    private final SolrCoreCatalog solrCoreCatalog;
+    private final SolrFederatedMerger solrFederatedMerger;
+    private final SolrFederatedProperties properties;
+    @Qualifier("solrIoExecutor")
+    private final ExecutorService solrIoExecutor;
+
+    private final Gson gson = new GsonBuilder().disableHtmlEscaping().create();
+
+    // Filas por defecto de Solr cuando no se indica rows
+    private static final int DEFAULT_ROWS = 10;
+
+    public ResponseEntity<?> consult(FederatedQueryRequest request) {
+
+        log.info("JSON recibido para consulta federada: {}", request);
+
+        // Validación de colecciones
+        List<Target> targets = request.getTargets();
+        if (targets == null || targets.isEmpty()) {
+            return ResponseEntity.badRequest().body("Debe indicar al menos una colección en 'targets'.");
+        }
+        if (targets.size() > properties.getMaxTargets()) {
+            return ResponseEntity.badRequest().body("Se admiten como máximo " + properties.getMaxTargets() + " colecciones por consulta.");
+        }
+        for (Target target : targets) {
+            if (target == null || target.getClient() == null || target.getClient().isBlank()
+                    || target.getCore() == null || target.getCore().isBlank()) {
+                return ResponseEntity.badRequest().body("Cada colección en 'targets' debe indicar 'client' y 'core'.");
+            }
+        }
+
+        String invalid = SolrQueryRequests.invalidParams(request.getSort(), request.getStart(), request.getRows());
+        if (invalid != null) {
+            return ResponseEntity.badRequest().body(invalid);
+        }
+
+        // Cada colección devuelve desde 0 hasta start + rows: la página final solo se conoce tras mezclar
+        int start = isBlank(request.getStart()) ? 0 : Integer.parseInt(request.getStart());
+        int rows = isBlank(request.getRows()) ? DEFAULT_ROWS : Integer.parseInt(request.getRows());
+        if (start < 0 || rows < 0) {
+            return ResponseEntity.badRequest().body("Los parámetros 'start' y 'rows' no pueden ser negativos.");
+        }
+        if ((long) start + rows > properties.getMaxWindow()) {
+            return ResponseEntity.badRequest().body("start + rows no puede superar " + properties.getMaxWindow() + " en una consulta federada.");
+        }
+        int window = start + rows;
+
+        long startedAt = System.nanoTime();
+        List<Future<TargetResult>> calls = new ArrayList<>(targets.size());
+        for (Target target : targets) {
+            calls.add(solrIoExecutor.submit(() -> queryTarget(request, target, window)));
+        }
+
+        // Cada colección tiene su propio plazo contado desde el inicio de la consulta
+        List<TargetResult> results = new ArrayList<>(targets.size());
+        for (int i = 0; i < targets.size(); i++) {
+            Target target = targets.get(i);
+            long timeoutMs = timeoutMs(request, target);
+            long remaining = startedAt + TimeUnit.MILLISECONDS.toNanos(timeoutMs) - System.nanoTime();
+            Future<TargetResult> call = calls.get(i);
+            try {
+                results.add(call.get(Math.max(remaining, 0), TimeUnit.NANOSECONDS));
+            } catch (TimeoutException e) {
+                // Sin interrumpir: la llamada termina en segundo plano, acotada por solr.http.read-timeout
+                call.cancel(false);
+                results.add(TargetResult.failed(target, "timeout", "Sin respuesta en " + timeoutMs + " ms"));
+            } catch (ExecutionException e) {
+                log.error("Error en la consulta federada a {}/{}", target.getClient(), target.getCore(), e.getCause());
+                results.add(TargetResult.failed(target, "error", e.getCause().getMessage()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                calls.forEach(pending -> pending.cancel(false));
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Consulta federada interrumpida");
+            }
+        }
+
+        return merge(request, results, start, rows);
+    }
+
+    private ResponseEntity<?> merge(FederatedQueryRequest request, List<TargetResult> results, int start, int rows) {
+        long numFound = 0;
+        List<JsonArray> docs = new ArrayList<>();
+        List<JsonObject> facetCounts = new ArrayList<>();
+        List<JsonObject> facets = new ArrayList<>();
+        JsonArray targets = new JsonArray();
+        int answered = 0;
+        for (TargetResult result : results) {
+            targets.add(result.summary());
+            if (!result.status().equals("ok")) {
+                continue;
+            }
+            answered++;
+            numFound += result.numFound();
+            docs.add(result.docs());
+            if (result.facetCounts() != null) {
+                facetCounts.add(result.facetCounts());
+            }
+            if (result.facets() != null) {
+                facets.add(result.facets());
+            }
+        }
+
+        JsonObject body = new JsonObject();
+        body.addProperty("numFound", numFound);
+        body.add("docs", solrFederatedMerger.mergeDocs(docs, request.getSort(), start, rows));
+        if (!facetCounts.isEmpty()) {
+            body.add("facet_counts", solrFederatedMerger.mergeFacetCounts(facetCounts));
+        }
+        if (!facets.isEmpty()) {
+            body.add("facets", solrFederatedMerger.mergeFacets(facets,
+                    request.getJsonFacet() == null ? Map.of() : request.getJsonFacet()));
+        }
+        body.addProperty("partial", answered < results.size());
+        body.add("targets", targets);
+
+        // Ninguna colección respondió: no hay resultado que devolver
+        HttpStatus status = answered == 0 ? HttpStatus.BAD_GATEWAY : HttpStatus.OK;
+        return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON).body(gson.toJson(body));
+    }
+
+    private TargetResult queryTarget(FederatedQueryRequest request, Target target, int window) {
+        long startedAt = System.currentTimeMillis();
+
+        // Validación de cliente en el registro
+        ClientSolr client;
+        try {
+            client = clientSolrRegistry.findByName(target.getClient()).map(solrEndpointBalancer::forRead).orElse(null);
+        } catch (ClientRegistryUnavailableException e) {
+            return TargetResult.failed(target, "unavailable", e.getMessage());
+        }
+        if (client == null) {
+            return TargetResult.failed(target, "not_found", "Cliente no encontrado: " + target.getClient());
+        }
+
+        // Validación de colección en Solr
+        if (!solrCoreCatalog.exists(client, target.getCore())) {
+            return TargetResult.failed(target, "not_found",
+                    "La colección '" + target.getCore() + "' no existe para el cliente " + target.getClient());
+        }
+
+        String finalUrl = SolrQueryRequests.buildUrl(client, targetRequest(request, target, window));
+        log.debug("URL de consulta federada a Solr: {}", finalUrl);
+        String response;
+        try {
+            response = solrHttpTransport.forClient(client).getForObject(URI.create(finalUrl), String.class);
+        } catch (SolrNodeBusyException e) {
+            return TargetResult.failed(target, "busy", e.getMessage());
+        } catch (HttpStatusCodeException e) {
+            return TargetResult.failed(target, "error", e.getStatusCode() + ": " + e.getResponseBodyAsString());
+        } catch (Exception e) {
+            return TargetResult.failed(target, "error", e.getMessage());
+        }
+
+        JsonObject root = response == null ? null : JsonParser.parseString(response).getAsJsonObject();
+        JsonObject solrResponse = root == null ? null : root.getAsJsonObject("response");
+        if (solrResponse == null) {
+            return TargetResult.failed(target, "error", "La respuesta de Solr no contiene 'response'");
+        }
+        return new TargetResult(target, "ok", null,
+                solrResponse.has("numFound") ? solrResponse.get("numFound").getAsLong() : 0,
+                solrResponse.has("docs") ? solrResponse.getAsJsonArray("docs") : new JsonArray(),
+                objectOrNull(root, "facet_counts"), objectOrNull(root, "facets"),
+                System.currentTimeMillis() - startedAt);
+    }
+
+    // Consulta /consult de una colección, con los valores por defecto de /consult; start y rows se reemplazan
+    // por la ventana completa, como en el lote de consultas cada elemento lleva sus propios parámetros
+    private QuerySolrRequest targetRequest(FederatedQueryRequest request, Target target, int window) {
+        QuerySolrRequest consult = new QuerySolrRequest();
+        consult.setClient(target.getClient());
+        consult.setCore(target.getCore());
+        consult.setProtocol(request.getProtocol());
+        consult.setQt(request.getQt());
+        consult.setQ(request.getQ());
+        consult.setFq(request.getFq());
+        consult.setSort(request.getSort());
+        consult.setStart("0");
+        consult.setRows(String.valueOf(window));
+        consult.setFl(flWithSortFields(request.getFl(), request.getSort()));
+        consult.setJsonFacet(request.getJsonFacet());
+        consult.setFacetQuery(request.getFacetQuery());
+        consult.setFacetField(request.getFacetField());
+        SolrQueryRequests.applyDefaults(consult);
+        return consult;
+    }
+
+    // La mezcla necesita en cada doc los campos de todas las cláusulas de ordenación
+    private String flWithSortFields(String fl, String sort) {
+        if (isBlank(sort)) {
+            return fl;
+        }
+        List<String> sortFields = new ArrayList<>();
+        for (String clause : sort.split(",")) {
+            if (!clause.isBlank()) {
+                sortFields.add(clause.trim().split("\\s+")[0]);
+            }
+        }
+        if (isBlank(fl)) {
+            return sortFields.contains("score") ? "*,score" : fl;
+        }
+        List<String> fields = new ArrayList<>(Arrays.asList(fl.trim().split("[,\\s]+")));
+        StringBuilder result = new StringBuilder(fl);
+        for (String field : sortFields) {
+            if (fields.contains(field) || (fields.contains("*") && !field.equals("score"))) {
+                continue;
+            }
+            fields.add(field);
+            result.append(',').append(field);
+        }
+        return result.toString();
+    }
+
+    private long timeoutMs(FederatedQueryRequest request, Target target) {
+        if (target.getTimeoutMs() != null && target.getTimeoutMs() > 0) {
+            return target.getTimeoutMs();
+        }
+        if (request.getTimeoutMs() != null && request.getTimeoutMs() > 0) {
+            return request.getTimeoutMs();
+        }
+        return properties.getTargetTimeout().toMillis();
+    }
+
+    private static JsonObject objectOrNull(JsonObject root, String name) {
+        JsonElement element = root.get(name);
+        return element != null && element.isJsonObject() ? element.getAsJsonObject() : null;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private record TargetResult(Target target, String status, String message, long numFound,
+                                JsonArray docs, JsonObject facetCounts, JsonObject facets, long elapsedMs) {
+
+        private static TargetResult failed(Target target, String status, String message) {
+            return new TargetResult(target, status, message, 0, null, null, null, -1);
+        }
+
+        private JsonObject summary() {
+            JsonObject summary = new JsonObject();
+            summary.addProperty("client", target.getClient());
+            summary.addProperty("core", target.getCore());
+            summary.addProperty("status", status);
+            if (status.equals("ok")) {
+                summary.addProperty("numFound", numFound);
+                summary.addProperty("timeMs", elapsedMs);
+            } else {
+                summary.addProperty("message", message);
+            }
+            return summary;
+        }
+    }
+}
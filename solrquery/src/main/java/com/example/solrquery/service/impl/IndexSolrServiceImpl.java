@@ -1,30 +1,51 @@
 package com.example.solrquery.service.impl;
 
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.lang.reflect.Type;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.HashMap;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
+import com.example.solrquery.config.SolrCommitProperties.Mode;
+import com.example.solrquery.config.SolrIngestProperties;
 import com.example.solrquery.dto.IndexSolrRequest;
 import com.example.solrquery.entity.ClientSolr;
-import com.example.solrquery.repository.ClientSolrRepository;
+import com.example.solrquery.repository.ClientSolrRegistry;
 import com.example.solrquery.service.IndexSolrService;
+import com.example.solrquery.solr.SolrCommitCoordinator;
+import com.example.solrquery.solr.SolrCoreCatalog;
+import com.example.solrquery.solr.SolrDocumentValidator;
+import com.example.solrquery.solr.SolrDocumentValidator.Report;
+import com.example.solrquery.solr.SolrEndpointBalancer;
+import com.example.solrquery.solr.SolrHttpTransport;
+import com.example.solrquery.solr.SolrMetrics;
+import com.example.solrquery.solr.SolrQueryResultCache;
+import com.example.solrquery.solr.SolrSchemaCache;
+import com.example.solrquery.solr.SolrSchemaSnapshot;
 import com.google.gson.Gson;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.Strictness;
+import com.google.gson.ToNumberPolicy;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import io.micrometer.core.instrument.Timer;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -34,9 +55,25 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class IndexSolrServiceImpl implements IndexSolrService{
 
-    private final ClientSolrRepository clientSolrRepository;
-    private final RestTemplate restTemplate = new RestTemplate();
-    private final Gson gson = new Gson();
+    private static final Type DOC_TYPE = new TypeToken<Map<String, Object>>(){}.getType();
+
+    private final ClientSolrRegistry clientSolrRegistry;
+    private final SolrEndpointBalancer solrEndpointBalancer;
+    private final SolrHttpTransport solrHttpTransport;
+    private final SolrCoreCatalog solrCoreCatalog;
+    private final SolrSchemaCache solrSchemaCache;
+    private final SolrDocumentValidator solrDocumentValidator;
+    private final SolrIngestProperties ingestProperties;
+    private final SolrCommitCoordinator solrCommitCoordinator;
+    private final SolrQueryResultCache solrQueryResultCache;
+    private final SolrMetrics solrMetrics;
+    @Qualifier("solrIoExecutor")
+    private final ExecutorService solrIoExecutor;
+
+    // Los números conservan su literal original al reenviarlos a Solr
+    private final Gson ingestGson = new GsonBuilder()
+            .setObjectToNumberStrategy(ToNumberPolicy.LAZILY_PARSED_NUMBER)
+            .create();
 
     public ResponseEntity<?> index(IndexSolrRequest request) {
         log.info("JSON recibido para indexar: {}", request);
@@ -46,9 +83,13 @@ public class IndexSolrServiceImpl implements IndexSolrService{
             return ResponseEntity.badRequest().body("El cliente es obligatorio.");
         }
 
-        // Validación de cliente en MySQL
-        ClientSolr client = clientSolrRepository.findByName(request.getClient())
+        // Validación de cliente en el registro
+        Timer.Sample phase = solrMetrics.start();
+        // La indexación va al nodo líder del cliente
+        ClientSolr client = clientSolrRegistry.findByName(request.getClient())
+                .map(solrEndpointBalancer::forWrite)
                 .orElse(null);
+        solrMetrics.phase(phase, "index", "client_lookup", client == null ? null : client.getName(), null);
         if (client == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body("Cliente no encontrado: " + request.getClient());
@@ -60,7 +101,10 @@ public class IndexSolrServiceImpl implements IndexSolrService{
         }
 
         // Validación de colección en Solr
-        if (!coreExistsInSolr(client, request.getCore())) {
+        phase = solrMetrics.start();
+        boolean coreExists = solrCoreCatalog.exists(client, request.getCore());
+        solrMetrics.phase(phase, "index", "core_check", client.getName(), coreExists ? request.getCore() : null);
+        if (!coreExists) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
             .body("La colección '" + request.getCore() + "' no existe para el cliente " + request.getClient());
         }
@@ -71,35 +115,31 @@ public class IndexSolrServiceImpl implements IndexSolrService{
         }
 
         // Validación esquema de campos de Solr
-        Map<String, String> schemaFields = fetchSolrSchemaFields(client, request.getCore());
-        if (schemaFields.isEmpty()) {
+        SolrSchemaSnapshot schema = solrMetrics.time("index", "schema_fetch", client.getName(), request.getCore(),
+                () -> solrSchemaCache.snapshot(client, request.getCore()));
+        if (schema == null || schema.fieldTypes().isEmpty()) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("No se pudo obtener el esquema de campos de Solr");
         }
 
-        // Validación de tipos
-        for (int i = 0; i < request.getDocs().size(); i++) {
-            Map<String, Object> doc = request.getDocs().get(i);
-            for (Map.Entry<String, Object> entry : doc.entrySet()) {
-                String field = entry.getKey();
-                Object value = entry.getValue();
-
-                if(schemaFields.containsKey(field)){
-                    String solrType = schemaFields.get(field);
-                    if (!isValidType(value, solrType)) {
-                        return ResponseEntity.badRequest()
-                                .body("Documento " + (i+1) + ": valor '" + value +
-                                    "' no concuerda con el tipo '" + solrType + "' de campo '" + field + "'");
-                    }
-                }
-            }
+        // Validación de tipos de todos los documentos
+        Report report = solrMetrics.time("index", "validation", client.getName(), request.getCore(),
+                () -> solrDocumentValidator.validate(schema, request.getDocs()));
+        if (!report.isValid()) {
+            Map<String,Object> result = new LinkedHashMap<>();
+            result.put("message", report.invalidDocs().size() + " de " + report.checked()
+                                + " documentos no concuerdan con el esquema");
+            result.put("invalidDocs", report.invalidDocs());
+            result.put("errors", report.errors());
+            return ResponseEntity.badRequest().body(result);
         }
 
         // Indexación 
+        Mode commitMode = solrCommitCoordinator.resolve(client.getName(), request.getCore(), request.getCommit());
         String updateUrl = "http://" + client.getIp()
                          + ":" + client.getPort()
                          + "/solr/" + request.getCore()
-                         + "/update?commit=true";
+                         + "/update" + solrCommitCoordinator.updateParams(commitMode);
         log.info("URL para indexar en Solr: {}", updateUrl);
 
         HttpHeaders headers = new HttpHeaders();
@@ -108,15 +148,23 @@ public class IndexSolrServiceImpl implements IndexSolrService{
                 new HttpEntity<>(request.getDocs(), headers);
 
         ResponseEntity<String> solrResp;
+        phase = solrMetrics.start();
         try {
-            solrResp = restTemplate.postForEntity(updateUrl, entity, String.class);
+            solrResp = solrHttpTransport.forClient(client).postForEntity(updateUrl, entity, String.class);
         } catch (Exception e) {
             log.error("Error al indexar documentos en Solr", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Error al indexar en Solr: " + e.getMessage());
+        } finally {
+            solrMetrics.phase(phase, "index", "solr_call", client.getName(), request.getCore());
         }
 
         log.info("Respuesta de Solr al indexar: {}", solrResp.getBody());
+        solrMetrics.docsIndexed(client.getName(), request.getCore(), request.getDocs().size());
+        phase = solrMetrics.start();
+        solrCommitCoordinator.afterUpdate(client, request.getCore(), commitMode);
+        solrMetrics.phase(phase, "index", "commit", client.getName(), request.getCore());
+        solrQueryResultCache.invalidate(client.getName(), request.getCore());
 
         Map<String,Object> result = new LinkedHashMap<>();
         result.put("message", "Documentos indexados con éxito");
@@ -124,88 +172,201 @@ public class IndexSolrServiceImpl implements IndexSolrService{
         return ResponseEntity.ok(result);
     }
 
-    // Validación de colección en Solr
-    private boolean coreExistsInSolr(ClientSolr client, String core) {
-        String url = "http://" + client.getIp() + ":" + client.getPort() + "/solr/admin/cores?action=STATUS";
-        try {
-            ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
-            if (response.getStatusCode().is2xxSuccessful()) {
-                JsonObject json = JsonParser.parseString(response.getBody()).getAsJsonObject();
-                JsonObject status = json.getAsJsonObject("status");
-                return status.has(core);
-            }
-        } catch (Exception e) {
-            log.error("Error consultando coleccion de Solr", e);
+
+
+    // Indexación por flujo NDJSON (o arreglo JSON) validando cada documento al leerlo
+    public ResponseEntity<?> indexStream(String clientName, String core, Integer batchSize, Boolean commit, InputStream body) {
+        log.info("Indexación por flujo para cliente '{}' y colección '{}'", clientName, core);
+
+        // Validación ingreso de cliente
+        if (clientName == null || clientName.isBlank()) {
+            return ResponseEntity.badRequest().body("El cliente es obligatorio.");
         }
-        return false;
-    }
 
-    // Construcción HashMap de campos del esquema
-    private Map<String, String> fetchSolrSchemaFields(ClientSolr client, String core) {
-        String url = "http://" + client.getIp() + ":" + client.getPort()
-                   + "/solr/" + core + "/schema/fields";
+        // Validación de cliente en el registro
+        Timer.Sample phase = solrMetrics.start();
+        ClientSolr client = clientSolrRegistry.findByName(clientName).map(solrEndpointBalancer::forWrite).orElse(null);
+        solrMetrics.phase(phase, "index_stream", "client_lookup", client == null ? null : client.getName(), null);
+        if (client == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body("Cliente no encontrado: " + clientName);
+        }
+
+        // Validación ingreso de colección
+        if (core == null || core.isBlank()) {
+            return ResponseEntity.badRequest().body("La colección es obligatoria.");
+        }
+
+        // Validación de colección en Solr
+        phase = solrMetrics.start();
+        boolean coreExists = solrCoreCatalog.exists(client, core);
+        solrMetrics.phase(phase, "index_stream", "core_check", client.getName(), coreExists ? core : null);
+        if (!coreExists) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+            .body("La colección '" + core + "' no existe para el cliente " + clientName);
+        }
+
+        int size = batchSize == null ? ingestProperties.getBatchSize() : batchSize;
+        if (size <= 0 || size > ingestProperties.getMaxBatchSize()) {
+            return ResponseEntity.badRequest()
+                    .body("El parámetro 'batchSize' debe estar entre 1 y " + ingestProperties.getMaxBatchSize() + ".");
+        }
+
+        // Validación esquema de campos de Solr
+        SolrSchemaSnapshot schema = solrMetrics.time("index_stream", "schema_fetch", client.getName(), core,
+                () -> solrSchemaCache.snapshot(client, core));
+        if (schema == null || schema.fieldTypes().isEmpty()) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("No se pudo obtener el esquema de campos de Solr");
+        }
+
+        Mode commitMode = solrCommitCoordinator.resolve(client.getName(), core, commit);
+        String updateUrl = "http://" + client.getIp() + ":" + client.getPort() + "/solr/" + core
+                         + "/update" + solrCommitCoordinator.batchParams(commitMode);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        long started = System.currentTimeMillis();
+        long accepted = 0;
+        long rejected = 0;
+        long position = 0;
+        int batches = 0;
+        List<String> errors = new ArrayList<>();
+        List<Map<String, Object>> batch = new ArrayList<>(size);
+        Future<?> inFlight = null;
+        int inFlightSize = 0;
+        boolean submitted = false;
+        String failure = null;
+        HttpStatus failureStatus = HttpStatus.INTERNAL_SERVER_ERROR;
+
         try {
-            String body = restTemplate.getForObject(url, String.class);
-            JsonObject root = JsonParser.parseString(body).getAsJsonObject();
-            JsonArray arr = root.getAsJsonArray("fields");
-
-            Type listType = new TypeToken<List<JsonObject>>(){}.getType();
-            List<JsonObject> fields = gson.fromJson(arr, listType);
-
-            Map<String,String> map = new HashMap<>();
-            for (JsonObject field : fields) {
-                String name = field.get("name").getAsString();
-                String type = field.get("type").getAsString();
-                map.put(name, type);
+            JsonReader reader = new JsonReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+            reader.setStrictness(Strictness.LENIENT);
+            boolean array = reader.peek() == JsonToken.BEGIN_ARRAY;
+            if (array) {
+                reader.beginArray();
+            }
+            while (array ? reader.hasNext() : reader.peek() != JsonToken.END_DOCUMENT) {
+                position++;
+                Map<String, Object> doc = ingestGson.fromJson(reader, DOC_TYPE);
+                // Una línea 'null' es tan inválida como cualquier otro valor que no sea un objeto
+                if (doc == null) {
+                    throw new JsonParseException("se esperaba un objeto JSON y se recibió null");
+                }
+                String invalid = solrDocumentValidator.invalidField(schema, doc);
+                if (invalid != null) {
+                    rejected++;
+                    if (errors.size() < ingestProperties.getMaxReportedErrors()) {
+                        errors.add("Documento " + position + ": " + invalid);
+                    }
+                    continue;
+                }
+                batch.add(doc);
+                if (batch.size() == size) {
+                    // Solo un envío en curso: se lee el siguiente lote mientras Solr indexa el anterior.
+                    // Un lote cuenta como aceptado cuando Solr confirma el envío
+                    if (inFlight != null) {
+                        Future<?> previous = inFlight;
+                        inFlight = null;
+                        previous.get();
+                        accepted += inFlightSize;
+                        batches++;
+                    }
+                    inFlight = postBatch(client, core, updateUrl, headers, batch);
+                    inFlightSize = batch.size();
+                    submitted = true;
+                    batch = new ArrayList<>(size);
+                }
             }
-            log.info("Campos del esquema de Solr para coleccion '{}': {}", core, map);
-            return map;
+            if (array) {
+                reader.endArray();
+            }
+            if (inFlight != null) {
+                Future<?> previous = inFlight;
+                inFlight = null;
+                previous.get();
+                accepted += inFlightSize;
+                batches++;
+            }
+            if (!batch.isEmpty()) {
+                submitted = true;
+                postBatch(client, core, updateUrl, headers, batch).get();
+                accepted += batch.size();
+                batches++;
+            }
+        } catch (JsonParseException e) {
+            failure = "JSON mal formado en el documento " + position + ": " + e.getMessage();
+            failureStatus = HttpStatus.BAD_REQUEST;
+        } catch (ExecutionException e) {
+            log.error("Error al indexar lote en Solr", e.getCause());
+            failure = "Error al indexar en Solr: " + e.getCause().getMessage();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure = "Indexación interrumpida";
         } catch (Exception e) {
-            log.error("Error obteniendo esquema de campos de Solr", e);
-            return Collections.emptyMap();
+            log.error("Error en la indexación por flujo", e);
+            failure = "Error al indexar en Solr: " + e.getMessage();
         }
-    }
-
-    // Validación tipos de dato
-    private boolean isValidType(Object value, String solrType) {
-        if (value == null) return true;
-        String t = solrType.toLowerCase();
-
-        if (value instanceof Collection) {
-            Collection<?> values = (Collection<?>) value;
-            for (Object v : values) {
-                if (!isValidTypeSingle(v, t)) return false;
+        // Tras un fallo de lectura el lote en curso se espera para informar si Solr lo aceptó
+        if (inFlight != null && !Thread.currentThread().isInterrupted()) {
+            try {
+                inFlight.get();
+                accepted += inFlightSize;
+                batches++;
+            } catch (ExecutionException e) {
+                log.error("Error al indexar lote en Solr", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
-            return true;
         }
-        
-        if (value.getClass().isArray()) {
-            int length = java.lang.reflect.Array.getLength(value);
-            for (int i = 0; i < length; i++) {
-                Object v = java.lang.reflect.Array.get(value, i);
-                if (!isValidTypeSingle(v, t)) return false;
+        // También tras un fallo: los lotes que Solr aceptó se confirman según la política de commit,
+        // y si no se puede se informan como pendientes de commit
+        long uncommitted = 0;
+        if (accepted > 0) {
+            if (Thread.currentThread().isInterrupted()) {
+                uncommitted = accepted;
+            } else {
+                phase = solrMetrics.start();
+                try {
+                    solrCommitCoordinator.finish(client, core, commitMode);
+                } catch (Exception e) {
+                    log.error("Error al confirmar la indexación en Solr", e);
+                    uncommitted = accepted;
+                    if (failure == null) {
+                        failure = "Error al confirmar la indexación en Solr: " + e.getMessage();
+                    }
+                } finally {
+                    solrMetrics.phase(phase, "index_stream", "commit", client.getName(), core);
+                }
             }
-            return true;
         }
-        
-        return isValidTypeSingle(value, t);
-    }
+        // También tras un fallo: los lotes ya enviados, confirmados o no, pueden estar en la colección
+        if (submitted) {
+            solrQueryResultCache.invalidate(client.getName(), core);
+        }
 
-    private boolean isValidTypeSingle(Object value, String solrType) {
-        if (value == null) return true;
-        if (solrType.contains("int") || solrType.contains("double") ||
-            solrType.contains("float") || solrType.contains("long")) {
-            try {
-                Double.parseDouble(value.toString());
-                return true;
-            } catch (NumberFormatException ex) {
-                return false;
-            }
+        Map<String,Object> result = new LinkedHashMap<>();
+        result.put("message", failure == null ? "Documentos indexados con éxito" : failure);
+        result.put("accepted", accepted);
+        if (uncommitted > 0) {
+            result.put("uncommitted", uncommitted);
         }
-        if (solrType.contains("string") || solrType.contains("text")) {
-            return value instanceof String;
+        result.put("rejected", rejected);
+        result.put("batches", batches);
+        result.put("elapsedMs", System.currentTimeMillis() - started);
+        result.put("errors", errors);
+        if (failure != null) {
+            return ResponseEntity.status(failureStatus).body(result);
         }
-        
-        return true;
+        return ResponseEntity.ok(result);
+    }
+
+    private Future<?> postBatch(ClientSolr client, String core, String updateUrl, HttpHeaders headers, List<Map<String, Object>> docs) {
+        String json = ingestGson.toJson(docs);
+        return solrIoExecutor.submit(() -> {
+            solrMetrics.time("index_stream", "solr_call", client.getName(), core, () ->
+                    solrHttpTransport.forClient(client).postForEntity(updateUrl, new HttpEntity<>(json, headers), String.class));
+            solrMetrics.docsIndexed(client.getName(), core, docs.size());
+        });
     }
 }
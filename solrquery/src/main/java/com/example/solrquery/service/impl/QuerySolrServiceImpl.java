@@ -1,63 +1,84 @@
 package com.example.solrquery.service.impl;
 
-import java.lang.reflect.Type;
-import java.net.URI;
-import java.net.URLEncoder;
+import java.io.BufferedWriter;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
-import java.util.LinkedHashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.concurrent.TimeoutException;
 
-import org.springframework.http.HttpMethod;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.example.solrquery.dto.QuerySolrRequest;
 import com.example.solrquery.entity.ClientSolr;
-import com.example.solrquery.repository.ClientSolrRepository;
+import com.example.solrquery.repository.ClientSolrRegistry;
 import com.example.solrquery.service.QuerySolrService;
-import com.google.gson.Gson;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
-import com.google.gson.reflect.TypeToken;
+import com.example.solrquery.solr.SolrCoreCatalog;
+import com.example.solrquery.solr.SolrEndpointBalancer;
+import com.example.solrquery.solr.SolrMetrics;
+import com.example.solrquery.solr.SolrQueryResultCache;
+import com.example.solrquery.solr.SolrQueryExecutor;
+import com.example.solrquery.solr.SolrQueryExecutor.Fetched;
+import com.example.solrquery.solr.SolrQueryExecutor.Upstream;
+import com.example.solrquery.solr.SolrQueryRequests;
+import com.example.solrquery.solr.SolrQueryResultCache.Cached;
+import com.example.solrquery.solr.SolrResponseTransformer;
+import com.example.solrquery.solr.SolrResponseTransformer.Prepared;
+import com.example.solrquery.solr.SolrSingleFlight;
+import com.google.gson.stream.JsonReader;
+
+import io.micrometer.core.instrument.Timer;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 @Service
+@ConditionalOnProperty(name = "solr.query.mode", havingValue = "blocking", matchIfMissing = true)
 @RequiredArgsConstructor
 @Slf4j
 public class QuerySolrServiceImpl implements QuerySolrService{
 
-    private final ClientSolrRepository clientSolrRepository;
-    private final RestTemplate restTemplate = new RestTemplate();
-    
+    private final ClientSolrRegistry clientSolrRegistry;
+    private final SolrEndpointBalancer solrEndpointBalancer;
+    private final SolrCoreCatalog solrCoreCatalog;
+    private final SolrResponseTransformer solrResponseTransformer;
+    private final SolrQueryResultCache solrQueryResultCache;
+    private final SolrSingleFlight solrSingleFlight;
+    private final SolrMetrics solrMetrics;
+    private final SolrQueryExecutor solrQueryExecutor;
+
+    private static final String NO_RESULTS = SolrQueryExecutor.NO_RESULTS;
+    private static final String OPERATION = "consult";
+
     public ResponseEntity<?> consult(QuerySolrRequest request){
+        return consult(request, true);
+    }
 
-        log.info("JSON recibido: {}", request);
+    public ResponseEntity<?> consult(QuerySolrRequest request, boolean useCache){
 
-        // Validación ingreso de protocolo
-        if (request.getProtocol() == null || request.getProtocol().isBlank()) {
-            request.setProtocol("http"); 
-        }
+        log.info("JSON recibido: {}", request);
 
-        // Validación ingreso de tipo de consulta
-        if (request.getQt() == null || request.getQt().isBlank()) {
-            request.setQt("select");;
-        }
+        // Protocolo y tipo de consulta por defecto
+        SolrQueryRequests.applyDefaults(request);
 
         // Validación ingreso de cliente
         if (request.getClient() == null || request.getClient().isBlank()) {
             return ResponseEntity.badRequest().body("El cliente es obligatorio.");
         }
 
-        // Validación de cliente en MySQL
-        ClientSolr client = clientSolrRepository.findByName(request.getClient())
+        // Validación de cliente en el registro
+        Timer.Sample phase = solrMetrics.start();
+        // Consulta a la réplica elegida por el balanceador
+        ClientSolr client = clientSolrRegistry.findByName(request.getClient())
+                .map(solrEndpointBalancer::forRead)
                 .orElse(null);
+        solrMetrics.phase(phase, OPERATION, "client_lookup", client == null ? null : client.getName(), null);
         if (client == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body("Cliente no encontrado: " + request.getClient());
@@ -69,136 +90,113 @@ public class QuerySolrServiceImpl implements QuerySolrService{
         }
 
         // Validación de colección en Solr
-        if (!coreExistsInSolr(client, request.getCore())) {
+        phase = solrMetrics.start();
+        boolean coreExists = solrCoreCatalog.exists(client, request.getCore());
+        solrMetrics.phase(phase, OPERATION, "core_check", client.getName(), coreExists ? request.getCore() : null);
+        if (!coreExists) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
             .body("La colección '" + request.getCore() + "' no existe para el cliente " + request.getClient());
         }
 
-        // Validación sort
-        if (!isValidSort(request.getSort())) {
-            return ResponseEntity.badRequest().body("El parámetro 'sort' debe tener el formato '<campo> asc' o '<campo> desc'.");
+        // Validación sort, start y rows
+        String invalid = SolrQueryRequests.invalidParams(request.getSort(), request.getStart(), request.getRows());
+        if (invalid != null) {
+            return ResponseEntity.badRequest().body(invalid);
         }
 
-        // Validación start
-        if (!isNullOrInteger(request.getStart())) {
-            return ResponseEntity.badRequest().body("El parámetro 'start' debe ser un número entero.");
-        }
-        // Validación rows
-        if (!isNullOrInteger(request.getRows())) {
-            return ResponseEntity.badRequest().body("El parámetro 'rows' debe ser un número entero.");
+        // Respuesta guardada para la misma consulta normalizada
+        boolean materialize = solrQueryResultCache.isMaterializable(request);
+        String cacheKey = null;
+        if (!useCache) {
+            solrQueryResultCache.recordBypass();
+        } else if (materialize && solrQueryResultCache.isEnabled()) {
+            cacheKey = solrQueryResultCache.key(request);
+            Cached cached = solrQueryResultCache.get(cacheKey);
+            if (cached != null) {
+                return cachedResponse(cached, "HIT");
+            }
         }
+        long generation = solrQueryResultCache.generation(client.getName(), request.getCore());
 
         // Construcción de URL
-        String baseUrl = request.getProtocol() + "://" + client.getIp() + ":" + client.getPort() + "/solr/" + request.getCore() + "/" + request.getQt();
-        UriComponentsBuilder builder = UriComponentsBuilder.fromUriString(baseUrl);
-
-        addIfNotBlank(builder, "q", request.getQ());
-        addIfNotBlank(builder, "fq", request.getFq());
-        addIfNotBlank(builder, "start", request.getStart());
-        addIfNotBlank(builder, "rows", request.getRows());
-        addIfNotBlank(builder, "fl", request.getFl());
-        addIfNotBlank(builder, "facet.query", request.getFacetQuery());
-        addIfNotBlank(builder, "facet.field", request.getFacetField());
-
-        String finalUrl = builder.build(true).encode().toUriString();
-
-        if (request.getSort()!=null && !request.getSort().isEmpty()){
-            finalUrl += (finalUrl.contains("?") ? "&" : "?") + "sort=" + request.getSort();
-        }
-
-        if (request.getJsonFacet()!=null && !request.getJsonFacet().isEmpty()){
-            String json = new Gson().toJson(request.getJsonFacet());
-            String jsonEncoded = URLEncoder.encode(json, StandardCharsets.UTF_8);
-            finalUrl += (finalUrl.contains("?") ? "&" : "?") + "json.facet=" + jsonEncoded;
+        phase = solrMetrics.start();
+        String finalUrl = SolrQueryRequests.buildUrl(client, request);
+        log.debug("URL de consulta a Solr: {}", finalUrl);
+        solrMetrics.phase(phase, OPERATION, "url_build", client.getName(), request.getCore());
+
+        // Consultas pequeñas: las peticiones simultáneas con la misma consulta comparten una sola llamada a Solr.
+        // La clave es la del cliente lógico, no la de la réplica elegida, para que el balanceo no las separe.
+        // La generación de la colección evita unirse a una llamada iniciada antes de una escritura.
+        if (materialize) {
+            String url = finalUrl;
+            String flightKey = (cacheKey != null ? cacheKey : solrQueryResultCache.key(request)) + "#" + generation;
+            Fetched fetched;
+            try {
+                fetched = solrSingleFlight.execute(flightKey,
+                        () -> solrQueryExecutor.fetch(OPERATION, client, request.getCore(), url));
+            } catch (TimeoutException e) {
+                return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT)
+                        .body("Tiempo de espera agotado esperando la consulta en curso a Solr");
+            }
+            if (fetched.error() != null) {
+                return fetched.error();
+            }
+            if (cacheKey != null) {
+                solrQueryResultCache.put(cacheKey, client.getName(), request.getCore(), generation, fetched.cached());
+            }
+            return cachedResponse(fetched.cached(), cacheKey != null ? "MISS" : "BYPASS");
         }
 
-        if ((request.getFacetQuery()!=null && !request.getFacetQuery().isEmpty())||
-            (request.getFacetField()!=null && !request.getFacetField().isEmpty())){
-            finalUrl += "&facet=on";
+        Upstream upstream = solrQueryExecutor.open(OPERATION, client, request.getCore(), finalUrl);
+        if (upstream.error() != null) {
+            return upstream.error();
         }
-        
-        // Consulta a Solr
-        ResponseEntity<String> solrResponse;
-        try {
-            solrResponse = restTemplate.exchange(new URI(finalUrl), HttpMethod.GET, null, String.class);
-        } catch (Exception e) {
-            log.error("Error al consultar Solr", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Error al consultar Solr, revise los parámetros: " + e.getMessage());
-        }
-
-        log.info("Respuesta de Solr: {}", solrResponse.getBody());
-
-        return processSolrResponse(solrResponse.getBody());
+        return processSolrResponse(upstream.response(), client.getName(), request.getCore());
     }
 
-    // Validación de colección en Solr
-    private boolean coreExistsInSolr(ClientSolr client, String core) {
-        String url = "http://" + client.getIp() + ":" + client.getPort() + "/solr/admin/cores?action=STATUS";
-        try {
-            ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
-            if (response.getStatusCode().is2xxSuccessful()) {
-                JsonObject json = JsonParser.parseString(response.getBody()).getAsJsonObject();
-                JsonObject status = json.getAsJsonObject("status");
-                return status.has(core);
-            }
-        } catch (Exception e) {
-            log.error("Error consultando coleccion de Solr", e);
+    private ResponseEntity<?> cachedResponse(Cached cached, String cacheStatus) {
+        if (!cached.json()) {
+            return ResponseEntity.ok().header(CACHE_HEADER, cacheStatus)
+                    .body(new String(cached.body(), StandardCharsets.UTF_8));
         }
-        return false;
+        return ResponseEntity.ok().header(CACHE_HEADER, cacheStatus)
+                .contentType(MediaType.APPLICATION_JSON).body(cached.body());
     }
 
-    // Salida de docs, facet_count y facets
-    private ResponseEntity<?> processSolrResponse(String solrJson) {
+    // Salida de docs, facet_count y facets sin cargar la respuesta completa en memoria
+    // El procesamiento se mide hasta terminar de transmitir el cuerpo
+    private ResponseEntity<?> processSolrResponse(ClientHttpResponse solrResponse, String client, String core) {
+        Timer.Sample phase = solrMetrics.start();
+        Prepared prepared;
         try {
-            JsonObject solrObj = JsonParser.parseString(solrJson).getAsJsonObject();
-            JsonObject response = solrObj.getAsJsonObject("response");
-            int numFound = response.get("numFound").getAsInt();
-
-            if (numFound == 0 && (!(solrObj.has("facet_counts"))) && (!(solrObj.has("facets"))) ) {
-                return ResponseEntity.ok("No hay resultados");
-            }
-            JsonArray docs = response.getAsJsonArray("docs");
-            JsonObject facetCounts = solrObj.has("facet_counts") ? solrObj.getAsJsonObject("facet_counts") : null;
-            JsonObject facets = solrObj.has("facets") ? solrObj.getAsJsonObject("facets") : null;
-            Type listType = new TypeToken<List<Map<String, Object>>>(){}.getType();
-            List<Map<String, Object>> docsList = new Gson().fromJson(docs, listType);
-            Map<String, Object> result = new LinkedHashMap<>();
-            result.put("docs", docsList);
-            if (facetCounts != null) {
-                result.put("facet_counts", new Gson().fromJson(facetCounts, Map.class));
+            JsonReader reader = new JsonReader(new InputStreamReader(solrResponse.getBody(), StandardCharsets.UTF_8));
+            prepared = solrResponseTransformer.prepare(reader);
+            if (prepared.isEmpty()) {
+                solrResponse.close();
+                solrMetrics.phase(phase, OPERATION, "response_processing", client, core);
+                return ResponseEntity.ok().header(CACHE_HEADER, "BYPASS").body(NO_RESULTS);
             }
-            if (facets != null) {
-                result.put("facets", new Gson().fromJson(facets, Map.class));
-            }
-            return ResponseEntity.ok(result);
-
         } catch (Exception e) {
+            solrResponse.close();
+            solrMetrics.phase(phase, OPERATION, "response_processing", client, core);
             log.error("Error procesando la respuesta de Solr", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Error procesando la respuesta de Solr: " + e.getMessage());
         }
-    }
 
-    private boolean isValidSort(String sort) {
-        if (sort == null || sort.isBlank()) return true; 
-        return sort.matches("^[a-zA-Z0-9_.]+\\s+(asc|desc)$");
-    }
-    
-    private boolean isNullOrInteger(String val) {
-        if (val == null || val.isBlank()) return true;
-        try {
-            Integer.parseInt(val);
-            return true;
-        } catch (NumberFormatException e) {
-            return false;
-        }
-    }
-    
-    private void addIfNotBlank(UriComponentsBuilder builder, String key, String value) {
-        if (value != null && !value.isBlank()) {
-            builder.queryParam(key, value);
-        }
+        StreamingResponseBody body = out -> {
+            try (solrResponse) {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                solrResponseTransformer.write(prepared, writer);
+            } catch (Exception e) {
+                // La respuesta ya comenzó a enviarse, no se puede cambiar el estado HTTP
+                log.error("Error transmitiendo la respuesta de Solr", e);
+                throw e;
+            } finally {
+                solrMetrics.phase(phase, OPERATION, "response_processing", client, core);
+            }
+        };
+        return ResponseEntity.ok().header(CACHE_HEADER, "BYPASS")
+                .contentType(MediaType.APPLICATION_JSON).body(body);
     }
-    
-}
\ No newline at end of file
+}
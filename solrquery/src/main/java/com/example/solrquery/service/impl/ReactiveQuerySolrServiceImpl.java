@@ -0,0 +1,287 @@
+package com.example.solrquery.service.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+
+import com.example.solrquery.dto.QuerySolrRequest;
+import com.example.solrquery.entity.ClientSolr;
+import com.example.solrquery.exception.ClientRegistryUnavailableException;
+import com.example.solrquery.exception.SolrNodeBusyException;
+import com.example.solrquery.repository.ClientSolrRegistry;
+import com.example.solrquery.service.QuerySolrService;
+import com.example.solrquery.solr.SolrCoreCatalog;
+import com.example.solrquery.solr.SolrEndpointBalancer;
+import com.example.solrquery.solr.SolrHedger;
+import com.example.solrquery.solr.SolrHttpTransport;
+import com.example.solrquery.solr.SolrMetrics;
+import com.example.solrquery.solr.SolrQueryExecutor;
+import com.example.solrquery.solr.SolrQueryResultCache;
+import com.example.solrquery.solr.SolrQueryRequests;
+import com.example.solrquery.solr.SolrQueryResultCache.Cached;
+import com.example.solrquery.solr.SolrReactiveResponseTransformer;
+import com.example.solrquery.solr.SolrReactiveTransport;
+import com.example.solrquery.solr.SolrSingleFlight;
+
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+// Consulta sin bloqueo (solr.query.mode=reactive): cliente, colección y consulta a Solr en un solo flujo
+// sobre los hilos de eventos de SolrReactiveTransport. Mismas validaciones y respuestas que QuerySolrServiceImpl.
+@Service
+@ConditionalOnProperty(name = "solr.query.mode", havingValue = "reactive")
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveQuerySolrServiceImpl implements QuerySolrService {
+
+    private final ClientSolrRegistry clientSolrRegistry;
+    private final SolrEndpointBalancer solrEndpointBalancer;
+    private final SolrReactiveTransport solrReactiveTransport;
+    private final SolrCoreCatalog solrCoreCatalog;
+    private final SolrReactiveResponseTransformer solrReactiveResponseTransformer;
+    private final SolrQueryResultCache solrQueryResultCache;
+    private final SolrSingleFlight solrSingleFlight;
+    private final SolrHedger solrHedger;
+    private final SolrMetrics solrMetrics;
+
+    private static final String OPERATION = "consult";
+
+    public ResponseEntity<?> consult(QuerySolrRequest request) {
+        return consult(request, true);
+    }
+
+    public ResponseEntity<?> consult(QuerySolrRequest request, boolean useCache) {
+        return consultReactive(request, useCache).block();
+    }
+
+    @Override
+    public Mono<ResponseEntity<?>> consultReactive(QuerySolrRequest request, boolean useCache) {
+
+        log.info("JSON recibido: {}", request);
+
+        // Protocolo y tipo de consulta por defecto
+        SolrQueryRequests.applyDefaults(request);
+
+        // Validación ingreso de cliente
+        if (request.getClient() == null || request.getClient().isBlank()) {
+            return Mono.just(ResponseEntity.badRequest().body("El cliente es obligatorio."));
+        }
+
+        // Validación de cliente en el registro
+        Timer.Sample phase = solrMetrics.start();
+        return findClient(request.getClient())
+                .doOnSuccess(client -> solrMetrics.phase(phase, OPERATION, "client_lookup",
+                        client == null ? null : client.getName(), null))
+                .<ResponseEntity<?>>flatMap(client -> consultClient(request, client, useCache))
+                .switchIfEmpty(Mono.fromSupplier(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body("Cliente no encontrado: " + request.getClient())))
+                .onErrorResume(ClientRegistryUnavailableException.class,
+                        e -> Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage())));
+    }
+
+    private Mono<ResponseEntity<?>> consultClient(QuerySolrRequest request, ClientSolr client, boolean useCache) {
+
+        // Validación ingreso de colección
+        if (request.getCore() == null || request.getCore().isBlank()) {
+            return Mono.just(ResponseEntity.badRequest().body("La colección es obligatoria."));
+        }
+
+        // Validación de colección en Solr
+        Timer.Sample phase = solrMetrics.start();
+        return coreExists(client, request.getCore()).flatMap(exists -> {
+            solrMetrics.phase(phase, OPERATION, "core_check", client.getName(), exists ? request.getCore() : null);
+            if (!exists) {
+                return Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body("La colección '" + request.getCore() + "' no existe para el cliente " + request.getClient()));
+            }
+            return query(request, client, useCache);
+        });
+    }
+
+    private Mono<ResponseEntity<?>> query(QuerySolrRequest request, ClientSolr client, boolean useCache) {
+
+        // Validación sort, start y rows
+        String invalid = SolrQueryRequests.invalidParams(request.getSort(), request.getStart(), request.getRows());
+        if (invalid != null) {
+            return Mono.just(ResponseEntity.badRequest().body(invalid));
+        }
+
+        // Respuesta guardada para la misma consulta normalizada
+        boolean materialize = solrQueryResultCache.isMaterializable(request);
+        String cacheKey = null;
+        if (!useCache) {
+            solrQueryResultCache.recordBypass();
+        } else if (materialize && solrQueryResultCache.isEnabled()) {
+            cacheKey = solrQueryResultCache.key(request);
+            Cached cached = solrQueryResultCache.get(cacheKey);
+            if (cached != null) {
+                return Mono.just(cachedResponse(cached, "HIT"));
+            }
+        }
+        long generation = solrQueryResultCache.generation(client.getName(), request.getCore());
+
+        // Construcción de URL
+        Timer.Sample phase = solrMetrics.start();
+        String finalUrl = SolrQueryRequests.buildUrl(client, request);
+        log.debug("URL de consulta a Solr: {}", finalUrl);
+        solrMetrics.phase(phase, OPERATION, "url_build", client.getName(), request.getCore());
+
+        // Consultas pequeñas: se completan en memoria para guardarlas en la caché. Las peticiones simultáneas
+        // con la misma consulta comparten una sola llamada, con la misma clave que QuerySolrServiceImpl.
+        if (materialize) {
+            String key = cacheKey;
+            String flightKey = (key != null ? key : solrQueryResultCache.key(request)) + "#" + generation;
+            return solrSingleFlight.executeReactive(flightKey, () -> fetch(request, client))
+                    .<ResponseEntity<?>>map(cached -> {
+                        if (key != null) {
+                            solrQueryResultCache.put(key, client.getName(), request.getCore(), generation, cached);
+                        }
+                        return cachedResponse(cached, key != null ? "MISS" : "BYPASS");
+                    })
+                    .onErrorResume(e -> Mono.just(errorResponse(finalUrl, e)));
+        }
+
+        // El estado HTTP se decide con el primer bloque: hasta entonces no se envía nada al cliente.
+        // El resto del flujo se transmite con contrapresión hacia la respuesta.
+        return open(request, client)
+                .<ResponseEntity<?>>flatMap(solrBody -> transform(solrBody, client.getName(), request.getCore())
+                        .<ResponseEntity<?>>switchOnFirst((first, flux) -> {
+                            if (first.hasValue()) {
+                                return Mono.just(ResponseEntity.ok().header(CACHE_HEADER, "BYPASS")
+                                        .contentType(MediaType.APPLICATION_JSON).body(flux));
+                            }
+                            if (first.hasError()) {
+                                return Mono.just(errorResponse(finalUrl, first.getThrowable()));
+                            }
+                            return Mono.just(ResponseEntity.ok().header(CACHE_HEADER, "BYPASS")
+                                    .body(SolrQueryExecutor.NO_RESULTS));
+                        }, false)
+                        .single())
+                .onErrorResume(e -> Mono.just(errorResponse(finalUrl, e)));
+    }
+
+    // Respuesta completa en memoria; se comparte entre las peticiones unidas a la misma llamada
+    private Mono<Cached> fetch(QuerySolrRequest request, ClientSolr client) {
+        return open(request, client)
+                .flatMap(solrBody -> transform(solrBody, client.getName(), request.getCore())
+                        .collect(ByteArrayOutputStream::new, ByteArrayOutputStream::writeBytes))
+                .map(out -> out.size() == 0
+                        ? new Cached(SolrQueryExecutor.NO_RESULTS.getBytes(StandardCharsets.UTF_8), false)
+                        : new Cached(out.toByteArray(), true));
+    }
+
+    // Consulta a Solr, duplicada en otra réplica si el nodo tarda más de lo habitual; emite el cuerpo
+    // de la primera respuesta correcta. La respuesta perdedora se cancela sin leerla.
+    private Mono<Flux<DataBuffer>> open(QuerySolrRequest request, ClientSolr client) {
+        return Mono.defer(() -> {
+            Timer.Sample phase = solrMetrics.start();
+            return solrHedger.executeReactive(client, request.getCore(),
+                            node -> requestSolr(SolrQueryRequests.buildUrl(node, request)),
+                            solrBody -> solrBody.subscribe(DataBufferUtils::release).dispose())
+                    .doFinally(signal -> solrMetrics.phase(phase, OPERATION, "solr_call", client.getName(), request.getCore()));
+        });
+    }
+
+    // Salida de docs, facet_count y facets; el procesamiento se mide hasta terminar de transmitir el cuerpo
+    private Flux<byte[]> transform(Flux<DataBuffer> solrBody, String client, String core) {
+        return Flux.defer(() -> {
+            Timer.Sample phase = solrMetrics.start();
+            return solrReactiveResponseTransformer.transform(solrBody)
+                    .doFinally(signal -> solrMetrics.phase(phase, OPERATION, "response_processing", client, core));
+        });
+    }
+
+    // Registro en memoria; solo se acude a MySQL, fuera de los hilos de eventos, si el cliente no está cargado
+    private Mono<ClientSolr> findClient(String name) {
+        return clientSolrRegistry.findLoaded(name)
+                .map(Mono::just)
+                .orElseGet(() -> Mono.fromCallable(() -> clientSolrRegistry.findByName(name).orElse(null))
+                        .subscribeOn(Schedulers.boundedElastic()))
+                .map(solrEndpointBalancer::forRead);
+    }
+
+    // Listado de colecciones en caché; si no alcanza se consulta el nodo con el cliente reactivo
+    private Mono<Boolean> coreExists(ClientSolr client, String core) {
+        Boolean cached = solrCoreCatalog.cachedExists(client, core);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        return solrReactiveTransport.webClient().get()
+                .uri(URI.create(SolrCoreCatalog.statusUrl(client)))
+                .retrieve()
+                .bodyToMono(String.class)
+                .map(status -> solrCoreCatalog.update(client, status, core))
+                .onErrorResume(e -> {
+                    solrCoreCatalog.failed(client);
+                    log.error("Error consultando colecciones de Solr en {}:{}", client.getIp(), client.getPort(), e);
+                    return Mono.just(false);
+                });
+    }
+
+    // Cuerpo de la respuesta al recibir los headers; un estado de error llega como UpstreamException
+    private Mono<Flux<DataBuffer>> requestSolr(String finalUrl) {
+        return Mono.defer(() -> solrReactiveTransport.webClient().get()
+                .uri(URI.create(finalUrl))
+                .attribute(SolrHttpTransport.CONSULT_ATTRIBUTE, Boolean.TRUE)
+                .retrieve()
+                .onStatus(HttpStatusCode::isError, response -> response.bodyToMono(String.class)
+                        .defaultIfEmpty("")
+                        .map(error -> new UpstreamException(response.statusCode() + ": " + error)))
+                .toEntityFlux(DataBuffer.class)
+                .map(ResponseEntity::getBody));
+    }
+
+    // Mismas respuestas que la consulta bloqueante (SolrQueryExecutor): estado de error de Solr 500,
+    // nodo sin cupo 503 y tiempo agotado 504; la espera de una consulta en curso agotada también es 504
+    private ResponseEntity<?> errorResponse(String finalUrl, Throwable e) {
+        if (e instanceof UpstreamException) {
+            return SolrQueryExecutor.solrError(e.getMessage());
+        }
+        if (e instanceof TimeoutException) {
+            return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT)
+                    .body("Tiempo de espera agotado esperando la consulta en curso a Solr");
+        }
+        Throwable cause = SolrReactiveTransport.unwrap(e);
+        if (cause instanceof SolrNodeBusyException || cause instanceof SocketTimeoutException
+                || cause instanceof WebClientRequestException || cause instanceof IllegalArgumentException) {
+            return SolrQueryExecutor.callError(finalUrl, cause);
+        }
+        log.error("Error procesando la respuesta de Solr", e);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body("Error procesando la respuesta de Solr: " + e.getMessage());
+    }
+
+    private ResponseEntity<?> cachedResponse(Cached cached, String cacheStatus) {
+        if (!cached.json()) {
+            return ResponseEntity.ok().header(CACHE_HEADER, cacheStatus)
+                    .body(new String(cached.body(), StandardCharsets.UTF_8));
+        }
+        return ResponseEntity.ok().header(CACHE_HEADER, cacheStatus)
+                .contentType(MediaType.APPLICATION_JSON).body(cached.body());
+    }
+
+    // Error de la llamada a Solr (conexión o estado HTTP), distinto de un error al procesar su respuesta
+    private static final class UpstreamException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private UpstreamException(String message) {
+            super(message);
+        }
+    }
+}
@@ -2,29 +2,48 @@ package com.example.solrquery.service.impl;
 
 import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Predicate;
 
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.client.HttpStatusCodeException;
 
+import com.example.solrquery.config.SolrSchemaProperties;
+import com.example.solrquery.dto.CreateCopyFieldsBulkRequest;
+import com.example.solrquery.dto.CreateCopyFieldsBulkRequest.CopyFieldSpec;
 import com.example.solrquery.dto.CreateCopyFieldsRequest;
 import com.example.solrquery.dto.DuplicateFieldsRequest;
 import com.example.solrquery.entity.ClientSolr;
-import com.example.solrquery.repository.ClientSolrRepository;
+import com.example.solrquery.repository.ClientSolrRegistry;
 import com.example.solrquery.service.SchemaService;
+import com.example.solrquery.solr.SolrCoreCatalog;
+import com.example.solrquery.solr.SolrEndpointBalancer;
+import com.example.solrquery.solr.SolrHttpTransport;
+import com.example.solrquery.solr.SolrMetrics;
+import com.example.solrquery.solr.SolrSchemaCache;
+import com.example.solrquery.solr.SolrSchemaSnapshot;
 import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
 import com.google.gson.reflect.TypeToken;
 
+import io.micrometer.core.instrument.Timer;
+
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -33,8 +52,15 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class SchemaServiceImpl implements SchemaService{
 
-    private final ClientSolrRepository clientSolrRepository;
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final ClientSolrRegistry clientSolrRegistry;
+    private final SolrEndpointBalancer solrEndpointBalancer;
+    private final SolrHttpTransport solrHttpTransport;
+    private final SolrCoreCatalog solrCoreCatalog;
+    private final SolrSchemaCache solrSchemaCache;
+    private final SolrMetrics solrMetrics;
+    private final SolrSchemaProperties schemaProperties;
+    @Qualifier("solrIoExecutor")
+    private final ExecutorService solrIoExecutor;
     private final Gson gson = new Gson();
 
     public ResponseEntity<?> duplicateFields(DuplicateFieldsRequest request){
@@ -46,9 +72,13 @@ public class SchemaServiceImpl implements SchemaService{
             return ResponseEntity.badRequest().body("El cliente es obligatorio.");
         }
 
-        // Validación de cliente en MySQL
-        ClientSolr client = clientSolrRepository.findByName(request.getClient())
+        // Validación de cliente en el registro
+        Timer.Sample phase = solrMetrics.start();
+        // Lectura y cambios de esquema en el nodo líder del cliente
+        ClientSolr client = clientSolrRegistry.findByName(request.getClient())
+                .map(solrEndpointBalancer::forWrite)
                 .orElse(null);
+        solrMetrics.phase(phase, "duplicate_fields", "client_lookup", client == null ? null : client.getName(), null);
         if (client == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body("Cliente no encontrado: " + request.getClient());
@@ -60,7 +90,10 @@ public class SchemaServiceImpl implements SchemaService{
         }
 
         // Validación de colección origen en Solr
-        if (!coreExistsInSolr(client, request.getSourceCore())) {
+        phase = solrMetrics.start();
+        boolean sourceExists = solrCoreCatalog.exists(client, request.getSourceCore());
+        solrMetrics.phase(phase, "duplicate_fields", "core_check", client.getName(), sourceExists ? request.getSourceCore() : null);
+        if (!sourceExists) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body("La colección origen '" + request.getSourceCore() + "' no existe.");
         }
@@ -72,53 +105,86 @@ public class SchemaServiceImpl implements SchemaService{
         }
 
         // Validación de colección destino en Solr
-        if (!coreExistsInSolr(client, request.getTargetCore())) {
+        phase = solrMetrics.start();
+        boolean targetExists = solrCoreCatalog.exists(client, request.getTargetCore());
+        solrMetrics.phase(phase, "duplicate_fields", "core_check", client.getName(), targetExists ? request.getTargetCore() : null);
+        if (!targetExists) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body("La colección destino '" + request.getTargetCore() + "' no existe.");
         }
 
-        // Obtener campos de colección origen
-        List<JsonObject> sourceFields = fetchRawSchemaFields(client, request.getSourceCore());
-
-        // Obtener campos de colección destino
-        Map<String, String> targetFields = fetchSchemaFields(client, request.getTargetCore());
-
-        List<String> added = new ArrayList<>();
-        String schemaTargetUrl = buildBaseUrl(client, request.getTargetCore()) + "/schema";
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
+        // Esquemas de origen y destino en paralelo, desde la caché si su versión no cambió
+        boolean includeDynamic = Boolean.TRUE.equals(request.getIncludeDynamicFields());
+        boolean includeTypes = Boolean.TRUE.equals(request.getIncludeFieldTypes());
+        boolean includeCopies = Boolean.TRUE.equals(request.getIncludeCopyFields());
+        phase = solrMetrics.start();
+        CompletableFuture<SolrSchemaSnapshot> sourceSchema = CompletableFuture.supplyAsync(
+                () -> solrSchemaCache.current(client, request.getSourceCore()), solrIoExecutor);
+        SolrSchemaSnapshot target = solrSchemaCache.current(client, request.getTargetCore());
+        SolrSchemaSnapshot source = await(sourceSchema);
+        solrMetrics.phase(phase, "duplicate_fields", "schema_fetch", client.getName(), request.getTargetCore());
+        if (source == null || target == null) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("No se pudo obtener el esquema de la colección '"
+                        + (source == null ? request.getSourceCore() : request.getTargetCore()) + "'.");
+        }
 
-        // Comparación de campos, si no existe el campo entonces se crea en colección destino
-        for (JsonObject field : sourceFields){
-            String name = field.get("name").getAsString();
-            if(!targetFields.containsKey(name)){
-                JsonObject addField = new JsonObject();
-                addField.addProperty("name", name);
-                addField.addProperty("type", field.get("type").getAsString());
-                if (field.has("multiValued"))
-                    addField.addProperty("multiValued", field.get("multiValued").getAsBoolean());
-                if (field.has("stored"))
-                    addField.addProperty("stored", field.get("stored").getAsBoolean());
-                if (field.has("indexed"))
-                    addField.addProperty("indexed", field.get("indexed").getAsBoolean());
-                JsonObject body = new JsonObject();
-                body.add("add-field", addField);
-                restTemplate.postForEntity(schemaTargetUrl, new HttpEntity<>(gson.toJson(body), headers), String.class);
-                added.add(name);
-            }
+        // Comparación de esquemas: lo que no existe en destino se crea en un solo envío a la Schema API,
+        // con los tipos antes que los campos que los usan y los copyFields al final
+        List<JsonObject> targetFields = target.fieldDefinitions();
+        List<JsonObject> addedTypes = includeTypes
+                ? missingByName(source.fieldTypeDefinitions(), target::hasFieldType) : List.of();
+        List<JsonObject> addedFields = missingFields(source.fieldDefinitions(), target.fieldTypes());
+        List<JsonObject> addedDynamic = includeDynamic
+                ? missingByName(source.dynamicFieldDefinitions(), pattern -> target.dynamicFieldType(pattern) != null)
+                : List.of();
+        List<JsonObject> addedCopies = includeCopies
+                ? missingCopyFields(source.copyFieldDefinitions(), target) : List.of();
+
+        JsonObject commands = new JsonObject();
+        addCommand(commands, "add-field-type", addedTypes);
+        addCommand(commands, "add-field", addedFields);
+        addCommand(commands, "add-dynamic-field", addedDynamic);
+        addCommand(commands, "add-copy-field", addedCopies);
+        if (commands.size() > 0) {
+            String schemaTargetUrl = buildBaseUrl(client, request.getTargetCore()) + "/schema";
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            solrMetrics.time("duplicate_fields", "schema_update", client.getName(), request.getTargetCore(), () ->
+                    solrHttpTransport.forClient(client).postForEntity(schemaTargetUrl,
+                            new HttpEntity<>(gson.toJson(commands), headers), String.class));
+            solrMetrics.schemaMutations(client.getName(), request.getTargetCore(), "add-field-type", addedTypes.size());
+            solrMetrics.schemaMutations(client.getName(), request.getTargetCore(), "add-field", addedFields.size());
+            solrMetrics.schemaMutations(client.getName(), request.getTargetCore(), "add-dynamic-field", addedDynamic.size());
+            solrMetrics.schemaMutations(client.getName(), request.getTargetCore(), "add-copy-field", addedCopies.size());
+            solrSchemaCache.invalidate(client, request.getTargetCore());
         }
 
-        // Imprimir campos disponibles y campos añadidos
-        List<JsonObject> updatedTargetFields = fetchRawSchemaFields(client, request.getTargetCore());
+        // Campos disponibles en destino a partir de la comparación, sin volver a consultar el esquema
+        Type mapType = new TypeToken<Map<String,Object>>(){}.getType();
         List<Map<String,Object>> updated = new ArrayList<>();
-        for(JsonObject fieldDef : updatedTargetFields){
-            Type mapType = new TypeToken<Map<String,Object>>(){}.getType();
-            Map<String, Object> map = gson.fromJson(fieldDef, mapType);
-            updated.add(map);
+        for (JsonObject fieldDef : targetFields) {
+            updated.add(gson.fromJson(fieldDef, mapType));
+        }
+        for (JsonObject fieldDef : addedFields) {
+            updated.add(gson.fromJson(fieldDef, mapType));
         }
         Map<String,Object> result = new HashMap<>();
-        result.put("addedFields", added);
+        result.put("addedFields", names(addedFields));
         result.put("allFields", updated);
+        if (includeDynamic) {
+            result.put("addedDynamicFields", names(addedDynamic));
+        }
+        if (includeTypes) {
+            result.put("addedFieldTypes", names(addedTypes));
+        }
+        if (includeCopies) {
+            List<Map<String,Object>> copies = new ArrayList<>();
+            for (JsonObject copyField : addedCopies) {
+                copies.add(gson.fromJson(copyField, mapType));
+            }
+            result.put("addedCopyFields", copies);
+        }
         return ResponseEntity.ok(result);
 
     }
@@ -135,9 +201,13 @@ public class SchemaServiceImpl implements SchemaService{
             return ResponseEntity.badRequest().body("El cliente es obligatorio.");
         }
 
-        // Validación de cliente en MySQL
-        ClientSolr client = clientSolrRepository.findByName(request.getClient())
+        // Validación de cliente en el registro
+        Timer.Sample phase = solrMetrics.start();
+        // Lectura y cambios de esquema en el nodo líder del cliente
+        ClientSolr client = clientSolrRegistry.findByName(request.getClient())
+                .map(solrEndpointBalancer::forWrite)
                 .orElse(null);
+        solrMetrics.phase(phase, "create_copy_fields", "client_lookup", client == null ? null : client.getName(), null);
         if (client == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body("Cliente no encontrado: " + request.getClient());
@@ -149,7 +219,10 @@ public class SchemaServiceImpl implements SchemaService{
         }
 
         // Validación de colección en Solr
-        if (!coreExistsInSolr(client, request.getCore())) {
+        phase = solrMetrics.start();
+        boolean coreExists = solrCoreCatalog.exists(client, request.getCore());
+        solrMetrics.phase(phase, "create_copy_fields", "core_check", client.getName(), coreExists ? request.getCore() : null);
+        if (!coreExists) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body("La colección origen '" + request.getCore() + "' no existe.");
         }
@@ -159,285 +232,354 @@ public class SchemaServiceImpl implements SchemaService{
             return ResponseEntity.badRequest().body("El campo para hacerle copyField es obligatorio.");
         }
 
-        // Validación de que exista el campo a hacerle el copyField
-        Map<String, String> fields = fetchSchemaFields(client, request.getCore());
-        if(!fields.containsKey(request.getField())){
-            return ResponseEntity.badRequest().body("El campo " + request.getField() + 
-                " no existe en la colección " + request.getCore());
+        // Esquema indexado de la colección: una sola lectura de /schema, reutilizada mientras su versión no cambie
+        SolrSchemaSnapshot schema = solrMetrics.time("create_copy_fields", "schema_fetch", client.getName(),
+                request.getCore(), () -> solrSchemaCache.current(client, request.getCore()));
+        if (schema == null) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("No se pudo obtener el esquema de la colección '" + request.getCore() + "'.");
         }
 
-        // Validación de ingreso de tipo copyField o campo base para copyfield, no se aceptan ambos
-        if((request.getTypeCopyField() == null && request.getFieldToCopy() == null) || 
-            (request.getTypeCopyField().isBlank() && request.getFieldToCopy().isBlank())){
-            return ResponseEntity.badRequest().body("Es obligatorio especificar 'typeCopyField' o 'fieldToCopy'");
+        // Mismas validaciones que cada copyField del lote
+        CopyFieldSpec spec = new CopyFieldSpec();
+        spec.setField(request.getField());
+        spec.setTypeCopyField(request.getTypeCopyField());
+        spec.setFieldToCopy(request.getFieldToCopy());
+        spec.setMaxChars(request.getMaxChars());
+        CopyFieldCheck check = checkCopyField(schema, request.getCore(), spec);
+        if (check.error() != null) {
+            return ResponseEntity.badRequest().body(check.error());
         }
 
-        if((!request.getTypeCopyField().isBlank()) && !request.getFieldToCopy().isBlank() ){
-            return ResponseEntity.badRequest().body("Debe especificar exclusivamente 'typeCopyField' o 'fieldToCopy', pero no ambos al mismo tiempo");
+        // Creación de copyfield
+        JsonObject newCopyField = check.copyField();
+        JsonArray arr = new JsonArray();
+        arr.add(newCopyField);
+        JsonObject command = new JsonObject();
+        command.add("add-copy-field", arr);
+        String schemaUrl = buildBaseUrl(client, request.getCore() + "/schema");
+        solrMetrics.time("create_copy_fields", "schema_update", client.getName(), request.getCore(), () ->
+                solrHttpTransport.forClient(client).postForEntity(schemaUrl, new HttpEntity<>(gson.toJson(command), headers), String.class));
+        solrMetrics.schemaMutations(client.getName(), request.getCore(), "add-copy-field", 1);
+        solrSchemaCache.invalidate(client, request.getCore());
+
+        Map<String, String> created;
+        if(newCopyField.has("maxChars")){
+            created = Map.of(
+                "source", newCopyField.get("source").getAsString(),
+                "dest",   newCopyField.get("dest").getAsString(),
+                "maxChars",   newCopyField.get("maxChars").getAsString()
+            );
+        }else{
+            created = Map.of(
+                "source", newCopyField.get("source").getAsString(),
+                "dest",   newCopyField.get("dest").getAsString()
+            );
         }
 
-        if(!request.getTypeCopyField().isBlank()){
-            // Validación de que exista el tipo de campo en dynamicFields
-            Map<String, String> dynamicFields = fetchDynamicFields(client, request.getCore());
-            if(!dynamicFields.containsKey(request.getTypeCopyField())){
-                return ResponseEntity.badRequest().body("El tipo de dato " + request.getTypeCopyField() + " no existe.");
-            }
+        return ResponseEntity.ok(
+                Map.of(
+                    "createdCopyField", created
+                )
+            );
+        
+    }
+
+    public ResponseEntity<?> createCopyFieldsBulk(CreateCopyFieldsBulkRequest request){
+
+        log.info("JSON recibido para crear CopyFields en lote: cliente={}, colección={}, copyFields={}",
+                request.getClient(), request.getCore(),
+                request.getCopyFields() == null ? 0 : request.getCopyFields().size());
+
+        // Validación ingreso de cliente
+        if (request.getClient() == null || request.getClient().isBlank()) {
+            return ResponseEntity.badRequest().body("El cliente es obligatorio.");
         }
 
-        List<JsonObject> fieldsTypeDefs = fetchRawFieldTypes(client, request.getCore());
-        List<JsonObject> fieldsDef = fetchRawSchemaFields(client, request.getCore());
-        List<Map<String,String>> copyFields = fetchCopyFields(client, request.getCore());
-        String schemaUrl = buildBaseUrl(client, request.getCore() + "/schema");
-        JsonObject newCopyField = new JsonObject();
-        Map<String, String> created = null;
+        // Validación de cliente en el registro
+        Timer.Sample phase = solrMetrics.start();
+        // Lectura y cambios de esquema en el nodo líder del cliente
+        ClientSolr client = clientSolrRegistry.findByName(request.getClient())
+                .map(solrEndpointBalancer::forWrite)
+                .orElse(null);
+        solrMetrics.phase(phase, "create_copy_fields_bulk", "client_lookup", client == null ? null : client.getName(), null);
+        if (client == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body("Cliente no encontrado: " + request.getClient());
+        }
 
-        if(request.getMaxChars() <= 0){
-            return ResponseEntity.badRequest()
-            .body("maxChars debe ser un entero positivo");
+        // Validación ingreso de colección
+        if (request.getCore() == null || request.getCore().isBlank()) {
+            return ResponseEntity.badRequest().body("La colección es obligatoria.");
         }
 
-        // Validación para no permitir multivalue -> single
-        JsonObject sourceFieldDef = fieldsDef.stream()
-            .filter(f -> f.get("name").getAsString().equals(request.getField()))
-            .findFirst().orElseThrow(() -> new IllegalArgumentException(
-        "El campo '" + request.getField() + "' no existe en el esquema"));
-        String sourceFieldType = sourceFieldDef.get("type").getAsString();
-        JsonObject sourceTypeDef = fieldsTypeDefs.stream()
-            .filter(f -> f.get("name").getAsString().equals(sourceFieldType))
-            .findFirst().orElseThrow(() -> new IllegalArgumentException(
-        "El tipo '" + sourceFieldType + "' no existe en fieldTypes"));
-        boolean sourceFieldMulti = sourceFieldDef.has("multiValued") && sourceFieldDef.get("multiValued").getAsBoolean()
-                                        || (!sourceFieldDef.has("multiValued")  && sourceTypeDef.has("multiValued") 
-                                        && sourceTypeDef.get("multiValued").getAsBoolean());
-        
-        if(!request.getTypeCopyField().isBlank()){
-        
-            // Validación para no permitir multivalue -> single
-            List<JsonObject> dynamicFieldsDefs = fetchRawDynamicFields(client, request.getCore());
-            JsonObject destDynamicDef = dynamicFieldsDefs.stream()
-                .filter(f -> f.get("name").getAsString().equals("*_" + request.getTypeCopyField()))
-                .findFirst().orElseThrow(() -> new IllegalArgumentException(
-            "El tipo '" + request.getTypeCopyField() + "' no existe en dynamicFields"));
-            String destDynamicType = destDynamicDef.get("type").getAsString();
-            JsonObject destTypeDef = fieldsTypeDefs.stream()
-                .filter(f -> f.get("name").getAsString().equals(destDynamicType))
-                .findFirst().orElseThrow(() -> new IllegalArgumentException(
-            "El tipo '" + destDynamicType + "' no existe en fieldTypes"));
-            boolean destDynamicMulti = (destDynamicDef.has("multiValued") && destDynamicDef.get("multiValued").getAsBoolean())
-                                    || (!destDynamicDef.has("multiValued") && destTypeDef.has("multiValued") && destTypeDef.get("multiValued").getAsBoolean());
-
-            if(sourceFieldMulti && !destDynamicMulti){
-                return ResponseEntity.badRequest().body(
-                "No es posible crear un copyField desde un campo multivalor a uno de valor único.");
-            }
+        // Validación de colección en Solr
+        phase = solrMetrics.start();
+        boolean coreExists = solrCoreCatalog.exists(client, request.getCore());
+        solrMetrics.phase(phase, "create_copy_fields_bulk", "core_check", client.getName(), coreExists ? request.getCore() : null);
+        if (!coreExists) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body("La colección origen '" + request.getCore() + "' no existe.");
+        }
 
-            // Validación de compatibilidad de tipos
-            if (!isCompatibleType(sourceFieldType, destDynamicType)) {
-                return ResponseEntity.badRequest().body(
-                    "No es posible crear un copyField de tipo '" + sourceFieldType +
-                    "' a tipo '" + destDynamicType + "'.");
-            }
+        // Validación de la lista de copyFields
+        List<CopyFieldSpec> specs = request.getCopyFields();
+        if (specs == null || specs.isEmpty()) {
+            return ResponseEntity.badRequest().body("Debe indicar al menos un copyField en 'copyFields'.");
+        }
+        if (specs.size() > schemaProperties.getMaxCopyFields()) {
+            return ResponseEntity.badRequest().body("Se admiten como máximo " + schemaProperties.getMaxCopyFields()
+                    + " copyFields por petición.");
+        }
 
-            // Validación de existencia del copyField solicitado
-            String destField = request.getField() + "_" + request.getTypeCopyField();
-            if(copyFields.stream().anyMatch(m -> m.get("source").equals(request.getField()) &&
-                                m.get("dest").equals(destField))){
-                return ResponseEntity.badRequest().body("El copyField solicitado ya existe");
-            }
+        // Esquema indexado de la colección, compartido por todas las especificaciones
+        SolrSchemaSnapshot schema = solrMetrics.time("create_copy_fields_bulk", "schema_fetch", client.getName(),
+                request.getCore(), () -> solrSchemaCache.current(client, request.getCore()));
+        if (schema == null) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("No se pudo obtener el esquema de la colección '" + request.getCore() + "'.");
+        }
 
-            // Creación de copyfield
-            newCopyField.addProperty("source", request.getField());
-            newCopyField.addProperty("dest", destField);
-            if(destDynamicType.contains("text") || destDynamicType.contains("string")){
-                newCopyField.addProperty("maxChars", request.getMaxChars());
+        // Validación en memoria de cada especificación; un par source/dest repetido en la petición solo se crea una vez
+        phase = solrMetrics.start();
+        List<Integer> acceptedIndexes = new ArrayList<>();
+        List<JsonObject> accepted = new ArrayList<>();
+        List<Map<String,Object>> failed = new ArrayList<>();
+        Set<String> requested = new HashSet<>();
+        for (int i = 0; i < specs.size(); i++) {
+            CopyFieldSpec spec = specs.get(i);
+            CopyFieldCheck check = checkCopyField(schema, request.getCore(), spec);
+            if (check.error() == null && !requested.add(check.copyField().get("source").getAsString() + "\u0000"
+                                                       + check.copyField().get("dest").getAsString())) {
+                check = CopyFieldCheck.rejected("El copyField solicitado está repetido en la petición");
             }
-            JsonArray arr = new JsonArray();
-            arr.add(newCopyField);
-            JsonObject command = new JsonObject();    
-            command.add("add-copy-field", arr);
-            restTemplate.postForEntity(schemaUrl, new HttpEntity<>(gson.toJson(command), headers), String.class);
-            if(destDynamicType.contains("text") || destDynamicType.contains("string")){
-                created = Map.of(
-                    "source", newCopyField.get("source").getAsString(),
-                    "dest",   newCopyField.get("dest").getAsString(),
-                    "maxChars",   newCopyField.get("maxChars").getAsString()
-                );
-            }else{
-                created = Map.of(
-                    "source", newCopyField.get("source").getAsString(),
-                    "dest",   newCopyField.get("dest").getAsString()
-                );
+            if (check.error() != null) {
+                failed.add(failedSpec(i, spec, check.error()));
+            } else {
+                acceptedIndexes.add(i);
+                accepted.add(check.copyField());
             }
-
+        }
+        solrMetrics.phase(phase, "create_copy_fields_bulk", "validation", client.getName(), request.getCore());
+
+        Map<String,Object> result = new LinkedHashMap<>();
+        List<Map<String,Object>> created = new ArrayList<>();
+        result.put("createdCopyFields", created);
+        result.put("failedCopyFields", failed);
+        if (accepted.isEmpty()) {
+            return ResponseEntity.badRequest().body(result);
         }
 
-        if(!request.getFieldToCopy().isBlank()){
-            
-            //Validación del campo para copiar
-            if(!fields.containsKey(request.getFieldToCopy())){
-            return ResponseEntity.badRequest().body("El campo para copiar '" + request.getFieldToCopy() + 
-                "' no existe en la colección '" + request.getCore() + "'");
+        // Creación de todos los copyFields válidos en un solo envío; la Schema API aplica el lote completo o nada
+        JsonObject commands = new JsonObject();
+        addCommand(commands, "add-copy-field", accepted);
+        String schemaUrl = buildBaseUrl(client, request.getCore()) + "/schema";
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        try {
+            solrMetrics.time("create_copy_fields_bulk", "schema_update", client.getName(), request.getCore(), () ->
+                    solrHttpTransport.forClient(client).postForEntity(schemaUrl,
+                            new HttpEntity<>(gson.toJson(commands), headers), String.class));
+        } catch (HttpStatusCodeException e) {
+            log.error("Solr rechazó el lote de copyFields para '{}': {}", request.getCore(), e.getResponseBodyAsString());
+            String error = "Solr rechazó el lote de copyFields: " + e.getStatusCode() + ": " + e.getResponseBodyAsString();
+            for (int index : acceptedIndexes) {
+                failed.add(failedSpec(index, specs.get(index), error));
             }
-            
-            // Validación para no permitir multivalue -> single
-            JsonObject destFieldDef = fieldsDef.stream()
-            .filter(f -> f.get("name").getAsString().equals(request.getFieldToCopy()))
-            .findFirst().orElseThrow(() -> new IllegalArgumentException(
-            "El campo '" + request.getFieldToCopy() + "' no existe en el esquema"));
-            String destFieldType = destFieldDef.get("type").getAsString();
-            JsonObject destTypeDef = fieldsTypeDefs.stream()
-                .filter(f -> f.get("name").getAsString().equals(destFieldType))
-                .findFirst().orElseThrow(() -> new IllegalArgumentException(
-            "El tipo '" + destFieldType + "' no existe en fieldTypes"));
-            boolean destFieldMulti = destFieldDef.has("multiValued") && destFieldDef.get("multiValued").getAsBoolean()
-                                        || (!destFieldDef.has("multiValued")  && destTypeDef.has("multiValued") 
-                                        && destTypeDef.get("multiValued").getAsBoolean());
-            
-            if(sourceFieldMulti && !destFieldMulti){
-                return ResponseEntity.badRequest().body(
-                "No es posible crear un copyField desde un campo multivalor a uno de valor único.");
+            failed.sort(Comparator.comparingInt(f -> (Integer) f.get("index")));
+            return ResponseEntity.status(HttpStatus.BAD_GATEWAY).body(result);
+        }
+        solrMetrics.schemaMutations(client.getName(), request.getCore(), "add-copy-field", accepted.size());
+        solrSchemaCache.invalidate(client, request.getCore());
+
+        for (int i = 0; i < accepted.size(); i++) {
+            JsonObject copyField = accepted.get(i);
+            Map<String,Object> item = new LinkedHashMap<>();
+            item.put("index", acceptedIndexes.get(i));
+            item.put("source", copyField.get("source").getAsString());
+            item.put("dest", copyField.get("dest").getAsString());
+            if (copyField.has("maxChars")) {
+                item.put("maxChars", copyField.get("maxChars").getAsString());
             }
+            created.add(item);
+        }
+        return ResponseEntity.ok(result);
+    }
 
-            // Validación de compatibilidad de tipos
-            if (!isCompatibleType(sourceFieldType, destFieldType)) {
-                return ResponseEntity.badRequest().body(
-                    "No es posible crear un copyField de tipo '" + sourceFieldType +
-                    "' a tipo '" + destFieldType + "'.");
-            }
+    // Validaciones de un copyField contra el esquema en memoria, comunes a createCopyFields y al lote
+    private static CopyFieldCheck checkCopyField(SolrSchemaSnapshot schema, String core, CopyFieldSpec spec){
+        if (spec == null || spec.getField() == null || spec.getField().isBlank()) {
+            return CopyFieldCheck.rejected("El campo para hacerle copyField es obligatorio.");
+        }
+        String field = spec.getField();
+        if (!schema.hasField(field)) {
+            return CopyFieldCheck.rejected("El campo " + field + " no existe en la colección " + core);
+        }
 
-            // Validación de existencia del copyField solicitado
-            if(copyFields.stream().anyMatch(m -> m.get("source").equals(request.getField()) &&
-                                m.get("dest").equals(request.getFieldToCopy()))){
-                return ResponseEntity.badRequest().body("El copyField solicitado ya existe");
-            }
+        // Validación de ingreso de tipo copyField o campo base para copyfield, no se aceptan ambos
+        boolean byType = spec.getTypeCopyField() != null && !spec.getTypeCopyField().isBlank();
+        boolean byField = spec.getFieldToCopy() != null && !spec.getFieldToCopy().isBlank();
+        if (!byType && !byField) {
+            return CopyFieldCheck.rejected("Es obligatorio especificar 'typeCopyField' o 'fieldToCopy'");
+        }
+        if (byType && byField) {
+            return CopyFieldCheck.rejected("Debe especificar exclusivamente 'typeCopyField' o 'fieldToCopy', pero no ambos al mismo tiempo");
+        }
 
-            // Creación de copyfield
-            newCopyField.addProperty("source", request.getField());
-            newCopyField.addProperty("dest", request.getFieldToCopy());
-            if(destFieldType.contains("text") || destFieldType.contains("string")){
-                newCopyField.addProperty("maxChars", request.getMaxChars());
+        // Destino: campo dinámico *_tipo o campo existente
+        String dest;
+        String destType;
+        boolean destMulti;
+        if (byType) {
+            String pattern = "*_" + spec.getTypeCopyField();
+            destType = schema.dynamicFieldType(pattern);
+            if (destType == null) {
+                return CopyFieldCheck.rejected("El tipo de dato " + spec.getTypeCopyField() + " no existe.");
             }
-            JsonArray arr = new JsonArray();
-            arr.add(newCopyField);
-            JsonObject command = new JsonObject();    
-            command.add("add-copy-field", arr);
-            restTemplate.postForEntity(schemaUrl, new HttpEntity<>(gson.toJson(command), headers), String.class);
-            if(destFieldType.contains("text") || destFieldType.contains("string")){
-                created = Map.of(
-                    "source", newCopyField.get("source").getAsString(),
-                    "dest",   newCopyField.get("dest").getAsString(),
-                    "maxChars",   newCopyField.get("maxChars").getAsString()
-                );
-            }else{
-                created = Map.of(
-                    "source", newCopyField.get("source").getAsString(),
-                    "dest",   newCopyField.get("dest").getAsString()
-                );
+            dest = field + "_" + spec.getTypeCopyField();
+            destMulti = schema.isDynamicMultiValued(pattern);
+        } else {
+            dest = spec.getFieldToCopy();
+            destType = schema.fieldType(dest);
+            if (destType == null) {
+                return CopyFieldCheck.rejected("El campo para copiar '" + dest + "' no existe en la colección '" + core + "'");
             }
+            destMulti = schema.isMultiValued(dest);
+        }
 
+        if (spec.getMaxChars() == null || spec.getMaxChars() <= 0) {
+            return CopyFieldCheck.rejected("maxChars debe ser un entero positivo");
         }
 
-        return ResponseEntity.ok(
-                Map.of(
-                    "createdCopyField", created
-                )
-            );
-        
+        String sourceType = schema.fieldType(field);
+        if (!schema.hasFieldType(sourceType)) {
+            return CopyFieldCheck.rejected("El tipo '" + sourceType + "' no existe en fieldTypes");
+        }
+        if (!schema.hasFieldType(destType)) {
+            return CopyFieldCheck.rejected("El tipo '" + destType + "' no existe en fieldTypes");
+        }
+
+        // Validación para no permitir multivalue -> single
+        if (schema.isMultiValued(field) && !destMulti) {
+            return CopyFieldCheck.rejected("No es posible crear un copyField desde un campo multivalor a uno de valor único.");
+        }
+
+        // Validación de compatibilidad de tipos
+        if (!isCompatibleType(sourceType, destType)) {
+            return CopyFieldCheck.rejected("No es posible crear un copyField de tipo '" + sourceType
+                    + "' a tipo '" + destType + "'.");
+        }
+
+        // Validación de existencia del copyField solicitado
+        if (schema.hasCopyField(field, dest)) {
+            return CopyFieldCheck.rejected("El copyField solicitado ya existe");
+        }
+
+        JsonObject copyField = new JsonObject();
+        copyField.addProperty("source", field);
+        copyField.addProperty("dest", dest);
+        if (destType.contains("text") || destType.contains("string")) {
+            copyField.addProperty("maxChars", spec.getMaxChars());
+        }
+        return new CopyFieldCheck(copyField, null);
     }
 
-    // Construcción de url base
-    private String buildBaseUrl(ClientSolr client, String core){
-        return "http://" + client.getIp() + ":" + client.getPort()
-             + (core.isBlank()?"":"/solr/" + core);
+    private static Map<String,Object> failedSpec(int index, CopyFieldSpec spec, String error){
+        Map<String,Object> item = new LinkedHashMap<>();
+        item.put("index", index);
+        item.put("field", spec == null ? null : spec.getField());
+        item.put("error", error);
+        return item;
     }
 
-    // Obtener definición de campos de la colección
-    private List<JsonObject> fetchRawSchemaFields(ClientSolr client, String core){
-        String url = buildBaseUrl(client, core) + "/schema/fields";
-        String body = restTemplate.getForObject(url, String.class);
-        JsonObject root = JsonParser.parseString(body).getAsJsonObject();
-        JsonArray arr = root.getAsJsonArray("fields");
-        Type listType = new TypeToken<List<JsonObject>>(){}.getType();
-        return gson.fromJson(arr, listType);
+    // Resultado de validar una especificación: el add-copy-field a enviar o el motivo del rechazo
+    private record CopyFieldCheck(JsonObject copyField, String error) {
+
+        static CopyFieldCheck rejected(String error) {
+            return new CopyFieldCheck(null, error);
+        }
     }
 
-    // Obtener Map de nombres y tipos de colección
-    private Map<String, String> fetchSchemaFields(ClientSolr client, String core){
-        List<JsonObject> fields = fetchRawSchemaFields(client, core);
-        Map<String,String> map = new HashMap<>();
-        for (JsonObject field : fields) {
+    // Definiciones add-field de los campos origen que no existen en destino
+    static List<JsonObject> missingFields(List<JsonObject> sourceFields, Map<String, String> targetFields){
+        List<JsonObject> missing = new ArrayList<>();
+        for (JsonObject field : sourceFields){
             String name = field.get("name").getAsString();
-            String type = field.get("type").getAsString();
-            map.put(name, type);
+            if(!targetFields.containsKey(name)){
+                JsonObject addField = new JsonObject();
+                addField.addProperty("name", name);
+                addField.addProperty("type", field.get("type").getAsString());
+                if (field.has("multiValued"))
+                    addField.addProperty("multiValued", field.get("multiValued").getAsBoolean());
+                if (field.has("stored"))
+                    addField.addProperty("stored", field.get("stored").getAsBoolean());
+                if (field.has("indexed"))
+                    addField.addProperty("indexed", field.get("indexed").getAsBoolean());
+                missing.add(addField);
+            }
         }
-        log.info("Campos del esquema de Solr para coleccion '{}': {}", core, map);
-        return map;
+        return missing;
     }
 
-    // Validación de colección en Solr
-    private boolean coreExistsInSolr(ClientSolr client, String core) {
-        String url = "http://" + client.getIp() + ":" + client.getPort() + "/solr/admin/cores?action=STATUS";
-        try {
-            ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
-            if (response.getStatusCode().is2xxSuccessful()) {
-                JsonObject json = JsonParser.parseString(response.getBody()).getAsJsonObject();
-                JsonObject status = json.getAsJsonObject("status");
-                return status.has(core);
+    // Definiciones completas de origen cuyo nombre no existe en destino (dynamicFields, fieldTypes)
+    static List<JsonObject> missingByName(List<JsonObject> source, Predicate<String> existsInTarget){
+        List<JsonObject> missing = new ArrayList<>();
+        for (JsonObject definition : source){
+            if(!existsInTarget.test(definition.get("name").getAsString())){
+                missing.add(definition);
             }
-        } catch (Exception e) {
-            log.error("Error consultando coleccion de Solr", e);
         }
-        return false;
+        return missing;
+    }
+
+    // CopyFields de origen sin el mismo par source/dest en destino
+    static List<JsonObject> missingCopyFields(List<JsonObject> source, SolrSchemaSnapshot target){
+        List<JsonObject> missing = new ArrayList<>();
+        for (JsonObject copyField : source){
+            if(!target.hasCopyField(copyField.get("source").getAsString(), copyField.get("dest").getAsString())){
+                missing.add(copyField);
+            }
+        }
+        return missing;
     }
 
-    // Obtener CopyFields de la colección
-    private List<Map<String,String>> fetchCopyFields(ClientSolr client, String core){
-        String url = buildBaseUrl(client, core) + "/schema/copyfields";
-        String body = restTemplate.getForObject(url, String.class);
-        JsonObject root = JsonParser.parseString(body).getAsJsonObject();
-        JsonArray arr = root.getAsJsonArray("copyFields");
-        Type listType = new TypeToken<List<JsonObject>>(){}.getType();
-        List<JsonObject> objs = gson.fromJson(arr, listType);
-        var out = new ArrayList<Map<String,String>>();
-        for (JsonObject obj : objs){
-            out.add(Map.of(
-                "source", obj.get("source").getAsString(),
-                "dest", obj.get("dest").getAsString()
-            ));
-        }
-        return out;
+    private static List<String> names(List<JsonObject> definitions){
+        List<String> names = new ArrayList<>(definitions.size());
+        for (JsonObject definition : definitions){
+            names.add(definition.get("name").getAsString());
+        }
+        return names;
     }
 
-    // Obtener definición de DynamicFields de la colección
-    private List<JsonObject> fetchRawDynamicFields(ClientSolr client, String core){
-        String url = buildBaseUrl(client, core) + "/schema/dynamicfields";
-        String body = restTemplate.getForObject(url, String.class);
-        JsonObject root = JsonParser.parseString(body).getAsJsonObject();
-        JsonArray arr = root.getAsJsonArray("dynamicFields");
-        Type listType = new TypeToken<List<JsonObject>>(){}.getType();
-        return gson.fromJson(arr, listType);
+    private static void addCommand(JsonObject commands, String command, List<JsonObject> items){
+        if(items.isEmpty()){
+            return;
+        }
+        JsonArray arr = new JsonArray();
+        items.forEach(arr::add);
+        commands.add(command, arr);
     }
-        
-    // Obtener DynamicFields de la colección 
-    private  Map<String, String> fetchDynamicFields(ClientSolr client, String core){ 
-        List<JsonObject> fields = fetchRawDynamicFields(client, core);
-        Map<String,String> map = new HashMap<>();
-        for (JsonObject field : fields) {
-            String name = field.get("name").getAsString();
-            if (name.startsWith("*_")) {
-                name = name.substring(2);
-            }else{
-                continue;
+
+    // Errores de Solr con la misma excepción que en una llamada directa
+    private static <T> T await(CompletableFuture<T> future){
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
             }
-            String type = field.get("type").getAsString();
-            map.put(name, type);
+            throw e;
         }
-        log.info("Campos de dynamicFields para coleccion '{}': {}", core, map);
-        return map;
+    }
+
+    // Construcción de url base
+    private String buildBaseUrl(ClientSolr client, String core){
+        return "http://" + client.getIp() + ":" + client.getPort()
+             + (core.isBlank()?"":"/solr/" + core);
     }
 
     // Compatibiidad de tipos para copyfields
-    private boolean isCompatibleType(String source, String dest) {
+    static boolean isCompatibleType(String source, String dest) {
     String s = source.toLowerCase();
     String d = dest.toLowerCase();
 
@@ -477,14 +619,4 @@ public class SchemaServiceImpl implements SchemaService{
 
   }
 
-    // Obtener definición de Fieldtypes de la colección
-    private List<JsonObject> fetchRawFieldTypes(ClientSolr client, String core){
-        String url = buildBaseUrl(client, core) + "/schema/fieldtypes";
-        String body = restTemplate.getForObject(url, String.class);
-        JsonObject root = JsonParser.parseString(body).getAsJsonObject();
-        JsonArray arr = root.getAsJsonArray("fieldTypes");
-        Type listType = new TypeToken<List<JsonObject>>(){}.getType();
-        return gson.fromJson(arr, listType);
-    }
-
-}
\ No newline at end of file
+}
@@ -0,0 +1,118 @@
+package com.example.solrquery.solr;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.solrquery.config.SolrCommitProperties;
+import com.example.solrquery.config.SolrCommitProperties.Mode;
+import com.example.solrquery.entity.ClientSolr;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SolrCommitCoordinator {
+
+    private final SolrHttpTransport solrHttpTransport;
+    private final SolrCommitProperties properties;
+    private final SolrQueryResultCache solrQueryResultCache;
+    private final Map<String, PendingCommit> pending = new ConcurrentHashMap<>();
+
+    private final LongAdder coalescedRequests = new LongAdder();
+    private final LongAdder commitsSent = new LongAdder();
+
+    // Política aplicable: el flag 'commit' de la petición tiene prioridad sobre la configuración
+    public Mode resolve(String client, String core, Boolean commit) {
+        if (commit != null) {
+            return commit ? Mode.HARD : Mode.NONE;
+        }
+        Mode mode = properties.getOverrides().get(client + "." + core);
+        if (mode == null) {
+            mode = properties.getOverrides().get(client);
+        }
+        return mode == null ? properties.getMode() : mode;
+    }
+
+    // Parámetros de /update para una petición única
+    public String updateParams(Mode mode) {
+        return switch (mode) {
+            case HARD -> "?commit=true";
+            case SOFT -> "?softCommit=true";
+            case COMMIT_WITHIN -> "?commitWithin=" + properties.getCommitWithin().toMillis();
+            case COALESCE, NONE -> "";
+        };
+    }
+
+    // Parámetros de /update para los lotes intermedios de una carga masiva
+    public String batchParams(Mode mode) {
+        return mode == Mode.COMMIT_WITHIN ? "?commitWithin=" + properties.getCommitWithin().toMillis() : "";
+    }
+
+    // Tras una petición única: en modo COALESCE se agenda el commit
+    public void afterUpdate(ClientSolr client, String core, Mode mode) {
+        if (mode == Mode.COALESCE) {
+            coalescedRequests.increment();
+            pending.putIfAbsent(SolrHttpTransport.nodeKey(client.getIp(), client.getPort()) + "/" + core,
+                    new PendingCommit(client, core));
+        }
+    }
+
+    // Al terminar una carga masiva: un único commit según la política
+    public void finish(ClientSolr client, String core, Mode mode) {
+        switch (mode) {
+            case HARD -> sendCommit(client, core, false);
+            case SOFT -> sendCommit(client, core, true);
+            case COALESCE -> afterUpdate(client, core, mode);
+            case COMMIT_WITHIN, NONE -> { }
+        }
+    }
+
+    // Con spring.task.scheduling.pool.size no comparte hilo con las demás tareas programadas
+    @Scheduled(fixedDelayString = "${solr.commit.coalesce-interval:1s}")
+    public void flush() {
+        for (String key : pending.keySet()) {
+            PendingCommit commit = pending.remove(key);
+            if (commit == null) {
+                continue;
+            }
+            try {
+                sendCommit(commit.client(), commit.core(), properties.isCoalesceSoft());
+            } catch (Exception e) {
+                log.error("Error enviando commit agrupado a '{}'", key, e);
+            }
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("mode", properties.getMode());
+        stats.put("pendingCores", pending.size());
+        stats.put("coalescedRequests", coalescedRequests.sum());
+        stats.put("commitsSent", commitsSent.sum());
+        return stats;
+    }
+
+    private void sendCommit(ClientSolr client, String core, boolean soft) {
+        String url = "http://" + client.getIp() + ":" + client.getPort() + "/solr/" + core
+                   + "/update" + updateParams(soft ? Mode.SOFT : Mode.HARD);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        solrHttpTransport.forClient(client).postForEntity(url, new HttpEntity<>("[]", headers), String.class);
+        commitsSent.increment();
+        // Las escrituras se hacen visibles ahora, no al enviarlas: se descartan las respuestas guardadas entretanto
+        solrQueryResultCache.invalidate(client.getName(), core);
+    }
+
+    private record PendingCommit(ClientSolr client, String core) {
+    }
+}
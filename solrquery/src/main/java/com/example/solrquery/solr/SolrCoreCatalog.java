@@ -0,0 +1,173 @@
+package com.example.solrquery.solr;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.solrquery.config.SolrCoreCatalogProperties;
+import com.example.solrquery.entity.ClientSolr;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SolrCoreCatalog {
+
+    private final SolrHttpTransport solrHttpTransport;
+    private final SolrCoreCatalogProperties properties;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    // Validación de colección en Solr usando el listado en caché del nodo
+    public boolean exists(ClientSolr client, String core) {
+        Entry entry = entry(client);
+        Boolean cached = decide(entry.snapshot, core);
+        if (cached != null) {
+            return cached;
+        }
+        // Nodo que no respondió hace poco: se decide con el último listado sin esperar otro timeout
+        Snapshot snapshot = inBackoff(entry) ? entry.snapshot : refresh(entry, entry.snapshot);
+        return snapshot != null && snapshot.cores().contains(core);
+    }
+
+    // Resultado sin consultar Solr; null cuando el listado en caché no alcanza para decidir
+    public Boolean cachedExists(ClientSolr client, String core) {
+        Entry entry = entry(client);
+        Snapshot snapshot = entry.snapshot;
+        Boolean cached = decide(snapshot, core);
+        if (cached == null && inBackoff(entry)) {
+            return snapshot != null && snapshot.cores().contains(core);
+        }
+        return cached;
+    }
+
+    // Listado obtenido por otro cliente HTTP (consulta reactiva) con la respuesta de statusUrl
+    public boolean update(ClientSolr client, String statusBody, String core) {
+        Entry entry = entry(client);
+        entry.snapshot = parseStatus(statusBody);
+        entry.failedAt = 0;
+        return entry.snapshot.cores().contains(core);
+    }
+
+    // STATUS fallido con otro cliente HTTP (consulta reactiva)
+    public void failed(ClientSolr client) {
+        entry(client).failedAt = System.currentTimeMillis();
+    }
+
+    public static String statusUrl(ClientSolr client) {
+        return "http://" + client.getIp() + ":" + client.getPort()
+             + "/solr/admin/cores?action=STATUS&indexInfo=false";
+    }
+
+    // Invalidación tras crear o renombrar colecciones
+    public void invalidate(ClientSolr client) {
+        entries.remove(SolrHttpTransport.nodeKey(client.getIp(), client.getPort()));
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        entries.forEach((key, entry) -> {
+            Snapshot snapshot = entry.snapshot;
+            Map<String, Object> nodeStats = new LinkedHashMap<>();
+            nodeStats.put("cores", snapshot == null ? 0 : snapshot.cores().size());
+            nodeStats.put("ageMs", snapshot == null ? null : snapshot.age());
+            nodeStats.put("backoff", inBackoff(entry));
+            stats.put(key, nodeStats);
+        });
+        return stats;
+    }
+
+    // Refresco en segundo plano de los nodos consultados recientemente
+    @Scheduled(fixedDelayString = "${solr.core-catalog.refresh-interval:30s}")
+    public void refreshActive() {
+        long now = System.currentTimeMillis();
+        entries.forEach((key, entry) -> {
+            if (now - entry.lastAccess > properties.getIdleEviction().toMillis()) {
+                entries.remove(key, entry);
+                return;
+            }
+            refresh(entry, entry.snapshot);
+        });
+    }
+
+    private Entry entry(ClientSolr client) {
+        String key = SolrHttpTransport.nodeKey(client.getIp(), client.getPort());
+        Entry entry = entries.computeIfAbsent(key, k -> new Entry(client));
+        entry.lastAccess = System.currentTimeMillis();
+        return entry;
+    }
+
+    // Caché negativa: una colección ausente solo se vuelve a consultar pasado negativeTtl
+    private Boolean decide(Snapshot snapshot, String core) {
+        if (snapshot == null || snapshot.age() > properties.getTtl().toMillis()) {
+            return null;
+        }
+        if (snapshot.cores().contains(core)) {
+            return true;
+        }
+        return snapshot.age() > properties.getNegativeTtl().toMillis() ? null : false;
+    }
+
+    private boolean inBackoff(Entry entry) {
+        long failedAt = entry.failedAt;
+        return failedAt != 0 && System.currentTimeMillis() - failedAt < properties.getFailureBackoff().toMillis();
+    }
+
+    private static Snapshot parseStatus(String body) {
+        JsonObject status = JsonParser.parseString(body).getAsJsonObject().getAsJsonObject("status");
+        return new Snapshot(Set.copyOf(status.keySet()), System.currentTimeMillis());
+    }
+
+    private Snapshot refresh(Entry entry, Snapshot seen) {
+        synchronized (entry) {
+            // Otro hilo ya refrescó mientras se esperaba el lock
+            if (entry.snapshot != seen || inBackoff(entry)) {
+                return entry.snapshot;
+            }
+            ClientSolr client = entry.client;
+            try {
+                ResponseEntity<String> response = solrHttpTransport.forClient(client).getForEntity(statusUrl(client), String.class);
+                if (response.getStatusCode().is2xxSuccessful()) {
+                    entry.snapshot = parseStatus(response.getBody());
+                    entry.failedAt = 0;
+                } else {
+                    entry.failedAt = System.currentTimeMillis();
+                }
+            } catch (Exception e) {
+                entry.failedAt = System.currentTimeMillis();
+                log.error("Error consultando colecciones de Solr en {}:{}", client.getIp(), client.getPort(), e);
+            }
+            return entry.snapshot;
+        }
+    }
+
+    private static final class Entry {
+        private final ClientSolr client;
+        private volatile Snapshot snapshot;
+        private volatile long lastAccess = System.currentTimeMillis();
+        // Último STATUS fallido; 0 si el último respondió
+        private volatile long failedAt;
+
+        private Entry(ClientSolr client) {
+            this.client = client;
+        }
+    }
+
+    private record Snapshot(Set<String> cores, long fetchedAt) {
+        long age() {
+            return System.currentTimeMillis() - fetchedAt;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.example.solrquery.solr;
+
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.example.solrquery.config.SolrCommitProperties.Mode;
+import com.example.solrquery.config.SolrCopyProperties;
+import com.example.solrquery.entity.ClientSolr;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.reflect.TypeToken;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@Slf4j
+public class SolrCursorCopier {
+
+    private static final Type DOCS_TYPE = new TypeToken<List<Map<String, Object>>>(){}.getType();
+    private static final Batch END = new Batch(List.of(), null);
+
+    private final SolrHttpTransport solrHttpTransport;
+    private final SolrCopyProperties properties;
+    private final SolrCommitCoordinator solrCommitCoordinator;
+    private final ExecutorService solrIoExecutor;
+    private final Gson gson = new Gson();
+
+    public SolrCursorCopier(SolrHttpTransport solrHttpTransport, SolrCopyProperties properties,
+                            SolrCommitCoordinator solrCommitCoordinator,
+                            @Qualifier("solrIoExecutor") ExecutorService solrIoExecutor) {
+        this.solrHttpTransport = solrHttpTransport;
+        this.properties = properties;
+        this.solrCommitCoordinator = solrCommitCoordinator;
+        this.solrIoExecutor = solrIoExecutor;
+    }
+
+    public CopyResult copy(ClientSolr client, CopyPlan plan, Function<List<Map<String, Object>>, String> validator) {
+        return copy(client, plan, validator, CopyListener.NONE);
+    }
+
+    // Copia paginando con cursorMark; la lectura y la escritura avanzan en paralelo
+    public CopyResult copy(ClientSolr client, CopyPlan plan, Function<List<Map<String, Object>>, String> validator,
+                           CopyListener listener) {
+        long started = System.currentTimeMillis();
+        String baseUrl = "http://" + client.getIp() + ":" + client.getPort() + "/solr/";
+        String uniqueKey = fetchUniqueKey(client, plan.sourceCore());
+        String sort = plan.sort() == null || plan.sort().isBlank()
+                ? uniqueKey + " asc"
+                : plan.sort() + (plan.sort().startsWith(uniqueKey + " ") ? "" : "," + uniqueKey + " asc");
+
+        BlockingQueue<Batch> queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        AtomicReference<String> error = new AtomicReference<>();
+        AtomicLong written = new AtomicLong();
+        AtomicReference<String> writtenCursor = new AtomicReference<>(plan.startCursor());
+        AtomicLong read = new AtomicLong();
+        String updateUrl = baseUrl + plan.targetCore() + "/update" + solrCommitCoordinator.batchParams(plan.commitMode());
+        Future<?> writer = solrIoExecutor.submit(() -> writeBatches(client, updateUrl,
+                queue, error, read, written, writtenCursor, listener));
+
+        int batches = 0;
+        String cursor = plan.startCursor() == null ? "*" : plan.startCursor();
+        try {
+            while (error.get() == null && !listener.isCancelled()) {
+                int rows = plan.maxDocs() > 0
+                        ? (int) Math.min(plan.batchSize(), plan.maxDocs() - read.get())
+                        : plan.batchSize();
+                if (rows <= 0) {
+                    break;
+                }
+                Map<String, Object> params = new LinkedHashMap<>();
+                params.put("q", plan.q() == null || plan.q().isBlank() ? "*:*" : plan.q());
+                params.put("fq", plan.fq());
+                params.put("fl", plan.fl());
+                params.put("sort", sort);
+                params.put("rows", rows);
+                params.put("cursorMark", cursor);
+                params.put("wt", "json");
+
+                String body = solrHttpTransport.forClient(client)
+                        .getForObject(buildUri(baseUrl + plan.sourceCore() + "/select", params), String.class);
+                JsonObject root = JsonParser.parseString(body).getAsJsonObject();
+                List<Map<String, Object>> docs = gson.fromJson(
+                        root.getAsJsonObject("response").getAsJsonArray("docs"), DOCS_TYPE);
+                String nextCursor = root.get("nextCursorMark").getAsString();
+                if (docs.isEmpty()) {
+                    break;
+                }
+                for (Map<String, Object> doc : docs) {
+                    doc.remove("_version_");
+                }
+                String invalid = validator.apply(docs);
+                if (invalid != null) {
+                    error.compareAndSet(null, invalid);
+                    break;
+                }
+                read.addAndGet(docs.size());
+                batches++;
+                queue.put(new Batch(docs, nextCursor));
+                if (nextCursor.equals(cursor)) {
+                    break;
+                }
+                cursor = nextCursor;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            error.compareAndSet(null, "Copia interrumpida");
+        } catch (Exception e) {
+            log.error("Error leyendo la colección origen '{}'", plan.sourceCore(), e);
+            error.compareAndSet(null, "Error al consultar la colección origen: " + e.getMessage());
+        } finally {
+            signalEnd(queue, error);
+        }
+
+        try {
+            writer.get();
+        } catch (Exception e) {
+            error.compareAndSet(null, "Error al indexar en destino: " + e.getMessage());
+        }
+
+        // Un solo commit al final de la copia según la política
+        if (error.get() == null && written.get() > 0) {
+            try {
+                solrCommitCoordinator.finish(client, plan.targetCore(), plan.commitMode());
+            } catch (Exception e) {
+                log.error("Error haciendo commit en '{}'", plan.targetCore(), e);
+                error.compareAndSet(null, "Error al hacer commit en destino: " + e.getMessage());
+            }
+        }
+
+        return new CopyResult(read.get(), written.get(), batches, writtenCursor.get(),
+                System.currentTimeMillis() - started, error.get());
+    }
+
+    private void writeBatches(ClientSolr client, String updateUrl, BlockingQueue<Batch> queue,
+                              AtomicReference<String> error, AtomicLong read, AtomicLong written,
+                              AtomicReference<String> writtenCursor, CopyListener listener) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        try {
+            while (true) {
+                Batch batch = queue.take();
+                if (batch == END) {
+                    return;
+                }
+                // Tras un error se descartan los lotes pendientes hasta el final
+                if (error.get() != null) {
+                    continue;
+                }
+                try {
+                    solrHttpTransport.forClient(client).postForEntity(updateUrl,
+                            new HttpEntity<>(batch.docs(), headers), String.class);
+                    written.addAndGet(batch.docs().size());
+                    writtenCursor.set(batch.nextCursor());
+                    listener.onBatchWritten(read.get(), written.get(), batch.nextCursor());
+                } catch (Exception e) {
+                    log.error("Error indexando lote en Solr destino", e);
+                    error.compareAndSet(null, "Error al indexar en destino: " + e.getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            error.compareAndSet(null, "Copia interrumpida");
+        }
+    }
+
+    private void signalEnd(BlockingQueue<Batch> queue, AtomicReference<String> error) {
+        try {
+            queue.put(END);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            error.compareAndSet(null, "Copia interrumpida");
+        }
+    }
+
+    // Obtener campo uniqueKey de la colección
+    private String fetchUniqueKey(ClientSolr client, String core) {
+        String url = "http://" + client.getIp() + ":" + client.getPort() + "/solr/" + core + "/schema/uniquekey";
+        String body = solrHttpTransport.forClient(client).getForObject(url, String.class);
+        return JsonParser.parseString(body).getAsJsonObject().get("uniqueKey").getAsString();
+    }
+
+    // Los valores se codifican como variables para no alterar caracteres como '+' del cursorMark
+    private URI buildUri(String url, Map<String, Object> params) {
+        UriComponentsBuilder builder = UriComponentsBuilder.fromUriString(url);
+        Map<String, Object> values = new LinkedHashMap<>();
+        params.forEach((key, value) -> {
+            if (value != null && !value.toString().isBlank()) {
+                builder.queryParam(key, "{" + key + "}");
+                values.put(key, value);
+            }
+        });
+        return builder.encode().buildAndExpand(values).toUri();
+    }
+
+    // Avance de la copia y cancelación cooperativa entre lotes
+    public interface CopyListener {
+        CopyListener NONE = new CopyListener() {};
+
+        default void onBatchWritten(long docsRead, long docsWritten, String cursorMark) {
+        }
+
+        default boolean isCancelled() {
+            return false;
+        }
+    }
+
+    public record CopyPlan(String sourceCore, String targetCore, String q, String fq, String fl,
+                           String sort, int batchSize, long maxDocs, String startCursor, Mode commitMode) {
+    }
+
+    public record CopyResult(long docsRead, long docsWritten, int batches, String cursorMark,
+                             long elapsedMs, String error) {
+    }
+
+    private record Batch(List<Map<String, Object>> docs, String nextCursor) {
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.solrquery.solr;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.stream.IntStream;
+
+import org.springframework.stereotype.Component;
+
+import com.example.solrquery.config.SolrValidationProperties;
+
+import lombok.RequiredArgsConstructor;
+
+// Validación de documentos contra el esquema con un plan por campo compilado una vez por esquema
+@Component
+@RequiredArgsConstructor
+public class SolrDocumentValidator {
+
+    private final SolrValidationProperties properties;
+
+    // Planes por copia del esquema; se liberan cuando la caché reemplaza el esquema
+    private final Map<SolrSchemaSnapshot, Map<String, Kind>> plans =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    // Valida todos los documentos y reporta cada documento inválido (posiciones desde 1)
+    public Report validate(SolrSchemaSnapshot schema, List<Map<String, Object>> docs) {
+        Map<String, Kind> plan = plan(schema);
+        String[] results = new String[docs.size()];
+        IntStream range = IntStream.range(0, docs.size());
+        if (docs.size() >= properties.getParallelThreshold()) {
+            range = range.parallel();
+        }
+        range.forEach(i -> results[i] = invalidField(plan, schema, docs.get(i)));
+
+        List<Integer> invalidDocs = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] != null) {
+                invalidDocs.add(i + 1);
+                if (errors.size() < properties.getMaxReportedErrors()) {
+                    errors.add("Documento " + (i + 1) + ": " + results[i]);
+                }
+            }
+        }
+        return new Report(docs.size(), invalidDocs, errors);
+    }
+
+    // Primer campo del documento que no concuerda con el esquema, null si es válido
+    public String invalidField(SolrSchemaSnapshot schema, Map<String, Object> doc) {
+        return invalidField(plan(schema), schema, doc);
+    }
+
+    private String invalidField(Map<String, Kind> plan, SolrSchemaSnapshot schema, Map<String, Object> doc) {
+        for (Map.Entry<String, Object> entry : doc.entrySet()) {
+            Kind kind = plan.get(entry.getKey());
+            if (kind != null && !isValid(kind, entry.getValue())) {
+                return "valor '" + entry.getValue() + "' no concuerda con el tipo '"
+                     + schema.fieldTypes().get(entry.getKey()) + "' de campo '" + entry.getKey() + "'";
+            }
+        }
+        return null;
+    }
+
+    private Map<String, Kind> plan(SolrSchemaSnapshot schema) {
+        Map<String, Kind> plan = plans.get(schema);
+        if (plan == null) {
+            plan = compile(schema);
+            plans.put(schema, plan);
+        }
+        return plan;
+    }
+
+    // Solo se guardan los campos con restricción de tipo
+    private static Map<String, Kind> compile(SolrSchemaSnapshot schema) {
+        Map<String, Kind> plan = new HashMap<>();
+        for (String field : schema.fieldTypes().keySet()) {
+            Kind kind = Kind.of(schema.fieldClass(field));
+            if (kind != Kind.ANY) {
+                plan.put(field, kind);
+            }
+        }
+        return Map.copyOf(plan);
+    }
+
+    // Campos multivaluados: se valida cada elemento
+    private static boolean isValid(Kind kind, Object value) {
+        if (value == null) return true;
+        if (value instanceof Collection<?> values) {
+            for (Object v : values) {
+                if (!isValidSingle(kind, v)) return false;
+            }
+            return true;
+        }
+        if (value.getClass().isArray()) {
+            int length = Array.getLength(value);
+            for (int i = 0; i < length; i++) {
+                if (!isValidSingle(kind, Array.get(value, i))) return false;
+            }
+            return true;
+        }
+        return isValidSingle(kind, value);
+    }
+
+    private static boolean isValidSingle(Kind kind, Object value) {
+        if (value == null) return true;
+        return switch (kind) {
+            case INT -> isIntegral(value, Integer.MIN_VALUE, Integer.MAX_VALUE);
+            case LONG -> isIntegral(value, Long.MIN_VALUE, Long.MAX_VALUE);
+            case DECIMAL -> value instanceof Number || (value instanceof CharSequence s && isDecimal(s));
+            case BOOLEAN -> value instanceof Boolean
+                    || "true".equalsIgnoreCase(value.toString()) || "false".equalsIgnoreCase(value.toString());
+            case STRING -> value instanceof String;
+            case ANY -> true;
+        };
+    }
+
+    // Enteros: números sin parte decimal o texto con solo dígitos, dentro del rango del tipo
+    private static boolean isIntegral(Object value, long min, long max) {
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            long v = ((Number) value).longValue();
+            return v >= min && v <= max;
+        }
+        if (value instanceof Double || value instanceof Float) {
+            double v = ((Number) value).doubleValue();
+            return v == Math.rint(v) && v >= min && v <= max;
+        }
+        // BigDecimal, LazilyParsedNumber y texto se revisan por su literal
+        if (value instanceof Number || value instanceof CharSequence) {
+            return isIntegralLiteral(value.toString(), min, max);
+        }
+        return false;
+    }
+
+    private static boolean isIntegralLiteral(String s, long min, long max) {
+        int length = s.length();
+        int i = 0;
+        boolean negative = false;
+        if (length > 0 && (s.charAt(0) == '-' || s.charAt(0) == '+')) {
+            negative = s.charAt(0) == '-';
+            i++;
+        }
+        if (i == length) return false;
+        // Acumulado en negativo para cubrir Long.MIN_VALUE sin desbordar
+        long limit = negative ? min : -max;
+        long multmin = limit / 10;
+        long result = 0;
+        for (; i < length; i++) {
+            int digit = s.charAt(i) - '0';
+            if (digit < 0 || digit > 9) return false;
+            if (result < multmin) return false;
+            result *= 10;
+            if (result < limit + digit) return false;
+            result -= digit;
+        }
+        return true;
+    }
+
+    // Formato decimal de Solr: signo, dígitos, punto y exponente opcionales
+    private static boolean isDecimal(CharSequence s) {
+        int length = s.length();
+        int i = 0;
+        if (i < length && (s.charAt(i) == '-' || s.charAt(i) == '+')) i++;
+        int digits = 0;
+        while (i < length && Character.isDigit(s.charAt(i))) { i++; digits++; }
+        if (i < length && s.charAt(i) == '.') {
+            i++;
+            while (i < length && Character.isDigit(s.charAt(i))) { i++; digits++; }
+        }
+        if (digits == 0) return false;
+        if (i < length && (s.charAt(i) == 'e' || s.charAt(i) == 'E')) {
+            i++;
+            if (i < length && (s.charAt(i) == '-' || s.charAt(i) == '+')) i++;
+            int exponent = 0;
+            while (i < length && Character.isDigit(s.charAt(i))) { i++; exponent++; }
+            if (exponent == 0) return false;
+        }
+        return i == length;
+    }
+
+    // Restricción de valores según la clase Solr del tipo de campo
+    enum Kind {
+        INT, LONG, DECIMAL, BOOLEAN, STRING, ANY;
+
+        static Kind of(String fieldClass) {
+            if (fieldClass == null) return ANY;
+            return switch (fieldClass) {
+                case "IntPointField", "TrieIntField" -> INT;
+                case "LongPointField", "TrieLongField" -> LONG;
+                case "FloatPointField", "DoublePointField", "TrieFloatField", "TrieDoubleField" -> DECIMAL;
+                case "BoolField" -> BOOLEAN;
+                case "StrField", "TextField", "SortableTextField" -> STRING;
+                default -> ANY;
+            };
+        }
+    }
+
+    // Resultado de la validación de un lote
+    public record Report(int checked, List<Integer> invalidDocs, List<String> errors) {
+
+        public boolean isValid() {
+            return invalidDocs.isEmpty();
+        }
+    }
+}
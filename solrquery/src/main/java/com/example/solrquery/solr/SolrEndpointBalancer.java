@@ -0,0 +1,240 @@
+package com.example.solrquery.solr;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import com.example.solrquery.config.SolrBalancerProperties;
+import com.example.solrquery.entity.ClientSolr;
+import com.example.solrquery.entity.ClientSolrEndpoint;
+import com.example.solrquery.repository.ClientSolrEndpointRepository;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+// Réplicas de cada cliente Solr: las consultas van a la réplica menos cargada o más rápida
+// y las escrituras al líder. Un cliente sin réplicas registradas usa su propia ip y puerto.
+@Component
+@Slf4j
+public class SolrEndpointBalancer {
+
+    private final ClientSolrEndpointRepository endpointRepository;
+    private final SolrBalancerProperties properties;
+    private final SolrNodeHealth solrNodeHealth;
+    private final ExecutorService solrIoExecutor;
+    private final RestTemplate probeTemplate;
+
+    private volatile Map<Long, List<ClientSolrEndpoint>> endpoints = Map.of();
+
+    public SolrEndpointBalancer(ClientSolrEndpointRepository endpointRepository, SolrBalancerProperties properties,
+                                SolrNodeHealth solrNodeHealth,
+                                @Qualifier("solrIoExecutor") ExecutorService solrIoExecutor) {
+        this.endpointRepository = endpointRepository;
+        this.properties = properties;
+        this.solrNodeHealth = solrNodeHealth;
+        this.solrIoExecutor = solrIoExecutor;
+        // Cliente aparte del transporte: el sondeo no ocupa cupos del nodo ni espera el timeout de las consultas
+        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
+        factory.setConnectTimeout(properties.getHealthCheckTimeout());
+        factory.setReadTimeout(properties.getHealthCheckTimeout());
+        this.probeTemplate = new RestTemplate(factory);
+    }
+
+    @PostConstruct
+    public void init() {
+        refresh();
+    }
+
+    // Nodo para consultas y lecturas
+    public ClientSolr forRead(ClientSolr client) {
+        List<ClientSolrEndpoint> candidates = endpointsOf(client);
+        if (candidates == null || candidates.size() < 2) {
+            return forWrite(client);
+        }
+        ClientSolrEndpoint best = select(candidates, null);
+        // Todas las réplicas expulsadas: se prueba la que antes vuelve antes que rechazar la consulta
+        if (best == null) {
+            long soonest = Long.MAX_VALUE;
+            for (ClientSolrEndpoint candidate : candidates) {
+                long until = solrNodeHealth.ejectedUntil(SolrHttpTransport.nodeKey(candidate.getIp(), candidate.getPort()));
+                if (best == null || until - soonest < 0) {
+                    best = candidate;
+                    soonest = until;
+                }
+            }
+        }
+        return view(client, best);
+    }
+
+    public boolean hasReplicas(ClientSolr client) {
+        List<ClientSolrEndpoint> candidates = endpointsOf(client);
+        return candidates != null && candidates.size() > 1;
+    }
+
+    // Otra réplica disponible para duplicar una consulta lenta a 'node'; null si no hay
+    public ClientSolr forHedge(ClientSolr node) {
+        List<ClientSolrEndpoint> candidates = endpointsOf(node);
+        if (candidates == null || candidates.size() < 2) {
+            return null;
+        }
+        ClientSolrEndpoint best = select(candidates, SolrHttpTransport.nodeKey(node.getIp(), node.getPort()));
+        return best == null ? null : view(node, best);
+    }
+
+    // Nodo líder para indexación, copias y cambios de esquema; no se reemplaza si falla
+    public ClientSolr forWrite(ClientSolr client) {
+        List<ClientSolrEndpoint> candidates = endpointsOf(client);
+        if (candidates == null || candidates.isEmpty()) {
+            return client;
+        }
+        return view(client, leader(client, candidates));
+    }
+
+    @Scheduled(fixedDelayString = "${solr.registry.refresh-interval:30s}",
+               initialDelayString = "${solr.registry.refresh-interval:30s}")
+    public void scheduledRefresh() {
+        refresh();
+    }
+
+    // Recarga de las réplicas desde MySQL, conserva las anteriores si falla
+    public boolean refresh() {
+        try {
+            Map<Long, List<ClientSolrEndpoint>> loaded = new HashMap<>();
+            for (ClientSolrEndpoint endpoint : endpointRepository.findAll()) {
+                loaded.computeIfAbsent(endpoint.getClientId(), id -> new ArrayList<>()).add(endpoint);
+            }
+            Map<Long, List<ClientSolrEndpoint>> copy = new HashMap<>();
+            loaded.forEach((id, list) -> copy.put(id, List.copyOf(list)));
+            endpoints = Map.copyOf(copy);
+            return true;
+        } catch (Exception e) {
+            log.error("Error recargando réplicas Solr desde MySQL, se mantienen las de {} clientes",
+                      endpoints.size(), e);
+            return false;
+        }
+    }
+
+    // Sondeo en paralelo de las réplicas de los clientes con más de un nodo
+    @Scheduled(fixedDelayString = "${solr.balancer.health-check-interval:10s}",
+               initialDelayString = "${solr.balancer.health-check-interval:10s}")
+    public void probe() {
+        Set<String> probed = new LinkedHashSet<>();
+        List<Callable<Void>> probes = new ArrayList<>();
+        endpoints.forEach((clientId, candidates) -> {
+            if (candidates.size() < 2) {
+                return;
+            }
+            for (ClientSolrEndpoint endpoint : candidates) {
+                String key = SolrHttpTransport.nodeKey(endpoint.getIp(), endpoint.getPort());
+                if (probed.add(key)) {
+                    probes.add(() -> {
+                        solrNodeHealth.probed(key, probe(endpoint));
+                        return null;
+                    });
+                }
+            }
+        });
+        if (probes.isEmpty()) {
+            return;
+        }
+        try {
+            solrIoExecutor.invokeAll(probes);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("strategy", properties.getStrategy());
+        Map<String, Object> clients = new LinkedHashMap<>();
+        endpoints.forEach((clientId, candidates) -> {
+            List<Map<String, Object>> nodes = new ArrayList<>();
+            for (ClientSolrEndpoint endpoint : candidates) {
+                String key = SolrHttpTransport.nodeKey(endpoint.getIp(), endpoint.getPort());
+                Map<String, Object> node = new LinkedHashMap<>();
+                node.put("node", key);
+                node.put("leader", endpoint.isLeader());
+                node.putAll(solrNodeHealth.stats(key));
+                nodes.add(node);
+            }
+            clients.put(String.valueOf(clientId), nodes);
+        });
+        stats.put("clients", clients);
+        return stats;
+    }
+
+    // Réplica disponible con menor puntuación según la estrategia; null si todas están expulsadas
+    private ClientSolrEndpoint select(List<ClientSolrEndpoint> candidates, String excluded) {
+        // Inicio aleatorio para repartir los empates
+        int size = candidates.size();
+        int offset = ThreadLocalRandom.current().nextInt(size);
+        ClientSolrEndpoint best = null;
+        double bestScore = Double.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            ClientSolrEndpoint candidate = candidates.get((offset + i) % size);
+            String key = SolrHttpTransport.nodeKey(candidate.getIp(), candidate.getPort());
+            if (key.equals(excluded) || !solrNodeHealth.isAvailable(key)) {
+                continue;
+            }
+            double score = properties.getStrategy() == SolrBalancerProperties.Strategy.EWMA
+                    ? solrNodeHealth.ewmaScore(key)
+                    : solrNodeHealth.inFlight(key);
+            if (score < bestScore) {
+                best = candidate;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    private boolean probe(ClientSolrEndpoint endpoint) {
+        String url = "http://" + endpoint.getIp() + ":" + endpoint.getPort()
+                   + "/solr/admin/cores?action=STATUS&indexInfo=false";
+        try {
+            return probeTemplate.getForEntity(url, String.class).getStatusCode().is2xxSuccessful();
+        } catch (Exception e) {
+            log.debug("Sondeo fallido del nodo Solr {}:{}", endpoint.getIp(), endpoint.getPort(), e);
+            return false;
+        }
+    }
+
+    private List<ClientSolrEndpoint> endpointsOf(ClientSolr client) {
+        return client.getId() == null ? null : endpoints.get(client.getId());
+    }
+
+    // Líder marcado; si no hay, la réplica con la ip y puerto del cliente o la primera
+    private static ClientSolrEndpoint leader(ClientSolr client, List<ClientSolrEndpoint> candidates) {
+        ClientSolrEndpoint own = null;
+        for (ClientSolrEndpoint endpoint : candidates) {
+            if (endpoint.isLeader()) {
+                return endpoint;
+            }
+            if (own == null && endpoint.getIp().equals(client.getIp()) && endpoint.getPort().equals(client.getPort())) {
+                own = endpoint;
+            }
+        }
+        return own != null ? own : candidates.get(0);
+    }
+
+    // Mismo cliente (id y nombre) apuntando al nodo elegido, para construir las URL sin más cambios
+    private static ClientSolr view(ClientSolr client, ClientSolrEndpoint endpoint) {
+        if (endpoint.getIp().equals(client.getIp()) && endpoint.getPort().equals(client.getPort())) {
+            return client;
+        }
+        return new ClientSolr(client.getId(), client.getName(), endpoint.getIp(), endpoint.getPort());
+    }
+}
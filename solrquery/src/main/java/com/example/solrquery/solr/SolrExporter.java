@@ -0,0 +1,223 @@
+package com.example.solrquery.solr;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.example.solrquery.entity.ClientSolr;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+// Exportación de todos los docs de una consulta como NDJSON (un doc por línea) sin cargarlos en memoria:
+// con el handler /export de Solr o paginando con cursorMark, sin el coste creciente de start
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SolrExporter {
+
+    private final SolrHttpTransport solrHttpTransport;
+
+    public enum Method { CURSOR, EXPORT }
+
+    // /export exige fl explícito y docValues en todos los campos de fl y sort; sin límite de docs
+    public Method choose(SolrSchemaSnapshot schema, String fl, String sort, long maxDocs, boolean exportHandler) {
+        if (!exportHandler || maxDocs > 0 || fl == null || fl.isBlank()) {
+            return Method.CURSOR;
+        }
+        for (String field : fields(fl)) {
+            if (field.contains("*") || field.contains("(") || field.contains(":") || !schema.hasDocValues(field)) {
+                return Method.CURSOR;
+            }
+        }
+        for (String clause : sortOrDefault(schema, sort).split(",")) {
+            String field = clause.trim().split("\\s+")[0];
+            if (!schema.hasDocValues(field) || schema.isMultiValued(field)) {
+                return Method.CURSOR;
+            }
+        }
+        return Method.EXPORT;
+    }
+
+    // Devuelve la cantidad de docs escritos
+    public long export(ClientSolr client, SolrSchemaSnapshot schema, ExportPlan plan, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        long written = plan.method() == Method.EXPORT
+                ? exportHandler(client, schema, plan, writer)
+                : cursor(client, schema, plan, writer);
+        writer.flush();
+        return written;
+    }
+
+    private long exportHandler(ClientSolr client, SolrSchemaSnapshot schema, ExportPlan plan, Writer writer) throws IOException {
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("q", plan.q() == null || plan.q().isBlank() ? "*:*" : plan.q());
+        params.put("fq", plan.fq());
+        params.put("fl", plan.fl());
+        params.put("sort", sortOrDefault(schema, plan.sort()));
+
+        ClientHttpResponse response = open(client, buildUri(baseUrl(plan, client) + "/export", params));
+        boolean completed = false;
+        try {
+            long written = copyDocs(response, writer, null);
+            completed = true;
+            return written;
+        } finally {
+            // Si el cliente cortó la descarga no se lee el resto de la exportación
+            if (completed) {
+                response.close();
+            } else {
+                SolrHttpTransport.abort(response);
+            }
+        }
+    }
+
+    // El uniqueKey desempata el orden, requisito de cursorMark
+    private long cursor(ClientSolr client, SolrSchemaSnapshot schema, ExportPlan plan, Writer writer) throws IOException {
+        String uniqueKey = schema.uniqueKey();
+        String sort = plan.sort() == null || plan.sort().isBlank()
+                ? uniqueKey + " asc"
+                : plan.sort().trim() + (sortsBy(plan.sort(), uniqueKey) ? "" : "," + uniqueKey + " asc");
+        String url = baseUrl(plan, client) + "/select";
+
+        long written = 0;
+        String cursor = "*";
+        while (true) {
+            int rows = plan.maxDocs() > 0
+                    ? (int) Math.min(plan.batchSize(), plan.maxDocs() - written)
+                    : plan.batchSize();
+            if (rows <= 0) {
+                break;
+            }
+            Map<String, Object> params = new LinkedHashMap<>();
+            params.put("q", plan.q() == null || plan.q().isBlank() ? "*:*" : plan.q());
+            params.put("fq", plan.fq());
+            params.put("fl", plan.fl());
+            params.put("sort", sort);
+            params.put("rows", rows);
+            params.put("cursorMark", cursor);
+            params.put("wt", "json");
+
+            Page page = new Page();
+            try (ClientHttpResponse response = open(client, buildUri(url, params))) {
+                page.docs = copyDocs(response, writer, page);
+            }
+            written += page.docs;
+            // Cada página llega al cliente sin esperar a la siguiente
+            writer.flush();
+            if (page.docs == 0 || page.nextCursor == null || page.nextCursor.equals(cursor)) {
+                break;
+            }
+            cursor = page.nextCursor;
+        }
+        return written;
+    }
+
+    private ClientHttpResponse open(ClientSolr client, URI uri) throws IOException {
+        log.debug("URL de exportación a Solr: {}", uri);
+        ClientHttpResponse response = solrHttpTransport.forClient(client).getRequestFactory()
+                .createRequest(uri, HttpMethod.GET).execute();
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            try (response) {
+                throw new IOException("Error al consultar Solr: " + response.getStatusCode() + ": "
+                        + new String(response.getBody().readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        return response;
+    }
+
+    // Copia los docs de response.docs a medida que se leen; el cursorMark siguiente llega después de los docs
+    private long copyDocs(ClientHttpResponse response, Writer writer, Page page) throws IOException {
+        JsonReader reader = new JsonReader(new InputStreamReader(response.getBody(), StandardCharsets.UTF_8));
+        long docs = 0;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (name.equals("response")) {
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    if (reader.nextName().equals("docs")) {
+                        reader.beginArray();
+                        while (reader.hasNext()) {
+                            JsonWriter line = new JsonWriter(writer);
+                            line.setHtmlSafe(false);
+                            SolrResponseTransformer.copyValue(reader, line);
+                            line.flush();
+                            writer.write('\n');
+                            docs++;
+                        }
+                        reader.endArray();
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
+            } else if (name.equals("nextCursorMark") && page != null) {
+                page.nextCursor = reader.nextString();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return docs;
+    }
+
+    private static String baseUrl(ExportPlan plan, ClientSolr client) {
+        return plan.protocol() + "://" + client.getIp() + ":" + client.getPort() + "/solr/" + plan.core();
+    }
+
+    // Alguna de las cláusulas ordena por el campo
+    private static boolean sortsBy(String sort, String field) {
+        for (String clause : sort.split(",")) {
+            if (clause.trim().split("\\s+")[0].equals(field)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String sortOrDefault(SolrSchemaSnapshot schema, String sort) {
+        return sort == null || sort.isBlank() ? schema.uniqueKey() + " asc" : sort;
+    }
+
+    private static List<String> fields(String fl) {
+        return List.of(fl.trim().split("[,\\s]+"));
+    }
+
+    // Los valores se codifican como variables para no alterar caracteres como '+' del cursorMark
+    private URI buildUri(String url, Map<String, Object> params) {
+        UriComponentsBuilder builder = UriComponentsBuilder.fromUriString(url);
+        Map<String, Object> values = new LinkedHashMap<>();
+        params.forEach((key, value) -> {
+            if (value != null && !value.toString().isBlank()) {
+                builder.queryParam(key, "{" + key + "}");
+                values.put(key, value);
+            }
+        });
+        return builder.encode().buildAndExpand(values).toUri();
+    }
+
+    public record ExportPlan(String protocol, String core, String q, String fq, String fl, String sort,
+                             long maxDocs, int batchSize, Method method) {
+    }
+
+    private static final class Page {
+        private long docs;
+        private String nextCursor;
+    }
+}
@@ -0,0 +1,462 @@
+package com.example.solrquery.solr;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import org.springframework.stereotype.Component;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+// Mezcla de las respuestas de varias colecciones: docs en el orden de 'sort', facet_counts y facets (JSON Facet API)
+@Component
+public class SolrFederatedMerger {
+
+    // Límite por defecto de buckets de un facet 'terms' en Solr
+    private static final int DEFAULT_TERMS_LIMIT = 10;
+
+    // Mezcla k-way de listas ya ordenadas por Solr; sin sort se concatenan en el orden de las colecciones
+    public JsonArray mergeDocs(List<JsonArray> sources, String sort, int start, int rows) {
+        JsonArray merged = new JsonArray();
+        Comparator<JsonElement> order = docOrder(sort);
+        int position = 0;
+        if (order == null) {
+            for (JsonArray docs : sources) {
+                for (JsonElement doc : docs) {
+                    if (merged.size() == rows) {
+                        return merged;
+                    }
+                    if (position++ >= start) {
+                        merged.add(doc);
+                    }
+                }
+            }
+            return merged;
+        }
+
+        // Empates: gana la colección listada antes, igual que en la concatenación
+        PriorityQueue<Cursor> heap = new PriorityQueue<>((a, b) -> {
+            int c = order.compare(a.current(), b.current());
+            return c != 0 ? c : Integer.compare(a.source, b.source);
+        });
+        for (int i = 0; i < sources.size(); i++) {
+            if (!sources.get(i).isEmpty()) {
+                heap.add(new Cursor(i, sources.get(i)));
+            }
+        }
+        while (!heap.isEmpty() && merged.size() < rows) {
+            Cursor cursor = heap.poll();
+            if (position++ >= start) {
+                merged.add(cursor.current());
+            }
+            if (cursor.advance()) {
+                heap.add(cursor);
+            }
+        }
+        return merged;
+    }
+
+    // Suma de conteos de facet_counts por término, consulta, rango e intervalo
+    public JsonObject mergeFacetCounts(List<JsonObject> sections) {
+        JsonObject merged = new JsonObject();
+        for (JsonObject section : sections) {
+            for (Map.Entry<String, JsonElement> entry : section.entrySet()) {
+                String name = entry.getKey();
+                JsonElement value = entry.getValue();
+                JsonElement current = merged.get(name);
+                if (current == null) {
+                    merged.add(name, value.deepCopy());
+                    continue;
+                }
+                if (!current.isJsonObject() || !value.isJsonObject()) {
+                    continue;
+                }
+                switch (name) {
+                    case "facet_queries", "facet_intervals" -> sumInto(current.getAsJsonObject(), value.getAsJsonObject());
+                    case "facet_fields" -> mergeFields(current.getAsJsonObject(), value.getAsJsonObject());
+                    case "facet_ranges" -> mergeRanges(current.getAsJsonObject(), value.getAsJsonObject());
+                    case "facet_pivot" -> mergePivotFields(current.getAsJsonObject(), value.getAsJsonObject());
+                    default -> {
+                        // facet_heatmaps y otras secciones: se conserva la primera respuesta
+                    }
+                }
+            }
+        }
+        return merged;
+    }
+
+    // Mezcla de 'facets' usando las definiciones de jsonFacet para saber cómo combinar cada estadística
+    public JsonObject mergeFacets(List<JsonObject> sections, Map<String, Object> definitions) {
+        JsonObject merged = null;
+        for (JsonObject section : sections) {
+            merged = merged == null ? section.deepCopy() : mergeBucket(merged, section, definitions);
+        }
+        removeUnmerged(merged);
+        return merged;
+    }
+
+    // Se compara por cada cláusula de 'sort' en orden, como Solr; la siguiente solo desempata
+    private Comparator<JsonElement> docOrder(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return null;
+        }
+        Comparator<JsonElement> order = null;
+        for (String clause : sort.split(",")) {
+            if (clause.isBlank()) {
+                continue;
+            }
+            String[] parts = clause.trim().split("\\s+");
+            Comparator<JsonElement> next = clauseOrder(parts[0], parts.length > 1 && parts[1].equalsIgnoreCase("desc"));
+            order = order == null ? next : order.thenComparing(next);
+        }
+        return order;
+    }
+
+    private static Comparator<JsonElement> clauseOrder(String field, boolean desc) {
+        return (a, b) -> {
+            JsonElement va = sortValue(a, field);
+            JsonElement vb = sortValue(b, field);
+            // Documentos sin el campo al final, en cualquier dirección
+            if (va == null || vb == null) {
+                return va == null ? (vb == null ? 0 : 1) : -1;
+            }
+            int c = compareValues(va, vb);
+            return desc ? -c : c;
+        };
+    }
+
+    private static JsonElement sortValue(JsonElement doc, String field) {
+        if (!doc.isJsonObject()) {
+            return null;
+        }
+        JsonElement value = doc.getAsJsonObject().get(field);
+        if (value != null && value.isJsonArray()) {
+            value = value.getAsJsonArray().isEmpty() ? null : value.getAsJsonArray().get(0);
+        }
+        return value == null || value.isJsonNull() ? null : value;
+    }
+
+    private static int compareValues(JsonElement a, JsonElement b) {
+        if (a.isJsonPrimitive() && b.isJsonPrimitive()) {
+            JsonPrimitive pa = a.getAsJsonPrimitive();
+            JsonPrimitive pb = b.getAsJsonPrimitive();
+            if (pa.isNumber() && pb.isNumber()) {
+                return pa.getAsBigDecimal().compareTo(pb.getAsBigDecimal());
+            }
+            if (pa.isBoolean() && pb.isBoolean()) {
+                return Boolean.compare(pa.getAsBoolean(), pb.getAsBoolean());
+            }
+        }
+        return a.getAsString().compareTo(b.getAsString());
+    }
+
+    // facet_fields: listas planas [término, conteo, ...] ordenadas por conteo
+    private void mergeFields(JsonObject merged, JsonObject section) {
+        for (Map.Entry<String, JsonElement> entry : section.entrySet()) {
+            JsonElement current = merged.get(entry.getKey());
+            if (current == null) {
+                merged.add(entry.getKey(), entry.getValue().deepCopy());
+            } else {
+                merged.add(entry.getKey(), mergeCounts(current.getAsJsonArray(), entry.getValue().getAsJsonArray(), true));
+            }
+        }
+    }
+
+    // facet_ranges: mismos rangos en todas las colecciones, se conserva su orden
+    private void mergeRanges(JsonObject merged, JsonObject section) {
+        for (Map.Entry<String, JsonElement> entry : section.entrySet()) {
+            JsonElement current = merged.get(entry.getKey());
+            if (current == null) {
+                merged.add(entry.getKey(), entry.getValue().deepCopy());
+                continue;
+            }
+            JsonObject target = current.getAsJsonObject();
+            for (Map.Entry<String, JsonElement> field : entry.getValue().getAsJsonObject().entrySet()) {
+                JsonElement existing = target.get(field.getKey());
+                switch (field.getKey()) {
+                    case "counts" -> target.add("counts", existing == null ? field.getValue().deepCopy()
+                            : mergeCounts(existing.getAsJsonArray(), field.getValue().getAsJsonArray(), false));
+                    case "before", "after", "between" -> target.add(field.getKey(), existing == null ? field.getValue().deepCopy()
+                            : new JsonPrimitive(number(existing).add(number(field.getValue()))));
+                    default -> {
+                        // gap, start y end son parámetros de la consulta
+                    }
+                }
+            }
+        }
+    }
+
+    private void mergePivotFields(JsonObject merged, JsonObject section) {
+        for (Map.Entry<String, JsonElement> entry : section.entrySet()) {
+            JsonElement current = merged.get(entry.getKey());
+            merged.add(entry.getKey(), current == null ? entry.getValue().deepCopy()
+                    : mergePivots(current.getAsJsonArray(), entry.getValue().getAsJsonArray()));
+        }
+    }
+
+    private JsonArray mergePivots(JsonArray a, JsonArray b) {
+        Map<String, JsonObject> byValue = new LinkedHashMap<>();
+        for (JsonArray pivots : List.of(a, b)) {
+            for (JsonElement element : pivots) {
+                JsonObject pivot = element.getAsJsonObject();
+                String key = String.valueOf(pivot.get("value"));
+                JsonObject current = byValue.get(key);
+                if (current == null) {
+                    byValue.put(key, pivot.deepCopy());
+                    continue;
+                }
+                current.add("count", new JsonPrimitive(number(current.get("count")).add(number(pivot.get("count")))));
+                if (pivot.has("pivot")) {
+                    current.add("pivot", current.has("pivot")
+                            ? mergePivots(current.getAsJsonArray("pivot"), pivot.getAsJsonArray("pivot"))
+                            : pivot.get("pivot").deepCopy());
+                }
+            }
+        }
+        List<JsonObject> pivots = new ArrayList<>(byValue.values());
+        pivots.sort((x, y) -> number(y.get("count")).compareTo(number(x.get("count"))));
+        JsonArray result = new JsonArray();
+        pivots.forEach(result::add);
+        return result;
+    }
+
+    private JsonArray mergeCounts(JsonArray a, JsonArray b, boolean byCount) {
+        Map<String, Object[]> counts = new LinkedHashMap<>();
+        for (JsonArray list : List.of(a, b)) {
+            for (int i = 0; i + 1 < list.size(); i += 2) {
+                JsonElement term = list.get(i);
+                BigDecimal count = number(list.get(i + 1));
+                counts.merge(String.valueOf(term), new Object[] {term, count},
+                        (x, y) -> new Object[] {x[0], ((BigDecimal) x[1]).add((BigDecimal) y[1])});
+            }
+        }
+        List<Object[]> entries = new ArrayList<>(counts.values());
+        if (byCount) {
+            entries.sort((x, y) -> ((BigDecimal) y[1]).compareTo((BigDecimal) x[1]));
+        }
+        JsonArray result = new JsonArray();
+        for (Object[] entry : entries) {
+            result.add((JsonElement) entry[0]);
+            result.add(new JsonPrimitive((BigDecimal) entry[1]));
+        }
+        return result;
+    }
+
+    private void sumInto(JsonObject merged, JsonObject section) {
+        for (Map.Entry<String, JsonElement> entry : section.entrySet()) {
+            JsonElement current = merged.get(entry.getKey());
+            JsonElement value = entry.getValue();
+            if (current == null) {
+                merged.add(entry.getKey(), value.deepCopy());
+            } else if (current.isJsonObject() && value.isJsonObject()) {
+                sumInto(current.getAsJsonObject(), value.getAsJsonObject());
+            } else if (isNumber(current) && isNumber(value)) {
+                merged.add(entry.getKey(), new JsonPrimitive(number(current).add(number(value))));
+            }
+        }
+    }
+
+    // Bucket o raíz de 'facets': count, estadísticas y sub-facets
+    private JsonObject mergeBucket(JsonObject a, JsonObject b, Map<String, ?> definitions) {
+        BigDecimal countA = a.has("count") ? number(a.get("count")) : BigDecimal.ZERO;
+        BigDecimal countB = b.has("count") ? number(b.get("count")) : BigDecimal.ZERO;
+        Set<String> names = new LinkedHashSet<>(a.keySet());
+        names.addAll(b.keySet());
+
+        JsonObject merged = new JsonObject();
+        for (String name : names) {
+            JsonElement va = a.get(name);
+            JsonElement vb = b.get(name);
+            if (va == null || vb == null) {
+                merged.add(name, (va == null ? vb : va).deepCopy());
+                continue;
+            }
+            Object definition = definitions.get(name);
+            if (name.equals("count")) {
+                merged.add(name, new JsonPrimitive(countA.add(countB)));
+            } else if (va.isJsonObject() && vb.isJsonObject()) {
+                JsonObject oa = va.getAsJsonObject();
+                merged.add(name, oa.has("buckets")
+                        ? mergeBucketFacet(oa, vb.getAsJsonObject(), definition)
+                        : mergeBucket(oa, vb.getAsJsonObject(), subFacets(definition)));
+            } else if (isNumber(va) && isNumber(vb)) {
+                // Sin valor combinable queda JsonNull hasta el final, para que otra colección no lo reponga
+                JsonPrimitive stat = mergeStat(number(va), number(vb), function(definition), countA, countB);
+                merged.add(name, stat == null ? JsonNull.INSTANCE : stat);
+            } else {
+                merged.add(name, va.deepCopy());
+            }
+        }
+        return merged;
+    }
+
+    // Estadísticas descartadas por mergeStat, también dentro de buckets y sub-facets
+    private static void removeUnmerged(JsonElement element) {
+        if (element == null) {
+            return;
+        }
+        if (element.isJsonArray()) {
+            element.getAsJsonArray().forEach(SolrFederatedMerger::removeUnmerged);
+        } else if (element.isJsonObject()) {
+            JsonObject object = element.getAsJsonObject();
+            object.entrySet().removeIf(entry -> entry.getValue().isJsonNull());
+            object.entrySet().forEach(entry -> removeUnmerged(entry.getValue()));
+        }
+    }
+
+    // Facets 'terms' y 'range': buckets con el mismo val se combinan y se reordenan
+    private JsonObject mergeBucketFacet(JsonObject a, JsonObject b, Object definition) {
+        Map<String, ?> nested = subFacets(definition);
+        Map<String, JsonObject> buckets = new LinkedHashMap<>();
+        for (JsonObject facet : List.of(a, b)) {
+            for (JsonElement element : facet.getAsJsonArray("buckets")) {
+                JsonObject bucket = element.getAsJsonObject();
+                buckets.merge(String.valueOf(bucket.get("val")), bucket.deepCopy(), (x, y) -> mergeBucket(x, y, nested));
+            }
+        }
+
+        String type = option(definition, "type");
+        List<JsonObject> sorted = new ArrayList<>(buckets.values());
+        int limit;
+        if ("range".equals(type)) {
+            sorted.sort(Comparator.comparing(bucket -> bucket.get("val"), SolrFederatedMerger::compareValues));
+            limit = -1;
+        } else {
+            sorted.sort(bucketOrder(option(definition, "sort")));
+            String configured = option(definition, "limit");
+            limit = configured == null ? DEFAULT_TERMS_LIMIT : new BigDecimal(configured).intValue();
+        }
+
+        JsonObject merged = new JsonObject();
+        for (Map.Entry<String, JsonElement> entry : a.entrySet()) {
+            String name = entry.getKey();
+            JsonElement other = b.get(name);
+            if (name.equals("buckets")) {
+                JsonArray result = new JsonArray();
+                sorted.stream().limit(limit < 0 ? Long.MAX_VALUE : limit).forEach(result::add);
+                merged.add(name, result);
+            } else if (name.equals("numBuckets") && other != null) {
+                // Cota superior: los mismos valores pueden aparecer en varias colecciones
+                merged.add(name, new JsonPrimitive(number(entry.getValue()).add(number(other))));
+            } else if (entry.getValue().isJsonObject() && other != null && other.isJsonObject()) {
+                // allBuckets y missing
+                merged.add(name, mergeBucket(entry.getValue().getAsJsonObject(), other.getAsJsonObject(), nested));
+            } else {
+                merged.add(name, entry.getValue().deepCopy());
+            }
+        }
+        return merged;
+    }
+
+    // Orden de buckets según 'sort' del facet: count, index o una estadística del bucket
+    private static Comparator<JsonObject> bucketOrder(String sort) {
+        String name = "count";
+        boolean desc = true;
+        if (sort != null && !sort.isBlank()) {
+            String[] parts = sort.trim().split("\\s+");
+            name = parts[0];
+            desc = parts.length < 2 ? !name.equals("index") : parts[1].equalsIgnoreCase("desc");
+        }
+        String key = name.equals("index") ? "val" : name;
+        Comparator<JsonObject> order = (x, y) -> {
+            JsonElement vx = x.get(key);
+            JsonElement vy = y.get(key);
+            vx = vx == null || vx.isJsonNull() ? null : vx;
+            vy = vy == null || vy.isJsonNull() ? null : vy;
+            if (vx == null || vy == null) {
+                return vx == null ? (vy == null ? 0 : 1) : -1;
+            }
+            return compareValues(vx, vy);
+        };
+        if (desc) {
+            order = order.reversed();
+        }
+        return order.thenComparing(bucket -> bucket.get("val"), SolrFederatedMerger::compareValues);
+    }
+
+    // min, max y sumas exactos; avg ponderado por count. stddev, variance, percentile, unique y hll no se pueden
+    // combinar a partir de los valores de cada colección: null y la estadística no se incluye en la mezcla.
+    private static JsonPrimitive mergeStat(BigDecimal a, BigDecimal b, String function, BigDecimal countA, BigDecimal countB) {
+        switch (function) {
+            case "min":
+                return new JsonPrimitive(a.min(b));
+            case "max":
+                return new JsonPrimitive(a.max(b));
+            case "avg": {
+                BigDecimal total = countA.add(countB);
+                if (total.signum() == 0) {
+                    return new JsonPrimitive(a);
+                }
+                BigDecimal weighted = a.multiply(countA).add(b.multiply(countB)).divide(total, MathContext.DECIMAL64);
+                return new JsonPrimitive(weighted.doubleValue());
+            }
+            case "stddev", "variance", "percentile", "unique", "uniqueblock", "hll":
+                return null;
+            default:
+                return new JsonPrimitive(a.add(b));
+        }
+    }
+
+    private static String function(Object definition) {
+        String expression = definition instanceof String text ? text : option(definition, "func");
+        if (expression == null) {
+            return "";
+        }
+        int paren = expression.indexOf('(');
+        return (paren < 0 ? expression : expression.substring(0, paren)).trim().toLowerCase(Locale.ROOT);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, ?> subFacets(Object definition) {
+        if (definition instanceof Map<?, ?> map && map.get("facet") instanceof Map<?, ?> nested) {
+            return (Map<String, ?>) nested;
+        }
+        return Map.of();
+    }
+
+    private static String option(Object definition, String name) {
+        if (definition instanceof Map<?, ?> map && map.get(name) != null) {
+            return String.valueOf(map.get(name));
+        }
+        return null;
+    }
+
+    private static boolean isNumber(JsonElement element) {
+        return element.isJsonPrimitive() && element.getAsJsonPrimitive().isNumber();
+    }
+
+    private static BigDecimal number(JsonElement element) {
+        return element == null || !isNumber(element) ? BigDecimal.ZERO : element.getAsBigDecimal();
+    }
+
+    private static final class Cursor {
+        private final int source;
+        private final JsonArray docs;
+        private int position;
+
+        private Cursor(int source, JsonArray docs) {
+            this.source = source;
+            this.docs = docs;
+        }
+
+        private JsonElement current() {
+            return docs.get(position);
+        }
+
+        private boolean advance() {
+            return ++position < docs.size();
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.example.solrquery.solr;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import com.example.solrquery.config.SolrHedgingProperties;
+import com.example.solrquery.entity.ClientSolr;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+// Consultas duplicadas en otra réplica cuando el nodo elegido no respondió en el percentil configurado.
+// Gana la primera respuesta correcta; la otra se descarta al llegar. Un presupuesto global limita los duplicados.
+@Component
+@Slf4j
+public class SolrHedger {
+
+    private final SolrHedgingProperties properties;
+    private final SolrLatencyTracker solrLatencyTracker;
+    private final SolrEndpointBalancer solrEndpointBalancer;
+    private final SolrMetrics solrMetrics;
+    private final ExecutorService solrIoExecutor;
+
+    private final Object budgetLock = new Object();
+    private double budget;
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder won = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public SolrHedger(SolrHedgingProperties properties, SolrLatencyTracker solrLatencyTracker,
+                      SolrEndpointBalancer solrEndpointBalancer, SolrMetrics solrMetrics,
+                      @Qualifier("solrIoExecutor") ExecutorService solrIoExecutor) {
+        this.properties = properties;
+        this.solrLatencyTracker = solrLatencyTracker;
+        this.solrEndpointBalancer = solrEndpointBalancer;
+        this.solrMetrics = solrMetrics;
+        this.solrIoExecutor = solrIoExecutor;
+        this.budget = properties.getBudgetBurst();
+    }
+
+    // 'attempt' no debe lanzar excepciones: los errores van en el resultado y 'succeeded' los distingue.
+    // 'discard' libera el resultado que no se usa (respuesta abierta de Solr).
+    public <T> T execute(ClientSolr primary, String core, Function<ClientSolr, T> attempt,
+                         Predicate<T> succeeded, Consumer<T> discard) {
+        Duration delay = hedgeDelay(primary, core);
+        if (delay == null) {
+            return attempt.apply(primary);
+        }
+
+        CompletableFuture<T> first = CompletableFuture.supplyAsync(() -> attempt.apply(primary), solrIoExecutor);
+        try {
+            return first.get(delay.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // Sin respuesta en el percentil: se intenta el duplicado
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            first.thenAccept(discard);
+            throw new IllegalStateException("Consulta a Solr interrumpida", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+
+        ClientSolr alternate = solrEndpointBalancer.forHedge(primary);
+        if (alternate == null || !withdraw()) {
+            if (alternate != null) {
+                rejected.increment();
+                solrMetrics.hedge(primary.getName(), core, "budget_exhausted");
+            }
+            return first.join();
+        }
+        sent.increment();
+        solrMetrics.hedge(primary.getName(), core, "sent");
+        log.debug("Consulta duplicada en {}:{} tras {} ms sin respuesta de {}:{}",
+                  alternate.getIp(), alternate.getPort(), delay.toMillis(), primary.getIp(), primary.getPort());
+        CompletableFuture<T> second = CompletableFuture.supplyAsync(() -> attempt.apply(alternate), solrIoExecutor);
+
+        CompletableFuture<T> winner = new CompletableFuture<>();
+        AtomicInteger remaining = new AtomicInteger(2);
+        AtomicBoolean decided = new AtomicBoolean();
+        for (CompletableFuture<T> candidate : List.of(first, second)) {
+            candidate.whenComplete((result, error) -> {
+                boolean last = remaining.decrementAndGet() == 0;
+                if (error == null && succeeded.test(result)) {
+                    // El duplicado ganador se cuenta antes de devolver la respuesta
+                    if (decided.compareAndSet(false, true)) {
+                        if (candidate == second) {
+                            won.increment();
+                            solrMetrics.hedge(primary.getName(), core, "won");
+                        }
+                        winner.complete(result);
+                    } else {
+                        discard.accept(result);
+                    }
+                } else if (last && decided.compareAndSet(false, true)) {
+                    // Ninguna correcta: se devuelve el último error
+                    if (error != null) {
+                        winner.completeExceptionally(error);
+                    } else {
+                        winner.complete(result);
+                    }
+                } else if (result != null) {
+                    discard.accept(result);
+                }
+            });
+        }
+        return winner.join();
+    }
+
+    // Variante sin bloqueo de la consulta reactiva: 'attempt' emite la respuesta abierta o falla y el duplicado
+    // se programa con un temporizador. 'discard' libera la respuesta que llega después de la ganadora.
+    public <T> Mono<T> executeReactive(ClientSolr primary, String core, Function<ClientSolr, Mono<T>> attempt,
+                                       Consumer<T> discard) {
+        return Mono.defer(() -> {
+            Duration delay = hedgeDelay(primary, core);
+            if (delay == null) {
+                return attempt.apply(primary);
+            }
+            return Mono.<T>create(sink -> {
+                Race<T> race = new Race<>(sink, discard);
+                race.join(attempt.apply(primary), () -> { });
+                race.schedule(Mono.delay(delay).subscribe(tick -> {
+                    if (race.isDecided()) {
+                        return;
+                    }
+                    ClientSolr alternate = solrEndpointBalancer.forHedge(primary);
+                    if (alternate == null) {
+                        return;
+                    }
+                    if (!withdraw()) {
+                        rejected.increment();
+                        solrMetrics.hedge(primary.getName(), core, "budget_exhausted");
+                        return;
+                    }
+                    sent.increment();
+                    solrMetrics.hedge(primary.getName(), core, "sent");
+                    log.debug("Consulta duplicada en {}:{} tras {} ms sin respuesta de {}:{}",
+                              alternate.getIp(), alternate.getPort(), delay.toMillis(), primary.getIp(), primary.getPort());
+                    race.join(attempt.apply(alternate), () -> {
+                        won.increment();
+                        solrMetrics.hedge(primary.getName(), core, "won");
+                    });
+                }));
+            });
+        });
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", properties.isEnabled());
+        stats.put("sent", sent.sum());
+        stats.put("won", won.sum());
+        stats.put("budgetExhausted", rejected.sum());
+        synchronized (budgetLock) {
+            stats.put("budget", Math.floor(budget * 100) / 100);
+        }
+        return stats;
+    }
+
+    // Espera antes de duplicar; null si no se duplica (desactivado, sin réplicas o sin latencias observadas)
+    private Duration hedgeDelay(ClientSolr primary, String core) {
+        if (!properties.isEnabled() || !solrEndpointBalancer.hasReplicas(primary)) {
+            return null;
+        }
+        deposit();
+        Duration observed = solrLatencyTracker.percentile(
+                SolrHttpTransport.nodeKey(primary.getIp(), primary.getPort()), core, properties.getPercentile());
+        if (observed == null) {
+            return null;
+        }
+        return observed.compareTo(properties.getMinDelay()) < 0 ? properties.getMinDelay() : observed;
+    }
+
+    // Cada consulta suma budgetPercent/100 duplicados, hasta budgetBurst
+    private void deposit() {
+        synchronized (budgetLock) {
+            budget = Math.min(properties.getBudgetBurst(), budget + properties.getBudgetPercent() / 100);
+        }
+    }
+
+    private boolean withdraw() {
+        synchronized (budgetLock) {
+            if (budget < 1) {
+                return false;
+            }
+            budget -= 1;
+            return true;
+        }
+    }
+
+    // Primaria y duplicado: gana el primer valor y el resto se descarta al llegar, como en la variante
+    // bloqueante; si todas fallan, el último error. Una petición cancelada cancela las llamadas en curso.
+    private static final class Race<T> {
+        private final MonoSink<T> sink;
+        private final Consumer<T> discard;
+        private final Disposable.Composite calls = Disposables.composite();
+        private final Disposable.Swap timer = Disposables.swap();
+        private final AtomicBoolean decided = new AtomicBoolean();
+        private final AtomicInteger pending = new AtomicInteger();
+
+        private Race(MonoSink<T> sink, Consumer<T> discard) {
+            this.sink = sink;
+            this.discard = discard;
+            sink.onCancel(() -> {
+                decided.set(true);
+                timer.dispose();
+                calls.dispose();
+            });
+        }
+
+        private boolean isDecided() {
+            return decided.get();
+        }
+
+        private void schedule(Disposable hedge) {
+            timer.update(hedge);
+        }
+
+        private void join(Mono<T> call, Runnable onWin) {
+            pending.incrementAndGet();
+            calls.add(call.subscribe(result -> {
+                if (decided.compareAndSet(false, true)) {
+                    timer.dispose();
+                    onWin.run();
+                    sink.success(result);
+                } else {
+                    discard.accept(result);
+                }
+            }, error -> {
+                if (pending.decrementAndGet() == 0 && decided.compareAndSet(false, true)) {
+                    timer.dispose();
+                    sink.error(error);
+                }
+            }));
+        }
+    }
+}
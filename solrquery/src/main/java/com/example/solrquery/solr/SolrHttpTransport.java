@@ -0,0 +1,428 @@
+package com.example.solrquery.solr;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.http.io.EofSensorInputStream;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import com.example.solrquery.config.SolrHttpProperties;
+import com.example.solrquery.entity.ClientSolr;
+import com.example.solrquery.exception.SolrNodeBusyException;
+
+import io.micrometer.core.instrument.Counter;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SolrHttpTransport {
+
+    // Atributo de las peticiones de /consult: solo ellas usan el timeout adaptativo y alimentan sus latencias
+    public static final String CONSULT_ATTRIBUTE = SolrHttpTransport.class.getName() + ".consult";
+
+    // Petición de /consult en curso en este hilo; el contexto de HttpClient se crea dentro de execution.execute
+    private static final ThreadLocal<Boolean> CONSULT = new ThreadLocal<>();
+
+    private final SolrHttpProperties properties;
+    private final SolrMetrics solrMetrics;
+    private final SolrNodeHealth solrNodeHealth;
+    private final SolrLatencyTracker solrLatencyTracker;
+    private final Map<String, Node> nodes = new ConcurrentHashMap<>();
+
+    // RestTemplate compartido del nodo Solr del cliente
+    public RestTemplate forClient(ClientSolr client) {
+        return forNode(client.getIp(), client.getPort());
+    }
+
+    public RestTemplate forNode(String ip, int port) {
+        return nodes.computeIfAbsent(nodeKey(ip, port), this::createNode).restTemplate();
+    }
+
+    // Estadísticas del pool de conexiones por nodo
+    public Map<String, Map<String, Integer>> poolStats() {
+        Map<String, Map<String, Integer>> stats = new LinkedHashMap<>();
+        nodes.forEach((key, node) -> {
+            PoolStats total = node.connectionManager().getTotalStats();
+            Map<String, Integer> nodeStats = new LinkedHashMap<>();
+            nodeStats.put("leased", total.getLeased());
+            nodeStats.put("available", total.getAvailable());
+            nodeStats.put("pending", total.getPending());
+            nodeStats.put("max", total.getMax());
+            stats.put(key, nodeStats);
+        });
+        return stats;
+    }
+
+    // Cupos por nodo: peticiones en curso, en espera y rechazadas
+    public Map<String, Map<String, Long>> bulkheadStats() {
+        Map<String, Map<String, Long>> stats = new LinkedHashMap<>();
+        nodes.forEach((key, node) -> {
+            if (node.bulkhead() == null) return;
+            Bulkhead bulkhead = node.bulkhead();
+            Map<String, Long> nodeStats = new LinkedHashMap<>();
+            nodeStats.put("active", (long) (bulkhead.limit - bulkhead.permits.availablePermits()));
+            nodeStats.put("queued", (long) bulkhead.permits.getQueueLength());
+            nodeStats.put("rejected", bulkhead.rejected.sum());
+            nodeStats.put("max", (long) bulkhead.limit);
+            stats.put(key, nodeStats);
+        });
+        return stats;
+    }
+
+    // Marca la petición como consulta de /consult; copias, cursores y exportaciones mantienen solr.http.read-timeout
+    public static void markConsult(HttpRequest request) {
+        request.getAttributes().put(CONSULT_ATTRIBUTE, Boolean.TRUE);
+    }
+
+    public static String nodeKey(String ip, int port) {
+        return ip + ":" + port;
+    }
+
+    // Cierre sin leer el resto del cuerpo: la conexión se descarta en lugar de volver al pool.
+    // Para respuestas largas que se abandonan a la mitad (exportación cancelada por el cliente).
+    public static void abort(ClientHttpResponse response) {
+        try {
+            InputStream body = response.getBody();
+            if (body instanceof CountingInputStream counting) {
+                body = counting.delegate();
+            }
+            if (body instanceof EofSensorInputStream eof) {
+                eof.abort();
+            }
+        } catch (IOException e) {
+            log.debug("Error descartando la conexión con Solr", e);
+        } finally {
+            response.close();
+        }
+    }
+
+    private Node createNode(String key) {
+        log.info("Creando pool de conexiones para nodo Solr {}", key);
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnPerRoute(properties.getMaxConnectionsPerNode())
+                .setMaxConnTotal(properties.getMaxConnectionsPerNode())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(properties.getConnectTimeout()))
+                        .setSocketTimeout(Timeout.of(properties.getReadTimeout()))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(properties.getConnectionRequestTimeout()))
+                        .setResponseTimeout(Timeout.of(properties.getReadTimeout()))
+                        .build())
+                .setKeepAliveStrategy((response, context) -> TimeValue.of(properties.getIdleTimeout()))
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(properties.getIdleTimeout()))
+                .build();
+
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
+        requestFactory.setHttpContextFactory((method, uri) -> adaptiveTimeout(key, method, uri));
+        RestTemplate restTemplate = new RestTemplate(requestFactory);
+        // Métricas por fuera del semáforo, para contar también las peticiones rechazadas
+        List<ClientHttpRequestInterceptor> interceptors = new ArrayList<>();
+        interceptors.add(new Metered(key));
+        Bulkhead bulkhead = null;
+        if (properties.getMaxConcurrentPerNode() > 0) {
+            bulkhead = new Bulkhead(key, properties.getMaxConcurrentPerNode());
+            interceptors.add(bulkhead);
+        }
+        restTemplate.setInterceptors(interceptors);
+        return new Node(restTemplate, connectionManager, httpClient, bulkhead);
+    }
+
+    // Timeout de respuesta de las consultas de /consult según la latencia observada de la colección en el nodo;
+    // null mantiene la configuración por defecto del cliente
+    private HttpContext adaptiveTimeout(String key, HttpMethod method, URI uri) {
+        if (method != HttpMethod.GET || CONSULT.get() == null) {
+            return null;
+        }
+        Duration timeout = solrLatencyTracker.timeout(key, SolrMetrics.core(uri.getPath()));
+        if (timeout == null) {
+            return null;
+        }
+        HttpClientContext context = HttpClientContext.create();
+        context.setRequestConfig(RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.of(properties.getConnectionRequestTimeout()))
+                .setResponseTimeout(Timeout.of(timeout))
+                .build());
+        return context;
+    }
+
+    @PreDestroy
+    public void close() {
+        nodes.forEach((key, node) -> {
+            try {
+                node.httpClient().close();
+            } catch (IOException e) {
+                log.warn("Error cerrando pool de conexiones del nodo {}", key, e);
+            }
+        });
+        nodes.clear();
+    }
+
+    private record Node(RestTemplate restTemplate,
+                        PoolingHttpClientConnectionManager connectionManager,
+                        CloseableHttpClient httpClient,
+                        Bulkhead bulkhead) {
+    }
+
+    // Bytes enviados y recibidos y errores de Solr por nodo, colección y manejador;
+    // también las peticiones en curso, la latencia y los fallos del nodo para el balanceador
+    private final class Metered implements ClientHttpRequestInterceptor {
+        private final String key;
+
+        private Metered(String key) {
+            this.key = key;
+        }
+
+        @Override
+        public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+                throws IOException {
+            String path = request.getURI().getPath();
+            String core = SolrMetrics.core(path);
+            String handler = SolrMetrics.handler(path);
+            boolean consult = Boolean.TRUE.equals(request.getAttributes().get(CONSULT_ATTRIBUTE));
+            solrMetrics.bytesSent(key, core, handler).increment(body.length);
+            solrNodeHealth.started(key);
+            long started = System.nanoTime();
+            ClientHttpResponse response;
+            int status;
+            try {
+                if (consult) {
+                    CONSULT.set(Boolean.TRUE);
+                }
+                response = execution.execute(request, body);
+                status = response.getStatusCode().value();
+            } catch (SolrNodeBusyException e) {
+                // Sin cupo local: no es un fallo del nodo
+                solrNodeHealth.released(key);
+                solrMetrics.error(key, core, handler, "busy");
+                throw e;
+            } catch (IOException | RuntimeException e) {
+                // Un timeout también cuenta como muestra de latencia: el timeout adaptativo crece con ella
+                if (consult) {
+                    solrLatencyTracker.record(key, core, System.nanoTime() - started);
+                }
+                solrNodeHealth.responded(key, System.nanoTime() - started, true);
+                solrNodeHealth.released(key);
+                solrMetrics.error(key, core, handler, "io_error");
+                throw e;
+            } finally {
+                CONSULT.remove();
+            }
+            long elapsed = System.nanoTime() - started;
+            solrNodeHealth.responded(key, elapsed, status >= 500);
+            if (consult) {
+                solrLatencyTracker.record(key, core, elapsed);
+            }
+            if (status >= 400) {
+                solrMetrics.error(key, core, handler, String.valueOf(status));
+            }
+            return new CountingResponse(response, solrMetrics.bytesReceived(key, core, handler),
+                    () -> solrNodeHealth.released(key));
+        }
+    }
+
+    // Semáforo por nodo; el cupo se libera al cerrar la respuesta, también en respuestas transmitidas por flujo
+    private final class Bulkhead implements ClientHttpRequestInterceptor {
+        private final String key;
+        private final int limit;
+        private final Semaphore permits;
+        private final LongAdder rejected = new LongAdder();
+
+        private Bulkhead(String key, int limit) {
+            this.key = key;
+            this.limit = limit;
+            this.permits = new Semaphore(limit, true);
+        }
+
+        @Override
+        public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+                throws IOException {
+            try {
+                if (!permits.tryAcquire(properties.getBulkheadWait().toMillis(), TimeUnit.MILLISECONDS)) {
+                    rejected.increment();
+                    log.warn("Petición rechazada: nodo Solr {} sin cupo ({} en curso)", key, limit);
+                    throw new SolrNodeBusyException(key);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Espera de cupo interrumpida para el nodo " + key);
+            }
+            try {
+                return new ReleasingResponse(execution.execute(request, body), permits);
+            } catch (IOException | RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+        }
+    }
+
+    private static final class ReleasingResponse implements ClientHttpResponse {
+        private final ClientHttpResponse delegate;
+        private final Semaphore permits;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private ReleasingResponse(ClientHttpResponse delegate, Semaphore permits) {
+            this.delegate = delegate;
+            this.permits = permits;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void close() {
+            try {
+                delegate.close();
+            } finally {
+                if (released.compareAndSet(false, true)) {
+                    permits.release();
+                }
+            }
+        }
+    }
+
+    private static final class CountingResponse implements ClientHttpResponse {
+        private final ClientHttpResponse delegate;
+        private final Counter received;
+        private final Runnable onClose;
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private CountingInputStream body;
+
+        private CountingResponse(ClientHttpResponse delegate, Counter received, Runnable onClose) {
+            this.delegate = delegate;
+            this.received = received;
+            this.onClose = onClose;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                body = new CountingInputStream(delegate.getBody(), received);
+            }
+            return body;
+        }
+
+        @Override
+        public void close() {
+            try {
+                delegate.close();
+            } finally {
+                if (closed.compareAndSet(false, true)) {
+                    onClose.run();
+                }
+            }
+        }
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        private final Counter received;
+
+        private CountingInputStream(InputStream in, Counter received) {
+            super(in);
+            this.received = received;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                received.increment();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                received.increment(n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            received.increment(skipped);
+            return skipped;
+        }
+
+        private InputStream delegate() {
+            return in;
+        }
+    }
+}
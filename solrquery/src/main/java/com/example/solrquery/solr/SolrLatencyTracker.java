@@ -0,0 +1,117 @@
+package com.example.solrquery.solr;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+
+import com.example.solrquery.config.SolrHttpProperties;
+import com.example.solrquery.config.SolrTimeoutProperties;
+
+import lombok.RequiredArgsConstructor;
+
+// Latencia de las consultas por colección y nodo (últimas respuestas), para el timeout adaptativo y el hedging
+@Component
+@RequiredArgsConstructor
+public class SolrLatencyTracker {
+
+    // Muestras nuevas antes de volver a ordenar la ventana
+    private static final int RESORT_EVERY = 32;
+
+    private final SolrTimeoutProperties properties;
+    private final SolrHttpProperties httpProperties;
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    public void record(String node, String core, long elapsedNanos) {
+        windows.computeIfAbsent(key(node, core), k -> new Window(properties.getWindow())).add(elapsedNanos);
+    }
+
+    // Percentil observado; null sin muestras suficientes
+    public Duration percentile(String node, String core, double percentile) {
+        Window window = windows.get(key(node, core));
+        if (window == null) {
+            return null;
+        }
+        long[] sorted = window.sorted();
+        if (sorted.length < properties.getMinSamples()) {
+            return null;
+        }
+        return Duration.ofNanos(at(sorted, percentile));
+    }
+
+    // Timeout de respuesta para una consulta; null si se usa el de solr.http.read-timeout
+    public Duration timeout(String node, String core) {
+        if (!properties.isAdaptive()) {
+            return null;
+        }
+        Duration observed = percentile(node, core, properties.getPercentile());
+        if (observed == null) {
+            return null;
+        }
+        long millis = (long) (observed.toMillis() * properties.getMultiplier());
+        long min = properties.getMinTimeout().toMillis();
+        long max = httpProperties.getReadTimeout().toMillis();
+        return Duration.ofMillis(Math.max(min, Math.min(max, millis)));
+    }
+
+    public Map<String, Map<String, Object>> stats() {
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        windows.forEach((key, window) -> {
+            long[] sorted = window.sorted();
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("samples", sorted.length);
+            if (sorted.length > 0) {
+                entry.put("p50Ms", at(sorted, 0.5) / 1_000_000);
+                entry.put("p95Ms", at(sorted, 0.95) / 1_000_000);
+                entry.put("p99Ms", at(sorted, 0.99) / 1_000_000);
+            }
+            int slash = key.indexOf('/');
+            Duration timeout = timeout(key.substring(0, slash), key.substring(slash + 1));
+            entry.put("timeoutMs", timeout == null ? httpProperties.getReadTimeout().toMillis() : timeout.toMillis());
+            stats.put(key, entry);
+        });
+        return stats;
+    }
+
+    private static String key(String node, String core) {
+        return node + "/" + core;
+    }
+
+    private static long at(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    // Ventana circular; la copia ordenada se reutiliza hasta acumular RESORT_EVERY muestras nuevas
+    private static final class Window {
+        private final long[] samples;
+        private int next;
+        private int size;
+        private int unsorted;
+        private long[] sorted = new long[0];
+
+        private Window(int capacity) {
+            this.samples = new long[Math.max(1, capacity)];
+        }
+
+        private synchronized void add(long value) {
+            samples[next] = value;
+            next = (next + 1) % samples.length;
+            size = Math.min(size + 1, samples.length);
+            unsorted++;
+        }
+
+        private synchronized long[] sorted() {
+            if (unsorted >= RESORT_EVERY || (unsorted > 0 && sorted.length < RESORT_EVERY * 4)) {
+                long[] copy = Arrays.copyOf(samples, size);
+                Arrays.sort(copy);
+                sorted = copy;
+                unsorted = 0;
+            }
+            return sorted;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.solrquery.solr;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+
+// Métricas de las operaciones contra Solr, expuestas por Actuator en /actuator/prometheus.
+// Las etiquetas client y core solo llevan valores ya validados, para no crear series por cada nombre recibido.
+@Component
+@RequiredArgsConstructor
+public class SolrMetrics {
+
+    public static final String NONE = "none";
+
+    private static final Set<String> HANDLERS = Set.of("select", "query", "update", "schema", "export", "cores", "luke");
+
+    private final MeterRegistry registry;
+
+    public Timer.Sample start() {
+        return Timer.start(registry);
+    }
+
+    // Duración de una fase (client_lookup, core_check, url_build, solr_call, response_processing, ...)
+    public void phase(Timer.Sample sample, String operation, String phase, String client, String core) {
+        sample.stop(Timer.builder("solr.phase")
+                .description("Duración de cada fase de las operaciones contra Solr")
+                .tag("operation", operation)
+                .tag("phase", phase)
+                .tag("client", tag(client))
+                .tag("core", tag(core))
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(60))
+                .register(registry));
+    }
+
+    public <T> T time(String operation, String phase, String client, String core, Supplier<T> call) {
+        Timer.Sample sample = start();
+        try {
+            return call.get();
+        } finally {
+            phase(sample, operation, phase, client, core);
+        }
+    }
+
+    public void docsIndexed(String client, String core, long docs) {
+        if (docs > 0) {
+            Counter.builder("solr.docs.indexed").tag("client", tag(client)).tag("core", tag(core))
+                    .register(registry).increment(docs);
+        }
+    }
+
+    public void docsCopied(String client, String core, long docs) {
+        if (docs > 0) {
+            Counter.builder("solr.docs.copied").tag("client", tag(client)).tag("core", tag(core))
+                    .register(registry).increment(docs);
+        }
+    }
+
+    public void schemaMutations(String client, String core, String action, int count) {
+        if (count > 0) {
+            Counter.builder("solr.schema.mutations").tag("client", tag(client)).tag("core", tag(core))
+                    .tag("action", action)
+                    .register(registry).increment(count);
+        }
+    }
+
+    // outcome: "sent" (duplicado enviado), "won" (el duplicado respondió primero) o "budget_exhausted"
+    public void hedge(String client, String core, String outcome) {
+        Counter.builder("solr.hedges").tag("client", tag(client)).tag("core", tag(core)).tag("outcome", outcome)
+                .register(registry).increment();
+    }
+
+    // Valor leído del componente en cada publicación de métricas
+    public <T> void gauge(String name, String description, String baseUnit, T source, ToDoubleFunction<T> value) {
+        Gauge.builder(name, source, value).description(description).baseUnit(baseUnit).register(registry);
+    }
+
+    // Contadores del transporte: el nodo reemplaza al cliente porque varios clientes pueden compartirlo
+    public Counter bytesSent(String node, String core, String handler) {
+        return Counter.builder("solr.bytes.sent").baseUnit("bytes")
+                .tag("node", node).tag("core", tag(core)).tag("handler", handler)
+                .register(registry);
+    }
+
+    public Counter bytesReceived(String node, String core, String handler) {
+        return Counter.builder("solr.bytes.received").baseUnit("bytes")
+                .tag("node", node).tag("core", tag(core)).tag("handler", handler)
+                .register(registry);
+    }
+
+    // status: código HTTP de Solr, "busy" (sin cupo en el nodo) o "io_error"
+    public void error(String node, String core, String handler, String status) {
+        Counter.builder("solr.errors").tag("node", node).tag("core", tag(core)).tag("handler", handler)
+                .tag("status", status)
+                .register(registry).increment();
+    }
+
+    // Manejador de Solr acotado a los conocidos; el resto se agrupa como "other"
+    public static String handler(String path) {
+        int slash = path.lastIndexOf('/');
+        String last = slash < 0 ? path : path.substring(slash + 1);
+        return HANDLERS.contains(last) ? last : "other";
+    }
+
+    // Colección a partir de la ruta /solr/{core}/...; las rutas de administración no tienen colección
+    public static String core(String path) {
+        String[] parts = path.split("/");
+        if (parts.length >= 4 && parts[1].equals("solr") && !parts[2].equals("admin")) {
+            return parts[2];
+        }
+        return NONE;
+    }
+
+    private static String tag(String value) {
+        return value == null || value.isBlank() ? NONE : value;
+    }
+}
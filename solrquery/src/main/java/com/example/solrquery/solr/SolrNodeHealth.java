@@ -0,0 +1,135 @@
+package com.example.solrquery.solr;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.stereotype.Component;
+
+import com.example.solrquery.config.SolrBalancerProperties;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+// Estado de cada nodo Solr (ip:puerto) visto desde la aplicación: peticiones en curso,
+// latencia móvil y fallos seguidos. Lo alimentan el transporte y el sondeo del balanceador.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SolrNodeHealth {
+
+    private final SolrBalancerProperties properties;
+    private final Map<String, NodeState> nodes = new ConcurrentHashMap<>();
+
+    public void started(String key) {
+        state(key).inFlight.incrementAndGet();
+    }
+
+    // Llega la respuesta (o falla la conexión); la petición sigue en curso hasta cerrar el cuerpo
+    public void responded(String key, long elapsedNanos, boolean failed) {
+        NodeState state = state(key);
+        state.observe(elapsedNanos, properties.getEwmaDecay().toNanos());
+        if (failed) {
+            failed(key, state, "fallos seguidos");
+        } else {
+            state.consecutiveFailures = 0;
+        }
+    }
+
+    public void released(String key) {
+        state(key).inFlight.decrementAndGet();
+    }
+
+    public void probed(String key, boolean healthy) {
+        NodeState state = state(key);
+        // Un sondeo fallido basta para sacar el nodo, sin esperar a los fallos de las consultas
+        if (!healthy) {
+            state.consecutiveFailures++;
+            if (isAvailable(key)) {
+                eject(key, state, "sondeo fallido");
+            }
+            return;
+        }
+        state.consecutiveFailures = 0;
+        if (state.ejectedUntil != 0) {
+            state.ejectedUntil = 0;
+            log.info("Nodo Solr {} vuelve a recibir consultas tras un sondeo correcto", key);
+        }
+    }
+
+    // Fuera de las consultas hasta que venza la expulsión o responda al sondeo
+    public boolean isAvailable(String key) {
+        NodeState state = nodes.get(key);
+        return state == null || state.ejectedUntil == 0 || System.nanoTime() - state.ejectedUntil >= 0;
+    }
+
+    public int inFlight(String key) {
+        NodeState state = nodes.get(key);
+        return state == null ? 0 : state.inFlight.get();
+    }
+
+    // Latencia esperada de una nueva petición: la media móvil por las que ya esperan delante
+    public double ewmaScore(String key) {
+        NodeState state = nodes.get(key);
+        return state == null ? 0 : state.ewmaNanos * (state.inFlight.get() + 1);
+    }
+
+    // Para elegir entre nodos todos expulsados: el que antes vuelve
+    public long ejectedUntil(String key) {
+        NodeState state = nodes.get(key);
+        return state == null ? 0 : state.ejectedUntil;
+    }
+
+    public Map<String, Object> stats(String key) {
+        NodeState state = state(key);
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("inFlight", state.inFlight.get());
+        stats.put("ewmaMs", Math.round(state.ewmaNanos / 1e4) / 100.0);
+        stats.put("consecutiveFailures", state.consecutiveFailures);
+        stats.put("available", isAvailable(key));
+        long ejectedFor = state.ejectedUntil == 0 ? 0 : (state.ejectedUntil - System.nanoTime()) / 1_000_000;
+        stats.put("ejectedForMs", Math.max(0, ejectedFor));
+        return stats;
+    }
+
+    private void failed(String key, NodeState state, String reason) {
+        int failures = ++state.consecutiveFailures;
+        // Tras vencer la expulsión basta un fallo más para volver a sacarlo
+        if (failures >= properties.getFailuresToEject() && isAvailable(key)) {
+            eject(key, state, reason);
+        }
+    }
+
+    private void eject(String key, NodeState state, String reason) {
+        state.ejectedUntil = System.nanoTime() + properties.getEjectionTime().toNanos();
+        log.warn("Nodo Solr {} fuera de las consultas durante {} ({}: {})",
+                 key, properties.getEjectionTime(), reason, state.consecutiveFailures);
+    }
+
+    private NodeState state(String key) {
+        return nodes.computeIfAbsent(key, k -> new NodeState());
+    }
+
+    private static final class NodeState {
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private volatile double ewmaNanos;
+        private volatile long lastObserved;
+        private volatile int consecutiveFailures;
+        // 0 si el nodo está disponible; si no, System.nanoTime() en que vence la expulsión
+        private volatile long ejectedUntil;
+
+        // Media móvil con decaimiento por tiempo; una muestra más lenta que la media la reemplaza
+        // directamente, para reaccionar enseguida a un nodo que empieza a ir lento
+        private synchronized void observe(long elapsedNanos, long decayNanos) {
+            long now = System.nanoTime();
+            if (ewmaNanos == 0 || elapsedNanos > ewmaNanos) {
+                ewmaNanos = elapsedNanos;
+            } else {
+                double weight = Math.exp(-(double) (now - lastObserved) / decayNanos);
+                ewmaNanos = ewmaNanos * weight + elapsedNanos * (1 - weight);
+            }
+            lastObserved = now;
+        }
+    }
+}
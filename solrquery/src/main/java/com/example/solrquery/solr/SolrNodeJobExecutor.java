@@ -0,0 +1,72 @@
+package com.example.solrquery.solr;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import com.example.solrquery.config.SolrCopyProperties;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@Slf4j
+public class SolrNodeJobExecutor {
+
+    private final ExecutorService solrIoExecutor;
+    private final SolrCopyProperties properties;
+    private final Map<String, Deque<Runnable>> pending = new HashMap<>();
+    private final Map<String, Integer> running = new HashMap<>();
+
+    public SolrNodeJobExecutor(@Qualifier("solrIoExecutor") ExecutorService solrIoExecutor,
+                               SolrCopyProperties properties) {
+        this.solrIoExecutor = solrIoExecutor;
+        this.properties = properties;
+    }
+
+    // Ejecuta el trabajo si el nodo tiene cupo, si no queda en espera
+    public synchronized void submit(String nodeKey, Runnable job) {
+        if (running.getOrDefault(nodeKey, 0) < properties.getMaxJobsPerNode()) {
+            start(nodeKey, job);
+        } else {
+            pending.computeIfAbsent(nodeKey, k -> new ArrayDeque<>()).addLast(job);
+        }
+    }
+
+    public synchronized Map<String, Map<String, Integer>> stats() {
+        Map<String, Map<String, Integer>> stats = new LinkedHashMap<>();
+        running.forEach((key, count) -> {
+            Map<String, Integer> nodeStats = new LinkedHashMap<>();
+            nodeStats.put("running", count);
+            nodeStats.put("queued", pending.getOrDefault(key, new ArrayDeque<>()).size());
+            stats.put(key, nodeStats);
+        });
+        return stats;
+    }
+
+    private void start(String nodeKey, Runnable job) {
+        running.merge(nodeKey, 1, Integer::sum);
+        solrIoExecutor.execute(() -> {
+            try {
+                job.run();
+            } catch (Exception e) {
+                log.error("Error en trabajo en segundo plano del nodo {}", nodeKey, e);
+            } finally {
+                finished(nodeKey);
+            }
+        });
+    }
+
+    private synchronized void finished(String nodeKey) {
+        running.merge(nodeKey, -1, Integer::sum);
+        Deque<Runnable> queue = pending.get(nodeKey);
+        if (queue != null && !queue.isEmpty()) {
+            start(nodeKey, queue.pollFirst());
+        }
+    }
+}
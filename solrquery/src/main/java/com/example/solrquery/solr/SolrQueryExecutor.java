@@ -0,0 +1,145 @@
+package com.example.solrquery.solr;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import com.example.solrquery.entity.ClientSolr;
+import com.example.solrquery.exception.SolrNodeBusyException;
+import com.example.solrquery.solr.SolrQueryResultCache.Cached;
+import com.example.solrquery.solr.SolrResponseTransformer.Prepared;
+import com.google.gson.stream.JsonReader;
+
+import io.micrometer.core.instrument.Timer;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+// Llamada a Solr de una consulta /consult, común a /consult y /consult/batch: réplica con hedging,
+// errores de Solr traducidos a la respuesta para el cliente y respuesta completa en memoria
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SolrQueryExecutor {
+
+    public static final String NO_RESULTS = "No hay resultados";
+
+    private final SolrHttpTransport solrHttpTransport;
+    private final SolrResponseTransformer solrResponseTransformer;
+    private final SolrMetrics solrMetrics;
+    private final SolrHedger solrHedger;
+
+    // Consulta a Solr, duplicada en otra réplica si el nodo tarda más de lo habitual;
+    // devuelve la respuesta abierta o el error para el cliente
+    public Upstream open(String operation, ClientSolr client, String core, String finalUrl) {
+        Timer.Sample phase = solrMetrics.start();
+        try {
+            return solrHedger.execute(client, core,
+                    node -> requestSolr(node, onNode(finalUrl, client, node)),
+                    upstream -> upstream.error() == null,
+                    upstream -> {
+                        if (upstream.response() != null) {
+                            SolrHttpTransport.abort(upstream.response());
+                        }
+                    });
+        } finally {
+            solrMetrics.phase(phase, operation, "solr_call", client.getName(), core);
+        }
+    }
+
+    // Respuesta completa en memoria; solo para consultas con pocas filas
+    public Fetched fetch(String operation, ClientSolr client, String core, String finalUrl) {
+        Upstream upstream = open(operation, client, core, finalUrl);
+        if (upstream.error() != null) {
+            return new Fetched(null, upstream.error());
+        }
+        Timer.Sample phase = solrMetrics.start();
+        try (ClientHttpResponse solrResponse = upstream.response()) {
+            JsonReader reader = new JsonReader(new InputStreamReader(solrResponse.getBody(), StandardCharsets.UTF_8));
+            Prepared prepared = solrResponseTransformer.prepare(reader);
+            if (prepared.isEmpty()) {
+                return new Fetched(new Cached(NO_RESULTS.getBytes(StandardCharsets.UTF_8), false), null);
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            solrResponseTransformer.write(prepared, writer);
+            return new Fetched(new Cached(out.toByteArray(), true), null);
+        } catch (Exception e) {
+            log.error("Error procesando la respuesta de Solr", e);
+            return new Fetched(null, ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error procesando la respuesta de Solr: " + e.getMessage()));
+        } finally {
+            solrMetrics.phase(phase, operation, "response_processing", client.getName(), core);
+        }
+    }
+
+    private Upstream requestSolr(ClientSolr client, String finalUrl) {
+        try {
+            ClientHttpRequest solrRequest = solrHttpTransport.forClient(client).getRequestFactory()
+                    .createRequest(new URI(finalUrl), HttpMethod.GET);
+            SolrHttpTransport.markConsult(solrRequest);
+            ClientHttpResponse solrResponse = solrRequest.execute();
+            if (!solrResponse.getStatusCode().is2xxSuccessful()) {
+                String error;
+                try (solrResponse) {
+                    error = solrResponse.getStatusCode() + ": " + new String(solrResponse.getBody().readAllBytes(), StandardCharsets.UTF_8);
+                }
+                return new Upstream(null, solrError(error));
+            }
+            return new Upstream(solrResponse, null);
+        } catch (Exception e) {
+            return new Upstream(null, callError(finalUrl, e));
+        }
+    }
+
+    // Respuesta para el cliente ante un estado de error de Solr; también la usa la consulta reactiva
+    public static ResponseEntity<?> solrError(String error) {
+        log.error("Error al consultar Solr: {}", error);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body("Error al consultar Solr, revise los parámetros: " + error);
+    }
+
+    // Respuesta para el cliente ante un fallo de la llamada: nodo sin cupo (503), tiempo agotado (504) u otro (500)
+    public static ResponseEntity<?> callError(String finalUrl, Throwable e) {
+        if (e instanceof SolrNodeBusyException) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+        }
+        if (e instanceof SocketTimeoutException) {
+            log.warn("Tiempo de espera agotado consultando Solr: {}", finalUrl);
+            return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT)
+                    .body("Tiempo de espera agotado consultando Solr");
+        }
+        log.error("Error al consultar Solr", e);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body("Error al consultar Solr, revise los parámetros: " + e.getMessage());
+    }
+
+    // Misma URL dirigida a otra réplica del cliente
+    private static String onNode(String url, ClientSolr from, ClientSolr to) {
+        if (from == to) {
+            return url;
+        }
+        String authority = "://" + from.getIp() + ":" + from.getPort();
+        int at = url.indexOf(authority);
+        return url.substring(0, at) + "://" + to.getIp() + ":" + to.getPort() + url.substring(at + authority.length());
+    }
+
+    // Respuesta de Solr abierta o error para el cliente
+    public record Upstream(ClientHttpResponse response, ResponseEntity<?> error) {
+    }
+
+    // Respuesta transformada o error; se comparte entre las peticiones unidas a la misma llamada
+    public record Fetched(Cached cached, ResponseEntity<?> error) {
+    }
+}
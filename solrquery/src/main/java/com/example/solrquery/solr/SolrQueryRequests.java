@@ -0,0 +1,112 @@
+package com.example.solrquery.solr;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Pattern;
+
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.example.solrquery.dto.QuerySolrRequest;
+import com.example.solrquery.entity.ClientSolr;
+import com.google.gson.Gson;
+
+// Valores por defecto, validación de parámetros y URL de una consulta /consult,
+// comunes a las implementaciones bloqueante y reactiva y al lote de consultas
+public final class SolrQueryRequests {
+
+    private static final Gson GSON = new Gson();
+    private static final Pattern SORT = Pattern.compile(
+            "^\\s*[a-zA-Z0-9_.]+\\s+(asc|desc)(\\s*,\\s*[a-zA-Z0-9_.]+\\s+(asc|desc))*\\s*$");
+
+    private SolrQueryRequests() {
+    }
+
+    public static void applyDefaults(QuerySolrRequest request) {
+        // Validación ingreso de protocolo
+        if (request.getProtocol() == null || request.getProtocol().isBlank()) {
+            request.setProtocol("http");
+        }
+
+        // Validación ingreso de tipo de consulta
+        if (request.getQt() == null || request.getQt().isBlank()) {
+            request.setQt("select");
+        }
+    }
+
+    // Mensaje para el cliente si sort, start o rows no son válidos; null si lo son
+    public static String invalidParams(String sort, String start, String rows) {
+        // Validación sort
+        String invalidSort = invalidSort(sort);
+        if (invalidSort != null) {
+            return invalidSort;
+        }
+
+        // Validación start
+        if (!isNullOrInteger(start)) {
+            return "El parámetro 'start' debe ser un número entero.";
+        }
+        // Validación rows
+        if (!isNullOrInteger(rows)) {
+            return "El parámetro 'rows' debe ser un número entero.";
+        }
+        return null;
+    }
+
+    // URL de consulta a Solr con los parámetros de la petición
+    public static String buildUrl(ClientSolr client, QuerySolrRequest request) {
+        String baseUrl = request.getProtocol() + "://" + client.getIp() + ":" + client.getPort() + "/solr/" + request.getCore() + "/" + request.getQt();
+        UriComponentsBuilder builder = UriComponentsBuilder.fromUriString(baseUrl);
+
+        addIfNotBlank(builder, "q", request.getQ());
+        addIfNotBlank(builder, "fq", request.getFq());
+        addIfNotBlank(builder, "start", request.getStart());
+        addIfNotBlank(builder, "rows", request.getRows());
+        addIfNotBlank(builder, "fl", request.getFl());
+        addIfNotBlank(builder, "facet.query", request.getFacetQuery());
+        addIfNotBlank(builder, "facet.field", request.getFacetField());
+
+        // Valores sin codificar: los rangos de Solr ("[0 TO 10]") no son válidos tal cual en la URL
+        String finalUrl = builder.build().encode().toUriString();
+
+        // Codificado: el espacio entre campo y dirección no es válido en la URL
+        if (request.getSort()!=null && !request.getSort().isEmpty()){
+            finalUrl += (finalUrl.contains("?") ? "&" : "?") + "sort=" + URLEncoder.encode(request.getSort(), StandardCharsets.UTF_8);
+        }
+
+        if (request.getJsonFacet()!=null && !request.getJsonFacet().isEmpty()){
+            String json = GSON.toJson(request.getJsonFacet());
+            String jsonEncoded = URLEncoder.encode(json, StandardCharsets.UTF_8);
+            finalUrl += (finalUrl.contains("?") ? "&" : "?") + "json.facet=" + jsonEncoded;
+        }
+
+        if ((request.getFacetQuery()!=null && !request.getFacetQuery().isEmpty())||
+            (request.getFacetField()!=null && !request.getFacetField().isEmpty())){
+            finalUrl += "&facet=on";
+        }
+        return finalUrl;
+    }
+
+    // Una o más cláusulas '<campo> asc|desc' separadas por comas, como las acepta Solr
+    public static String invalidSort(String sort) {
+        if (sort == null || sort.isBlank() || SORT.matcher(sort).matches()) {
+            return null;
+        }
+        return "El parámetro 'sort' debe tener el formato '<campo> asc' o '<campo> desc', con varias cláusulas separadas por comas.";
+    }
+
+    private static boolean isNullOrInteger(String val) {
+        if (val == null || val.isBlank()) return true;
+        try {
+            Integer.parseInt(val);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static void addIfNotBlank(UriComponentsBuilder builder, String key, String value) {
+        if (value != null && !value.isBlank()) {
+            builder.queryParam(key, value);
+        }
+    }
+}
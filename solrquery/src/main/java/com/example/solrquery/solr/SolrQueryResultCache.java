@@ -0,0 +1,257 @@
+package com.example.solrquery.solr;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.solrquery.config.SolrCommitProperties;
+import com.example.solrquery.config.SolrQueryCacheProperties;
+import com.example.solrquery.dto.QuerySolrRequest;
+import com.google.gson.Gson;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+
+// Respuestas de /consult ya transformadas, acotadas por memoria y por vigencia de cada colección
+@Component
+@RequiredArgsConstructor
+public class SolrQueryResultCache {
+
+    // Memoria estimada de la clave, el registro y el nodo del mapa
+    private static final int ENTRY_OVERHEAD = 128;
+
+    private final SolrQueryCacheProperties properties;
+    private final SolrCommitProperties commitProperties;
+    private final SolrMetrics solrMetrics;
+    private final Gson gson = new Gson();
+
+    // Orden de acceso: el primero es el menos usado recientemente
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, CoreState> cores = new HashMap<>();
+    // Las generaciones son globales; una colección sin estado (nunca escrita o ya retirada) usa el suelo,
+    // que sube al retirar estados para que una consulta anterior a la retirada no guarde su respuesta
+    private long lastGeneration;
+    private long generationFloor;
+    private long bytes;
+    private long hits;
+    private long misses;
+    private long bypasses;
+    private long evictions;
+    private long invalidations;
+
+    @PostConstruct
+    public void registerMetrics() {
+        solrMetrics.gauge("solr.query.cache.hit.ratio", "Aciertos sobre búsquedas en la caché de /consult", null,
+                this, SolrQueryResultCache::hitRatio);
+        solrMetrics.gauge("solr.query.cache.bytes", "Memoria estimada de las respuestas en la caché de /consult", "bytes",
+                this, SolrQueryResultCache::bytes);
+        solrMetrics.gauge("solr.query.cache.entries", "Respuestas guardadas en la caché de /consult", null,
+                this, SolrQueryResultCache::entries);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    // Solo se materializan respuestas pequeñas; el resto se sigue transmitiendo por flujo
+    public boolean isMaterializable(QuerySolrRequest request) {
+        int rows = request.getRows() == null || request.getRows().isBlank() ? 10 : Integer.parseInt(request.getRows().trim());
+        return rows <= properties.getMaxRows();
+    }
+
+    // Clave con los parámetros normalizados de la consulta
+    public String key(QuerySolrRequest request) {
+        StringBuilder key = new StringBuilder();
+        append(key, request.getClient());
+        append(key, request.getCore());
+        append(key, request.getProtocol());
+        append(key, request.getQt());
+        append(key, request.getQ());
+        append(key, request.getFq());
+        append(key, request.getSort() == null ? null : request.getSort().trim().replaceAll("\\s+", " "));
+        append(key, request.getStart());
+        append(key, request.getRows());
+        append(key, request.getFl());
+        append(key, request.getFacetQuery());
+        append(key, request.getFacetField());
+        append(key, request.getJsonFacet() == null || request.getJsonFacet().isEmpty()
+                ? null : gson.toJson(sorted(request.getJsonFacet())));
+        return key.toString();
+    }
+
+    public synchronized Cached get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (entry.expiresAt() < System.currentTimeMillis()) {
+            remove(key);
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value();
+    }
+
+    public synchronized void recordBypass() {
+        bypasses++;
+    }
+
+    // Generación de la colección antes de consultar Solr; put la compara para descartar respuestas previas a una escritura
+    public synchronized long generation(String client, String core) {
+        CoreState state = cores.get(coreKey(client, core));
+        return state == null ? generationFloor : state.generation;
+    }
+
+    public synchronized void put(String key, String client, String core, long generation, Cached value) {
+        long size = value.body().length + key.length() * 2L + ENTRY_OVERHEAD;
+        if (size > properties.getMaxEntrySize().toBytes()) {
+            return;
+        }
+        String coreKey = coreKey(client, core);
+        CoreState state = cores.get(coreKey);
+        long now = System.currentTimeMillis();
+        long current = state == null ? generationFloor : state.generation;
+        if (current != generation || (state != null && now < state.quietUntil)) {
+            return;
+        }
+        remove(key);
+        entries.put(key, new Entry(coreKey, value, size, now + ttl(client, core)));
+        bytes += size;
+        evict();
+    }
+
+    // Llamado tras escribir en la colección y al confirmar el commit. Con commitWithin Solr puede tardar
+    // ese plazo en hacer visible la escritura: hasta entonces no se guardan respuestas de la colección
+    public synchronized void invalidate(String client, String core) {
+        String coreKey = coreKey(client, core);
+        CoreState state = cores.computeIfAbsent(coreKey, k -> new CoreState());
+        state.generation = ++lastGeneration;
+        state.lastWrite = System.currentTimeMillis();
+        state.quietUntil = state.lastWrite
+                + Math.max(properties.getWriteSettle().toMillis(), commitProperties.getCommitWithin().toMillis());
+        invalidations++;
+
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next().getValue();
+            if (entry.coreKey().equals(coreKey)) {
+                bytes -= entry.size();
+                it.remove();
+            }
+        }
+    }
+
+    // Retira el estado de las colecciones sin escrituras recientes para que el mapa no crezca sin límite
+    @Scheduled(fixedDelayString = "${solr.query-cache.idle-eviction:10m}",
+               initialDelayString = "${solr.query-cache.idle-eviction:10m}")
+    public synchronized void evictIdleCores() {
+        long now = System.currentTimeMillis();
+        if (cores.values().removeIf(state -> now - state.lastWrite > properties.getIdleEviction().toMillis())) {
+            generationFloor = lastGeneration;
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", entries.size());
+        stats.put("bytes", bytes);
+        stats.put("maxBytes", properties.getMaxSize().toBytes());
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("hitRatio", hitRatio());
+        stats.put("bypasses", bypasses);
+        stats.put("evictions", evictions);
+        stats.put("invalidations", invalidations);
+        stats.put("trackedCores", cores.size());
+        return stats;
+    }
+
+    public synchronized double hitRatio() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+
+    public synchronized long bytes() {
+        return bytes;
+    }
+
+    public synchronized int entries() {
+        return entries.size();
+    }
+
+    private long ttl(String client, String core) {
+        Duration ttl = properties.getTtls().get(coreKey(client, core));
+        if (ttl == null) {
+            ttl = properties.getTtls().get(client);
+        }
+        return (ttl == null ? properties.getTtl() : ttl).toMillis();
+    }
+
+    private void evict() {
+        long maxBytes = properties.getMaxSize().toBytes();
+        Iterator<Entry> it = entries.values().iterator();
+        while (bytes > maxBytes && it.hasNext()) {
+            bytes -= it.next().size();
+            it.remove();
+            evictions++;
+        }
+    }
+
+    private void remove(String key) {
+        Entry previous = entries.remove(key);
+        if (previous != null) {
+            bytes -= previous.size();
+        }
+    }
+
+    private static String coreKey(String client, String core) {
+        return client + "." + core;
+    }
+
+    private static void append(StringBuilder key, String value) {
+        if (value != null) {
+            key.append(value.trim());
+        }
+        key.append('\u0001');
+    }
+
+    // Copia con claves ordenadas para que el orden del JSON no cambie la clave
+    private static Object sorted(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            Map<String, Object> copy = new TreeMap<>();
+            map.forEach((k, v) -> copy.put(String.valueOf(k), sorted(v)));
+            return copy;
+        }
+        if (value instanceof List<?> list) {
+            return list.stream().map(SolrQueryResultCache::sorted).toList();
+        }
+        return value;
+    }
+
+    // Cuerpo de la respuesta; json=false para el texto "No hay resultados"
+    public record Cached(byte[] body, boolean json) {
+    }
+
+    private record Entry(String coreKey, Cached value, long size, long expiresAt) {
+    }
+
+    private static final class CoreState {
+        private long generation;
+        private long lastWrite;
+        private long quietUntil;
+    }
+}
@@ -0,0 +1,267 @@
+package com.example.solrquery.solr;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Transformación sin bloqueo de la respuesta de Solr a {docs, facet_counts, facets}, por bloques de bytes.
+// No emite nada hasta saber si hay resultados: un flujo vacío equivale a "No hay resultados".
+@Component
+public class SolrReactiveResponseTransformer {
+
+    private final JsonFactory factory = JsonFactory.builder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_CONTENT)
+            .build();
+
+    public Flux<byte[]> transform(Flux<DataBuffer> solrBody) {
+        return Flux.defer(() -> {
+            Session session = new Session();
+            return solrBody.<byte[]>handle((buffer, sink) -> {
+                        byte[] bytes = new byte[buffer.readableByteCount()];
+                        buffer.read(bytes);
+                        DataBufferUtils.release(buffer);
+                        try {
+                            byte[] out = session.feed(bytes);
+                            if (out.length > 0) {
+                                sink.next(out);
+                            }
+                        } catch (IOException | RuntimeException e) {
+                            sink.error(e);
+                        }
+                    })
+                    .concatWith(Mono.fromCallable(session::finish).filter(out -> out.length > 0))
+                    .doFinally(signal -> session.close());
+        });
+    }
+
+    private enum State { ROOT_START, ROOT, RESPONSE_START, RESPONSE, NUM_FOUND, DOCS_START, DOCS, SKIP, CAPTURE, DONE }
+
+    private final class Session {
+        private final JsonParser parser;
+        private final ByteArrayFeeder feeder;
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        private final JsonGenerator writer;
+
+        private State state = State.ROOT_START;
+        // Estado al que se vuelve tras omitir o capturar un valor completo
+        private State returnState;
+        private int valueDepth;
+        private boolean hasResponse;
+        private long numFound;
+        private boolean started;
+
+        private String captureName;
+        private ByteArrayOutputStream captureOut;
+        private JsonGenerator capture;
+        private String facetCounts;
+        private String facets;
+
+        private Session() {
+            try {
+                parser = factory.createNonBlockingByteArrayParser();
+                feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+                writer = factory.createGenerator(out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private byte[] feed(byte[] bytes) throws IOException {
+            feeder.feedInput(bytes, 0, bytes.length);
+            drain();
+            return takeOutput();
+        }
+
+        private byte[] finish() throws IOException {
+            feeder.endOfInput();
+            drain();
+            if (state != State.DONE) {
+                throw new IllegalStateException("Respuesta de Solr incompleta");
+            }
+            return takeOutput();
+        }
+
+        private void drain() throws IOException {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+                handle(token);
+            }
+        }
+
+        private void handle(JsonToken token) throws IOException {
+            switch (state) {
+                case ROOT_START -> {
+                    expect(token, JsonToken.START_OBJECT);
+                    state = State.ROOT;
+                }
+                case ROOT -> {
+                    if (token == JsonToken.END_OBJECT) {
+                        complete();
+                        return;
+                    }
+                    String name = parser.currentName();
+                    if (name.equals("response")) {
+                        state = State.RESPONSE_START;
+                    } else if (name.equals("facet_counts") || name.equals("facets")) {
+                        startCapture(name);
+                    } else {
+                        skip(State.ROOT, 0);
+                    }
+                }
+                case RESPONSE_START -> {
+                    expect(token, JsonToken.START_OBJECT);
+                    hasResponse = true;
+                    state = State.RESPONSE;
+                }
+                case RESPONSE -> {
+                    if (token == JsonToken.END_OBJECT) {
+                        state = State.ROOT;
+                        return;
+                    }
+                    String name = parser.currentName();
+                    if (name.equals("numFound")) {
+                        state = State.NUM_FOUND;
+                    } else if (name.equals("docs")) {
+                        state = State.DOCS_START;
+                    } else {
+                        skip(State.RESPONSE, 0);
+                    }
+                }
+                case NUM_FOUND -> {
+                    numFound = parser.getLongValue();
+                    state = State.RESPONSE;
+                }
+                case DOCS_START -> {
+                    expect(token, JsonToken.START_ARRAY);
+                    if (numFound > 0) {
+                        startOutput();
+                        valueDepth = 0;
+                        state = State.DOCS;
+                    } else {
+                        skip(State.RESPONSE, 1);
+                    }
+                }
+                case DOCS -> {
+                    if (valueDepth == 0 && token == JsonToken.END_ARRAY) {
+                        writer.writeEndArray();
+                        state = State.RESPONSE;
+                        return;
+                    }
+                    writer.copyCurrentEventExact(parser);
+                    valueDepth += depthChange(token);
+                }
+                case SKIP -> {
+                    valueDepth += depthChange(token);
+                    if (valueDepth == 0) {
+                        state = returnState;
+                    }
+                }
+                case CAPTURE -> {
+                    capture.copyCurrentEventExact(parser);
+                    valueDepth += depthChange(token);
+                    if (valueDepth == 0) {
+                        capture.flush();
+                        String json = captureOut.toString(StandardCharsets.UTF_8);
+                        if (captureName.equals("facet_counts")) {
+                            facetCounts = json;
+                        } else {
+                            facets = json;
+                        }
+                        state = State.ROOT;
+                    }
+                }
+                case DONE -> throw new IllegalStateException("Contenido inesperado al final de la respuesta de Solr");
+            }
+        }
+
+        private void skip(State back, int depth) {
+            returnState = back;
+            valueDepth = depth;
+            state = State.SKIP;
+        }
+
+        private void startCapture(String name) throws IOException {
+            captureName = name;
+            captureOut = new ByteArrayOutputStream();
+            capture = factory.createGenerator(captureOut);
+            valueDepth = 0;
+            state = State.CAPTURE;
+        }
+
+        private void startOutput() throws IOException {
+            writer.writeStartObject();
+            writer.writeFieldName("docs");
+            writer.writeStartArray();
+            started = true;
+        }
+
+        private void complete() throws IOException {
+            state = State.DONE;
+            if (!hasResponse) {
+                throw new IllegalStateException("La respuesta de Solr no contiene 'response'");
+            }
+            if (!started) {
+                // Sin docs ni facets se responde "No hay resultados"
+                if (facetCounts == null && facets == null) {
+                    return;
+                }
+                startOutput();
+                writer.writeEndArray();
+            }
+            if (facetCounts != null) {
+                writer.writeFieldName("facet_counts");
+                writer.writeRawValue(facetCounts);
+            }
+            if (facets != null) {
+                writer.writeFieldName("facets");
+                writer.writeRawValue(facets);
+            }
+            writer.writeEndObject();
+        }
+
+        private byte[] takeOutput() throws IOException {
+            writer.flush();
+            byte[] bytes = out.toByteArray();
+            out.reset();
+            return bytes;
+        }
+
+        private void expect(JsonToken token, JsonToken expected) {
+            if (token != expected) {
+                throw new IllegalStateException("Token inesperado en la respuesta de Solr: " + token);
+            }
+        }
+
+        private static int depthChange(JsonToken token) {
+            return switch (token) {
+                case START_OBJECT, START_ARRAY -> 1;
+                case END_OBJECT, END_ARRAY -> -1;
+                default -> 0;
+            };
+        }
+
+        private void close() {
+            try {
+                parser.close();
+                writer.close();
+            } catch (IOException e) {
+                // Sin recursos externos: solo búferes en memoria
+            }
+        }
+    }
+}
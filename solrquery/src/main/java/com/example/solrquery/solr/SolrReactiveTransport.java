@@ -0,0 +1,277 @@
+package com.example.solrquery.solr;
+
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.example.solrquery.config.SolrHttpProperties;
+import com.example.solrquery.config.SolrQueryProperties;
+import com.example.solrquery.exception.SolrNodeBusyException;
+
+import io.micrometer.core.instrument.Counter;
+import io.netty.channel.ChannelOption;
+import io.netty.handler.timeout.ReadTimeoutHandler;
+import io.netty.handler.timeout.TimeoutException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.client.HttpClientRequest;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+
+// Cliente HTTP sin bloqueo para la consulta reactiva; comparte los tiempos y límites de solr.http
+// y, como SolrHttpTransport, alimenta métricas, salud de nodos, latencias y cupos por nodo
+@Component
+@ConditionalOnProperty(name = "solr.query.mode", havingValue = "reactive")
+@Slf4j
+public class SolrReactiveTransport {
+
+    private final SolrHttpProperties properties;
+    private final SolrMetrics solrMetrics;
+    private final SolrNodeHealth solrNodeHealth;
+    private final SolrLatencyTracker solrLatencyTracker;
+    private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+
+    private final ConnectionProvider connections;
+    private final LoopResources loops;
+    private final WebClient webClient;
+
+    public SolrReactiveTransport(SolrHttpProperties http, SolrQueryProperties query, SolrMetrics solrMetrics,
+                                 SolrNodeHealth solrNodeHealth, SolrLatencyTracker solrLatencyTracker) {
+        this.properties = http;
+        this.solrMetrics = solrMetrics;
+        this.solrNodeHealth = solrNodeHealth;
+        this.solrLatencyTracker = solrLatencyTracker;
+        this.connections = ConnectionProvider.builder("solr-reactive")
+                .maxConnections(http.getMaxConnectionsPerNode())
+                .pendingAcquireTimeout(http.getConnectionRequestTimeout())
+                .maxIdleTime(http.getIdleTimeout())
+                .build();
+        this.loops = LoopResources.create("solr-reactive", query.getEventLoopThreads(), true);
+        HttpClient httpClient = HttpClient.create(connections)
+                .runOn(loops)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) http.getConnectTimeout().toMillis())
+                .doOnConnected(connection -> connection.addHandlerLast(
+                        new ReadTimeoutHandler(http.getReadTimeout().toMillis(), TimeUnit.MILLISECONDS)));
+        this.webClient = WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .filter(this::metered)
+                .build();
+    }
+
+    public WebClient webClient() {
+        return webClient;
+    }
+
+    // Cupos por nodo: peticiones en curso, en espera y rechazadas
+    public Map<String, Map<String, Long>> bulkheadStats() {
+        Map<String, Map<String, Long>> stats = new LinkedHashMap<>();
+        bulkheads.forEach((key, bulkhead) -> stats.put(key, bulkhead.stats()));
+        return stats;
+    }
+
+    // Tiempo agotado de netty (conexión o respuesta) como el de la consulta bloqueante;
+    // el nodo sin cupo se devuelve tal cual. El resto de errores no cambia.
+    public static Throwable unwrap(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TimeoutException || cause instanceof SocketTimeoutException) {
+                return new SocketTimeoutException("Tiempo de espera agotado consultando Solr");
+            }
+            if (cause instanceof SolrNodeBusyException) {
+                return cause;
+            }
+        }
+        return e;
+    }
+
+    // Mismo recorrido que SolrHttpTransport.Metered y Bulkhead. El cupo y la petición en curso
+    // se liberan al terminar o cancelar el cuerpo, también en respuestas transmitidas por flujo.
+    private Mono<ClientResponse> metered(ClientRequest request, ExchangeFunction next) {
+        URI uri = request.url();
+        String key = SolrHttpTransport.nodeKey(uri.getHost(), uri.getPort());
+        String core = SolrMetrics.core(uri.getPath());
+        String handler = SolrMetrics.handler(uri.getPath());
+        boolean consult = request.attribute(SolrHttpTransport.CONSULT_ATTRIBUTE).isPresent();
+        Bulkhead bulkhead = properties.getMaxConcurrentPerNode() > 0
+                ? bulkheads.computeIfAbsent(key, k -> new Bulkhead(k, properties.getMaxConcurrentPerNode()))
+                : null;
+        Mono<Void> permit = bulkhead != null ? bulkhead.acquire() : Mono.empty();
+
+        return permit
+                .doOnError(SolrNodeBusyException.class, e -> solrMetrics.error(key, core, handler, "busy"))
+                .then(Mono.defer(() -> {
+                    AtomicBoolean done = new AtomicBoolean();
+                    AtomicBoolean answered = new AtomicBoolean();
+                    Runnable release = () -> {
+                        if (done.compareAndSet(false, true)) {
+                            solrNodeHealth.released(key);
+                            if (bulkhead != null) {
+                                bulkhead.release();
+                            }
+                        }
+                    };
+                    solrNodeHealth.started(key);
+                    long started = System.nanoTime();
+                    return next.exchange(adaptiveTimeout(request, key, core, consult))
+                            // Cancelada antes de la respuesta; después, el cupo se libera con el cuerpo
+                            .doOnCancel(() -> {
+                                if (!answered.get()) {
+                                    release.run();
+                                }
+                            })
+                            .doOnError(e -> {
+                                // Un timeout también cuenta como muestra de latencia: el timeout adaptativo crece con ella
+                                if (consult) {
+                                    solrLatencyTracker.record(key, core, System.nanoTime() - started);
+                                }
+                                solrNodeHealth.responded(key, System.nanoTime() - started, true);
+                                release.run();
+                                solrMetrics.error(key, core, handler, "io_error");
+                            })
+                            .map(response -> {
+                                answered.set(true);
+                                long elapsed = System.nanoTime() - started;
+                                int status = response.statusCode().value();
+                                solrNodeHealth.responded(key, elapsed, status >= 500);
+                                if (consult) {
+                                    solrLatencyTracker.record(key, core, elapsed);
+                                }
+                                if (status >= 400) {
+                                    solrMetrics.error(key, core, handler, String.valueOf(status));
+                                }
+                                Counter received = solrMetrics.bytesReceived(key, core, handler);
+                                return response.mutate()
+                                        .body(body -> body
+                                                .doOnNext(buffer -> received.increment(buffer.readableByteCount()))
+                                                .doFinally(signal -> release.run()))
+                                        .build();
+                            });
+                }));
+    }
+
+    // Timeout de respuesta de las consultas de /consult según la latencia observada de la colección en el nodo
+    private ClientRequest adaptiveTimeout(ClientRequest request, String key, String core, boolean consult) {
+        if (!consult) {
+            return request;
+        }
+        Duration timeout = solrLatencyTracker.timeout(key, core);
+        if (timeout == null) {
+            return request;
+        }
+        return ClientRequest.from(request)
+                .httpRequest(http -> http.<HttpClientRequest>getNativeRequest().responseTimeout(timeout))
+                .build();
+    }
+
+    @PreDestroy
+    public void close() {
+        connections.dispose();
+        loops.dispose();
+    }
+
+    // Semáforo por nodo sin bloquear los hilos de eventos: las peticiones sin cupo esperan en cola
+    // hasta bulkhead-wait y el cupo liberado pasa a la primera de la cola
+    private final class Bulkhead {
+        private final String key;
+        private final int limit;
+        private final Deque<Waiter> queue = new ArrayDeque<>();
+        private final LongAdder rejected = new LongAdder();
+        private int active;
+
+        private Bulkhead(String key, int limit) {
+            this.key = key;
+            this.limit = limit;
+        }
+
+        private Mono<Void> acquire() {
+            return Mono.create(sink -> {
+                Waiter waiter = new Waiter(sink);
+                synchronized (this) {
+                    if (active < limit) {
+                        active++;
+                        sink.success();
+                        return;
+                    }
+                    queue.addLast(waiter);
+                }
+                sink.onCancel(() -> {
+                    if (waiter.settle()) {
+                        remove(waiter);
+                    }
+                });
+                Schedulers.parallel().schedule(() -> {
+                    if (waiter.settle()) {
+                        remove(waiter);
+                        rejected.increment();
+                        log.warn("Petición rechazada: nodo Solr {} sin cupo ({} en curso)", key, limit);
+                        sink.error(new SolrNodeBusyException(key));
+                    }
+                }, properties.getBulkheadWait().toMillis(), TimeUnit.MILLISECONDS);
+            });
+        }
+
+        // El cupo pasa a la primera espera que no haya vencido ni se haya cancelado
+        private void release() {
+            while (true) {
+                Waiter next;
+                synchronized (this) {
+                    next = queue.pollFirst();
+                    if (next == null) {
+                        active--;
+                        return;
+                    }
+                }
+                if (next.settle()) {
+                    next.sink.success();
+                    return;
+                }
+            }
+        }
+
+        private synchronized void remove(Waiter waiter) {
+            queue.remove(waiter);
+        }
+
+        private synchronized Map<String, Long> stats() {
+            Map<String, Long> stats = new LinkedHashMap<>();
+            stats.put("active", (long) active);
+            stats.put("queued", (long) queue.size());
+            stats.put("rejected", rejected.sum());
+            stats.put("max", (long) limit);
+            return stats;
+        }
+    }
+
+    // Espera de cupo; la resuelve una sola vez el cupo liberado, el vencimiento o la cancelación
+    private static final class Waiter {
+        private final MonoSink<Void> sink;
+        private final AtomicBoolean settled = new AtomicBoolean();
+
+        private Waiter(MonoSink<Void> sink) {
+            this.sink = sink;
+        }
+
+        private boolean settle() {
+            return settled.compareAndSet(false, true);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.solrquery.solr;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import org.springframework.stereotype.Component;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+// Transformación por tokens de la respuesta de Solr a {docs, facet_counts, facets}
+@Component
+public class SolrResponseTransformer {
+
+    private final Gson gson = new Gson();
+
+    // Lee hasta el inicio de los docs; si no hay resultados consume la respuesta completa
+    public Prepared prepare(JsonReader reader) throws IOException {
+        Prepared prepared = new Prepared(reader);
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (name.equals("response")) {
+                if (prepared.readResponseUntilDocs()) {
+                    return prepared;
+                }
+            } else if (!prepared.readSection(name)) {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        if (!prepared.hasResponse) {
+            throw new IllegalStateException("La respuesta de Solr no contiene 'response'");
+        }
+        return prepared;
+    }
+
+    // Escribe la salida leyendo los docs a medida que llegan de Solr
+    public void write(Prepared prepared, Writer out) throws IOException {
+        JsonReader reader = prepared.reader;
+        JsonWriter writer = new JsonWriter(out);
+        writer.beginObject();
+        writer.name("docs");
+        writer.beginArray();
+        if (prepared.docsPending) {
+            reader.beginArray();
+            while (reader.hasNext()) {
+                copyValue(reader, writer);
+            }
+            reader.endArray();
+            prepared.docsPending = false;
+
+            // Resto del objeto 'response' y de la respuesta
+            while (reader.hasNext()) {
+                reader.skipValue();
+            }
+            reader.endObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (!prepared.readSection(name)) {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+        writer.endArray();
+        if (prepared.facetCounts != null) {
+            writer.name("facet_counts");
+            gson.toJson(prepared.facetCounts, writer);
+        }
+        if (prepared.facets != null) {
+            writer.name("facets");
+            gson.toJson(prepared.facets, writer);
+        }
+        writer.endObject();
+        writer.flush();
+    }
+
+    // Copia de un valor JSON conservando el literal de los números
+    public static void copyValue(JsonReader reader, JsonWriter writer) throws IOException {
+        JsonToken token = reader.peek();
+        switch (token) {
+            case BEGIN_ARRAY -> {
+                reader.beginArray();
+                writer.beginArray();
+                while (reader.hasNext()) {
+                    copyValue(reader, writer);
+                }
+                reader.endArray();
+                writer.endArray();
+            }
+            case BEGIN_OBJECT -> {
+                reader.beginObject();
+                writer.beginObject();
+                while (reader.hasNext()) {
+                    writer.name(reader.nextName());
+                    copyValue(reader, writer);
+                }
+                reader.endObject();
+                writer.endObject();
+            }
+            case STRING -> writer.value(reader.nextString());
+            case NUMBER -> writer.jsonValue(reader.nextString());
+            case BOOLEAN -> writer.value(reader.nextBoolean());
+            case NULL -> {
+                reader.nextNull();
+                writer.nullValue();
+            }
+            default -> throw new IllegalStateException("Token inesperado en la respuesta de Solr: " + token);
+        }
+    }
+
+    public static final class Prepared {
+        private final JsonReader reader;
+        private boolean hasResponse;
+        private long numFound;
+        private boolean docsPending;
+        private JsonElement facetCounts;
+        private JsonElement facets;
+
+        private Prepared(JsonReader reader) {
+            this.reader = reader;
+        }
+
+        public long numFound() {
+            return numFound;
+        }
+
+        // Sin docs ni facets se responde "No hay resultados"
+        public boolean isEmpty() {
+            return numFound == 0 && facetCounts == null && facets == null;
+        }
+
+        // Devuelve true si el lector quedó posicionado al inicio de los docs
+        private boolean readResponseUntilDocs() throws IOException {
+            hasResponse = true;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (name.equals("numFound")) {
+                    numFound = reader.nextLong();
+                } else if (name.equals("docs") && numFound > 0) {
+                    docsPending = true;
+                    return true;
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+            return false;
+        }
+
+        private boolean readSection(String name) {
+            if (name.equals("facet_counts")) {
+                facetCounts = JsonParser.parseReader(reader);
+                return true;
+            }
+            if (name.equals("facets")) {
+                facets = JsonParser.parseReader(reader);
+                return true;
+            }
+            return false;
+        }
+    }
+}
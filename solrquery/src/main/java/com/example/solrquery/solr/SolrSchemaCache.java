@@ -0,0 +1,138 @@
+package com.example.solrquery.solr;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.stereotype.Component;
+
+import com.example.solrquery.config.SolrSchemaCacheProperties;
+import com.example.solrquery.entity.ClientSolr;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SolrSchemaCache {
+
+    private static final long NO_VERSION = -1;
+
+    private final SolrHttpTransport solrHttpTransport;
+    private final SolrSchemaCacheProperties properties;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder revalidations = new LongAdder();
+
+    // Map de nombres y tipos de campos del esquema de la colección
+    public Map<String, String> fields(ClientSolr client, String core) {
+        SolrSchemaSnapshot snapshot = snapshot(client, core);
+        return snapshot == null ? Collections.emptyMap() : snapshot.fieldTypes();
+    }
+
+    // Esquema de la colección, null si no se pudo obtener
+    public SolrSchemaSnapshot snapshot(ClientSolr client, String core) {
+        return lookup(client, core, false);
+    }
+
+    // Esquema vigente para operaciones de esquema: con versión conocida siempre se compara contra Solr
+    // y solo se vuelve a descargar /schema si la versión cambió; sin versión siempre se descarga
+    public SolrSchemaSnapshot current(ClientSolr client, String core) {
+        return lookup(client, core, true);
+    }
+
+    private SolrSchemaSnapshot lookup(ClientSolr client, String core, boolean revalidate) {
+        String key = cacheKey(client, core);
+        Entry entry = entries.get(key);
+        long now = System.currentTimeMillis();
+        Long version = null;
+
+        if (entry != null) {
+            boolean versioned = entry.snapshot().version() != NO_VERSION;
+            if (!revalidate && now - entry.validatedAt() <= properties.getRevalidateAfter().toMillis()) {
+                hits.increment();
+                return entry.snapshot();
+            }
+            // Sin versión del esquema solo se usa la vigencia máxima
+            if (!versioned && !revalidate && now - entry.fetchedAt() <= properties.getMaxAge().toMillis()) {
+                hits.increment();
+                return entry.snapshot();
+            }
+            // Revalidación contra la versión del esquema en Solr
+            if (versioned) {
+                revalidations.increment();
+                version = fetchVersion(client, core);
+                if (version == entry.snapshot().version()) {
+                    hits.increment();
+                    entries.put(key, new Entry(entry.snapshot(), entry.fetchedAt(), now));
+                    return entry.snapshot();
+                }
+            }
+        }
+
+        misses.increment();
+        // La versión ya consultada en la revalidación se reutiliza
+        SolrSchemaSnapshot snapshot = fetchSnapshot(client, core, version != null ? version : fetchVersion(client, core));
+        if (snapshot != null) {
+            entries.put(key, new Entry(snapshot, now, now));
+        }
+        return snapshot;
+    }
+
+    // Invalidación tras modificar el esquema de la colección
+    public void invalidate(ClientSolr client, String core) {
+        entries.remove(cacheKey(client, core));
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", entries.size());
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("revalidations", revalidations.sum());
+        return stats;
+    }
+
+    private String cacheKey(ClientSolr client, String core) {
+        return SolrHttpTransport.nodeKey(client.getIp(), client.getPort()) + "/" + core;
+    }
+
+    // Versión del esquema gestionado, -1 cuando Solr no la expone
+    private long fetchVersion(ClientSolr client, String core) {
+        String url = "http://" + client.getIp() + ":" + client.getPort()
+                   + "/solr/" + core + "/schema/zkversion";
+        try {
+            String body = solrHttpTransport.forClient(client).getForObject(url, String.class);
+            JsonElement version = JsonParser.parseString(body).getAsJsonObject().get("zkversion");
+            return version == null ? NO_VERSION : version.getAsLong();
+        } catch (Exception e) {
+            log.debug("No se pudo obtener la versión del esquema de '{}'", core, e);
+            return NO_VERSION;
+        }
+    }
+
+    // Esquema completo en una sola llamada
+    private SolrSchemaSnapshot fetchSnapshot(ClientSolr client, String core, long version) {
+        String url = "http://" + client.getIp() + ":" + client.getPort()
+                   + "/solr/" + core + "/schema";
+        try {
+            String body = solrHttpTransport.forClient(client).getForObject(url, String.class);
+            SolrSchemaSnapshot snapshot = SolrSchemaSnapshot.parse(JsonParser.parseString(body).getAsJsonObject(), version);
+            log.debug("Campos del esquema de Solr para coleccion '{}': {}", core, snapshot.fieldTypes());
+            return snapshot;
+        } catch (Exception e) {
+            log.error("Error obteniendo esquema de campos de Solr", e);
+            return null;
+        }
+    }
+
+    private record Entry(SolrSchemaSnapshot snapshot, long fetchedAt, long validatedAt) {
+    }
+}
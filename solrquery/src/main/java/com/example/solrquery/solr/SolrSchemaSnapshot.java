@@ -0,0 +1,230 @@
+package com.example.solrquery.solr;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+// Copia inmutable del esquema de una colección obtenida con una sola llamada a /schema,
+// indexada por nombre de campo, de tipo, patrón de dynamicField y par source/dest de copyField
+public final class SolrSchemaSnapshot {
+
+    // Clases con docValues activados por defecto desde la versión 1.6 del esquema
+    private static final Set<String> DOC_VALUES_BY_DEFAULT = Set.of(
+            "IntPointField", "LongPointField", "FloatPointField", "DoublePointField", "DatePointField",
+            "TrieIntField", "TrieLongField", "TrieFloatField", "TrieDoubleField", "TrieDateField",
+            "StrField", "BoolField", "EnumField", "EnumFieldType", "UUIDField");
+
+    private final long version;
+    private final String uniqueKey;
+    private final Map<String, String> fieldTypes;
+    private final Map<String, String> typeClasses;
+    private final Set<String> docValues;
+    private final Set<String> multiValued;
+    private final Map<String, String> dynamicFieldTypes;
+    private final Set<String> multiValuedDynamic;
+    private final Set<String> copyFields;
+    // Definiciones tal como las devuelve Solr, en el orden del esquema
+    private final Map<String, JsonObject> fieldDefinitions;
+    private final Map<String, JsonObject> typeDefinitions;
+    private final Map<String, JsonObject> dynamicDefinitions;
+    private final List<JsonObject> copyFieldDefinitions;
+
+    private SolrSchemaSnapshot(long version, String uniqueKey, Map<String, String> fieldTypes,
+                               Map<String, String> typeClasses, Set<String> docValues, Set<String> multiValued,
+                               Map<String, String> dynamicFieldTypes, Set<String> multiValuedDynamic,
+                               Set<String> copyFields, Map<String, JsonObject> fieldDefinitions,
+                               Map<String, JsonObject> typeDefinitions, Map<String, JsonObject> dynamicDefinitions,
+                               List<JsonObject> copyFieldDefinitions) {
+        this.version = version;
+        this.uniqueKey = uniqueKey;
+        this.fieldTypes = Map.copyOf(fieldTypes);
+        this.typeClasses = Map.copyOf(typeClasses);
+        this.docValues = Set.copyOf(docValues);
+        this.multiValued = Set.copyOf(multiValued);
+        this.dynamicFieldTypes = Map.copyOf(dynamicFieldTypes);
+        this.multiValuedDynamic = Set.copyOf(multiValuedDynamic);
+        this.copyFields = Set.copyOf(copyFields);
+        this.fieldDefinitions = fieldDefinitions;
+        this.typeDefinitions = typeDefinitions;
+        this.dynamicDefinitions = dynamicDefinitions;
+        this.copyFieldDefinitions = copyFieldDefinitions;
+    }
+
+    public static SolrSchemaSnapshot parse(JsonObject root, long version) {
+        JsonObject schema = root.getAsJsonObject("schema");
+        boolean defaultDocValues = schema.has("version") && schema.get("version").getAsDouble() >= 1.6;
+
+        Map<String, String> typeClasses = new HashMap<>();
+        Map<String, JsonObject> types = new LinkedHashMap<>();
+        for (JsonElement element : array(schema, "fieldTypes")) {
+            JsonObject type = element.getAsJsonObject();
+            typeClasses.put(type.get("name").getAsString(), type.get("class").getAsString());
+            types.put(type.get("name").getAsString(), type);
+        }
+
+        Map<String, String> fieldTypes = new HashMap<>();
+        Map<String, JsonObject> fields = new LinkedHashMap<>();
+        Set<String> docValues = new HashSet<>();
+        Set<String> multiValued = new HashSet<>();
+        for (JsonElement element : array(schema, "fields")) {
+            JsonObject field = element.getAsJsonObject();
+            String name = field.get("name").getAsString();
+            String type = field.get("type").getAsString();
+            fieldTypes.put(name, type);
+            fields.put(name, field);
+
+            // Atributo del campo, si no el del tipo, si no el valor por defecto de la clase
+            JsonObject fieldType = types.get(type);
+            Boolean explicit = flag(field, "docValues");
+            if (explicit == null && fieldType != null) {
+                explicit = flag(fieldType, "docValues");
+            }
+            String typeClass = typeClasses.get(type);
+            if (explicit != null ? explicit
+                    : defaultDocValues && typeClass != null
+                            && DOC_VALUES_BY_DEFAULT.contains(typeClass.substring(typeClass.lastIndexOf('.') + 1))) {
+                docValues.add(name);
+            }
+            Boolean multi = flag(field, "multiValued");
+            if (multi == null && fieldType != null) {
+                multi = flag(fieldType, "multiValued");
+            }
+            if (Boolean.TRUE.equals(multi)) {
+                multiValued.add(name);
+            }
+        }
+
+        Map<String, String> dynamicFieldTypes = new HashMap<>();
+        Map<String, JsonObject> dynamicFields = new LinkedHashMap<>();
+        Set<String> multiValuedDynamic = new HashSet<>();
+        for (JsonElement element : array(schema, "dynamicFields")) {
+            JsonObject dynamicField = element.getAsJsonObject();
+            String pattern = dynamicField.get("name").getAsString();
+            String type = dynamicField.get("type").getAsString();
+            dynamicFieldTypes.put(pattern, type);
+            dynamicFields.put(pattern, dynamicField);
+            Boolean multi = flag(dynamicField, "multiValued");
+            if (multi == null && types.containsKey(type)) {
+                multi = flag(types.get(type), "multiValued");
+            }
+            if (Boolean.TRUE.equals(multi)) {
+                multiValuedDynamic.add(pattern);
+            }
+        }
+
+        Set<String> copyFields = new HashSet<>();
+        List<JsonObject> copyFieldDefinitions = new ArrayList<>();
+        for (JsonElement element : array(schema, "copyFields")) {
+            JsonObject copyField = element.getAsJsonObject();
+            copyFields.add(copyFieldKey(copyField.get("source").getAsString(), copyField.get("dest").getAsString()));
+            copyFieldDefinitions.add(copyField);
+        }
+
+        String uniqueKey = schema.has("uniqueKey") ? schema.get("uniqueKey").getAsString() : null;
+        return new SolrSchemaSnapshot(version, uniqueKey, fieldTypes, typeClasses, docValues, multiValued,
+                dynamicFieldTypes, multiValuedDynamic, copyFields, fields, types, dynamicFields, copyFieldDefinitions);
+    }
+
+    public long version() {
+        return version;
+    }
+
+    // Campo uniqueKey de la colección, null si el esquema no lo declara
+    public String uniqueKey() {
+        return uniqueKey;
+    }
+
+    // Map de nombres y tipos de campos
+    public Map<String, String> fieldTypes() {
+        return fieldTypes;
+    }
+
+    // Clase Solr del tipo del campo sin paquete (p. ej. IntPointField), null si no existe
+    public String fieldClass(String field) {
+        String type = fieldTypes.get(field);
+        String typeClass = type == null ? null : typeClasses.get(type);
+        return typeClass == null ? null : typeClass.substring(typeClass.lastIndexOf('.') + 1);
+    }
+
+    public boolean hasDocValues(String field) {
+        return docValues.contains(field);
+    }
+
+    public boolean isMultiValued(String field) {
+        return multiValued.contains(field);
+    }
+
+    public boolean hasField(String field) {
+        return fieldTypes.containsKey(field);
+    }
+
+    // Tipo del campo, null si no existe
+    public String fieldType(String field) {
+        return fieldTypes.get(field);
+    }
+
+    public boolean hasFieldType(String type) {
+        return typeClasses.containsKey(type);
+    }
+
+    // Tipo del dynamicField con ese patrón (p. ej. *_s), null si no existe
+    public String dynamicFieldType(String pattern) {
+        return dynamicFieldTypes.get(pattern);
+    }
+
+    // multiValued del dynamicField, si no el de su tipo
+    public boolean isDynamicMultiValued(String pattern) {
+        return multiValuedDynamic.contains(pattern);
+    }
+
+    public boolean hasCopyField(String source, String dest) {
+        return copyFields.contains(copyFieldKey(source, dest));
+    }
+
+    // Copias de las definiciones, para compararlas o enviarlas a otra colección sin alterar la instantánea
+    public List<JsonObject> fieldDefinitions() {
+        return copies(fieldDefinitions.values());
+    }
+
+    public List<JsonObject> fieldTypeDefinitions() {
+        return copies(typeDefinitions.values());
+    }
+
+    public List<JsonObject> dynamicFieldDefinitions() {
+        return copies(dynamicDefinitions.values());
+    }
+
+    public List<JsonObject> copyFieldDefinitions() {
+        return copies(copyFieldDefinitions);
+    }
+
+    private static List<JsonObject> copies(Iterable<JsonObject> definitions) {
+        List<JsonObject> copies = new ArrayList<>();
+        for (JsonObject definition : definitions) {
+            copies.add(definition.deepCopy());
+        }
+        return copies;
+    }
+
+    private static String copyFieldKey(String source, String dest) {
+        return source + "\u0000" + dest;
+    }
+
+    private static JsonArray array(JsonObject schema, String name) {
+        JsonArray array = schema.getAsJsonArray(name);
+        return array == null ? new JsonArray() : array;
+    }
+
+    private static Boolean flag(JsonObject object, String name) {
+        JsonElement value = object.get(name);
+        return value == null || value.isJsonNull() ? null : value.getAsBoolean();
+    }
+}
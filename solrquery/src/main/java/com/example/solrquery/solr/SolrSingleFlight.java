@@ -0,0 +1,131 @@
+package com.example.solrquery.solr;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import com.example.solrquery.config.SolrSingleFlightProperties;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+// Una sola llamada en curso por clave: las peticiones idénticas simultáneas esperan y comparten su resultado
+@Component
+@RequiredArgsConstructor
+public class SolrSingleFlight {
+
+    private final SolrSingleFlightProperties properties;
+    private final Map<String, Flight> flights = new ConcurrentHashMap<>();
+
+    private final LongAdder leaders = new LongAdder();
+    private final LongAdder joined = new LongAdder();
+    private final LongAdder overflow = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    // La primera petición ejecuta la llamada; el resultado no se conserva al terminar
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Supplier<T> call) throws TimeoutException {
+        if (!properties.isEnabled()) {
+            return call.get();
+        }
+        Flight flight = new Flight();
+        Flight current = flights.putIfAbsent(key, flight);
+        if (current == null) {
+            leaders.increment();
+            try {
+                T result = call.get();
+                flight.result.complete(result);
+                return result;
+            } catch (Throwable e) {
+                // También ante un Error: los que esperan fallan al momento en lugar de agotar waitTimeout
+                flight.result.completeExceptionally(e);
+                throw e;
+            } finally {
+                flights.remove(key, flight);
+            }
+        }
+
+        // Demasiadas peticiones esperando: se consulta sin unirse
+        if (current.waiters.incrementAndGet() > properties.getMaxWaiters()) {
+            current.waiters.decrementAndGet();
+            overflow.increment();
+            return call.get();
+        }
+        joined.increment();
+        try {
+            return (T) current.result.get(properties.getWaitTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            timeouts.increment();
+            throw e;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Espera interrumpida", e);
+        } finally {
+            current.waiters.decrementAndGet();
+        }
+    }
+
+    // Variante sin bloqueo de la consulta reactiva. La llamada del primero se suscribe aparte: aunque su
+    // cliente se desconecte, los que esperan reciben el resultado, como en la variante bloqueante.
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> executeReactive(String key, Supplier<Mono<T>> call) {
+        if (!properties.isEnabled()) {
+            return Mono.defer(call);
+        }
+        return Mono.defer(() -> {
+            Flight flight = new Flight();
+            Flight current = flights.putIfAbsent(key, flight);
+            if (current == null) {
+                leaders.increment();
+                flight.result.whenComplete((result, error) -> flights.remove(key, flight));
+                call.get().subscribe(flight.result::complete, flight.result::completeExceptionally,
+                        () -> flight.result.complete(null));
+                return Mono.fromFuture((CompletableFuture<T>) (CompletableFuture<?>) flight.result, true);
+            }
+
+            // Demasiadas peticiones esperando: se consulta sin unirse
+            if (current.waiters.incrementAndGet() > properties.getMaxWaiters()) {
+                current.waiters.decrementAndGet();
+                overflow.increment();
+                return call.get();
+            }
+            joined.increment();
+            return Mono.fromFuture((CompletableFuture<T>) (CompletableFuture<?>) current.result, true)
+                    .timeout(properties.getWaitTimeout())
+                    .doOnError(TimeoutException.class, e -> timeouts.increment())
+                    .doFinally(signal -> current.waiters.decrementAndGet());
+        });
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("inFlight", flights.size());
+        stats.put("leaders", leaders.sum());
+        stats.put("joined", joined.sum());
+        stats.put("overflow", overflow.sum());
+        stats.put("timeouts", timeouts.sum());
+        return stats;
+    }
+
+    private static final class Flight {
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private final AtomicInteger waiters = new AtomicInteger();
+    }
+}
@@ -2,8 +2,11 @@ package com.example.solrquery;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
 
+// Con el perfil loadtest (H2) para no depender de la base MySQL en mvn test
 @SpringBootTest
+@ActiveProfiles("loadtest")
 class SolrqueryApplicationTests {
 
 	@Test
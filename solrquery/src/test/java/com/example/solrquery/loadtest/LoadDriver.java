@@ -0,0 +1,137 @@
+package com.example.solrquery.loadtest;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+// Envía 'requests' peticiones con 'concurrency' hilos y mide rendimiento, latencias y uso del heap
+public class LoadDriver {
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .version(HttpClient.Version.HTTP_1_1)
+            .build();
+    private final String baseUrl;
+
+    public LoadDriver(int port) {
+        this.baseUrl = "http://127.0.0.1:" + port;
+    }
+
+    public HttpRequest.Builder post(String path, String json) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(60))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+    }
+
+    public HttpRequest.Builder get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(60))
+                .GET();
+    }
+
+    // Una sola petición con el cuerpo de la respuesta, para comprobar su contenido
+    public HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        return http.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    // 'request' recibe el número de petición, para variar los parámetros
+    public Report run(String scenario, int concurrency, int requests, IntFunction<HttpRequest> request)
+            throws InterruptedException {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long[] latencies = new long[requests];
+        Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        LongAdder failures = new LongAdder();
+        LongAdder bytes = new LongAdder();
+        AtomicInteger next = new AtomicInteger();
+        AtomicLong peakHeap = new AtomicLong();
+        long gcBefore = gcCount();
+
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> peakHeap.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max),
+                0, 20, TimeUnit.MILLISECONDS);
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        long started = System.nanoTime();
+        for (int w = 0; w < concurrency; w++) {
+            workers.execute(() -> {
+                int i;
+                while ((i = next.getAndIncrement()) < requests) {
+                    long t0 = System.nanoTime();
+                    try {
+                        HttpResponse<byte[]> response = http.send(request.apply(i), HttpResponse.BodyHandlers.ofByteArray());
+                        bytes.add(response.body().length);
+                        statuses.computeIfAbsent(response.statusCode(), k -> new LongAdder()).increment();
+                    } catch (Exception e) {
+                        failures.increment();
+                    }
+                    latencies[i] = System.nanoTime() - t0;
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(10, TimeUnit.MINUTES);
+        long elapsed = System.nanoTime() - started;
+        sampler.shutdownNow();
+
+        Arrays.sort(latencies);
+        Map<Integer, Long> statusCounts = new TreeMap<>();
+        statuses.forEach((status, count) -> statusCounts.put(status, count.sum()));
+        return new Report(scenario, concurrency, requests,
+                requests / (elapsed / 1e9),
+                percentile(latencies, 50), percentile(latencies, 99), latencies[latencies.length - 1] / 1e6,
+                statusCounts, failures.sum(), bytes.sum(),
+                peakHeap.get() / (1024 * 1024), memory.getHeapMemoryUsage().getUsed() / (1024 * 1024),
+                gcCount() - gcBefore);
+    }
+
+    private static double percentile(long[] sorted, int p) {
+        int index = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    private static long gcCount() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionCount)
+                .filter(count -> count >= 0)
+                .sum();
+    }
+
+    public record Report(String scenario, int concurrency, int requests, double throughput,
+                         double p50Ms, double p99Ms, double maxMs, Map<Integer, Long> statuses, long failures,
+                         long bytes, long peakHeapMb, long heapAfterMb, long gcCount) {
+
+        public long count(int status) {
+            return statuses.getOrDefault(status, 0L);
+        }
+
+        public static String header() {
+            return String.format("%-22s %5s %7s %9s %9s %9s %9s %9s %8s %8s %5s  %s",
+                    "escenario", "conc", "pet", "pet/s", "p50 ms", "p99 ms", "max ms", "KB resp", "heap MB", "final MB", "gc", "estados");
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-22s %5d %7d %9.1f %9.2f %9.2f %9.2f %9d %8d %8d %5d  %s%s",
+                    scenario, concurrency, requests, throughput, p50Ms, p99Ms, maxMs, bytes / 1024,
+                    peakHeapMb, heapAfterMb, gcCount, statuses, failures > 0 ? " fallos=" + failures : "");
+        }
+    }
+}
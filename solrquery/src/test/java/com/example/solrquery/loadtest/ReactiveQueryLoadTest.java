@@ -0,0 +1,227 @@
+package com.example.solrquery.loadtest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.solrquery.entity.ClientSolr;
+import com.example.solrquery.entity.ClientSolrEndpoint;
+import com.example.solrquery.loadtest.LoadDriver.Report;
+import com.example.solrquery.repository.ClientSolrEndpointRepository;
+import com.example.solrquery.repository.ClientSolrRepository;
+import com.example.solrquery.service.QuerySolrService;
+import com.example.solrquery.service.impl.ReactiveQuerySolrServiceImpl;
+import com.example.solrquery.solr.SolrEndpointBalancer;
+import com.example.solrquery.solr.SolrHedger;
+import com.example.solrquery.solr.SolrHttpTransport;
+import com.example.solrquery.solr.SolrLatencyTracker;
+import com.example.solrquery.solr.SolrReactiveTransport;
+import com.google.gson.Gson;
+
+// /consult con solr.query.mode=reactive: ReactiveQuerySolrServiceImpl y PublisherBodyReturnValueHandler
+// contra el mismo Solr simulado. Base H2 propia para no compartir tablas con SolrqueryLoadTest.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "solr.query.mode=reactive",
+        "spring.datasource.url=jdbc:h2:mem:loadtest-reactive;DB_CLOSE_DELAY=-1;MODE=MySQL"
+})
+@ActiveProfiles("loadtest")
+@Tag("loadtest")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ReactiveQueryLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveQueryLoadTest.class);
+    private static final String CLIENT = "loadtest";
+    private static final String HEDGED_CLIENT = "loadtest-hedged";
+    private static final String SLOW_CLIENT = "loadtest-slow";
+
+    private final int concurrency = Integer.getInteger("loadtest.concurrency", 8);
+    private final int requests = Integer.getInteger("loadtest.requests", 200);
+    private final long solrLatencyMs = Long.getLong("loadtest.solr-latency-ms", 5);
+
+    private final Gson gson = new Gson();
+    private final List<Report> reports = new ArrayList<>();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ClientSolrRepository clientSolrRepository;
+
+    @Autowired
+    private ClientSolrEndpointRepository clientSolrEndpointRepository;
+
+    @Autowired
+    private QuerySolrService querySolrService;
+
+    @Autowired
+    private SolrEndpointBalancer solrEndpointBalancer;
+
+    @Autowired
+    private SolrHedger solrHedger;
+
+    @Autowired
+    private SolrLatencyTracker solrLatencyTracker;
+
+    @Autowired
+    private SolrReactiveTransport solrReactiveTransport;
+
+    private StubSolrServer solr;
+    private LoadDriver driver;
+
+    @BeforeAll
+    void startSolr() throws IOException {
+        solr = StubSolrServer.start().latency(solrLatencyMs).core("products", 0);
+        clientSolrRepository.save(new ClientSolr(null, CLIENT, "127.0.0.1", solr.port()));
+        driver = new LoadDriver(port);
+    }
+
+    @AfterAll
+    void report() {
+        StringBuilder table = new StringBuilder("\n").append(Report.header());
+        reports.forEach(report -> table.append('\n').append(report));
+        log.info("Resultados de /consult en modo reactivo ({} peticiones a Solr simulado):{}", solr.requests(), table);
+        solr.close();
+    }
+
+    @Test
+    @Order(1)
+    void reactiveModeIsActive() {
+        assertThat(querySolrService).isInstanceOf(ReactiveQuerySolrServiceImpl.class);
+    }
+
+    // Consultas pequeñas: se materializan y la segunda vez salen de la caché
+    @Test
+    @Order(2)
+    void consultCached() throws InterruptedException {
+        Report report = run("reactive cached", i -> consult(Map.of("q", "*:*", "rows", "10"), false));
+        assertThat(report.count(200)).isEqualTo(requests);
+        assertThat(report.bytes()).isPositive();
+    }
+
+    // 2000 filas: el cuerpo es un Flux transmitido por PublisherBodyReturnValueHandler
+    @Test
+    @Order(3)
+    void consultStreamed() throws InterruptedException {
+        Report report = run("reactive 2000 rows", i -> consult(Map.of("q", "*:*", "rows", "2000", "start", String.valueOf(i)), true));
+        assertThat(report.count(200)).isEqualTo(requests);
+        assertThat(report.failures()).isZero();
+        // Cada respuesta lleva los 2000 docs, no un cuerpo vacío o el Flux serializado
+        assertThat(report.bytes() / requests).isGreaterThan(2000 * 20L);
+    }
+
+    // El error de Solr se decide con el primer bloque y llega como 500, igual que en modo bloqueante
+    @Test
+    @Order(4)
+    void consultSolrErrors() throws InterruptedException {
+        Report report = run("reactive solr 400", i -> consult(Map.of("q", "error", "rows", "2000"), true));
+        assertThat(report.count(500)).isEqualTo(requests);
+    }
+
+    @Test
+    @Order(5)
+    void consultInvalidParams() throws InterruptedException {
+        Report report = run("reactive sort inválido", i -> consult(Map.of("q", "*:*", "sort", "precio"), true));
+        assertThat(report.count(400)).isEqualTo(requests);
+    }
+
+    // Igual que en modo bloqueante: las consultas que pasan del p95 se duplican en la otra réplica
+    @Test
+    @Order(6)
+    void hedging() throws Exception {
+        try (StubSolrServer first = StubSolrServer.start().latency(solrLatencyMs).core("products", 0);
+             StubSolrServer second = StubSolrServer.start().latency(solrLatencyMs).core("products", 0)) {
+            ClientSolr client = clientSolrRepository.save(
+                    new ClientSolr(null, HEDGED_CLIENT, "127.0.0.1", first.port()));
+            clientSolrEndpointRepository.save(new ClientSolrEndpoint(null, client.getId(), "127.0.0.1", first.port(), true));
+            clientSolrEndpointRepository.save(new ClientSolrEndpoint(null, client.getId(), "127.0.0.1", second.port(), false));
+            solrEndpointBalancer.refresh();
+
+            run("reactive hedging referencia", i -> consult(HEDGED_CLIENT, Map.of("q", "id:doc-" + i, "rows", "10"), true));
+            first.spikes(0.05, 500);
+            second.spikes(0.05, 500);
+            long won = (long) solrHedger.stats().get("won");
+            Report report = run("reactive hedging picos 5%", i -> consult(HEDGED_CLIENT, Map.of("q", "id:doc-" + i, "rows", "10"), true));
+            assertThat(report.count(200)).isEqualTo(requests);
+            assertThat((long) solrHedger.stats().get("won")).isGreaterThan(won);
+        }
+    }
+
+    // El timeout adaptativo también se aplica al cliente reactivo y el tiempo agotado llega como 504
+    @Test
+    @Order(7)
+    void adaptiveTimeout() throws Exception {
+        try (StubSolrServer slow = StubSolrServer.start().latency(solrLatencyMs).core("products", 0)) {
+            clientSolrRepository.save(new ClientSolr(null, SLOW_CLIENT, "127.0.0.1", slow.port()));
+            run("reactive timeout referencia", i -> consult(SLOW_CLIENT, Map.of("q", "id:doc-" + i, "rows", "10"), true));
+            slow.spikes(0.05, 3000);
+            Report report = run("reactive timeout picos 3 s", i -> consult(SLOW_CLIENT, Map.of("q", "id:doc-" + i, "rows", "10"), true));
+            assertThat(report.failures()).isZero();
+            assertThat(report.count(504)).isPositive();
+            assertThat(report.count(500)).isZero();
+        }
+    }
+
+    // Latencias por colección y cupos por nodo alimentados por el cliente reactivo; tras respuestas
+    // transmitidas, con error y duplicadas no queda ningún cupo ocupado
+    @Test
+    @Order(8)
+    void transportAccounting() throws InterruptedException {
+        String node = SolrHttpTransport.nodeKey("127.0.0.1", solr.port());
+        assertThat(solrLatencyTracker.stats()).containsKey(node + "/products");
+        assertThat(solrReactiveTransport.bulkheadStats()).containsKey(node);
+        // El cupo se libera al terminar el cuerpo, justo después de que la respuesta llegue al cliente
+        for (int i = 0; i < 100 && !idle(solrReactiveTransport.bulkheadStats()); i++) {
+            Thread.sleep(10);
+        }
+        solrReactiveTransport.bulkheadStats().values()
+                .forEach(stats -> assertThat(stats).containsEntry("active", 0L).containsEntry("queued", 0L));
+    }
+
+    private static boolean idle(Map<String, Map<String, Long>> bulkheads) {
+        return bulkheads.values().stream().allMatch(stats -> stats.get("active") == 0 && stats.get("queued") == 0);
+    }
+
+    private Report run(String scenario, IntFunction<HttpRequest> request) throws InterruptedException {
+        Report report = driver.run(scenario, concurrency, requests, request);
+        log.info("{}", report);
+        reports.add(report);
+        return report;
+    }
+
+    private HttpRequest consult(Map<String, Object> params, boolean bypassCache) {
+        return consult(CLIENT, params, bypassCache);
+    }
+
+    private HttpRequest consult(String client, Map<String, Object> params, boolean bypassCache) {
+        Map<String, Object> body = new LinkedHashMap<>(params);
+        body.put("client", client);
+        body.put("core", "products");
+        HttpRequest.Builder builder = driver.post("/api/solr/consult", gson.toJson(body));
+        if (bypassCache) {
+            builder.header("X-Solr-Cache", "bypass");
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,552 @@
+package com.example.solrquery.loadtest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.solrquery.entity.ClientSolr;
+import com.example.solrquery.entity.ClientSolrEndpoint;
+import com.example.solrquery.loadtest.LoadDriver.Report;
+import com.example.solrquery.repository.ClientSolrEndpointRepository;
+import com.example.solrquery.repository.ClientSolrRepository;
+import com.example.solrquery.solr.SolrEndpointBalancer;
+import com.example.solrquery.solr.SolrHedger;
+import com.example.solrquery.solr.SolrHttpTransport;
+import com.example.solrquery.solr.SolrLatencyTracker;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+// Prueba de carga de extremo a extremo: la aplicación con H2 contra un Solr simulado.
+// mvn -Ploadtest test [-Dloadtest.concurrency=32 -Dloadtest.requests=2000 -Dloadtest.solr-latency-ms=20]
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("loadtest")
+@Tag("loadtest")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class SolrqueryLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(SolrqueryLoadTest.class);
+    private static final String CLIENT = "loadtest";
+    private static final String REPLICATED_CLIENT = "loadtest-replicas";
+    private static final String HEDGED_CLIENT = "loadtest-hedging";
+    private static final String SLOW_CLIENT = "loadtest-slow";
+    private static final String CANCEL_CLIENT = "loadtest-cancel";
+
+    private final int concurrency = Integer.getInteger("loadtest.concurrency", 8);
+    private final int requests = Integer.getInteger("loadtest.requests", 200);
+    private final long solrLatencyMs = Long.getLong("loadtest.solr-latency-ms", 5);
+
+    private final Gson gson = new Gson();
+    private final List<Report> reports = new ArrayList<>();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ClientSolrRepository clientSolrRepository;
+
+    @Autowired
+    private ClientSolrEndpointRepository clientSolrEndpointRepository;
+
+    @Autowired
+    private SolrEndpointBalancer solrEndpointBalancer;
+
+    @Autowired
+    private SolrHedger solrHedger;
+
+    @Autowired
+    private SolrLatencyTracker solrLatencyTracker;
+
+    private StubSolrServer solr;
+    private LoadDriver driver;
+
+    @BeforeAll
+    void startSolr() throws IOException {
+        solr = StubSolrServer.start()
+                .latency(solrLatencyMs)
+                .core("products", 0)
+                .core("products_copy", 0)
+                .core("catalog", Math.max(requests, 50))
+                .core("federated_a", 0)
+                .core("federated_b", 0, 0.75);
+        clientSolrRepository.save(new ClientSolr(null, CLIENT, "127.0.0.1", solr.port()));
+        driver = new LoadDriver(port);
+    }
+
+    @AfterAll
+    void report() {
+        StringBuilder table = new StringBuilder("\n").append(Report.header());
+        reports.forEach(report -> table.append('\n').append(report));
+        log.info("Resultados de la prueba de carga ({} peticiones a Solr simulado):{}", solr.requests(), table);
+        solr.close();
+    }
+
+    @Test
+    @Order(1)
+    void consultCached() throws Exception {
+        Report report = run("consult cached", i -> consult(Map.of("q", "*:*", "rows", "10"), false));
+        assertThat(report.count(200)).isEqualTo(requests);
+
+        // Ratio de aciertos y ocupación publicados como métricas
+        assertThat(metric("solr.query.cache.hit.ratio")).isPositive();
+        assertThat(metric("solr.query.cache.bytes")).isPositive();
+    }
+
+    @Test
+    @Order(2)
+    void consultBypass() throws InterruptedException {
+        Report report = run("consult bypass", i -> consult(Map.of("q", "id:doc-" + i, "rows", "10"), true));
+        assertThat(report.count(200)).isEqualTo(requests);
+    }
+
+    @Test
+    @Order(3)
+    void consultLarge() throws InterruptedException {
+        Report report = run("consult 2000 rows", i -> consult(Map.of("q", "*:*", "rows", "2000", "start", String.valueOf(i)), true));
+        assertThat(report.count(200)).isEqualTo(requests);
+    }
+
+    @Test
+    @Order(4)
+    void consultFacets() throws InterruptedException {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("q", "*:*");
+        body.put("rows", "10");
+        body.put("facetField", "category_s");
+        body.put("jsonFacet", Map.of("brands", Map.of("type", "terms", "field", "category_s", "limit", 20)));
+        Report report = run("consult facets", i -> consult(body, true));
+        assertThat(report.count(200)).isEqualTo(requests);
+    }
+
+    // Solr responde 400 a la consulta y la aplicación lo traduce a 500
+    @Test
+    @Order(5)
+    void consultSolrErrors() throws InterruptedException {
+        Report report = run("consult solr 400", i -> consult(Map.of("q", "error", "rows", "10"), true));
+        assertThat(report.count(500)).isEqualTo(requests);
+    }
+
+    // Fallos intermitentes de Solr: ninguna petición debe quedar sin respuesta
+    @Test
+    @Order(6)
+    void consultInjectedErrors() throws InterruptedException {
+        solr.errorRate(0.2);
+        try {
+            Report report = run("consult 20% errores", i -> consult(Map.of("q", "id:doc-" + i, "rows", "10"), true));
+            assertThat(report.failures()).isZero();
+            assertThat(report.count(200)).isPositive();
+            assertThat(report.count(500)).isPositive();
+        } finally {
+            solr.errorRate(0);
+        }
+    }
+
+    @Test
+    @Order(7)
+    void index() throws InterruptedException {
+        long before = solr.indexedDocs("products");
+        Report report = run("index 100 docs", i -> driver.post("/api/solr/index", gson.toJson(Map.of(
+                "client", CLIENT, "core", "products", "docs", docs(i * 100, 100)))).build());
+        assertThat(report.count(200)).isEqualTo(requests);
+        assertThat(solr.indexedDocs("products") - before).isEqualTo(requests * 100L);
+    }
+
+    @Test
+    @Order(8)
+    void copy() throws InterruptedException {
+        Report report = run("copy 200 docs", i -> driver.post("/api/solr/copy", gson.toJson(Map.of(
+                "client", CLIENT, "sourceCore", "products", "targetCore", "products_copy",
+                "q", "*:*", "start", String.valueOf(i), "rows", "200"))).build());
+        assertThat(report.count(200)).isEqualTo(requests);
+    }
+
+    @Test
+    @Order(9)
+    void copyStream() throws InterruptedException {
+        int copies = Math.max(1, requests / 10);
+        Report report = run("copy stream 2000", copies, i -> driver.post("/api/solr/copy", gson.toJson(Map.of(
+                "client", CLIENT, "sourceCore", "products", "targetCore", "products_copy",
+                "q", "*:*", "rows", "2000", "batchSize", 500, "stream", true))).build());
+        assertThat(report.count(200)).isEqualTo(copies);
+    }
+
+    @Test
+    @Order(10)
+    void duplicateFields() throws InterruptedException {
+        IntFunction<HttpRequest> request = i -> driver.post("/api/solr/duplicateFields", gson.toJson(Map.of(
+                "client", CLIENT, "sourceCore", "catalog", "targetCore", "products_copy",
+                "includeDynamicFields", true, "includeCopyFields", true))).build();
+        // La primera crea los campos; las siguientes solo comparan los esquemas
+        Report first = run("duplicateFields inicial", 1, request);
+        assertThat(first.count(200)).isEqualTo(1);
+        Report report = run("duplicateFields", request);
+        assertThat(report.count(200)).isEqualTo(requests);
+        assertThat(solr.fieldCount("products_copy")).isEqualTo(solr.fieldCount("catalog"));
+    }
+
+    // Cada petición crea un copyField distinto sobre los campos field_N_s del núcleo catalog
+    @Test
+    @Order(11)
+    void createCopyFields() throws InterruptedException {
+        Report report = run("createCopyFields", i -> driver.post("/api/solr/createCopyFields", gson.toJson(Map.of(
+                "client", CLIENT, "core", "catalog", "field", "field_" + i + "_s",
+                "typeCopyField", "t", "fieldToCopy", ""))).build());
+        assertThat(report.count(200)).isEqualTo(requests);
+        assertThat(solr.copyFieldCount("catalog")).isEqualTo(requests);
+
+        // Mismas reglas que el lote: el copyField ya existe y no se envía a Solr
+        Report repeated = run("createCopyFields repetido", 1, i -> driver.post("/api/solr/createCopyFields", gson.toJson(Map.of(
+                "client", CLIENT, "core", "catalog", "field", "field_0_s", "typeCopyField", "t"))).build());
+        assertThat(repeated.count(400)).isEqualTo(1);
+        assertThat(solr.copyFieldCount("catalog")).isEqualTo(requests);
+    }
+
+    // Un lote con 50 copyFields válidos y 4 rechazados se aplica en un solo envío a la Schema API;
+    // al repetirlo todos ya existen y no se envía nada
+    @Test
+    @Order(12)
+    void createCopyFieldsBulk() throws InterruptedException {
+        List<Map<String, Object>> specs = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            specs.add(Map.of("field", "field_" + i + "_s", "typeCopyField", "i"));
+        }
+        specs.add(Map.of("field", "missing_s", "typeCopyField", "i"));
+        specs.add(Map.of("field", "field_0_s", "typeCopyField", "i"));
+        specs.add(Map.of("field", "field_0_s", "typeCopyField", "t"));
+        specs.add(Map.of("field", "field_1_s", "typeCopyField", "t", "fieldToCopy", "field_2_s"));
+        String body = gson.toJson(Map.of("client", CLIENT, "core", "catalog", "copyFields", specs));
+
+        int before = solr.copyFieldCount("catalog");
+        Report report = run("createCopyFields lote", 1, i -> driver.post("/api/solr/createCopyFields/bulk", body).build());
+        assertThat(report.count(200)).isEqualTo(1);
+        assertThat(solr.copyFieldCount("catalog")).isEqualTo(before + 50);
+
+        Report repeated = run("copyFields repetidos", 1, i -> driver.post("/api/solr/createCopyFields/bulk", body).build());
+        assertThat(repeated.count(400)).isEqualTo(1);
+        assertThat(solr.copyFieldCount("catalog")).isEqualTo(before + 50);
+    }
+
+    // Cliente con líder y réplica: las consultas se reparten, las escrituras van al líder
+    // y una réplica que falla deja de recibir consultas
+    @Test
+    @Order(13)
+    void replicas() throws Exception {
+        try (StubSolrServer leader = StubSolrServer.start().latency(solrLatencyMs).core("products", 0);
+             StubSolrServer replica = StubSolrServer.start().latency(solrLatencyMs).core("products", 0)) {
+            ClientSolr client = clientSolrRepository.save(
+                    new ClientSolr(null, REPLICATED_CLIENT, "127.0.0.1", leader.port()));
+            clientSolrEndpointRepository.save(new ClientSolrEndpoint(null, client.getId(), "127.0.0.1", leader.port(), true));
+            clientSolrEndpointRepository.save(new ClientSolrEndpoint(null, client.getId(), "127.0.0.1", replica.port(), false));
+            solrEndpointBalancer.refresh();
+
+            Report report = run("replicas consult", i -> replicatedConsult(i));
+            assertThat(report.count(200)).isEqualTo(requests);
+            assertThat(leader.requests()).isPositive();
+            assertThat(replica.requests()).isPositive();
+
+            Report index = run("replicas index", i -> driver.post("/api/solr/index", gson.toJson(Map.of(
+                    "client", REPLICATED_CLIENT, "core", "products", "docs", docs(i * 10, 10)))).build());
+            assertThat(index.count(200)).isEqualTo(requests);
+            assertThat(leader.indexedDocs("products")).isEqualTo(requests * 10L);
+            assertThat(replica.indexedDocs("products")).isZero();
+
+            // Tras unos pocos 500 la réplica queda fuera y el resto de consultas van al líder
+            replica.errorRate(1);
+            run("replicas con fallo", i -> replicatedConsult(i));
+            long replicaSelects = replica.selects();
+            Report ejected = run("replicas expulsada", i -> replicatedConsult(i));
+            assertThat(ejected.count(200)).isEqualTo(requests);
+            assertThat(replica.selects()).isEqualTo(replicaSelects);
+        }
+    }
+
+    // Un 5% de respuestas lentas en cada réplica: las consultas que pasan del p95 se duplican en la otra
+    @Test
+    @Order(14)
+    void hedging() throws Exception {
+        try (StubSolrServer first = StubSolrServer.start().latency(solrLatencyMs).core("products", 0);
+             StubSolrServer second = StubSolrServer.start().latency(solrLatencyMs).core("products", 0)) {
+            ClientSolr client = clientSolrRepository.save(
+                    new ClientSolr(null, HEDGED_CLIENT, "127.0.0.1", first.port()));
+            clientSolrEndpointRepository.save(new ClientSolrEndpoint(null, client.getId(), "127.0.0.1", first.port(), true));
+            clientSolrEndpointRepository.save(new ClientSolrEndpoint(null, client.getId(), "127.0.0.1", second.port(), false));
+            solrEndpointBalancer.refresh();
+
+            // Latencias de referencia antes de los picos
+            run("hedging referencia", i -> consult(HEDGED_CLIENT, i));
+            first.spikes(0.05, 500);
+            second.spikes(0.05, 500);
+            long won = (long) solrHedger.stats().get("won");
+            Report report = run("hedging picos 5%", i -> consult(HEDGED_CLIENT, i));
+            assertThat(report.count(200)).isEqualTo(requests);
+            assertThat((long) solrHedger.stats().get("won")).isGreaterThan(won);
+        }
+    }
+
+    // Con latencias de referencia de pocos ms el timeout adaptativo corta antes de los 3 s del pico.
+    // Las copias de la misma colección esperan con solr.http.read-timeout y no entran en la ventana de /consult
+    @Test
+    @Order(15)
+    void adaptiveTimeout() throws Exception {
+        try (StubSolrServer slow = StubSolrServer.start().latency(solrLatencyMs).core("products", 0).core("products_copy", 0)) {
+            clientSolrRepository.save(new ClientSolr(null, SLOW_CLIENT, "127.0.0.1", slow.port()));
+            run("timeout referencia", i -> consult(SLOW_CLIENT, i));
+            slow.spikes(0.05, 3000);
+            Report report = run("timeout picos 3 s", i -> consult(SLOW_CLIENT, i));
+            assertThat(report.failures()).isZero();
+            assertThat(report.count(504)).isPositive();
+
+            String window = SolrHttpTransport.nodeKey("127.0.0.1", slow.port()) + "/products";
+            Object samples = solrLatencyTracker.stats().get(window).get("samples");
+            Report copy = run("timeout copia picos", i -> driver.post("/api/solr/copy", gson.toJson(Map.of(
+                    "client", SLOW_CLIENT, "sourceCore", "products", "targetCore", "products_copy",
+                    "q", "*:*", "start", String.valueOf(i), "rows", "200"))).build());
+            assertThat(copy.count(200)).isEqualTo(requests);
+            assertThat(solrLatencyTracker.stats().get(window).get("samples")).isEqualTo(samples);
+        }
+    }
+
+    // NDJSON en lotes de 25; una línea null rechaza la petición con 400 como el JSON mal formado
+    @Test
+    @Order(16)
+    void indexStream() throws Exception {
+        long before = solr.indexedDocs("products");
+        Report report = run("index stream 100 docs", i -> driver.post(
+                "/api/solr/index/stream?client=" + CLIENT + "&core=products&batchSize=25", ndjson(docs(i * 100, 100)))
+                .build());
+        assertThat(report.count(200)).isEqualTo(requests);
+        assertThat(solr.indexedDocs("products") - before).isEqualTo(requests * 100L);
+
+        String withNull = ndjson(docs(0, 1)) + "null\n" + ndjson(docs(1, 1));
+        Report invalid = run("index stream null", 1, i -> driver.post(
+                "/api/solr/index/stream?client=" + CLIENT + "&core=products", withNull).build());
+        assertThat(invalid.count(400)).isEqualTo(1);
+
+        // Los lotes que Solr aceptó antes del error se confirman igualmente con commit=true
+        long commits = solr.commits("products");
+        HttpResponse<String> failed = driver.send(driver.post("/api/solr/index/stream?client=" + CLIENT
+                + "&core=products&batchSize=1&commit=true", withNull).build());
+        assertThat(failed.statusCode()).isEqualTo(400);
+        assertThat(JsonParser.parseString(failed.body()).getAsJsonObject().get("accepted").getAsLong()).isEqualTo(1);
+        assertThat(solr.commits("products")).isEqualTo(commits + 1);
+    }
+
+    // Dos colecciones con precios intercalados (b = a + 0.75): orden de la mezcla, ventana start/rows y suma de facets
+    @Test
+    @Order(17)
+    void consultFederated() throws Exception {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("q", "*:*");
+        body.put("sort", "price_d asc");
+        body.put("start", "5");
+        body.put("rows", "10");
+        body.put("facetField", "category_s");
+        body.put("facetQuery", "stock_i:[0 TO 10]");
+        body.put("jsonFacet", Map.of("brands", Map.of("type", "terms", "field", "category_s", "limit", 5)));
+        Report report = run("federated 2 cores", i -> federated(body));
+        assertThat(report.count(200)).isEqualTo(requests);
+
+        JsonObject merged = federatedResponse(body);
+        assertThat(merged.get("partial").getAsBoolean()).isFalse();
+        assertThat(merged.get("numFound").getAsLong()).isEqualTo(200_000);
+        JsonArray docs = merged.getAsJsonArray("docs");
+        assertThat(docs.size()).isEqualTo(10);
+        for (int j = 0; j < docs.size(); j++) {
+            assertThat(docs.get(j).getAsJsonObject().get("price_d").getAsDouble()).isEqualTo((5 + j) * 0.75);
+        }
+
+        // Cada colección cuenta 100000 / (b + 2) en el bucket b y 100000 / 3 en facet.query
+        JsonObject facetCounts = merged.getAsJsonObject("facet_counts");
+        JsonArray categories = facetCounts.getAsJsonObject("facet_fields").getAsJsonArray("category_s");
+        assertThat(categories.get(0).getAsString()).isEqualTo("category_s-0");
+        assertThat(categories.get(1).getAsLong()).isEqualTo(100_000);
+        assertThat(facetCounts.getAsJsonObject("facet_queries").get("stock_i:[0 TO 10]").getAsLong()).isEqualTo(66_666);
+        JsonObject facets = merged.getAsJsonObject("facets");
+        assertThat(facets.get("count").getAsLong()).isEqualTo(200_000);
+        JsonArray brands = facets.getAsJsonObject("brands").getAsJsonArray("buckets");
+        assertThat(brands.size()).isEqualTo(5);
+        assertThat(brands.get(0).getAsJsonObject().get("count").getAsLong()).isEqualTo(100_000);
+
+        // Sin sort se concatenan en el orden de 'targets': la ventana 10..19 sale entera de federated_a
+        JsonArray concatenated = federatedResponse(Map.of("q", "*:*", "start", "10", "rows", "10"))
+                .getAsJsonArray("docs");
+        assertThat(concatenated.size()).isEqualTo(10);
+        for (int j = 0; j < concatenated.size(); j++) {
+            assertThat(concatenated.get(j).getAsJsonObject().get("price_d").getAsDouble()).isEqualTo((10 + j) * 1.5);
+        }
+    }
+
+    // Lotes de 10 consultas con un error de cada tipo: cada resultado conserva su posición y su estado,
+    // y al repetir el lote las consultas válidas salen de la caché de /consult
+    @Test
+    @Order(18)
+    void consultBatch() throws Exception {
+        List<Map<String, Object>> batch = new ArrayList<>();
+        for (int j = 0; j < 7; j++) {
+            batch.add(Map.of("client", CLIENT, "core", "products", "q", "id:batch-" + j, "rows", "10"));
+        }
+        batch.add(Map.of("client", CLIENT, "core", "products", "q", "error"));
+        batch.add(Map.of("client", CLIENT, "core", "products", "sort", "precio"));
+        batch.add(Map.of("client", CLIENT, "core", "missing"));
+        String body = gson.toJson(batch);
+        Report report = run("consult batch 10", i -> driver.post("/api/solr/consult/batch?parallelism=4", body).build());
+        assertThat(report.count(200)).isEqualTo(requests);
+
+        HttpResponse<String> response = driver.send(driver.post("/api/solr/consult/batch", body).build());
+        assertThat(response.statusCode()).isEqualTo(200);
+        JsonArray items = JsonParser.parseString(response.body()).getAsJsonArray();
+        assertThat(items.size()).isEqualTo(batch.size());
+        for (int j = 0; j < 7; j++) {
+            JsonObject item = items.get(j).getAsJsonObject();
+            assertThat(item.get("status").getAsInt()).isEqualTo(200);
+            assertThat(item.get("cache").getAsString()).isEqualTo("HIT");
+            assertThat(item.get("body").isJsonObject()).isTrue();
+        }
+        assertThat(items.get(7).getAsJsonObject().get("status").getAsInt()).isEqualTo(500);
+        assertThat(items.get(8).getAsJsonObject().get("status").getAsInt()).isEqualTo(400);
+        assertThat(items.get(9).getAsJsonObject().get("status").getAsInt()).isEqualTo(404);
+    }
+
+    // La cancelación de una copia en segundo plano conserva el avance y el trabajo no vuelve a otro estado
+    @Test
+    @Order(19)
+    void copyJobCancel() throws Exception {
+        try (StubSolrServer slow = StubSolrServer.start().latency(20).core("products", 0).core("products_copy", 0)) {
+            clientSolrRepository.save(new ClientSolr(null, CANCEL_CLIENT, "127.0.0.1", slow.port()));
+            HttpResponse<String> accepted = driver.send(driver.post("/api/solr/copy", gson.toJson(Map.of(
+                    "client", CANCEL_CLIENT, "sourceCore", "products", "targetCore", "products_copy",
+                    "q", "*:*", "rows", "100000", "batchSize", 50, "async", true))).build());
+            assertThat(accepted.statusCode()).isEqualTo(202);
+            long jobId = JsonParser.parseString(accepted.body()).getAsJsonObject().get("jobId").getAsLong();
+
+            JsonObject job = copyJob(jobId);
+            for (int i = 0; i < 100 && job.get("docsWritten").getAsLong() == 0; i++) {
+                Thread.sleep(50);
+                job = copyJob(jobId);
+            }
+            assertThat(job.get("status").getAsString()).isEqualTo("RUNNING");
+
+            HttpResponse<String> cancelled = driver.send(driver.post("/api/solr/copy/jobs/" + jobId + "/cancel", "").build());
+            assertThat(cancelled.statusCode()).isEqualTo(200);
+            JsonObject atCancel = JsonParser.parseString(cancelled.body()).getAsJsonObject();
+            assertThat(atCancel.get("status").getAsString()).isEqualTo("CANCELLED");
+            assertThat(atCancel.get("docsWritten").getAsLong()).isGreaterThanOrEqualTo(job.get("docsWritten").getAsLong());
+
+            // El trabajador termina el lote en curso y guarda su avance sin salir de CANCELLED
+            Thread.sleep(500);
+            JsonObject finished = copyJob(jobId);
+            assertThat(finished.get("status").getAsString()).isEqualTo("CANCELLED");
+            assertThat(finished.get("docsWritten").getAsLong()).isGreaterThanOrEqualTo(atCancel.get("docsWritten").getAsLong());
+            assertThat(finished.get("docsWritten").getAsLong()).isLessThan(100000);
+
+            HttpResponse<String> again = driver.send(driver.post("/api/solr/copy/jobs/" + jobId + "/cancel", "").build());
+            assertThat(again.statusCode()).isEqualTo(400);
+            assertThat(again.body()).contains("CANCELLED");
+        }
+    }
+
+    private Report run(String scenario, IntFunction<HttpRequest> request) throws InterruptedException {
+        return run(scenario, requests, request);
+    }
+
+    private Report run(String scenario, int count, IntFunction<HttpRequest> request)
+            throws InterruptedException {
+        Report report = driver.run(scenario, concurrency, count, request);
+        log.info("{}", report);
+        reports.add(report);
+        return report;
+    }
+
+    private HttpRequest consult(Map<String, Object> params, boolean bypassCache) {
+        Map<String, Object> body = new LinkedHashMap<>(params);
+        body.put("client", CLIENT);
+        body.put("core", "products");
+        HttpRequest.Builder builder = driver.post("/api/solr/consult", gson.toJson(body));
+        if (bypassCache) {
+            builder.header("X-Solr-Cache", "bypass");
+        }
+        return builder.build();
+    }
+
+    private HttpRequest federated(Map<String, Object> params) {
+        Map<String, Object> body = new LinkedHashMap<>(params);
+        body.put("targets", List.of(Map.of("client", CLIENT, "core", "federated_a"),
+                Map.of("client", CLIENT, "core", "federated_b")));
+        return driver.post("/api/solr/consult/federated", gson.toJson(body)).build();
+    }
+
+    private JsonObject federatedResponse(Map<String, Object> params) throws IOException, InterruptedException {
+        HttpResponse<String> response = driver.send(federated(params));
+        assertThat(response.statusCode()).isEqualTo(200);
+        return JsonParser.parseString(response.body()).getAsJsonObject();
+    }
+
+    private double metric(String name) throws IOException, InterruptedException {
+        HttpResponse<String> response = driver.send(driver.get("/actuator/metrics/" + name).build());
+        assertThat(response.statusCode()).isEqualTo(200);
+        return JsonParser.parseString(response.body()).getAsJsonObject().getAsJsonArray("measurements")
+                .get(0).getAsJsonObject().get("value").getAsDouble();
+    }
+
+    private JsonObject copyJob(long jobId) throws IOException, InterruptedException {
+        HttpResponse<String> response = driver.send(driver.get("/api/solr/copy/jobs/" + jobId).build());
+        assertThat(response.statusCode()).isEqualTo(200);
+        return JsonParser.parseString(response.body()).getAsJsonObject();
+    }
+
+    private HttpRequest replicatedConsult(int i) {
+        return consult(REPLICATED_CLIENT, i);
+    }
+
+    private HttpRequest consult(String client, int i) {
+        return driver.post("/api/solr/consult", gson.toJson(Map.of(
+                "client", client, "core", "products", "q", "id:doc-" + i, "rows", "10")))
+                .header("X-Solr-Cache", "bypass")
+                .build();
+    }
+
+    private String ndjson(List<Map<String, Object>> docs) {
+        StringBuilder lines = new StringBuilder();
+        docs.forEach(doc -> lines.append(gson.toJson(doc)).append('\n'));
+        return lines.toString();
+    }
+
+    private static List<Map<String, Object>> docs(int from, int count) {
+        List<Map<String, Object>> docs = new ArrayList<>(count);
+        for (int i = from; i < from + count; i++) {
+            Map<String, Object> doc = new LinkedHashMap<>();
+            doc.put("id", "load-" + i);
+            doc.put("title_t", "Documento de carga " + i);
+            doc.put("price_d", i * 0.75);
+            doc.put("stock_i", i % 500);
+            doc.put("category_s", "categoria-" + i % 20);
+            doc.put("tags_ss", List.of("a" + i % 7, "b" + i % 11));
+            docs.add(doc);
+        }
+        return docs;
+    }
+}
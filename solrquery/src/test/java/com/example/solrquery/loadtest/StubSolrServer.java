@@ -0,0 +1,432 @@
+package com.example.solrquery.loadtest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonWriter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+// Servidor Solr simulado en memoria: núcleos, /select con docs y facets generados, /update, /schema
+// y la API de administración de núcleos. La latencia, el tamaño de las respuestas y los errores se configuran.
+public class StubSolrServer implements AutoCloseable {
+
+    private static final String[][] FIELD_TYPES = {
+        {"string", "solr.StrField"},
+        {"text_general", "solr.TextField"},
+        {"pint", "solr.IntPointField"},
+        {"plong", "solr.LongPointField"},
+        {"pdouble", "solr.DoublePointField"},
+        {"boolean", "solr.BoolField"},
+        {"pdate", "solr.DatePointField"},
+    };
+
+    private static final Type MAP_TYPE = new TypeToken<Map<String, Object>>(){}.getType();
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<String, Core> cores = new ConcurrentHashMap<>();
+    private final Gson gson = new Gson();
+
+    // Latencia agregada a cada respuesta y proporción de respuestas 500 al azar
+    private volatile long latencyMs;
+    private volatile double errorRate;
+    private volatile double spikeRate;
+    private volatile long spikeMs;
+    // Documentos que dice tener cada núcleo en /select
+    private volatile long numFound = 100_000;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder selects = new LongAdder();
+    private final LongAdder bytesReceived = new LongAdder();
+
+    public StubSolrServer(int port) throws IOException {
+        // Sin TCP_NODELAY el ACK retardado suma ~40 ms a cada respuesta escrita en dos partes
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        executor = Executors.newFixedThreadPool(64);
+        server.setExecutor(executor);
+        server.createContext("/solr/", this::handle);
+    }
+
+    public static StubSolrServer start() throws IOException {
+        StubSolrServer stub = new StubSolrServer(0);
+        stub.server.start();
+        return stub;
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    public StubSolrServer latency(long millis) {
+        this.latencyMs = millis;
+        return this;
+    }
+
+    // Una fracción 'rate' de las peticiones tarda 'millis' en lugar de la latencia normal
+    public StubSolrServer spikes(double rate, long millis) {
+        this.spikeRate = rate;
+        this.spikeMs = millis;
+        return this;
+    }
+
+    public StubSolrServer errorRate(double rate) {
+        this.errorRate = rate;
+        return this;
+    }
+
+    public StubSolrServer numFound(long docs) {
+        this.numFound = docs;
+        return this;
+    }
+
+    // Núcleo con los campos id, title_t, price_d, stock_i, category_s y 'extraFields' campos field_N_s
+    public StubSolrServer core(String name, int extraFields) {
+        return core(name, extraFields, 0);
+    }
+
+    // price_d desplazado en 'priceOffset': dos núcleos con offsets distintos intercalan sus docs por precio
+    public StubSolrServer core(String name, int extraFields, double priceOffset) {
+        Core core = new Core(priceOffset);
+        core.addField("id", "string", false);
+        core.addField("title_t", "text_general", false);
+        core.addField("price_d", "pdouble", false);
+        core.addField("stock_i", "pint", false);
+        core.addField("category_s", "string", false);
+        core.addField("tags_ss", "string", true);
+        for (int i = 0; i < extraFields; i++) {
+            core.addField("field_" + i + "_s", "string", false);
+        }
+        cores.put(name, core);
+        return this;
+    }
+
+    public long requests() {
+        return requests.sum();
+    }
+
+    // Solo /select: sin los sondeos de salud del balanceador ni escrituras
+    public long selects() {
+        return selects.sum();
+    }
+
+    public long indexedDocs(String core) {
+        return cores.get(core).indexedDocs.sum();
+    }
+
+    public long commits(String core) {
+        return cores.get(core).commits.sum();
+    }
+
+    public long bytesReceived() {
+        return bytesReceived.sum();
+    }
+
+    public int fieldCount(String core) {
+        return cores.get(core).fields.size();
+    }
+
+    public int copyFieldCount(String core) {
+        return cores.get(core).copyFields.size();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.increment();
+        if (exchange.getRequestURI().getPath().endsWith("/select")) {
+            selects.increment();
+        }
+        try (exchange) {
+            byte[] body = exchange.getRequestBody().readAllBytes();
+            bytesReceived.add(body.length);
+            if (spikeRate > 0 && ThreadLocalRandom.current().nextDouble() < spikeRate) {
+                Thread.sleep(spikeMs);
+            } else if (latencyMs > 0) {
+                Thread.sleep(latencyMs);
+            }
+            if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                send(exchange, 500, "{\"error\":{\"msg\":\"Error simulado\",\"code\":500}}");
+                return;
+            }
+            route(exchange, body);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            send(exchange, 500, "{\"error\":{\"msg\":\"" + e + "\",\"code\":500}}");
+        }
+    }
+
+    private void route(HttpExchange exchange, byte[] body) throws IOException {
+        String[] path = exchange.getRequestURI().getPath().split("/");
+        Map<String, List<String>> params = params(exchange.getRequestURI().getRawQuery());
+        if (path.length >= 4 && path[2].equals("admin") && path[3].equals("cores")) {
+            JsonObject status = new JsonObject();
+            cores.keySet().forEach(name -> status.add(name, new JsonObject()));
+            JsonObject root = new JsonObject();
+            root.add("status", status);
+            send(exchange, 200, gson.toJson(root));
+            return;
+        }
+        Core core = path.length >= 4 ? cores.get(path[2]) : null;
+        if (core == null) {
+            send(exchange, 404, "{\"error\":{\"msg\":\"Núcleo no encontrado\",\"code\":404}}");
+            return;
+        }
+        String handler = path[3];
+        switch (handler) {
+            case "select" -> select(exchange, core, params);
+            case "update" -> update(exchange, core, params, body);
+            case "schema" -> {
+                if (exchange.getRequestMethod().equals("POST")) {
+                    schemaUpdate(exchange, core, body);
+                } else {
+                    schema(exchange, core, path.length >= 5 ? path[4] : "");
+                }
+            }
+            default -> send(exchange, 404, "{\"error\":{\"msg\":\"Manejador no encontrado\",\"code\":404}}");
+        }
+    }
+
+    // Docs generados a partir de start o cursorMark; q=error responde 400 como una sintaxis inválida
+    private void select(HttpExchange exchange, Core core, Map<String, List<String>> params) throws IOException {
+        String q = first(params, "q", "*:*");
+        if (q.contains("error")) {
+            send(exchange, 400, "{\"error\":{\"msg\":\"org.apache.solr.search.SyntaxError: Cannot parse '" + q + "'\",\"code\":400}}");
+            return;
+        }
+        long total = numFound;
+        int rows = Integer.parseInt(first(params, "rows", "10"));
+        String cursor = first(params, "cursorMark", null);
+        long start = cursor != null ? (cursor.equals("*") ? 0 : Long.parseLong(cursor.substring(1)))
+                                    : Long.parseLong(first(params, "start", "0"));
+        long end = Math.min(total, start + rows);
+
+        exchange.getResponseHeaders().set("Content-Type", "application/json;charset=utf-8");
+        exchange.sendResponseHeaders(200, 0);
+        Writer out = new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8);
+        JsonWriter json = new JsonWriter(out);
+        json.beginObject();
+        json.name("responseHeader").beginObject().name("status").value(0).name("QTime").value(1).endObject();
+        json.name("response").beginObject().name("numFound").value(total).name("start").value(start);
+        json.name("docs").beginArray();
+        for (long i = start; i < end; i++) {
+            json.beginObject();
+            json.name("id").value("doc-" + i);
+            json.name("title_t").value("Producto de prueba número " + i);
+            json.name("price_d").value(i % 1000 * 1.5 + core.priceOffset);
+            json.name("stock_i").value(i % 97);
+            json.name("category_s").value("categoria-" + i % 20);
+            json.name("tags_ss").beginArray().value("a" + i % 7).value("b" + i % 11).endArray();
+            json.name("_version_").value(1_700_000_000_000_000_000L + i);
+            json.endObject();
+        }
+        json.endArray().endObject();
+        if (cursor != null) {
+            json.name("nextCursorMark").value(end >= total ? cursor : "c" + end);
+        }
+        List<String> facetFields = params.getOrDefault("facet.field", List.of());
+        if ("on".equals(first(params, "facet", null)) || !facetFields.isEmpty()) {
+            json.name("facet_counts").beginObject();
+            json.name("facet_queries").beginObject();
+            for (String facetQuery : params.getOrDefault("facet.query", List.of())) {
+                json.name(facetQuery).value(total / 3);
+            }
+            json.endObject();
+            json.name("facet_fields").beginObject();
+            for (String field : facetFields) {
+                json.name(field).beginArray();
+                for (int b = 0; b < 100; b++) {
+                    json.value(field + "-" + b).value(total / (b + 2));
+                }
+                json.endArray();
+            }
+            json.endObject();
+            json.name("facet_ranges").beginObject().endObject();
+            json.endObject();
+        }
+        String jsonFacet = first(params, "json.facet", null);
+        if (jsonFacet != null) {
+            json.name("facets").beginObject().name("count").value(total);
+            for (String name : JsonParser.parseString(jsonFacet).getAsJsonObject().keySet()) {
+                json.name(name).beginObject().name("buckets").beginArray();
+                for (int b = 0; b < 20; b++) {
+                    json.beginObject().name("val").value(name + "-" + b).name("count").value(total / (b + 2)).endObject();
+                }
+                json.endArray().endObject();
+            }
+            json.endObject();
+        }
+        json.endObject();
+        json.flush();
+    }
+
+    private void update(HttpExchange exchange, Core core, Map<String, List<String>> params, byte[] body) throws IOException {
+        JsonElement docs = body.length == 0 ? null : JsonParser.parseString(new String(body, StandardCharsets.UTF_8));
+        if (docs != null && docs.isJsonArray()) {
+            core.indexedDocs.add(docs.getAsJsonArray().size());
+        }
+        if ("true".equals(first(params, "commit", null)) || "true".equals(first(params, "softCommit", null))) {
+            core.commits.increment();
+        }
+        send(exchange, 200, "{\"responseHeader\":{\"status\":0,\"QTime\":1}}");
+    }
+
+    private void schema(HttpExchange exchange, Core core, String section) throws IOException {
+        JsonObject root = new JsonObject();
+        switch (section) {
+            case "" -> {
+                JsonObject schema = new JsonObject();
+                schema.addProperty("name", "stub");
+                schema.addProperty("version", 1.6);
+                schema.addProperty("uniqueKey", "id");
+                schema.add("fieldTypes", fieldTypes());
+                schema.add("fields", gson.toJsonTree(core.fields));
+                schema.add("dynamicFields", gson.toJsonTree(core.dynamicFields));
+                schema.add("copyFields", gson.toJsonTree(core.copyFields));
+                root.add("schema", schema);
+            }
+            case "zkversion" -> root.addProperty("zkversion", core.version.get());
+            case "uniquekey" -> root.addProperty("uniqueKey", "id");
+            case "fields" -> root.add("fields", gson.toJsonTree(core.fields));
+            case "dynamicfields" -> root.add("dynamicFields", gson.toJsonTree(core.dynamicFields));
+            case "copyfields" -> root.add("copyFields", gson.toJsonTree(core.copyFields));
+            case "fieldtypes" -> root.add("fieldTypes", fieldTypes());
+            default -> {
+                send(exchange, 404, "{\"error\":{\"msg\":\"Sección de esquema no encontrada\",\"code\":404}}");
+                return;
+            }
+        }
+        send(exchange, 200, gson.toJson(root));
+    }
+
+    // add-field, add-dynamic-field y add-copy-field, como objeto o arreglo de comandos
+    private void schemaUpdate(HttpExchange exchange, Core core, byte[] body) throws IOException {
+        JsonObject commands = JsonParser.parseString(new String(body, StandardCharsets.UTF_8)).getAsJsonObject();
+        for (Map.Entry<String, JsonElement> command : commands.entrySet()) {
+            List<JsonObject> items = new ArrayList<>();
+            if (command.getValue().isJsonArray()) {
+                command.getValue().getAsJsonArray().forEach(item -> items.add(item.getAsJsonObject()));
+            } else {
+                items.add(command.getValue().getAsJsonObject());
+            }
+            for (JsonObject item : items) {
+                switch (command.getKey()) {
+                    case "add-field" -> {
+                        String name = item.get("name").getAsString();
+                        if (core.fields.stream().anyMatch(field -> name.equals(field.get("name")))) {
+                            send(exchange, 400, "{\"error\":{\"msg\":\"Field '" + name + "' already exists.\",\"code\":400}}");
+                            return;
+                        }
+                        core.fields.add(gson.fromJson(item, MAP_TYPE));
+                    }
+                    case "add-dynamic-field" -> core.dynamicFields.add(gson.fromJson(item, MAP_TYPE));
+                    case "add-copy-field" -> core.copyFields.add(gson.fromJson(item, MAP_TYPE));
+                    default -> {
+                        send(exchange, 400, "{\"error\":{\"msg\":\"Comando no soportado: " + command.getKey() + "\",\"code\":400}}");
+                        return;
+                    }
+                }
+            }
+        }
+        core.version.incrementAndGet();
+        send(exchange, 200, "{\"responseHeader\":{\"status\":0,\"QTime\":1}}");
+    }
+
+    private JsonArray fieldTypes() {
+        JsonArray types = new JsonArray();
+        for (String[] type : FIELD_TYPES) {
+            JsonObject fieldType = new JsonObject();
+            fieldType.addProperty("name", type[0]);
+            fieldType.addProperty("class", type[1]);
+            types.add(fieldType);
+        }
+        return types;
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json;charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Map<String, List<String>> params(String rawQuery) {
+        Map<String, List<String>> params = new LinkedHashMap<>();
+        if (rawQuery == null) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            params.computeIfAbsent(name, k -> new ArrayList<>()).add(value);
+        }
+        return params;
+    }
+
+    private static String first(Map<String, List<String>> params, String name, String fallback) {
+        List<String> values = params.get(name);
+        return values == null || values.isEmpty() ? fallback : values.get(0);
+    }
+
+    private static final class Core {
+        private final List<Map<String, Object>> fields = new CopyOnWriteArrayList<>();
+        private final List<Map<String, Object>> dynamicFields = new CopyOnWriteArrayList<>();
+        private final List<Map<String, Object>> copyFields = new CopyOnWriteArrayList<>();
+        private final AtomicLong version = new AtomicLong(1);
+        private final LongAdder indexedDocs = new LongAdder();
+        private final LongAdder commits = new LongAdder();
+        private final double priceOffset;
+
+        private Core(double priceOffset) {
+            this.priceOffset = priceOffset;
+            dynamicFields.add(Map.of("name", "*_s", "type", "string", "indexed", true, "stored", true));
+            dynamicFields.add(Map.of("name", "*_t", "type", "text_general", "indexed", true, "stored", true));
+            dynamicFields.add(Map.of("name", "*_i", "type", "pint", "indexed", true, "stored", true));
+            dynamicFields.add(Map.of("name", "*_d", "type", "pdouble", "indexed", true, "stored", true));
+        }
+
+        private void addField(String name, String type, boolean multiValued) {
+            Map<String, Object> field = new LinkedHashMap<>();
+            field.put("name", name);
+            field.put("type", type);
+            field.put("indexed", true);
+            field.put("stored", true);
+            if (multiValued) {
+                field.put("multiValued", true);
+            }
+            fields.add(field);
+        }
+    }
+}
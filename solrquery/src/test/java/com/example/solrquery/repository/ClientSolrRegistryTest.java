@@ -0,0 +1,64 @@
+package com.example.solrquery.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import com.example.solrquery.config.ClientSolrRegistryProperties;
+import com.example.solrquery.entity.ClientSolr;
+import com.example.solrquery.exception.ClientRegistryUnavailableException;
+
+class ClientSolrRegistryTest {
+
+    private final ClientSolrRepository repository = mock(ClientSolrRepository.class);
+    private final ClientSolrRegistry registry = new ClientSolrRegistry(repository, new ClientSolrRegistryProperties());
+
+    // Sin MySQL un cliente no cargado no se da por inexistente ni se recuerda como desconocido
+    @Test
+    void unavailableRepositoryIsNotCachedAsUnknown() {
+        when(repository.findByName("nuevo"))
+                .thenThrow(new DataAccessResourceFailureException("Communications link failure"))
+                .thenReturn(Optional.of(new ClientSolr(7L, "nuevo", "127.0.0.1", 8983)));
+
+        assertThatThrownBy(() -> registry.findByName("nuevo")).isInstanceOf(ClientRegistryUnavailableException.class);
+        assertThat(registry.stats()).containsEntry("unknown", 0);
+
+        assertThat(registry.findByName("nuevo")).map(ClientSolr::getId).contains(7L);
+        verify(repository, times(2)).findByName("nuevo");
+    }
+
+    // Las búsquedas no esperan a la lectura de MySQL y lo registrado durante la recarga se conserva
+    @Test
+    void refreshLoadsOutsideTheLookupLock() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(repository.findAll()).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of(new ClientSolr(1L, "cargado", "127.0.0.1", 8983));
+        });
+        when(repository.findByName("nuevo")).thenReturn(Optional.of(new ClientSolr(2L, "nuevo", "127.0.0.1", 8984)));
+
+        CompletableFuture<Boolean> refresh = CompletableFuture.supplyAsync(registry::refresh);
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Optional<ClientSolr>> lookup = CompletableFuture.supplyAsync(() -> registry.findByName("nuevo"));
+        assertThat(lookup.get(5, TimeUnit.SECONDS)).isPresent();
+        release.countDown();
+
+        assertThat(refresh.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(registry.findLoaded("cargado")).isPresent();
+        assertThat(registry.findLoaded("nuevo")).isPresent();
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.solrquery.solr;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import com.example.solrquery.config.SolrCoreCatalogProperties;
+import com.example.solrquery.entity.ClientSolr;
+
+class SolrCoreCatalogTest {
+
+    private final ClientSolr client = new ClientSolr(1L, "cliente", "127.0.0.1", 8983);
+    private final RestTemplate restTemplate = mock(RestTemplate.class);
+    private final SolrCoreCatalogProperties properties = new SolrCoreCatalogProperties();
+    private SolrCoreCatalog catalog;
+
+    @BeforeEach
+    void setUp() {
+        SolrHttpTransport transport = mock(SolrHttpTransport.class);
+        when(transport.forClient(client)).thenReturn(restTemplate);
+        properties.setFailureBackoff(Duration.ofMinutes(1));
+        catalog = new SolrCoreCatalog(transport, properties);
+    }
+
+    // Con el nodo caído solo la primera consulta espera el STATUS; las siguientes usan la ausencia en caché
+    @Test
+    void failedStatusIsNotRetriedDuringBackoff() {
+        when(restTemplate.getForEntity(anyString(), eq(String.class))).thenThrow(new ResourceAccessException("Connection refused"));
+
+        assertThat(catalog.exists(client, "products")).isFalse();
+        assertThat(catalog.exists(client, "products")).isFalse();
+        assertThat(catalog.cachedExists(client, "products")).isFalse();
+
+        verify(restTemplate, times(1)).getForEntity(anyString(), eq(String.class));
+    }
+
+    // Tras un fallo se mantiene el último listado aunque haya caducado
+    @Test
+    void lastSnapshotIsKeptDuringBackoff() {
+        // Listado siempre caducado, aunque se consulte en el mismo milisegundo
+        properties.setTtl(Duration.ofMillis(-1));
+        when(restTemplate.getForEntity(anyString(), eq(String.class)))
+                .thenReturn(ResponseEntity.ok("{\"status\":{\"products\":{}}}"))
+                .thenThrow(new ResourceAccessException("Connection refused"));
+
+        assertThat(catalog.exists(client, "products")).isTrue();
+        assertThat(catalog.exists(client, "products")).isTrue();
+        assertThat(catalog.exists(client, "products")).isTrue();
+
+        verify(restTemplate, times(2)).getForEntity(anyString(), eq(String.class));
+    }
+
+    @Test
+    void successfulStatusClearsBackoff() {
+        // Listado siempre caducado, aunque se consulte en el mismo milisegundo
+        properties.setTtl(Duration.ofMillis(-1));
+        properties.setFailureBackoff(Duration.ZERO);
+        when(restTemplate.getForEntity(anyString(), eq(String.class)))
+                .thenThrow(new ResourceAccessException("Connection refused"))
+                .thenReturn(ResponseEntity.ok("{\"status\":{\"products\":{}}}"));
+
+        assertThat(catalog.exists(client, "products")).isFalse();
+        assertThat(catalog.exists(client, "products")).isTrue();
+        assertThat(catalog.stats()).extractingByKey("127.0.0.1:8983").asString().contains("backoff=false");
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.solrquery.solr;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.solrquery.config.SolrValidationProperties;
+import com.google.gson.JsonParser;
+
+class SolrDocumentValidatorTest {
+
+    private static final SolrSchemaSnapshot SCHEMA = SolrSchemaSnapshot.parse(JsonParser.parseString("""
+            {"schema": {
+              "version": 1.6,
+              "uniqueKey": "id",
+              "fieldTypes": [
+                {"name": "pint", "class": "solr.IntPointField"},
+                {"name": "plong", "class": "solr.LongPointField"},
+                {"name": "pdouble", "class": "solr.DoublePointField"},
+                {"name": "boolean", "class": "solr.BoolField"},
+                {"name": "string", "class": "solr.StrField"},
+                {"name": "text_general", "class": "solr.TextField"},
+                {"name": "location", "class": "solr.LatLonPointSpatialField"}
+              ],
+              "fields": [
+                {"name": "id", "type": "string"},
+                {"name": "stock_i", "type": "pint"},
+                {"name": "views_l", "type": "plong"},
+                {"name": "price_d", "type": "pdouble"},
+                {"name": "active_b", "type": "boolean"},
+                {"name": "title_t", "type": "text_general"},
+                {"name": "tags_ss", "type": "string", "multiValued": true},
+                {"name": "where_p", "type": "location"}
+              ]
+            }}""").getAsJsonObject(), 1);
+
+    private final SolrValidationProperties properties = new SolrValidationProperties();
+    private final SolrDocumentValidator validator = new SolrDocumentValidator(properties);
+
+    @Test
+    void intFieldsAcceptIntegralValuesInRange() {
+        assertValid("stock_i", 42, 42L, 42.0, "-7", "+7", new BigDecimal("12"), (short) 3);
+        assertInvalid("stock_i", 4.5, "4.5", "", "-", "12a", 2_147_483_648L, "2147483648", true);
+    }
+
+    @Test
+    void longFieldsCoverTheFullRange() {
+        assertValid("views_l", Long.MAX_VALUE, String.valueOf(Long.MIN_VALUE), "9223372036854775807");
+        assertInvalid("views_l", "9223372036854775808", "-9223372036854775809", 1.5);
+    }
+
+    @Test
+    void decimalFieldsAcceptNumbersAndSolrLiterals() {
+        assertValid("price_d", 1, 1.25, "1.25", "-.5", "3.", "1e10", "+2.5E-3");
+        assertInvalid("price_d", "abc", ".", "1e", "1.2.3", "", true);
+    }
+
+    @Test
+    void booleanFieldsAcceptBooleansAndTheirText() {
+        assertValid("active_b", true, "false", "TRUE");
+        assertInvalid("active_b", 1, "yes", "");
+    }
+
+    @Test
+    void stringAndTextFieldsOnlyAcceptText() {
+        assertValid("id", "doc-1");
+        assertValid("title_t", "Documento");
+        assertInvalid("id", 1);
+        assertInvalid("title_t", false);
+    }
+
+    // Clases sin restricción, campos fuera del esquema y valores nulos no se validan
+    @Test
+    void unconstrainedValuesAreAccepted() {
+        assertValid("where_p", "40.4,-3.7", 12, true);
+        assertValid("unknown_x", 1, "texto");
+        assertValid("stock_i", (Object) null);
+    }
+
+    @Test
+    void multiValuedFieldsValidateEveryElement() {
+        assertThat(validator.invalidField(SCHEMA, Map.of("tags_ss", List.of("a", "b")))).isNull();
+        assertThat(validator.invalidField(SCHEMA, Map.of("tags_ss", new String[] {"a", "b"}))).isNull();
+        assertThat(validator.invalidField(SCHEMA, Map.of("stock_i", new int[] {1, 2}))).isNull();
+        assertThat(validator.invalidField(SCHEMA, Map.of("tags_ss", List.of("a", 2)))).contains("tags_ss");
+        assertThat(validator.invalidField(SCHEMA, Map.of("stock_i", Arrays.asList(1, null, "x")))).contains("stock_i");
+    }
+
+    // Mismo reporte en la validación secuencial y en la paralela, con los errores acotados
+    @Test
+    void reportListsInvalidDocumentsFromOne() {
+        properties.setParallelThreshold(10);
+        properties.setMaxReportedErrors(2);
+        List<Map<String, Object>> docs = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            docs.add(Map.of("id", "doc-" + i, "stock_i", i % 5 == 0 ? "x" + i : String.valueOf(i)));
+        }
+
+        SolrDocumentValidator.Report report = validator.validate(SCHEMA, docs);
+
+        assertThat(report.checked()).isEqualTo(20);
+        assertThat(report.isValid()).isFalse();
+        assertThat(report.invalidDocs()).containsExactly(1, 6, 11, 16);
+        assertThat(report.errors()).hasSize(2).first().asString().startsWith("Documento 1: valor 'x0'");
+
+        properties.setParallelThreshold(1000);
+        assertThat(validator.validate(SCHEMA, docs).invalidDocs()).isEqualTo(report.invalidDocs());
+    }
+
+    private void assertValid(String field, Object... values) {
+        for (Object value : values) {
+            assertThat(validator.invalidField(SCHEMA, singleton(field, value)))
+                    .as("%s = %s", field, value).isNull();
+        }
+    }
+
+    private void assertInvalid(String field, Object... values) {
+        for (Object value : values) {
+            assertThat(validator.invalidField(SCHEMA, singleton(field, value)))
+                    .as("%s = %s", field, value).contains("'" + field + "'");
+        }
+    }
+
+    // Map.of no admite valores nulos
+    private static Map<String, Object> singleton(String field, Object value) {
+        Map<String, Object> doc = new HashMap<>();
+        doc.put(field, value);
+        return doc;
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.solrquery.solr;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+class SolrFederatedMergerTest {
+
+    private final SolrFederatedMerger merger = new SolrFederatedMerger();
+
+    // La segunda cláusula desempata los docs con el mismo valor en la primera
+    @Test
+    void docsAreOrderedByEverySortClause() {
+        JsonArray a = docs("""
+                [{"id": "a1", "price_d": 1, "stock_i": 5}, {"id": "a2", "price_d": 2, "stock_i": 9}]""");
+        JsonArray b = docs("""
+                [{"id": "b1", "price_d": 1, "stock_i": 7}, {"id": "b2", "price_d": 2, "stock_i": 1}]""");
+
+        JsonArray merged = merger.mergeDocs(List.of(a, b), "price_d asc, stock_i desc", 0, 10);
+
+        assertThat(ids(merged)).containsExactly("b1", "a1", "a2", "b2");
+    }
+
+    // min, max, sum y avg se combinan; stddev, percentile y unique no admiten mezcla y no se devuelven,
+    // tampoco cuando una tercera colección los vuelve a traer
+    @Test
+    void unmergeableStatisticsAreDropped() {
+        Map<String, Object> definitions = Map.of(
+                "low", "min(price_d)", "high", "max(price_d)", "total", "sum(price_d)", "mean", "avg(price_d)",
+                "spread", "stddev(price_d)", "p95", "percentile(price_d,95)", "brands", "unique(brand_s)");
+        JsonObject first = facets("""
+                {"count": 1, "low": 1, "high": 1, "total": 1, "mean": 1, "spread": 0, "p95": 1, "brands": 1}""");
+        JsonObject second = facets("""
+                {"count": 3, "low": 2, "high": 4, "total": 9, "mean": 3, "spread": 1, "p95": 4, "brands": 2}""");
+        JsonObject third = facets("""
+                {"count": 0, "spread": 5, "p95": 5, "brands": 5}""");
+
+        JsonObject merged = merger.mergeFacets(List.of(first, second, third), definitions);
+
+        assertThat(merged.get("count").getAsLong()).isEqualTo(4);
+        assertThat(merged.get("low").getAsDouble()).isEqualTo(1);
+        assertThat(merged.get("high").getAsDouble()).isEqualTo(4);
+        assertThat(merged.get("total").getAsDouble()).isEqualTo(10);
+        assertThat(merged.get("mean").getAsDouble()).isEqualTo(2.5);
+        assertThat(merged.keySet()).doesNotContain("spread", "p95", "brands");
+    }
+
+    // Ordenar por una estadística descartada no falla: los buckets se combinan igual, sin ella
+    @Test
+    void bucketsSortedByADroppedStatisticAreStillMerged() {
+        Map<String, Object> definitions = Map.of("brands", Map.of("type", "terms", "field", "brand_s",
+                "sort", "spread desc", "facet", Map.of("spread", "stddev(price_d)")));
+        JsonObject a = facets("""
+                {"count": 2, "brands": {"buckets": [{"val": "x", "count": 2, "spread": 1}]}}""");
+        JsonObject b = facets("""
+                {"count": 3, "brands": {"buckets": [{"val": "x", "count": 1, "spread": 2}, {"val": "y", "count": 2, "spread": 3}]}}""");
+
+        JsonArray buckets = merger.mergeFacets(List.of(a, b), definitions)
+                .getAsJsonObject("brands").getAsJsonArray("buckets");
+
+        assertThat(buckets.size()).isEqualTo(2);
+        JsonObject x = buckets.asList().stream().map(bucket -> bucket.getAsJsonObject())
+                .filter(bucket -> bucket.get("val").getAsString().equals("x")).findFirst().orElseThrow();
+        assertThat(x.get("count").getAsLong()).isEqualTo(3);
+        assertThat(x.has("spread")).isFalse();
+    }
+
+    private static JsonArray docs(String json) {
+        return JsonParser.parseString(json).getAsJsonArray();
+    }
+
+    private static JsonObject facets(String json) {
+        return JsonParser.parseString(json).getAsJsonObject();
+    }
+
+    private static List<String> ids(JsonArray docs) {
+        return docs.asList().stream().map(doc -> doc.getAsJsonObject().get("id").getAsString()).toList();
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.solrquery.solr;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.solrquery.config.SolrHedgingProperties;
+import com.example.solrquery.entity.ClientSolr;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+class SolrHedgerTest {
+
+    private final ClientSolr primary = new ClientSolr(1L, "cliente", "127.0.0.1", 8983);
+    private final ClientSolr alternate = new ClientSolr(1L, "cliente", "127.0.0.1", 8984);
+    private final SolrHedgingProperties properties = new SolrHedgingProperties();
+    private final SolrLatencyTracker tracker = mock(SolrLatencyTracker.class);
+    private final SolrEndpointBalancer balancer = mock(SolrEndpointBalancer.class);
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final List<String> discarded = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        properties.setEnabled(true);
+        properties.setMinDelay(Duration.ofMillis(5));
+        properties.setBudgetBurst(1);
+        when(balancer.hasReplicas(primary)).thenReturn(true);
+        when(balancer.forHedge(primary)).thenReturn(alternate);
+        when(tracker.percentile(anyString(), anyString(), anyDouble())).thenReturn(Duration.ofMillis(1));
+    }
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void slowPrimaryIsHedgedAndTheAlternateWins() {
+        SolrHedger hedger = hedger();
+
+        assertThat(execute(hedger, node -> node == primary ? slow("primaria") : "réplica")).isEqualTo("réplica");
+
+        assertThat(hedger.stats()).containsEntry("sent", 1L).containsEntry("won", 1L).containsEntry("budget", 0.0);
+    }
+
+    // Con el presupuesto agotado se espera a la primaria sin duplicar
+    @Test
+    void exhaustedBudgetWaitsForThePrimary() {
+        properties.setBudgetPercent(10);
+        SolrHedger hedger = hedger();
+        execute(hedger, node -> node == primary ? slow("primaria") : "réplica");
+
+        assertThat(execute(hedger, node -> node == primary ? slow("primaria") : "réplica")).isEqualTo("primaria");
+
+        assertThat(hedger.stats()).containsEntry("sent", 1L).containsEntry("budgetExhausted", 1L)
+                .containsEntry("budget", 0.1);
+    }
+
+    // Cada consulta deposita budgetPercent/100 hasta budgetBurst; cada duplicado retira 1
+    @Test
+    void depositsRefillTheBudgetUpToTheBurst() {
+        properties.setBudgetPercent(50);
+        SolrHedger hedger = hedger();
+        Function<ClientSolr, String> attempt = node -> node == primary ? slow("primaria") : "réplica";
+
+        assertThat(execute(hedger, attempt)).isEqualTo("réplica");
+        assertThat(execute(hedger, attempt)).isEqualTo("primaria");
+        assertThat(execute(hedger, attempt)).isEqualTo("réplica");
+
+        assertThat(hedger.stats()).containsEntry("sent", 2L).containsEntry("budgetExhausted", 1L)
+                .containsEntry("budget", 0.0);
+
+        for (int i = 0; i < 10; i++) {
+            execute(hedger, node -> "primaria");
+        }
+        assertThat(hedger.stats()).containsEntry("budget", 1.0);
+    }
+
+    @Test
+    void fastPrimaryIsNotHedged() {
+        SolrHedger hedger = hedger();
+
+        assertThat(execute(hedger, node -> node == primary ? "primaria" : "réplica")).isEqualTo("primaria");
+
+        assertThat(hedger.stats()).containsEntry("sent", 0L).containsEntry("budget", 1.0);
+    }
+
+    // Un duplicado fallido no gana: se espera la respuesta correcta de la primaria
+    @Test
+    void failedAlternateFallsBackToThePrimary() {
+        SolrHedger hedger = hedger();
+
+        assertThat(execute(hedger, node -> node == primary ? slow("primaria") : null)).isEqualTo("primaria");
+
+        assertThat(hedger.stats()).containsEntry("sent", 1L).containsEntry("won", 0L);
+    }
+
+    // La respuesta que llega después de la ganadora se libera
+    @Test
+    void losingResponseIsDiscarded() throws InterruptedException {
+        SolrHedger hedger = hedger();
+
+        assertThat(execute(hedger, node -> node == primary ? slow("primaria") : "réplica")).isEqualTo("réplica");
+
+        for (int i = 0; i < 100 && discarded.isEmpty(); i++) {
+            Thread.sleep(10);
+        }
+        assertThat(discarded).containsExactly("primaria");
+    }
+
+    // Sin réplicas o sin latencias observadas la consulta va directa a la primaria, en el mismo hilo
+    @Test
+    void withoutReplicasOrLatenciesTheCallIsDirect() {
+        when(tracker.percentile(anyString(), anyString(), anyDouble())).thenReturn(null);
+        SolrHedger hedger = hedger();
+        Thread caller = Thread.currentThread();
+
+        assertThat(execute(hedger, node -> Thread.currentThread() == caller ? "directa" : "ejecutor")).isEqualTo("directa");
+
+        when(balancer.hasReplicas(primary)).thenReturn(false);
+        assertThat(execute(hedger, node -> Thread.currentThread() == caller ? "directa" : "ejecutor")).isEqualTo("directa");
+        assertThat(hedger.stats()).containsEntry("sent", 0L);
+    }
+
+    // Variante reactiva: el duplicado se programa con un temporizador y la primaria, al llegar, se descarta
+    @Test
+    void reactiveSlowPrimaryIsHedgedAndTheLoserDiscarded() throws InterruptedException {
+        SolrHedger hedger = hedger();
+
+        assertThat(executeReactive(hedger, node -> node == primary
+                ? Mono.just("primaria").delayElement(Duration.ofMillis(200)) : Mono.just("réplica")))
+                .isEqualTo("réplica");
+
+        assertThat(hedger.stats()).containsEntry("sent", 1L).containsEntry("won", 1L);
+        for (int i = 0; i < 100 && discarded.isEmpty(); i++) {
+            Thread.sleep(10);
+        }
+        assertThat(discarded).containsExactly("primaria");
+    }
+
+    @Test
+    void reactiveFailedAlternateFallsBackToThePrimary() {
+        SolrHedger hedger = hedger();
+
+        assertThat(executeReactive(hedger, node -> node == primary
+                ? Mono.just("primaria").delayElement(Duration.ofMillis(200))
+                : Mono.error(new IllegalStateException("réplica caída"))))
+                .isEqualTo("primaria");
+
+        assertThat(hedger.stats()).containsEntry("sent", 1L).containsEntry("won", 0L);
+    }
+
+    // Si fallan las dos llega el último error, sin esperar más
+    @Test
+    void reactiveFailureOfBothReturnsTheLastError() {
+        SolrHedger hedger = hedger();
+
+        assertThatThrownBy(() -> executeReactive(hedger, node -> node == primary
+                ? Mono.<String>error(new IllegalStateException("primaria caída")).delaySubscription(Duration.ofMillis(200))
+                : Mono.error(new IllegalStateException("réplica caída"))))
+                .isInstanceOf(IllegalStateException.class).hasMessage("primaria caída");
+    }
+
+    private SolrHedger hedger() {
+        return new SolrHedger(properties, tracker, balancer, new SolrMetrics(new SimpleMeterRegistry()), executor);
+    }
+
+    private String execute(SolrHedger hedger, Function<ClientSolr, String> attempt) {
+        return hedger.execute(primary, "products", attempt, result -> result != null, discarded::add);
+    }
+
+    private String executeReactive(SolrHedger hedger, Function<ClientSolr, Mono<String>> attempt) {
+        return hedger.executeReactive(primary, "products", attempt, discarded::add).block(Duration.ofSeconds(5));
+    }
+
+    private static String slow(String result) {
+        try {
+            Thread.sleep(200);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return result;
+    }
+}
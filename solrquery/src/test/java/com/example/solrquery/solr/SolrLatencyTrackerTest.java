@@ -0,0 +1,100 @@
+package com.example.solrquery.solr;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.solrquery.config.SolrHttpProperties;
+import com.example.solrquery.config.SolrTimeoutProperties;
+
+class SolrLatencyTrackerTest {
+
+    private static final String NODE = "127.0.0.1:8983";
+
+    private final SolrTimeoutProperties properties = new SolrTimeoutProperties();
+    private final SolrHttpProperties httpProperties = new SolrHttpProperties();
+    private final SolrLatencyTracker tracker = new SolrLatencyTracker(properties, httpProperties);
+
+    @BeforeEach
+    void setUp() {
+        properties.setMinSamples(10);
+    }
+
+    @Test
+    void noPercentileBeforeMinSamples() {
+        recordMillis(1, 9);
+        assertThat(tracker.percentile(NODE, "products", 0.5)).isNull();
+        assertThat(tracker.timeout(NODE, "products")).isNull();
+
+        recordMillis(10, 10);
+        assertThat(tracker.percentile(NODE, "products", 0.5)).isNotNull();
+    }
+
+    // Percentil p: la muestra en la posición ceil(p * n) de la ventana ordenada, contando desde 1
+    @Test
+    void percentileIndexing() {
+        recordMillis(1, 100);
+
+        assertThat(tracker.percentile(NODE, "products", 0.0)).isEqualTo(Duration.ofMillis(1));
+        assertThat(tracker.percentile(NODE, "products", 0.01)).isEqualTo(Duration.ofMillis(1));
+        assertThat(tracker.percentile(NODE, "products", 0.5)).isEqualTo(Duration.ofMillis(50));
+        assertThat(tracker.percentile(NODE, "products", 0.95)).isEqualTo(Duration.ofMillis(95));
+        assertThat(tracker.percentile(NODE, "products", 0.99)).isEqualTo(Duration.ofMillis(99));
+        assertThat(tracker.percentile(NODE, "products", 1.0)).isEqualTo(Duration.ofMillis(100));
+        assertThat(tracker.stats().get(NODE + "/products"))
+                .containsEntry("samples", 100).containsEntry("p50Ms", 50L).containsEntry("p99Ms", 99L);
+    }
+
+    // Solo cuentan las últimas 'window' respuestas
+    @Test
+    void windowKeepsTheLatestSamples() {
+        properties.setWindow(10);
+        recordMillis(1000, 1009);
+        recordMillis(1, 10);
+
+        assertThat(tracker.percentile(NODE, "products", 1.0)).isEqualTo(Duration.ofMillis(10));
+        assertThat(tracker.stats().get(NODE + "/products")).containsEntry("samples", 10);
+    }
+
+    @Test
+    void windowsAreKeptPerNodeAndCore() {
+        recordMillis(1, 10);
+        assertThat(tracker.percentile(NODE, "catalog", 0.5)).isNull();
+        assertThat(tracker.percentile("127.0.0.1:8984", "products", 0.5)).isNull();
+    }
+
+    // Percentil por el multiplicador, entre min-timeout y solr.http.read-timeout
+    @Test
+    void timeoutIsClampedBetweenMinAndReadTimeout() {
+        properties.setPercentile(1.0);
+        properties.setMultiplier(3.0);
+        properties.setMinTimeout(Duration.ofMillis(100));
+        httpProperties.setReadTimeout(Duration.ofSeconds(1));
+
+        recordMillis(100, 109);
+        assertThat(tracker.timeout(NODE, "products")).isEqualTo(Duration.ofMillis(327));
+
+        recordMillis(1, 10, "fast");
+        assertThat(tracker.timeout(NODE, "fast")).isEqualTo(Duration.ofMillis(100));
+
+        recordMillis(500, 509, "slow");
+        assertThat(tracker.timeout(NODE, "slow")).isEqualTo(Duration.ofSeconds(1));
+
+        properties.setAdaptive(false);
+        assertThat(tracker.timeout(NODE, "products")).isNull();
+    }
+
+    private void recordMillis(int from, int to) {
+        recordMillis(from, to, "products");
+    }
+
+    // Muestras de 'from' a 'to' ms en orden inverso, para comprobar que se ordenan
+    private void recordMillis(int from, int to, String core) {
+        for (int ms = to; ms >= from; ms--) {
+            tracker.record(NODE, core, Duration.ofMillis(ms).toNanos());
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.solrquery.solr;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class SolrQueryRequestsTest {
+
+    // Varias cláusulas separadas por comas, con o sin espacios alrededor
+    @Test
+    void sortAcceptsCommaSeparatedClauses() {
+        assertThat(SolrQueryRequests.invalidSort(null)).isNull();
+        assertThat(SolrQueryRequests.invalidSort("price_d asc")).isNull();
+        assertThat(SolrQueryRequests.invalidSort("price_d asc,stock_i desc")).isNull();
+        assertThat(SolrQueryRequests.invalidSort(" price_d asc , stock_i desc, id asc ")).isNull();
+    }
+
+    @Test
+    void sortRejectsIncompleteClauses() {
+        assertThat(SolrQueryRequests.invalidSort("precio")).isNotNull();
+        assertThat(SolrQueryRequests.invalidSort("price_d asc,")).isNotNull();
+        assertThat(SolrQueryRequests.invalidSort("price_d asc stock_i desc")).isNotNull();
+        assertThat(SolrQueryRequests.invalidParams("price_d asc, stock_i", null, null)).contains("'sort'");
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.solrquery.solr;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.client.RestTemplate;
+
+import com.example.solrquery.config.SolrCommitProperties;
+import com.example.solrquery.config.SolrCommitProperties.Mode;
+import com.example.solrquery.config.SolrQueryCacheProperties;
+import com.example.solrquery.dto.QuerySolrRequest;
+import com.example.solrquery.entity.ClientSolr;
+import com.example.solrquery.solr.SolrQueryResultCache.Cached;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SolrQueryResultCacheTest {
+
+    // Cada entrada ocupa 100 bytes de cuerpo, 4 de la clave "kN" y ENTRY_OVERHEAD
+    private static final long ENTRY_SIZE = 100 + 4 + 128;
+
+    private final SolrQueryCacheProperties properties = new SolrQueryCacheProperties();
+    private final SolrCommitProperties commitProperties = new SolrCommitProperties();
+    private final ClientSolr client = new ClientSolr(1L, "cliente", "127.0.0.1", 8983);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final SolrQueryResultCache cache =
+            new SolrQueryResultCache(properties, commitProperties, new SolrMetrics(registry));
+
+    @BeforeEach
+    void setUp() {
+        properties.setMaxSize(DataSize.ofBytes(3 * ENTRY_SIZE));
+        properties.setWriteSettle(Duration.ZERO);
+        commitProperties.setCommitWithin(Duration.ZERO);
+    }
+
+    // Al superar maxSize sale la entrada usada hace más tiempo, no la más antigua
+    @Test
+    void evictsLeastRecentlyUsedByBytes() {
+        put("k1");
+        put("k2");
+        put("k3");
+        assertThat(cache.get("k1")).isNotNull();
+
+        put("k4");
+
+        assertThat(cache.get("k2")).isNull();
+        assertThat(cache.get("k1")).isNotNull();
+        assertThat(cache.get("k3")).isNotNull();
+        assertThat(cache.get("k4")).isNotNull();
+        assertThat(cache.bytes()).isEqualTo(3 * ENTRY_SIZE);
+        assertThat(cache.stats()).containsEntry("evictions", 1L).containsEntry("entries", 3);
+    }
+
+    @Test
+    void skipsEntriesLargerThanMaxEntrySize() {
+        properties.setMaxEntrySize(DataSize.ofBytes(ENTRY_SIZE - 1));
+        put("k1");
+        assertThat(cache.get("k1")).isNull();
+        assertThat(cache.bytes()).isZero();
+    }
+
+    // Una respuesta leída antes de una escritura no se guarda después de ella
+    @Test
+    void generationGuardDropsResponsesReadBeforeAWrite() {
+        long before = cache.generation("cliente", "products");
+        put("k1");
+        cache.invalidate("cliente", "products");
+
+        assertThat(cache.get("k1")).isNull();
+        cache.put("k2", "cliente", "products", before, body());
+        assertThat(cache.get("k2")).isNull();
+
+        cache.put("k2", "cliente", "products", cache.generation("cliente", "products"), body());
+        assertThat(cache.get("k2")).isNotNull();
+        assertThat(cache.bytes()).isEqualTo(ENTRY_SIZE);
+    }
+
+    @Test
+    void invalidationOnlyAffectsItsCore() {
+        put("k1");
+        cache.put("k2", "cliente", "catalog", cache.generation("cliente", "catalog"), body());
+
+        cache.invalidate("cliente", "catalog");
+
+        assertThat(cache.get("k1")).isNotNull();
+        assertThat(cache.get("k2")).isNull();
+    }
+
+    // El commit enviado por el coordinador también invalida: las escrituras se hacen visibles en ese momento
+    @Test
+    void commitFromTheCoordinatorInvalidates() {
+        SolrHttpTransport transport = mock(SolrHttpTransport.class);
+        when(transport.forClient(client)).thenReturn(mock(RestTemplate.class));
+        SolrCommitCoordinator coordinator = new SolrCommitCoordinator(transport, commitProperties, cache);
+        long before = cache.generation("cliente", "products");
+        put("k1");
+
+        coordinator.finish(client, "products", Mode.HARD);
+
+        assertThat(cache.get("k1")).isNull();
+        assertThat(cache.generation("cliente", "products")).isGreaterThan(before);
+    }
+
+    // Hasta que Solr hace visible la escritura (write-settle o commitWithin) no se guarda nada de la colección
+    @Test
+    void quietWindowCoversCommitWithin() {
+        commitProperties.setCommitWithin(Duration.ofMinutes(1));
+        cache.invalidate("cliente", "products");
+
+        put("k1");
+
+        assertThat(cache.get("k1")).isNull();
+    }
+
+    // Al retirar colecciones inactivas sube el suelo: una consulta anterior a la retirada no se guarda
+    @Test
+    void idleEvictionRaisesTheGenerationFloor() {
+        long untouched = cache.generation("cliente", "products");
+        cache.invalidate("cliente", "catalog");
+        properties.setIdleEviction(Duration.ofMillis(-1));
+
+        cache.evictIdleCores();
+
+        assertThat(cache.stats()).containsEntry("trackedCores", 0);
+        cache.put("k1", "cliente", "products", untouched, body());
+        assertThat(cache.get("k1")).isNull();
+        put("k1");
+        assertThat(cache.get("k1")).isNotNull();
+    }
+
+    @Test
+    void expiredEntriesCountAsMisses() {
+        properties.setTtl(Duration.ofMillis(-1));
+        put("k1");
+
+        assertThat(cache.get("k1")).isNull();
+        assertThat(cache.bytes()).isZero();
+        assertThat(cache.stats()).containsEntry("misses", 1L);
+    }
+
+    // El orden de las claves de jsonFacet y los espacios del sort no cambian la clave
+    @Test
+    void keyNormalizesSortAndJsonFacet() {
+        QuerySolrRequest a = request("precio  desc", Map.of("a", Map.of("type", "terms", "field", "x")));
+        QuerySolrRequest b = request(" precio desc ", Map.of("a", Map.of("field", "x", "type", "terms")));
+        assertThat(cache.key(a)).isEqualTo(cache.key(b));
+    }
+
+    @Test
+    void publishesHitRatioAndBytesAsGauges() {
+        cache.registerMetrics();
+        put("k1");
+        cache.get("k1");
+        cache.get("k2");
+
+        assertThat(registry.get("solr.query.cache.hit.ratio").gauge().value()).isEqualTo(0.5);
+        assertThat(registry.get("solr.query.cache.bytes").gauge().value()).isEqualTo(ENTRY_SIZE);
+        assertThat(registry.get("solr.query.cache.entries").gauge().value()).isEqualTo(1);
+    }
+
+    private void put(String key) {
+        cache.put(key, "cliente", "products", cache.generation("cliente", "products"), body());
+    }
+
+    private static Cached body() {
+        return new Cached("x".repeat(100).getBytes(StandardCharsets.UTF_8), true);
+    }
+
+    private static QuerySolrRequest request(String sort, Map<String, Object> jsonFacet) {
+        QuerySolrRequest request = new QuerySolrRequest();
+        request.setClient("cliente");
+        request.setCore("products");
+        request.setQ("*:*");
+        request.setSort(sort);
+        request.setJsonFacet(jsonFacet);
+        return request;
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.solrquery.solr;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.solrquery.config.SolrSingleFlightProperties;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+class SolrSingleFlightTest {
+
+    private final SolrSingleFlightProperties properties = new SolrSingleFlightProperties();
+    private final SolrSingleFlight singleFlight = new SolrSingleFlight(properties);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @AfterEach
+    void releaseLeader() {
+        release.countDown();
+    }
+
+    @Test
+    void waiterSharesTheLeaderResult() throws Exception {
+        CompletableFuture<String> leader = leader(() -> "respuesta");
+        CompletableFuture<String> waiter = waiter();
+
+        release.countDown();
+
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("respuesta");
+        assertThat(waiter.get(5, TimeUnit.SECONDS)).isEqualTo("respuesta");
+        assertThat(calls).hasValue(1);
+        assertThat(singleFlight.stats()).containsEntry("leaders", 1L).containsEntry("joined", 1L)
+                .containsEntry("inFlight", 0);
+    }
+
+    // El fallo del líder llega a los que esperan sin agotar waitTimeout
+    @Test
+    void leaderFailureIsRethrownToWaiters() throws Exception {
+        CompletableFuture<String> leader = leader(() -> {
+            throw new IllegalStateException("Solr no responde");
+        });
+        CompletableFuture<String> waiter = waiter();
+
+        release.countDown();
+
+        assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> waiter.get(1, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .cause().isInstanceOf(IllegalStateException.class).hasMessage("Solr no responde");
+        assertThat(singleFlight.stats()).containsEntry("inFlight", 0);
+    }
+
+    @Test
+    void waiterTimesOutWhileTheLeaderIsStillRunning() throws Exception {
+        properties.setWaitTimeout(Duration.ofMillis(50));
+        CompletableFuture<String> leader = leader(() -> "respuesta");
+
+        assertThatThrownBy(() -> singleFlight.execute("q", () -> "propia")).isInstanceOf(TimeoutException.class);
+        assertThat(singleFlight.stats()).containsEntry("timeouts", 1L);
+
+        release.countDown();
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("respuesta");
+    }
+
+    // Sin cupo de espera la petición consulta por su cuenta
+    @Test
+    void overflowCallsWithoutJoining() throws Exception {
+        properties.setMaxWaiters(0);
+        leader(() -> "respuesta");
+
+        assertThat(singleFlight.execute("q", () -> "propia")).isEqualTo("propia");
+        assertThat(singleFlight.stats()).containsEntry("overflow", 1L).containsEntry("joined", 0L);
+    }
+
+    @Test
+    void differentKeysDoNotShareCalls() throws Exception {
+        leader(() -> "respuesta");
+
+        assertThat(singleFlight.execute("otra", () -> "propia")).isEqualTo("propia");
+        assertThat(singleFlight.stats()).containsEntry("leaders", 2L);
+    }
+
+    // Variante reactiva: una sola suscripción a Solr aunque el primero se desconecte antes del resultado
+    @Test
+    void reactiveWaitersShareTheCallEvenIfTheLeaderCancels() throws Exception {
+        Sinks.One<String> solr = Sinks.one();
+        Supplier<Mono<String>> call = () -> {
+            calls.incrementAndGet();
+            return solr.asMono();
+        };
+        CompletableFuture<String> leader = singleFlight.executeReactive("q", call).toFuture();
+        CompletableFuture<String> waiter = singleFlight.executeReactive("q", call).toFuture();
+
+        leader.cancel(false);
+        solr.tryEmitValue("respuesta");
+
+        assertThat(waiter.get(5, TimeUnit.SECONDS)).isEqualTo("respuesta");
+        assertThat(calls).hasValue(1);
+        assertThat(singleFlight.stats()).containsEntry("leaders", 1L).containsEntry("joined", 1L)
+                .containsEntry("inFlight", 0);
+    }
+
+    @Test
+    void reactiveWaiterTimesOut() {
+        properties.setWaitTimeout(Duration.ofMillis(50));
+        Sinks.One<String> solr = Sinks.one();
+        singleFlight.executeReactive("q", solr::asMono).subscribe();
+
+        assertThatThrownBy(() -> singleFlight.executeReactive("q", () -> Mono.just("propia")).block())
+                .hasCauseInstanceOf(TimeoutException.class);
+        assertThat(singleFlight.stats()).containsEntry("timeouts", 1L);
+    }
+
+    // Llamada bloqueada hasta release; vuelve cuando la llamada ya está en curso
+    private CompletableFuture<String> leader(Supplier<String> result) throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> {
+            try {
+                return singleFlight.execute("q", () -> {
+                    calls.incrementAndGet();
+                    started.countDown();
+                    await(release);
+                    return result.get();
+                });
+            } catch (TimeoutException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        return leader;
+    }
+
+    // Petición unida a la llamada en curso; vuelve cuando ya está esperando
+    private CompletableFuture<String> waiter() throws InterruptedException {
+        CompletableFuture<String> waiter = CompletableFuture.supplyAsync(() -> {
+            try {
+                return singleFlight.execute("q", () -> {
+                    calls.incrementAndGet();
+                    return "propia";
+                });
+            } catch (TimeoutException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        for (int i = 0; i < 500 && (long) singleFlight.stats().get("joined") == 0; i++) {
+            Thread.sleep(10);
+        }
+        assertThat(singleFlight.stats()).containsEntry("joined", 1L);
+        return waiter;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}